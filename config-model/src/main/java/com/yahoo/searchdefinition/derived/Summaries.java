@@ -25,6 +25,11 @@ public class Summaries extends Derived implements SummaryConfig.Producer {
         }
     }
 
+    /** Returns whether the summary class of the given name should be rendered directly */
+    public boolean isDirectRendering(String summaryClassName) {
+        return summaries.stream().anyMatch(summary -> summary.getName().equals(summaryClassName) && summary.isDirectRendering());
+    }
+
     @Override
     protected String getDerivedName() { return "summary"; }
 
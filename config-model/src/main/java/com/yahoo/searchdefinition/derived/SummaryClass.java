@@ -28,6 +28,9 @@ public class SummaryClass extends Derived {
     /** True if this summary class needs to access summary information on disk */
     private boolean accessingDiskSummary = false;
 
+    /** True if field values of this summary class should be passed directly to the renderers */
+    private final boolean directRendering;
+
     /** The summary fields of this indexed by name */
     private Map<String,SummaryClassField> fields = new java.util.LinkedHashMap<>();
 
@@ -42,6 +45,7 @@ public class SummaryClass extends Derived {
      */
     public SummaryClass(Search search, DocumentSummary summary, DeployLogger deployLogger) {
         this.deployLogger = deployLogger;
+        this.directRendering = summary.isDirectRendering();
         deriveName(summary);
         deriveFields(search,summary);
         deriveImplicitFields(summary);
@@ -102,6 +106,9 @@ public class SummaryClass extends Derived {
 
     public int getFieldCount() { return fields.size(); }
 
+    /** Returns whether field values of this summary class should be passed directly to the renderers */
+    public boolean isDirectRendering() { return directRendering; }
+
     public int hashCode() {
         int number = 1;
         int hash = getName().hashCode();
@@ -14,6 +14,7 @@ import java.util.List;
 public class DocumentSummary extends FieldView {
 
     private boolean fromDisk = false;
+    private boolean directRendering = false;
     private DocumentSummary inherited;
 
     /**
@@ -30,6 +31,14 @@ public class DocumentSummary extends FieldView {
     /** Returns whether the user has noted explicitly that this summary accesses disk */
     public boolean isFromDisk() { return fromDisk; }
 
+    public void setDirectRendering(boolean directRendering) { this.directRendering = directRendering; }
+
+    /**
+     * Returns whether field values of this summary which need no conversion should be passed directly
+     * from the summary data to the renderers in the container
+     */
+    public boolean isDirectRendering() { return directRendering; }
+
     /**
      * The model is constrained to ensure that summary fields of the same name
      * in different classes have the same summary transform, because this is
@@ -62,6 +62,13 @@ public class VespaMetricSet {
         metrics.add(new Metric("jrt.transport.server.unencrypted-connections-established"));
         metrics.add(new Metric("jrt.transport.client.unencrypted-connections-established"));
 
+        // Java (JRT) invocation metrics
+        metrics.add(new Metric("jrt.transport.invocations"));
+        metrics.add(new Metric("jrt.transport.invocation-latency.max"));
+        metrics.add(new Metric("jrt.transport.invocation-latency.sum"));
+        metrics.add(new Metric("jrt.transport.invocation-latency.count"));
+        metrics.add(new Metric("jrt.transport.invocation-queue-size.max"));
+
         // C++ TLS metrics
         metrics.add(new Metric("vds.server.network.tls-handshakes-failed"));
         metrics.add(new Metric("vds.server.network.peer-authorization-failures"));
@@ -139,6 +146,9 @@ public class VespaMetricSet {
         metrics.add(new Metric("httpapi_pending.sum"));
         metrics.add(new Metric("httpapi_pending.count"));
         metrics.add(new Metric("httpapi_pending.average")); // TODO: Remove in Vespa 8
+        metrics.add(new Metric("httpapi_sequenced_queued.max"));
+        metrics.add(new Metric("httpapi_sequenced_queued.sum"));
+        metrics.add(new Metric("httpapi_sequenced_queued.count"));
         metrics.add(new Metric("httpapi_num_operations.rate"));
         metrics.add(new Metric("httpapi_num_updates.rate"));
         metrics.add(new Metric("httpapi_num_removes.rate"));
@@ -266,6 +276,18 @@ public class VespaMetricSet {
         metrics.add(new Metric("documents_total.count"));
         metrics.add(new Metric("dispatch_internal.rate"));
         metrics.add(new Metric("dispatch_fdispatch.rate"));
+        metrics.add(new Metric("dispatch_result_cache_hits.rate"));
+        metrics.add(new Metric("dispatch_result_cache_misses.rate"));
+        metrics.add(new Metric("dispatch_result_cache_evictions.rate"));
+        metrics.add(new Metric("dispatch_grouping_result_cache_hits.rate"));
+        metrics.add(new Metric("dispatch_grouping_result_cache_misses.rate"));
+        metrics.add(new Metric("dispatch_grouping_result_cache_evictions.rate"));
+        metrics.add(new Metric("dispatch_fill_requests.max"));
+        metrics.add(new Metric("dispatch_fill_requests.sum"));
+        metrics.add(new Metric("dispatch_fill_requests.count"));
+        metrics.add(new Metric("dispatch_fill_request_latency.max"));
+        metrics.add(new Metric("dispatch_fill_request_latency.sum"));
+        metrics.add(new Metric("dispatch_fill_request_latency.count"));
 
         metrics.add(new Metric("totalhits_per_query.max"));
         metrics.add(new Metric("totalhits_per_query.sum"));
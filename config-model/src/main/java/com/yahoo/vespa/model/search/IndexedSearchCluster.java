@@ -160,7 +160,7 @@ public class IndexedSearchCluster extends SearchCluster
         for (DocumentDatabase db : documentDbs) {
             DocumentdbInfoConfig.Documentdb.Builder docDb = new DocumentdbInfoConfig.Documentdb.Builder();
             docDb.name(db.getName());
-            convertSummaryConfig(db, db, docDb);
+            convertSummaryConfig(db.getDerivedConfiguration().getSummaries(), db, docDb);
             RankProfilesConfig.Builder rpb = new RankProfilesConfig.Builder();
             db.getConfig(rpb);
             addRankProfilesConfig(docDb, new RankProfilesConfig(rpb));
@@ -315,6 +315,9 @@ public class IndexedSearchCluster extends SearchCluster
                 case ROUNDROBIN:
                     builder.distributionPolicy(DistributionPolicy.ROUNDROBIN);
                     break;
+                case BEST_OF_RANDOM_2:
+                    builder.distributionPolicy(DistributionPolicy.BEST_OF_RANDOM_2);
+                    break;
             }
         }
         if (tuning.dispatch.getMaxHitsPerPartition() != null)
@@ -3,6 +3,7 @@ package com.yahoo.vespa.model.search;
 
 import com.yahoo.config.model.deploy.DeployState;
 import com.yahoo.searchdefinition.derived.RawRankProfile;
+import com.yahoo.searchdefinition.derived.Summaries;
 import com.yahoo.searchdefinition.derived.SummaryMap;
 import com.yahoo.vespa.config.search.RankProfilesConfig;
 import com.yahoo.vespa.config.search.SummaryConfig;
@@ -68,16 +69,16 @@ public abstract class SearchCluster extends AbstractSearchCluster
     /**
      * Converts summary and summary map config to the appropriate information in documentdb
      *
-     * @param summaryConfigProducer the summary config
+     * @param summaries the derived summaries
      * @param summarymapConfigProducer the summary map config, or null if none is available
      * @param docDb the target document dm config
      */
-    protected void convertSummaryConfig(SummaryConfig.Producer summaryConfigProducer,
+    protected void convertSummaryConfig(Summaries summaries,
                                         SummarymapConfig.Producer summarymapConfigProducer,
                                         DocumentdbInfoConfig.Documentdb.Builder docDb) {
 
         SummaryConfig.Builder summaryConfigBuilder = new SummaryConfig.Builder();
-        summaryConfigProducer.getConfig(summaryConfigBuilder);
+        summaries.getConfig(summaryConfigBuilder);
         SummaryConfig summaryConfig = summaryConfigBuilder.build();
 
         SummarymapConfig summarymapConfig = null;
@@ -91,7 +92,8 @@ public abstract class SearchCluster extends AbstractSearchCluster
             DocumentdbInfoConfig.Documentdb.Summaryclass.Builder sumClassBuilder = new DocumentdbInfoConfig.Documentdb.Summaryclass.Builder();
             sumClassBuilder.
                 id(sclass.id()).
-                name(sclass.name());
+                name(sclass.name()).
+                directRendering(summaries.isDirectRendering(sclass.name()));
             for (SummaryConfig.Classes.Fields field : sclass.fields()) {
                 DocumentdbInfoConfig.Documentdb.Summaryclass.Fields.Builder fieldsBuilder = new DocumentdbInfoConfig.Documentdb.Summaryclass.Fields.Builder();
                 fieldsBuilder.name(field.name())
@@ -75,8 +75,7 @@ public class StreamingSearchCluster extends SearchCluster implements
         DocumentdbInfoConfig.Documentdb.Builder docDb = new DocumentdbInfoConfig.Documentdb.Builder();
         String searchName = sdConfig.getSearch().getName();
         docDb.name(searchName);
-        SummaryConfig.Producer prod = sdConfig.getSummaries();
-        convertSummaryConfig(prod, null, docDb);
+        convertSummaryConfig(sdConfig.getSummaries(), null, docDb);
         RankProfilesConfig.Builder rpb = new RankProfilesConfig.Builder();
         sdConfig.getRankProfileList().getConfig(rpb);
         addRankProfilesConfig(docDb, new RankProfilesConfig(rpb));
@@ -92,6 +92,18 @@ public class DomDispatchTuningBuilderTest {
                         "</content>");
         assertTrue(DispatchTuning.DispatchPolicy.ADAPTIVE == dispatch.getDispatchPolicy());
     }
+    @Test
+    public void requireThatTuningDispatchPolicyBestOfRandom2() throws Exception {
+        DispatchTuning dispatch = newTuningDispatch(
+                "<content>" +
+                        "  <tuning>" +
+                        "    <dispatch>" +
+                        "      <dispatch-policy>best-of-random-2</dispatch-policy>" +
+                        "    </dispatch>" +
+                        "  </tuning>" +
+                        "</content>");
+        assertTrue(DispatchTuning.DispatchPolicy.BEST_OF_RANDOM_2 == dispatch.getDispatchPolicy());
+    }
 
     private static DispatchTuning newTuningDispatch(String xml) throws Exception {
         return DomTuningDispatchBuilder.build(
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author geirst
@@ -306,6 +307,31 @@ public class DocumentDatabaseTestCase {
         }
     }
 
+    @Test
+    public void requireThatDirectRenderingIsSetFromTheDocumentSummary() {
+        String sd = "search type1 {\n" +
+                    "  document type1 {\n" +
+                    "    field f1 type string {\n" +
+                    "      indexing: attribute | summary\n" +
+                    "    }\n" +
+                    "  }\n" +
+                    "  document-summary direct {\n" +
+                    "    summary f1 type string {}\n" +
+                    "    direct-rendering\n" +
+                    "  }\n" +
+                    "  document-summary converted {\n" +
+                    "    summary f1 type string {}\n" +
+                    "  }\n" +
+                    "}";
+        VespaModel model = new VespaModelCreatorWithMockPkg(vespaHosts, createVespaServices(List.of("type1"), "index"),
+                                                            List.of(sd)).create();
+        String searcherId = "container/searchchains/chain/test/component/com.yahoo.prelude.cluster.ClusterSearcher";
+        DocumentdbInfoConfig.Documentdb db = model.getConfig(DocumentdbInfoConfig.class, searcherId).documentdb(0);
+        for (DocumentdbInfoConfig.Documentdb.Summaryclass summaryClass : db.summaryclass())
+            assertEquals(summaryClass.name(), summaryClass.name().equals("direct"), summaryClass.directRendering());
+        assertTrue(db.summaryclass().stream().anyMatch(summaryClass -> summaryClass.name().equals("converted")));
+    }
+
     private void assertRankProfile(DocumentdbInfoConfig.Documentdb db, int index, String name,
                                    boolean hasSummaryFeatures, boolean hasRankFeatures) {
         DocumentdbInfoConfig.Documentdb.Rankprofile rankProfile0 = db.rankprofile(index);
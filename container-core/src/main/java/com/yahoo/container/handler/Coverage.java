@@ -31,6 +31,7 @@ public class Coverage {
     public final static int DEGRADED_BY_MATCH_PHASE = 1;
     public final static int DEGRADED_BY_TIMEOUT = 2;
     public final static int DEGRADED_BY_ADAPTIVE_TIMEOUT = 4;
+    public final static int DEGRADED_BY_EARLY_RETURN = 8;
 
     /**
      * Build an invalid instance to initiate manually.
@@ -120,6 +121,7 @@ public class Coverage {
     public boolean isDegradedByMatchPhase() { return (degradedReason & DEGRADED_BY_MATCH_PHASE) != 0; }
     public boolean isDegradedByTimeout() { return (degradedReason & DEGRADED_BY_TIMEOUT) != 0; }
     public boolean isDegradedByAdapativeTimeout() { return (degradedReason & DEGRADED_BY_ADAPTIVE_TIMEOUT) != 0; }
+    public boolean isDegradedByEarlyReturn() { return (degradedReason & DEGRADED_BY_EARLY_RETURN) != 0; }
     public boolean isDegradedByNonIdealState() { return (degradedReason == 0) && (getResultPercentage() != 100);}
 
     /**
@@ -30,6 +30,11 @@ class JrtMetrics {
         increment("jrt.transport.client.tls-connections-established", changesSincePrevious.clientTlsConnectionsEstablished());
         increment("jrt.transport.server.unencrypted-connections-established", changesSincePrevious.serverUnencryptedConnectionsEstablished());
         increment("jrt.transport.client.unencrypted-connections-established", changesSincePrevious.clientUnencryptedConnectionsEstablished());
+        increment("jrt.transport.invocations", changesSincePrevious.invocations());
+        for (long latencyNanos : transportMetrics.drainInvocationLatencySamples()) {
+            metric.set("jrt.transport.invocation-latency", latencyNanos / 1e6, null);
+        }
+        metric.set("jrt.transport.invocation-queue-size", snapshot.invocationQueueSize(), null);
         previousSnapshot = snapshot;
     }
 
@@ -7,6 +7,7 @@
 package com.yahoo.prelude.fastsearch;
 
 import com.yahoo.data.access.Inspector;
+import com.yahoo.search.result.Hit.RawUtf8Consumer;
 import com.yahoo.search.result.NanNumber;
 
 /**
@@ -21,4 +22,9 @@ public class BoolField extends DocsumField {
     @Override
     public Object convert(Inspector value) { return value.asBool(); }
 
+    @Override
+    void forwardTo(RawUtf8Consumer consumer, String name, Inspector value) {
+        consumer.acceptBool(name, value.asBool());
+    }
+
 }
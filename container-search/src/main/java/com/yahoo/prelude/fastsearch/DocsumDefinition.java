@@ -26,12 +26,20 @@ public class DocsumDefinition {
     /** True if this contains dynamic fields */
     private final boolean dynamic;
 
+    /** True if field values should be passed directly to renderers where possible */
+    private final boolean directRendering;
+
     // Mapping between field names and their index in this.fields
     private final ImmutableMap<String, Integer> fieldNameToIndex;
 
     public DocsumDefinition(String name, List<DocsumField> fields) {
+        this(name, fields, false);
+    }
+
+    public DocsumDefinition(String name, List<DocsumField> fields, boolean directRendering) {
         this.name = name;
         this.dynamic = false;
+        this.directRendering = directRendering;
         this.fields = ImmutableList.copyOf(fields);
         ImmutableMap.Builder<String, Integer> fieldNameToIndexBuilder = new ImmutableMap.Builder<>();
         int i = 0;
@@ -54,6 +62,7 @@ public class DocsumDefinition {
                 dynamic = true;
         }
         this.dynamic = dynamic;
+        this.directRendering = config.directRendering();
         fields = ImmutableList.copyOf(fieldsBuilder);
         fieldNameToIndex = ImmutableMap.copyOf(fieldNameToIndexBuilder);
     }
@@ -109,4 +118,12 @@ public class DocsumDefinition {
         return dynamic;
     }
 
+    /**
+     * Returns whether values of fields in this summary which need no conversion should be passed
+     * directly to renderers from the summary data, without creating an object for each value
+     */
+    public boolean directRendering() {
+        return directRendering;
+    }
+
 }
@@ -2,6 +2,7 @@
 package com.yahoo.prelude.fastsearch;
 
 import com.yahoo.data.access.Inspector;
+import com.yahoo.search.result.Hit.RawUtf8Consumer;
 import java.util.logging.Level;
 
 import java.lang.reflect.Constructor;
@@ -89,4 +90,15 @@ public abstract class DocsumField {
     /** Returns whether this is the string field type. */
     boolean isString() { return false; }
 
+    /**
+     * Passes a value of this field to the given consumer in the cheapest form the field type allows,
+     * such that values which need no conversion are passed without creating an object for them.
+     * This default implementation passes the converted value, unless it is null.
+     */
+    void forwardTo(RawUtf8Consumer consumer, String name, Inspector value) {
+        Object convertedValue = convert(value);
+        if (convertedValue != null)
+            consumer.accept(name, convertedValue);
+    }
+
 }
@@ -3,6 +3,7 @@ package com.yahoo.prelude.fastsearch;
 
 import com.yahoo.search.result.NanNumber;
 import com.yahoo.data.access.Inspector;
+import com.yahoo.search.result.Hit.RawUtf8Consumer;
 
 /**
  * @author Mathias Mølster Lidal
@@ -28,4 +29,13 @@ public class DoubleField extends DocsumField {
         return convert(value.asDouble(EMPTY_VALUE));
     }
 
+    @Override
+    void forwardTo(RawUtf8Consumer consumer, String name, Inspector value) {
+        double d = value.asDouble(EMPTY_VALUE);
+        if (Double.isNaN(d))
+            consumer.accept(name, NanNumber.NaN);
+        else
+            consumer.acceptDouble(name, d);
+    }
+
 }
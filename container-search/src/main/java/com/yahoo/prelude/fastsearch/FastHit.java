@@ -559,7 +559,9 @@ public class FastHit extends Hit {
                 if (!shadowed(name) && !removed(name)) {
                     DocsumField fieldType = type.getField(name);
                     if (fieldType != null) {
-                        if (fieldType.isString()) {
+                        if (type.directRendering()) {
+                            fieldType.forwardTo(consumer, name, value);
+                        } else if (fieldType.isString()) {
                             byte[] utf8Value = value.asUtf8();
                             consumer.accept(name, utf8Value, 0, utf8Value.length);
                         } else {
@@ -2,6 +2,7 @@
 package com.yahoo.prelude.fastsearch;
 
 import com.yahoo.data.access.Inspector;
+import com.yahoo.search.result.Hit.RawUtf8Consumer;
 import com.yahoo.search.result.NanNumber;
 
 /**
@@ -30,4 +31,13 @@ public class Float16Field extends DocsumField {
         return convert((float)value.asDouble(EMPTY_VALUE));
     }
 
+    @Override
+    void forwardTo(RawUtf8Consumer consumer, String name, Inspector value) {
+        float f = (float)value.asDouble(EMPTY_VALUE);
+        if (Float.isNaN(f))
+            consumer.accept(name, NanNumber.NaN);
+        else
+            consumer.acceptFloat(name, f);
+    }
+
 }
@@ -6,6 +6,7 @@ import java.nio.ByteBuffer;
 
 import com.yahoo.search.result.NanNumber;
 import com.yahoo.data.access.Inspector;
+import com.yahoo.search.result.Hit.RawUtf8Consumer;
 
 
 /**
@@ -32,4 +33,13 @@ public class FloatField extends DocsumField {
         return convert((float)value.asDouble(EMPTY_VALUE));
     }
 
+    @Override
+    void forwardTo(RawUtf8Consumer consumer, String name, Inspector value) {
+        float f = (float)value.asDouble(EMPTY_VALUE);
+        if (Float.isNaN(f))
+            consumer.accept(name, NanNumber.NaN);
+        else
+            consumer.acceptFloat(name, f);
+    }
+
 }
@@ -7,6 +7,7 @@ package com.yahoo.prelude.fastsearch;
 
 import com.yahoo.search.result.NanNumber;
 import com.yahoo.data.access.Inspector;
+import com.yahoo.search.result.Hit.RawUtf8Consumer;
 
 
 /**
@@ -38,4 +39,13 @@ public class Int64Field extends DocsumField {
         return convert(value.asLong(EMPTY_VALUE));
     }
 
+    @Override
+    void forwardTo(RawUtf8Consumer consumer, String name, Inspector value) {
+        long l = value.asLong(EMPTY_VALUE);
+        if (l == EMPTY_VALUE)
+            consumer.accept(name, NanNumber.NaN);
+        else
+            consumer.acceptLong(name, l);
+    }
+
 }
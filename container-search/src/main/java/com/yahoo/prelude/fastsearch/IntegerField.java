@@ -7,6 +7,7 @@ package com.yahoo.prelude.fastsearch;
 
 import com.yahoo.search.result.NanNumber;
 import com.yahoo.data.access.Inspector;
+import com.yahoo.search.result.Hit.RawUtf8Consumer;
 
 /**
  * @author Bjørn Borud
@@ -37,4 +38,13 @@ public class IntegerField extends DocsumField {
         return convert((int)value.asLong(EMPTY_VALUE));
     }
 
+    @Override
+    void forwardTo(RawUtf8Consumer consumer, String name, Inspector value) {
+        int i = (int)value.asLong(EMPTY_VALUE);
+        if (i == EMPTY_VALUE)
+            consumer.accept(name, NanNumber.NaN);
+        else
+            consumer.acceptInt(name, i);
+    }
+
 }
@@ -6,6 +6,7 @@
 package com.yahoo.prelude.fastsearch;
 
 import com.yahoo.data.access.Inspector;
+import com.yahoo.search.result.Hit.RawUtf8Consumer;
 
 
 /**
@@ -29,4 +30,10 @@ public class StringField extends DocsumField {
 
     boolean isString() { return true; }
 
+    @Override
+    void forwardTo(RawUtf8Consumer consumer, String name, Inspector value) {
+        byte[] utf8Value = value.asUtf8();
+        consumer.accept(name, utf8Value, 0, utf8Value.length);
+    }
+
 }
@@ -4,6 +4,7 @@ package com.yahoo.prelude.semantics;
 import com.yahoo.search.Query;
 import com.yahoo.prelude.querytransform.PhraseMatcher;
 import com.yahoo.prelude.semantics.engine.RuleEngine;
+import com.yahoo.prelude.semantics.engine.RuleIndex;
 import com.yahoo.prelude.semantics.parser.ParseException;
 import com.yahoo.prelude.semantics.rule.*;
 import com.yahoo.protect.Validator;
@@ -41,6 +42,12 @@ public class RuleBase {
     /** The analyzer used to do evaluations over this rule base */
     private RuleEngine analyzer=new RuleEngine(this);
 
+    /** The index of the rules by the terms they need, or null if this is not initialized after rules are added */
+    private RuleIndex ruleIndex=null;
+
+    /** Should we use the rule index to only evaluate rules which may match? */
+    private boolean useRuleIndex=true;
+
     private static final PhraseMatcher nullPhraseMatcher=PhraseMatcher.getNullMatcher();
 
     /**
@@ -97,7 +104,7 @@ public class RuleBase {
      * @throws com.yahoo.prelude.semantics.RuleBaseException if the rule file contains inconsistencies
      */
     public static RuleBase createFromString(String name,String ruleString,String automataFile) throws java.io.IOException, ParseException {
-        RuleBase base=new RuleImporter().importString(ruleString,automataFile,new RuleBase());
+        RuleBase base=new RuleImporter().importString(ruleString,automataFile,name,new RuleBase(name));
         base.setName(name);
         return base;
     }
@@ -117,6 +124,7 @@ public class RuleBase {
      * for that rule base.</p>
      */
     public void include(RuleBase include) {
+        ruleIndex=null;
         productionRules.add(new IncludeDirective(include));
         includedNames.addAll(include.includedNames);
         includedNames.add(include.getName());
@@ -286,6 +294,7 @@ public class RuleBase {
 
     // Note that included rules are added though a list iterator, not this */
     public void addRule(ProductionRule productionRule) {
+        ruleIndex=null;
         productionRules.add(productionRule);
     }
 
@@ -302,8 +311,18 @@ public class RuleBase {
     public void initialize() {
         inlineIncluded();
         makeReferences();
+        ruleIndex=new RuleIndex(this);
     }
 
+    /**
+     * Returns the index used to select the rules to evaluate for a query, or null if all rules should be evaluated,
+     * which is the case if rules are added after this was initialized
+     */
+    public RuleIndex getRuleIndex() { return useRuleIndex ? ruleIndex : null; }
+
+    /** Set to false to evaluate all rules for each query instead of only those which may match. True by default */
+    public void setUseRuleIndex(boolean useRuleIndex) { this.useRuleIndex=useRuleIndex; }
+
     /**
      * Analyzes a query over this rule base
      *
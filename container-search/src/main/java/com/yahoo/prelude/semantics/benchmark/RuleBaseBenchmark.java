@@ -8,6 +8,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
 
 import com.yahoo.search.Query;
 import com.yahoo.prelude.semantics.RuleBase;
@@ -34,6 +36,46 @@ public class RuleBaseBenchmark {
         while((line=reader.readLine())!=null){
             queries.add(line);
         }
+        long elapsed = run(ruleBase, queries, iterations, true);
+        long elapsedWithoutIndex = run(ruleBase, queries, iterations, false);
+        System.out.print("BENCHMARK: rulebase=" + ruleBaseFile +
+                "\n           fsa=" + fsaFile +
+                "\n           queries=" + queryFile +
+                "\n           iterations=" + iterations +
+                "\n           elapsed=" + elapsed + "ms" +
+                "\n           elapsed without rule index=" + elapsedWithoutIndex + "ms\n");
+    }
+
+    /**
+     * Benchmarks a generated rule base of the given number of synonym rules over generated queries,
+     * where each query term has a rule matching it with a probability of about 1 in 10
+     */
+    public void benchmarkSynthetic(int ruleCount, int iterations) throws IOException, ParseException {
+        StringBuilder rules = new StringBuilder();
+        for (int i = 0; i < ruleCount; i++)
+            rules.append("word").append(i).append(" +> synonym").append(i).append(";\n");
+        RuleBase ruleBase = RuleBase.createFromString("synthetic", rules.toString(), null);
+
+        Random random = new Random(1);
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder query = new StringBuilder();
+            for (int term = 0; term < 1 + random.nextInt(4); term++)
+                query.append(term == 0 ? "" : "+").append("word").append(random.nextInt(ruleCount * 10));
+            queries.add(query.toString());
+        }
+
+        long elapsed = run(ruleBase, queries, iterations, true);
+        long elapsedWithoutIndex = run(ruleBase, queries, iterations, false);
+        System.out.print("BENCHMARK: rules=" + ruleCount +
+                "\n           queries=" + queries.size() +
+                "\n           iterations=" + iterations +
+                "\n           elapsed=" + elapsed + "ms" +
+                "\n           elapsed without rule index=" + elapsedWithoutIndex + "ms\n");
+    }
+
+    private long run(RuleBase ruleBase, List<String> queries, int iterations, boolean useRuleIndex) {
+        ruleBase.setUseRuleIndex(useRuleIndex);
         Date start = new Date();
         for (int i=0;i<iterations;i++){
             for (Iterator<String> iter = queries.iterator(); iter.hasNext(); ){
@@ -43,23 +85,22 @@ public class RuleBaseBenchmark {
             }
         }
         Date end = new Date();
-        long elapsed = end.getTime()-start.getTime();
-        System.out.print("BENCHMARK: rulebase=" + ruleBaseFile +
-                "\n           fsa=" + fsaFile +
-                "\n           queries=" + queryFile +
-                "\n           iterations=" + iterations +
-                "\n           elapsed=" + elapsed + "ms\n");
+        return end.getTime()-start.getTime();
     }
 
 
     public static void main(String[] args) {
         if(args.length<3){
             System.out.println("USAGE: RuleBaseBenchmark ruleBaseFile queryFile iterations");
+            System.out.println("       RuleBaseBenchmark -synthetic ruleCount iterations");
             System.exit(1);
         }
 
         try {
-            new RuleBaseBenchmark().benchmark(args[0],args[1],Integer.parseInt(args[2]));
+            if (args[0].equals("-synthetic"))
+                new RuleBaseBenchmark().benchmarkSynthetic(Integer.parseInt(args[1]),Integer.parseInt(args[2]));
+            else
+                new RuleBaseBenchmark().benchmark(args[0],args[1],Integer.parseInt(args[2]));
         }
         catch (Exception e) {
             System.out.println("ERROR: " + collectMessage(e));
@@ -110,6 +110,14 @@ public class Evaluation {
 
     public int getQuerySize() { return flattenedItems.size(); }
 
+    /** Returns the string values of the query terms which rules may match, as of the last reset */
+    Set<String> termValues() {
+        Set<String> values = new HashSet<>();
+        for (FlattenedItem item : flattenedItems)
+            values.add(item.getItem().stringValue());
+        return values;
+    }
+
     /** Advances to the next item as current item */
     public void next() {
         currentIndex++;
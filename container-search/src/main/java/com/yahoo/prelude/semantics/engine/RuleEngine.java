@@ -7,6 +7,7 @@ import com.yahoo.prelude.semantics.RuleBase;
 import com.yahoo.prelude.semantics.RuleBaseException;
 import com.yahoo.prelude.semantics.rule.ProductionRule;
 
+import java.util.BitSet;
 import java.util.ListIterator;
 
 /**
@@ -32,20 +33,31 @@ public class RuleEngine {
      *         If there is an error, this query is destroyed (unusable)
      */
     public String evaluate(Query query, int traceLevel) {
-        // TODO: This is O(query size*rule base size). We'll eventually need to create indices
-        //       on rules to look up rule candidates per term to make it O(query size) instead
-        //       Probably create indices on the first term like Prolog implementations use to
-
         boolean matchedAnything = false;
         Evaluation evaluation = new Evaluation(query, traceLevel);
         evaluation.setStemming(rules.getStemming());
         if (traceLevel >= 2)
             evaluation.trace(2,"Evaluating query '" + evaluation.getQuery().getModel().getQueryTree().getRoot() + "':");
-        for (ListIterator<ProductionRule> i = rules.ruleIterator(); i.hasNext(); ) {
-            evaluation.reset();
-            ProductionRule rule = i.next();
-            boolean matched = matchRuleAtAllStartPoints(evaluation,rule);
-            matchedAnything |= matched;
+        RuleIndex index = rules.getRuleIndex();
+        if (index == null) {
+            for (ListIterator<ProductionRule> i = rules.ruleIterator(); i.hasNext(); ) {
+                evaluation.reset();
+                ProductionRule rule = i.next();
+                boolean matched = matchRuleAtAllStartPoints(evaluation,rule);
+                matchedAnything |= matched;
+            }
+        }
+        else { // Evaluate only the rules which may match the terms in the query, in rule order
+            BitSet candidates = index.candidates(evaluation.termValues(), evaluation.getStemming());
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                evaluation.reset();
+                boolean matched = matchRuleAtAllStartPoints(evaluation, index.get(i));
+                if (matched) { // the query may have changed
+                    matchedAnything = true;
+                    evaluation.reset();
+                    candidates = index.candidates(evaluation.termValues(), evaluation.getStemming());
+                }
+            }
         }
 
         if ( ! matchedAnything) return null;
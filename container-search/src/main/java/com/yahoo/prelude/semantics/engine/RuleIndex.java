@@ -0,0 +1,174 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.prelude.semantics.engine;
+
+import com.yahoo.prelude.semantics.RuleBase;
+import com.yahoo.prelude.semantics.rule.AndCondition;
+import com.yahoo.prelude.semantics.rule.ChoiceCondition;
+import com.yahoo.prelude.semantics.rule.CompositeCondition;
+import com.yahoo.prelude.semantics.rule.CompositeItemCondition;
+import com.yahoo.prelude.semantics.rule.Condition;
+import com.yahoo.prelude.semantics.rule.ConditionReference;
+import com.yahoo.prelude.semantics.rule.NamedCondition;
+import com.yahoo.prelude.semantics.rule.ProductionRule;
+import com.yahoo.prelude.semantics.rule.SequenceCondition;
+import com.yahoo.prelude.semantics.rule.SuperCondition;
+import com.yahoo.prelude.semantics.rule.TermCondition;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index from the terms which must be present in a query for a rule to match, to the rules,
+ * used to evaluate only the rules of a rule base which may match a query.
+ *
+ * A rule is indexed on a set of terms if its condition can only match when one of those terms is in the query.
+ * Rules where this can not be determined, e.g. because they contain references to automata, comparisons
+ * or only negations and ellipses, are evaluated for all queries.
+ *
+ * This is immutable and thread safe.
+ */
+public class RuleIndex {
+
+    private final List<ProductionRule> rules;
+
+    /** The rules which must be evaluated for all queries */
+    private final BitSet unindexed = new BitSet();
+
+    /** The positions in the rule list of the rules which can only match if a term is present */
+    private final Map<String, int[]> rulesByTerm;
+
+    /** Creates an index of the rules of an initialized rule base */
+    public RuleIndex(RuleBase ruleBase) {
+        this.rules = List.copyOf(ruleBase.rules());
+        Map<String, List<Integer>> rulesByTerm = new HashMap<>();
+        TriggerResolver resolver = new TriggerResolver(ruleBase);
+        for (int i = 0; i < rules.size(); i++) {
+            Set<String> triggers = resolver.triggersOf(rules.get(i).getCondition());
+            if (triggers == null) {
+                unindexed.set(i);
+                continue;
+            }
+            for (String term : triggers)
+                rulesByTerm.computeIfAbsent(term, __ -> new ArrayList<>()).add(i);
+        }
+        this.rulesByTerm = new HashMap<>(rulesByTerm.size());
+        for (Map.Entry<String, List<Integer>> entry : rulesByTerm.entrySet())
+            this.rulesByTerm.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /** Returns the number of rules in this */
+    public int size() { return rules.size(); }
+
+    /** Returns the number of rules which are evaluated for all queries */
+    public int unindexedSize() { return unindexed.cardinality(); }
+
+    /** Returns the rule at the given position in the rule base */
+    public ProductionRule get(int index) { return rules.get(index); }
+
+    /**
+     * Returns the positions of the rules which may match a query containing the given terms.
+     *
+     * @param terms the string values of the terms of the query
+     * @param stemming whether terms may match by adding or removing a trailing 's', as in {@link TermCondition}
+     */
+    public BitSet candidates(Collection<String> terms, boolean stemming) {
+        BitSet candidates = (BitSet)unindexed.clone();
+        for (String term : terms) {
+            addRules(term, candidates);
+            if ( ! stemming || term.length() < 3) continue;
+            addRules(term + "s", candidates);
+            if (term.endsWith("s"))
+                addRules(term.substring(0, term.length() - 1), candidates);
+        }
+        return candidates;
+    }
+
+    private void addRules(String term, BitSet candidates) {
+        int[] indexes = rulesByTerm.get(term);
+        if (indexes == null) return;
+        for (int index : indexes)
+            candidates.set(index);
+    }
+
+    /** Finds the terms of which at least one must be present for a condition to match */
+    private static class TriggerResolver {
+
+        private final RuleBase ruleBase;
+
+        /** The triggers of named conditions resolved so far, where null means the triggers are unknown */
+        private final Map<String, Set<String>> namedTriggers = new HashMap<>();
+        private final Set<String> resolving = new HashSet<>();
+
+        TriggerResolver(RuleBase ruleBase) {
+            this.ruleBase = ruleBase;
+        }
+
+        /** Returns the terms of which one must be present for the given condition to match, or null if unknown */
+        Set<String> triggersOf(Condition condition) {
+            if (condition == null) return null;
+            if (condition.getNameSpace() != null) return null;
+
+            if (condition instanceof TermCondition) {
+                String term = ((TermCondition)condition).getTerm();
+                return term == null ? null : Collections.singleton(term);
+            }
+            if (condition instanceof SuperCondition)
+                return triggersOf(((SuperCondition)condition).getCondition());
+            if (condition instanceof ConditionReference)
+                return triggersOf((ConditionReference)condition);
+            if (condition instanceof ChoiceCondition)
+                return anyOf((CompositeCondition)condition);
+            if (condition instanceof SequenceCondition || condition instanceof AndCondition
+                || condition instanceof CompositeItemCondition)
+                return allOf((CompositeCondition)condition);
+            return null; // negations, ellipses, literals, comparisons, and anything else
+        }
+
+        private Set<String> triggersOf(ConditionReference reference) {
+            String name = reference.getConditionName();
+            if (namedTriggers.containsKey(name)) return namedTriggers.get(name);
+
+            NamedCondition named = ruleBase.getCondition(name);
+            if (named == null) return null; // an automata reference
+            if ( ! resolving.add(name)) return null; // recursive
+
+            Set<String> triggers = triggersOf(named.getCondition());
+            resolving.remove(name);
+            namedTriggers.put(name, triggers);
+            return triggers;
+        }
+
+        /** One of the subconditions must match: Any of their triggers */
+        private Set<String> anyOf(CompositeCondition condition) {
+            Set<String> triggers = new HashSet<>();
+            for (Iterator<Condition> i = condition.conditionIterator(); i.hasNext(); ) {
+                Set<String> subTriggers = triggersOf(i.next());
+                if (subTriggers == null) return null;
+                triggers.addAll(subTriggers);
+            }
+            return triggers.isEmpty() ? null : triggers;
+        }
+
+        /** All of the subconditions must match: The smallest known set of triggers of one of them */
+        private Set<String> allOf(CompositeCondition condition) {
+            Set<String> triggers = null;
+            for (Iterator<Condition> i = condition.conditionIterator(); i.hasNext(); ) {
+                Set<String> subTriggers = triggersOf(i.next());
+                if (subTriggers == null) continue;
+                if (triggers == null || subTriggers.size() < triggers.size())
+                    triggers = subTriggers;
+            }
+            return triggers;
+        }
+
+    }
+
+}
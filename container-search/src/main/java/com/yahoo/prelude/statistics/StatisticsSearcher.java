@@ -81,7 +81,7 @@ public class StatisticsSearcher extends Searcher {
     private final PeakQpsReporter peakQpsReporter;
 
     // Naming of enums are reflected directly in metric dimensions and should not be changed as they are public API
-    private enum DegradedReason { match_phase, adaptive_timeout, timeout, non_ideal_state }
+    private enum DegradedReason { match_phase, adaptive_timeout, timeout, early_return, non_ideal_state }
 
     private Metric metric;
     private Map<String, Metric.Context> statePageOnlyContexts = new CopyOnWriteHashMap<>();
@@ -185,6 +185,9 @@ public class StatisticsSearcher extends Searcher {
         if (coverage.isDegradedByAdapativeTimeout()) {
             return DegradedReason.adaptive_timeout;
         }
+        if (coverage.isDegradedByEarlyReturn()) {
+            return DegradedReason.early_return;
+        }
         return DegradedReason.non_ideal_state;
     }
 
@@ -20,12 +20,15 @@ import com.yahoo.search.dispatch.rpc.RpcResourcePool;
 import com.yahoo.search.dispatch.searchcluster.Group;
 import com.yahoo.search.dispatch.searchcluster.Node;
 import com.yahoo.search.dispatch.searchcluster.SearchCluster;
+import com.yahoo.search.grouping.vespa.GroupingExecutor;
 import com.yahoo.search.query.profile.types.FieldDescription;
 import com.yahoo.search.query.profile.types.FieldType;
 import com.yahoo.search.query.profile.types.QueryProfileType;
 import com.yahoo.search.result.ErrorMessage;
 import com.yahoo.vespa.config.search.DispatchConfig;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -52,6 +55,7 @@ public class Dispatcher extends AbstractComponent {
     private static final String INTERNAL = "internal";
     private static final String PROTOBUF = "protobuf";
     private static final String TOP_K_PROBABILITY = "topKProbability";
+    private static final String TOP_K_EARLY_RETURN = "topKEarlyReturn";
 
     private static final String INTERNAL_METRIC = "dispatch_internal";
 
@@ -63,6 +67,9 @@ public class Dispatcher extends AbstractComponent {
     /** If set will control computation of how many hits will be fetched from each partition.*/
     public static final CompoundName topKProbability = CompoundName.fromComponents(DISPATCH, TOP_K_PROBABILITY);
 
+    /** If set will control whether a query may return without waiting for content nodes which are unlikely to change the top hits */
+    public static final CompoundName topKEarlyReturn = CompoundName.fromComponents(DISPATCH, TOP_K_EARLY_RETURN);
+
     /** A model of the search cluster this dispatches to */
     private final SearchCluster searchCluster;
     private final ClusterMonitor clusterMonitor;
@@ -71,6 +78,9 @@ public class Dispatcher extends AbstractComponent {
 
     private final InvokerFactory invokerFactory;
 
+    private final ResultCache resultCache;
+    private final ResultCache groupingResultCache;
+
     private final Metric metric;
     private final Metric.Context metricContext;
 
@@ -85,6 +95,7 @@ public class Dispatcher extends AbstractComponent {
         argumentType.addField(new FieldDescription(INTERNAL, FieldType.booleanType));
         argumentType.addField(new FieldDescription(PROTOBUF, FieldType.booleanType));
         argumentType.addField(new FieldDescription(TOP_K_PROBABILITY, FieldType.doubleType));
+        argumentType.addField(new FieldDescription(TOP_K_EARLY_RETURN, FieldType.booleanType));
         argumentType.freeze();
     }
 
@@ -104,7 +115,7 @@ public class Dispatcher extends AbstractComponent {
     }
 
     private Dispatcher(RpcResourcePool resourcePool, SearchCluster searchCluster, DispatchConfig dispatchConfig, Metric metric) {
-        this(new ClusterMonitor<>(searchCluster, true), searchCluster, dispatchConfig, new RpcInvokerFactory(resourcePool, searchCluster), metric);
+        this(new ClusterMonitor<>(searchCluster, true), searchCluster, dispatchConfig, new RpcInvokerFactory(resourcePool, searchCluster, metric), metric);
     }
 
     /* Protected for simple mocking in tests. Beware that searchCluster is shutdown on in deconstruct() */
@@ -118,12 +129,20 @@ public class Dispatcher extends AbstractComponent {
 
         this.searchCluster = searchCluster;
         this.clusterMonitor = clusterMonitor;
-        this.loadBalancer = new LoadBalancer(searchCluster,
-                                  dispatchConfig.distributionPolicy() == DispatchConfig.DistributionPolicy.ROUNDROBIN);
+        this.loadBalancer = new LoadBalancer(searchCluster, dispatchConfig.distributionPolicy());
         this.invokerFactory = invokerFactory;
         this.metric = metric;
         this.metricContext = metric.createContext(null);
         this.maxHitsPerNode = dispatchConfig.maxHitsPerNode();
+        this.resultCache = new ResultCache(dispatchConfig.resultCacheSize(),
+                                           Duration.ofMillis((long)(dispatchConfig.resultCacheTtl() * 1000)),
+                                           Clock.systemUTC(),
+                                           metric);
+        this.groupingResultCache = new ResultCache(true,
+                                                   dispatchConfig.groupingResultCacheSize(),
+                                                   Duration.ofMillis((long)(dispatchConfig.groupingResultCacheTtl() * 1000)),
+                                                   Clock.systemUTC(),
+                                                   metric);
         searchCluster.addMonitoring(clusterMonitor);
         Thread warmup = new Thread(new Runnable() {
             @Override
@@ -174,7 +193,9 @@ public class Dispatcher extends AbstractComponent {
     }
 
     public SearchInvoker getSearchInvoker(Query query, VespaBackEndSearcher searcher) {
-        SearchInvoker invoker = getSearchPathInvoker(query, searcher).orElseGet(() -> getInternalInvoker(query, searcher));
+        ResultCache cache = GroupingExecutor.hasGroupingList(query) ? groupingResultCache : resultCache;
+        SearchInvoker invoker = cache.getSearchInvoker(query, searcher, searchCluster.generation(),
+                                                       () -> getSearchPathInvoker(query, searcher).orElseGet(() -> getInternalInvoker(query, searcher)));
 
         if (query.properties().getBoolean(com.yahoo.search.query.Model.ESTIMATE)) {
             query.setHits(0);
@@ -25,6 +25,7 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import static com.yahoo.container.handler.Coverage.DEGRADED_BY_ADAPTIVE_TIMEOUT;
+import static com.yahoo.container.handler.Coverage.DEGRADED_BY_EARLY_RETURN;
 import static com.yahoo.container.handler.Coverage.DEGRADED_BY_MATCH_PHASE;
 import static com.yahoo.container.handler.Coverage.DEGRADED_BY_TIMEOUT;
 
@@ -58,6 +59,10 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
     private int answeredNodesParticipated = 0;
     private boolean timedOut = false;
     private boolean degradedByMatchPhase = false;
+    private boolean returnedEarly = false;
+
+    /** The best hit returned from each node answered so far, or null for those returning no hits */
+    private final List<LeanHit> bestHits = new ArrayList<>();
 
     public InterleavedSearchInvoker(Collection<SearchInvoker> invokers, SearchCluster searchCluster, Set<Integer> alreadyFailedNodes) {
         super(Optional.empty());
@@ -74,7 +79,7 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
      * will be adjusted accordingly.
      */
     @Override
-    protected Object sendSearchRequest(Query query, Object unusedContext) throws IOException {
+    protected Object sendSearchRequest(Query query, Object incomingContext) throws IOException {
         this.query = query;
         invokers.forEach(invoker -> invoker.setMonitor(this));
         deadline = currentTime() + query.getTimeLeft();
@@ -89,7 +94,7 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         query.setHits(q);
         query.setOffset(0);
 
-        Object context = null;
+        Object context = incomingContext;
         for (SearchInvoker invoker : invokers) {
             context = invoker.sendSearchRequest(query, context);
             askedNodes++;
@@ -103,7 +108,9 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
     @Override
     protected InvokerResult getSearchResult(Execution execution) throws IOException {
         InvokerResult result = new InvokerResult(query, query.getHits());
-        List<LeanHit> merged = Collections.emptyList();
+        boolean mayReturnEarly = mayReturnEarly();
+        LeanHitMerger merger = LeanHitMerger.create(searchCluster.dispatchConfig().mergeStrategy(),
+                                                    query.getOffset() + query.getHits(), mayReturnEarly);
         long nextTimeout = query.getTimeLeft();
         try {
             while (!invokers.isEmpty() && nextTimeout >= 0) {
@@ -112,9 +119,13 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
                     log.fine(() -> "Search timed out with " + askedNodes + " requests made, " + answeredNodes + " responses received");
                     break;
                 } else {
-                    merged = mergeResult(result.getResult(), invoker.getSearchResult(execution), merged);
+                    mergeResult(result.getResult(), invoker.getSearchResult(execution), merger);
                     ejectInvoker(invoker);
                 }
+                if (mayReturnEarly && ! invokers.isEmpty() && pendingNodesAreUnlikelyToChangeTopHits(merger)) {
+                    returnedEarly = true;
+                    break;
+                }
                 nextTimeout = nextTimeout();
             }
         } catch (InterruptedException e) {
@@ -123,10 +134,7 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
 
         insertNetworkErrors(result.getResult());
         result.getResult().setCoverage(createCoverage());
-        int needed = query.getOffset() + query.getHits();
-        for (int index = query.getOffset(); (index < merged.size()) && (index < needed); index++) {
-            result.getLeanHits().add(merged.get(index));
-        }
+        merger.addTo(result.getLeanHits(), query.getOffset());
         query.setOffset(0);  // Now we are all trimmed down
         return result;
     }
@@ -139,13 +147,17 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
             String keys = invokers.stream().map(SearchInvoker::distributionKey).map(dk -> dk.map(i -> i.toString()).orElse("(unspecified)"))
                     .collect(Collectors.joining(", "));
 
-            if (asErrors) {
+            if (returnedEarly) {
+                query.trace("Returned early without waiting for nodes with distribution-keys: " + keys, 2);
+            } else if (asErrors) {
                 result.hits().addError(ErrorMessage
                         .createTimeout("Backend communication timeout on all nodes in group (distribution-keys: " + keys + ")"));
             } else {
                 query.trace("Backend communication timeout on nodes with distribution-keys: " + keys, 2);
             }
-            timedOut = true;
+            if ( ! returnedEarly) {
+                timedOut = true;
+            }
         }
         if (alreadyFailedNodes != null) {
             var message = "Connection failure on nodes with distribution-keys: "
@@ -197,8 +209,58 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         return nextAdaptive;
     }
 
-    private List<LeanHit> mergeResult(Result result, InvokerResult partialResult, List<LeanHit> current) {
+    /**
+     * Returns whether this query may return before all nodes have answered: Early return must be enabled,
+     * and there must be no grouping, as the grouping result depends on all nodes.
+     */
+    private boolean mayReturnEarly() {
+        if ( ! query.properties().getBoolean(Dispatcher.topKEarlyReturn, searchCluster.dispatchConfig().topKEarlyReturn()))
+            return false;
+        if (query.getOffset() + query.getHits() == 0) return false;
+        return query.getSelect().getGrouping().isEmpty();
+    }
+
+    /** Returns whether the nodes not answered yet are unlikely to change the top hits of the merged result */
+    private boolean pendingNodesAreUnlikelyToChangeTopHits(LeanHitMerger merger) {
+        LeanHit lastNeeded = merger.lastNeeded();
+        if (lastNeeded == null) return false;
+
+        int better = 0;
+        for (LeanHit best : bestHits) {
+            if (best != null && best.compareTo(lastNeeded) <= 0) {
+                better++;
+            }
+        }
+        return unchangedTopHitsProbability(better, bestHits.size(), invokers.size())
+               >= searchCluster.dispatchConfig().topKEarlyReturnProbability();
+    }
+
+    /**
+     * Returns the estimated probability that none of the pending nodes changes the top hits.
+     * A pending node changes the top hits only if its best hit is better than the last hit needed so far.
+     * The probability of that is estimated as the fraction of answered nodes which have such a best hit,
+     * with a uniform prior to avoid returning early on few observations.
+     * This is an estimate, not a bound: Returning early when this is at least p misses some of the true
+     * top hits in about a fraction 1 - p of the early returns.
+     *
+     * The {@link TopKEstimator} is not used for this: It assumes hits are distributed evenly over the nodes,
+     * which means nearly every node holds some of the top hits when there are more hits than nodes, such that
+     * returning early would never be estimated as safe. Early return is useful exactly when the top hits are
+     * skewed towards a few nodes, which is what the best hits of the answered nodes tell.
+     *
+     * @param better the number of answered nodes whose best hit is among the top hits
+     * @param answered the number of answered nodes
+     * @param pending the number of nodes not answered yet
+     */
+    static double unchangedTopHitsProbability(int better, int answered, int pending) {
+        double changeProbability = (better + 1.0) / (answered + 2.0);
+        return Math.pow(1.0 - changeProbability, pending);
+    }
+
+    private void mergeResult(Result result, InvokerResult partialResult, LeanHitMerger merger) {
         collectCoverage(partialResult.getResult().getCoverage(true));
+        List<LeanHit> partialHits = partialResult.getLeanHits();
+        bestHits.add(partialHits.isEmpty() ? null : partialHits.get(0));
 
         result.mergeWith(partialResult.getResult());
         List<Hit> partialNonLean = partialResult.getResult().hits().asUnorderedHits();
@@ -207,42 +269,7 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
                 result.hits().add(hit);
             }
         }
-        if (current.isEmpty() ) {
-            return partialResult.getLeanHits();
-        }
-        List<LeanHit> partial = partialResult.getLeanHits();
-        if (partial.isEmpty()) {
-            return current;
-        }
-
-        int needed = query.getOffset() + query.getHits();
-        List<LeanHit> merged = new ArrayList<>(needed);
-        int indexCurrent = 0;
-        int indexPartial = 0;
-        while (indexCurrent < current.size() && indexPartial < partial.size() && merged.size() < needed) {
-            LeanHit incommingHit = partial.get(indexPartial);
-            LeanHit currentHit = current.get(indexCurrent);
-
-            int cmpRes = currentHit.compareTo(incommingHit);
-            if (cmpRes < 0) {
-                merged.add(currentHit);
-                indexCurrent++;
-            } else if (cmpRes > 0) {
-                merged.add(incommingHit);
-                indexPartial++;
-            } else { // Duplicates
-                merged.add(currentHit);
-                indexCurrent++;
-                indexPartial++;
-            }
-        }
-        while ((indexCurrent < current.size()) && (merged.size() < needed)) {
-            merged.add(current.get(indexCurrent++));
-        }
-        while ((indexPartial < partial.size()) && (merged.size() < needed)) {
-            merged.add(partial.get(indexPartial++));
-        }
-        return merged;
+        merger.add(partialHits);
     }
 
     private void collectCoverage(Coverage source) {
@@ -268,6 +295,9 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         if (degradedByMatchPhase) {
             degradedReason |= DEGRADED_BY_MATCH_PHASE;
         }
+        if (returnedEarly) {
+            degradedReason |= DEGRADED_BY_EARLY_RETURN;
+        }
         coverage.setDegradedReason(degradedReason);
         return coverage;
     }
@@ -278,7 +308,7 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         }
         int notAnswered = askedNodes - answeredNodesParticipated;
 
-        if (adaptiveTimeoutCalculated && answeredNodesParticipated > 0) {
+        if ((adaptiveTimeoutCalculated || returnedEarly) && answeredNodesParticipated > 0) {
             answeredActiveDocs += (notAnswered * answeredActiveDocs / answeredNodesParticipated);
             answeredSoonActiveDocs += (notAnswered * answeredSoonActiveDocs / answeredNodesParticipated);
         } else {
@@ -0,0 +1,195 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.vespa.config.search.DispatchConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Merges the sorted lists of lean hits returned from the content nodes of a group into a single
+ * sorted list, keeping no more than the number of hits needed. Duplicates are only returned once.
+ */
+abstract class LeanHitMerger {
+
+    protected final int needed;
+
+    LeanHitMerger(int needed) {
+        this.needed = needed;
+    }
+
+    /** Adds a sorted partial result. The given list must not be modified after this is called. */
+    abstract void add(List<LeanHit> partial);
+
+    /** Adds the merged hits in the range [offset, needed) to the given list, in sorted order */
+    abstract void addTo(List<LeanHit> target, int offset);
+
+    /**
+     * Returns the last hit needed among the hits merged so far, or null if fewer hits than needed are merged,
+     * or if this was not created to track the last needed hit
+     */
+    abstract LeanHit lastNeeded();
+
+    /**
+     * Creates a merger
+     *
+     * @param strategy the merge strategy to use
+     * @param needed the number of hits needed
+     * @param trackLastNeeded whether the last needed hit should be available during merging, see {@link #lastNeeded}
+     */
+    static LeanHitMerger create(DispatchConfig.MergeStrategy.Enum strategy, int needed, boolean trackLastNeeded) {
+        return (strategy == DispatchConfig.MergeStrategy.KWAY) ? new KWay(needed, trackLastNeeded) : new Pairwise(needed);
+    }
+
+    /** Merges each partial result with the running result as it arrives */
+    static class Pairwise extends LeanHitMerger {
+
+        private List<LeanHit> current = Collections.emptyList();
+
+        Pairwise(int needed) {
+            super(needed);
+        }
+
+        @Override
+        void add(List<LeanHit> partial) {
+            if (current.isEmpty() ) {
+                current = partial;
+                return;
+            }
+            if (partial.isEmpty()) {
+                return;
+            }
+
+            List<LeanHit> merged = new ArrayList<>(needed);
+            int indexCurrent = 0;
+            int indexPartial = 0;
+            while (indexCurrent < current.size() && indexPartial < partial.size() && merged.size() < needed) {
+                LeanHit incommingHit = partial.get(indexPartial);
+                LeanHit currentHit = current.get(indexCurrent);
+
+                int cmpRes = currentHit.compareTo(incommingHit);
+                if (cmpRes < 0) {
+                    merged.add(currentHit);
+                    indexCurrent++;
+                } else if (cmpRes > 0) {
+                    merged.add(incommingHit);
+                    indexPartial++;
+                } else { // Duplicates
+                    merged.add(currentHit);
+                    indexCurrent++;
+                    indexPartial++;
+                }
+            }
+            while ((indexCurrent < current.size()) && (merged.size() < needed)) {
+                merged.add(current.get(indexCurrent++));
+            }
+            while ((indexPartial < partial.size()) && (merged.size() < needed)) {
+                merged.add(partial.get(indexPartial++));
+            }
+            current = merged;
+        }
+
+        @Override
+        void addTo(List<LeanHit> target, int offset) {
+            for (int index = offset; (index < current.size()) && (index < needed); index++) {
+                target.add(current.get(index));
+            }
+        }
+
+        @Override
+        LeanHit lastNeeded() {
+            return (needed > 0 && current.size() >= needed) ? current.get(needed - 1) : null;
+        }
+
+    }
+
+    /**
+     * Keeps a cursor into each partial result in a priority queue ordered by the current hit of each cursor.
+     * Partial results are only referenced as they arrive, and the hits are visited once, when the needed
+     * hits are drained in sorted order, without copying the intermediate results.
+     * If the last needed hit is tracked, the needed best distinct hits seen so far are also kept as they arrive.
+     */
+    static class KWay extends LeanHitMerger {
+
+        private final PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+
+        /** The best distinct hits added so far, no more than needed, or null if the last needed hit is not tracked */
+        private final TreeSet<LeanHit> best;
+
+        KWay(int needed, boolean trackLastNeeded) {
+            super(needed);
+            this.best = trackLastNeeded ? new TreeSet<>() : null;
+        }
+
+        @Override
+        void add(List<LeanHit> partial) {
+            if ( ! partial.isEmpty()) {
+                cursors.add(new Cursor(partial));
+            }
+            if (best == null) return;
+            for (LeanHit hit : partial) {
+                if (best.size() == needed && (needed == 0 || hit.compareTo(best.last()) >= 0)) break; // The rest are worse
+                if (best.add(hit) && best.size() > needed) {
+                    best.pollLast();
+                }
+            }
+        }
+
+        @Override
+        void addTo(List<LeanHit> target, int offset) {
+            drain(cursors, target, offset);
+        }
+
+        @Override
+        LeanHit lastNeeded() {
+            return (best != null && needed > 0 && best.size() == needed) ? best.last() : null;
+        }
+
+        /** Drains the needed hits from the given cursors, adding those from offset to target */
+        private void drain(PriorityQueue<Cursor> cursors, List<LeanHit> target, int offset) {
+            LeanHit previous = null;
+            int produced = 0;
+            while (produced < needed && ! cursors.isEmpty()) {
+                Cursor cursor = cursors.poll();
+                LeanHit hit = cursor.current();
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+                if (previous != null && previous.compareTo(hit) == 0) continue; // Duplicate
+
+                if (produced >= offset) {
+                    target.add(hit);
+                }
+                previous = hit;
+                produced++;
+            }
+            cursors.clear();
+        }
+
+        private static class Cursor implements Comparable<Cursor> {
+
+            private final List<LeanHit> hits;
+            private int index;
+
+            Cursor(List<LeanHit> hits) {
+                this.hits = hits;
+            }
+
+            LeanHit current() { return hits.get(index); }
+
+            /** Moves to the next hit, and returns whether there is one */
+            boolean advance() { return ++index < hits.size(); }
+
+            @Override
+            public int compareTo(Cursor other) {
+                return current().compareTo(other.current());
+            }
+
+        }
+
+    }
+
+}
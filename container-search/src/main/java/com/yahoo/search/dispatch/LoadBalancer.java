@@ -3,6 +3,7 @@ package com.yahoo.search.dispatch;
 
 import com.yahoo.search.dispatch.searchcluster.Group;
 import com.yahoo.search.dispatch.searchcluster.SearchCluster;
+import com.yahoo.vespa.config.search.DispatchConfig;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -30,15 +31,21 @@ public class LoadBalancer {
     private final List<GroupStatus> scoreboard;
     private final GroupScheduler scheduler;
 
-    public LoadBalancer(SearchCluster searchCluster, boolean roundRobin) {
+    public LoadBalancer(SearchCluster searchCluster, DispatchConfig.DistributionPolicy.Enum policy) {
+        this(searchCluster, policy, new Random());
+    }
+
+    LoadBalancer(SearchCluster searchCluster, DispatchConfig.DistributionPolicy.Enum policy, Random random) {
         this.scoreboard = new ArrayList<>(searchCluster.groups().size());
         for (Group group : searchCluster.orderedGroups()) {
             scoreboard.add(new GroupStatus(group));
         }
-        if (roundRobin || scoreboard.size() == 1) {
+        if (policy == DispatchConfig.DistributionPolicy.ROUNDROBIN || scoreboard.size() == 1) {
             this.scheduler = new RoundRobinScheduler(scoreboard);
+        } else if (policy == DispatchConfig.DistributionPolicy.BEST_OF_RANDOM_2) {
+            this.scheduler = new BestOfRandom2Scheduler(random, scoreboard);
         } else {
-            this.scheduler = new AdaptiveScheduler(new Random(), scoreboard);
+            this.scheduler = new AdaptiveScheduler(random, scoreboard);
         }
     }
 
@@ -123,6 +130,10 @@ public class LoadBalancer {
             return group.id();
         }
 
+        int allocations() {
+            return allocations;
+        }
+
         void setQueryStatistics(long queries, double averageSearchTime) {
             this.queries = queries;
             this.averageSearchTime = averageSearchTime;
@@ -254,4 +265,64 @@ public class LoadBalancer {
         }
     }
 
+    /**
+     * Picks two distinct groups at random and selects the one with the lowest expected latency,
+     * which is the average search time multiplied by the number of queries in flight including the next.
+     * The average reacts slowly to changes, while the queries in flight steer traffic away from a group
+     * as soon as it falls behind.
+     */
+    static class BestOfRandom2Scheduler implements GroupScheduler {
+
+        private final Random random;
+        private final List<GroupStatus> scoreboard;
+
+        public BestOfRandom2Scheduler(Random random, List<GroupStatus> scoreboard) {
+            this.random = random;
+            this.scoreboard = scoreboard;
+        }
+
+        private List<GroupStatus> candidates(boolean requireCoverage, Set<Integer> rejected) {
+            List<GroupStatus> candidates = new ArrayList<>(scoreboard.size());
+            for (GroupStatus gs : scoreboard) {
+                if (rejected == null || !rejected.contains(gs.group.id())) {
+                    if (!requireCoverage || gs.group.hasSufficientCoverage()) {
+                        candidates.add(gs);
+                    }
+                }
+            }
+            return candidates;
+        }
+
+        private Optional<GroupStatus> selectGroup(List<GroupStatus> candidates) {
+            if (candidates.isEmpty()) {
+                return Optional.empty();
+            }
+            if (candidates.size() == 1) {
+                return Optional.of(candidates.get(0));
+            }
+            int first = random.nextInt(candidates.size());
+            int second = random.nextInt(candidates.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            GroupStatus a = candidates.get(first);
+            GroupStatus b = candidates.get(second);
+            return Optional.of(expectedLatency(b) < expectedLatency(a) ? b : a);
+        }
+
+        private static double expectedLatency(GroupStatus gs) {
+            return gs.averageSearchTime() * (gs.allocations() + 1);
+        }
+
+        @Override
+        public Optional<GroupStatus> takeNextGroup(Set<Integer> rejectedGroups) {
+            Optional<GroupStatus> gs = selectGroup(candidates(true, rejectedGroups));
+            if (gs.isPresent()) {
+                return gs;
+            }
+            // fallback - any coverage better than none
+            return selectGroup(candidates(false, rejectedGroups));
+        }
+    }
+
 }
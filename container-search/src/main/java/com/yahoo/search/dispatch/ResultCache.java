@@ -0,0 +1,336 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import ai.vespa.searchlib.searchprotocol.protobuf.SearchProtocol;
+import com.yahoo.jdisc.Metric;
+import com.yahoo.prelude.fastsearch.DocsumDefinitionSet;
+import com.yahoo.prelude.fastsearch.GroupingListHit;
+import com.yahoo.prelude.fastsearch.VespaBackEndSearcher;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.dispatch.rpc.ProtobufSerialization;
+import com.yahoo.search.grouping.vespa.GroupingExecutor;
+import com.yahoo.search.result.Coverage;
+import com.yahoo.search.result.Hit;
+import com.yahoo.search.searchchain.Execution;
+import com.yahoo.searchlib.aggregation.Grouping;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * A size bounded cache of the search results of queries, in front of the search invokers of a dispatcher.
+ * Results are keyed on the serialized search request of the query and the generation of the search cluster state,
+ * and are only returned until they expire, or the cluster state generation changes. That generation does not change
+ * on writes to the documents of the cluster, so cached results may be stale for up to their time to live.
+ *
+ * Only the lean hits, grouping results, total hit count and coverage of complete results are cached, so a result
+ * returned from the cache is filled as usual. Results with errors or incomplete coverage are not cached,
+ * and neither are results of queries with trace, an explicit search path, or noCache set.
+ *
+ * A cache holds either the results of queries without grouping, or those with grouping. As each pass of
+ * multi-pass grouping is a separate query containing the grouping state of the previous passes, the passes
+ * of continuations and repeated grouping queries which are unchanged are returned from the cache.
+ *
+ * This class is multithread safe.
+ */
+class ResultCache {
+
+    static final String HITS_METRIC = "dispatch_result_cache_hits";
+    static final String MISSES_METRIC = "dispatch_result_cache_misses";
+    static final String EVICTIONS_METRIC = "dispatch_result_cache_evictions";
+    static final String GROUPING_HITS_METRIC = "dispatch_grouping_result_cache_hits";
+    static final String GROUPING_MISSES_METRIC = "dispatch_grouping_result_cache_misses";
+    static final String GROUPING_EVICTIONS_METRIC = "dispatch_grouping_result_cache_evictions";
+
+    private final boolean grouping;
+    private final String hitsMetric;
+    private final String missesMetric;
+    private final String evictionsMetric;
+    private final int maxSize;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final Metric metric;
+    private final Metric.Context metricContext;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long generation = 0;
+
+    ResultCache(int maxSize, Duration timeToLive, Clock clock, Metric metric) {
+        this(false, maxSize, timeToLive, clock, metric);
+    }
+
+    /**
+     * Creates a result cache
+     *
+     * @param grouping whether this caches the results of queries with grouping, or those without
+     */
+    ResultCache(boolean grouping, int maxSize, Duration timeToLive, Clock clock, Metric metric) {
+        this.grouping = grouping;
+        this.hitsMetric = grouping ? GROUPING_HITS_METRIC : HITS_METRIC;
+        this.missesMetric = grouping ? GROUPING_MISSES_METRIC : MISSES_METRIC;
+        this.evictionsMetric = grouping ? GROUPING_EVICTIONS_METRIC : EVICTIONS_METRIC;
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.metric = metric;
+        this.metricContext = metric.createContext(null);
+    }
+
+    /**
+     * Returns an invoker of the given query which returns a cached result if there is one,
+     * and otherwise uses an invoker from the given supplier and caches the result if possible.
+     */
+    SearchInvoker getSearchInvoker(Query query, VespaBackEndSearcher searcher, long generation, Supplier<SearchInvoker> uncached) {
+        if ( ! isCacheable(query)) return uncached.get();
+
+        // The key is made from the search request sent on a miss, so the query is converted to a request only once
+        SearchProtocol.SearchRequest request = ProtobufSerialization.convertFromQuery(query, searcher.getServerId());
+        Key key = new Key(ProtobufSerialization.serializeSearchRequestKey(request, query), generation);
+        Optional<Entry> entry = get(key);
+        if (entry.isPresent()) {
+            metric.add(hitsMetric, 1, metricContext);
+            query.trace(false, 2, "Returning cached result");
+            return new CachedResultInvoker(entry.get());
+        }
+        metric.add(missesMetric, 1, metricContext);
+        return new CachingInvoker(key, request, uncached.get());
+    }
+
+    /** Returns the number of results currently in this cache */
+    synchronized int size() { return entries.size(); }
+
+    private boolean isCacheable(Query query) {
+        if (maxSize <= 0) return false;
+        if (query.getNoCache()) return false;
+        if (query.getTraceLevel() > 0 || query.getExplainLevel() > 0) return false;
+        if (query.getModel().getSearchPath() != null) return false;
+        return GroupingExecutor.hasGroupingList(query) == grouping;
+    }
+
+    private synchronized Optional<Entry> get(Key key) {
+        invalidateIfNewGeneration(key.generation);
+        Entry entry = entries.get(key);
+        if (entry == null) return Optional.empty();
+        if (clock.instant().isAfter(entry.expiry)) {
+            entries.remove(key);
+            metric.add(evictionsMetric, 1, metricContext);
+            return Optional.empty();
+        }
+        return Optional.of(entry);
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        invalidateIfNewGeneration(key.generation);
+        if (key.generation != generation) return; // Produced at an older generation
+
+        entries.put(key, entry);
+        int evicted = 0;
+        for (var iterator = entries.entrySet().iterator(); entries.size() > maxSize && iterator.hasNext(); evicted++) {
+            iterator.next();
+            iterator.remove();
+        }
+        if (evicted > 0)
+            metric.add(evictionsMetric, evicted, metricContext);
+    }
+
+    private void invalidateIfNewGeneration(long generation) {
+        if (generation <= this.generation) return;
+
+        if ( ! entries.isEmpty())
+            metric.add(evictionsMetric, entries.size(), metricContext);
+        entries.clear();
+        this.generation = generation;
+    }
+
+    private static Coverage copyOf(Coverage coverage) {
+        Coverage copy = new Coverage(0, 0, 0, 0);
+        copy.merge(coverage);
+        return copy;
+    }
+
+    private static final class Key {
+
+        private final byte[] request;
+        private final long generation;
+        private final int hashCode;
+
+        Key(byte[] request, long generation) {
+            this.request = request;
+            this.generation = generation;
+            this.hashCode = 31 * Arrays.hashCode(request) + Long.hashCode(generation);
+        }
+
+        @Override
+        public int hashCode() { return hashCode; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if ( ! (o instanceof Key)) return false;
+            Key other = (Key)o;
+            return generation == other.generation && Arrays.equals(request, other.request);
+        }
+
+    }
+
+    /** The parts of a search result which are cached. Lean hits are immutable and shared between results. */
+    private static final class Entry {
+
+        final List<LeanHit> leanHits;
+        final List<GroupingResults> groupingResults;
+        final long totalHitCount;
+        final Coverage coverage;
+        final int offset;
+        final Instant expiry;
+
+        Entry(List<LeanHit> leanHits, List<GroupingResults> groupingResults,
+              long totalHitCount, Coverage coverage, int offset, Instant expiry) {
+            this.leanHits = List.copyOf(leanHits);
+            this.groupingResults = List.copyOf(groupingResults);
+            this.totalHitCount = totalHitCount;
+            this.coverage = copyOf(coverage);
+            this.offset = offset;
+            this.expiry = expiry;
+        }
+
+    }
+
+    /**
+     * The groupings of a grouping list hit. These are modified when the results of grouping passes are merged,
+     * so they are copied both into and out of the cache.
+     */
+    private static final class GroupingResults {
+
+        final List<Grouping> groupings;
+        final DocsumDefinitionSet docsumDefinitions;
+
+        GroupingResults(GroupingListHit hit) {
+            this.groupings = copyOf(hit.getGroupingList());
+            this.docsumDefinitions = hit.getDocsumDefinitionSet();
+        }
+
+        GroupingListHit toHit(Query query) {
+            GroupingListHit hit = new GroupingListHit(copyOf(groupings), docsumDefinitions);
+            hit.setQuery(query);
+            return hit;
+        }
+
+        private static List<Grouping> copyOf(List<Grouping> groupings) {
+            List<Grouping> copy = new ArrayList<>(groupings.size());
+            for (Grouping grouping : groupings)
+                copy.add(grouping.clone());
+            return copy;
+        }
+
+    }
+
+    /** Produces a result from a cache entry */
+    private static class CachedResultInvoker extends SearchInvoker {
+
+        private final Entry entry;
+        private Query query;
+
+        CachedResultInvoker(Entry entry) {
+            super(Optional.empty());
+            this.entry = entry;
+        }
+
+        @Override
+        protected Object sendSearchRequest(Query query, Object context) {
+            this.query = query;
+            responseAvailable();
+            return context;
+        }
+
+        @Override
+        protected InvokerResult getSearchResult(Execution execution) {
+            InvokerResult result = new InvokerResult(query, entry.leanHits.size());
+            result.getLeanHits().addAll(entry.leanHits);
+            for (GroupingResults groupingResults : entry.groupingResults)
+                result.getResult().hits().add(groupingResults.toHit(query));
+            result.getResult().setTotalHitCount(entry.totalHitCount);
+            result.getResult().setCoverage(copyOf(entry.coverage));
+            query.setOffset(entry.offset); // As done by the invoker producing the result
+            return result;
+        }
+
+        @Override
+        protected void release() { }
+
+    }
+
+    /** Caches the result of another invoker if it is complete */
+    private class CachingInvoker extends SearchInvoker {
+
+        private final Key key;
+        private final SearchProtocol.SearchRequest request;
+        private final SearchInvoker delegate;
+        private Query query;
+
+        /**
+         * Creates a caching invoker
+         *
+         * @param request the search request of the query, which is passed on to the delegate to avoid converting it again
+         */
+        CachingInvoker(Key key, SearchProtocol.SearchRequest request, SearchInvoker delegate) {
+            super(Optional.empty());
+            this.key = key;
+            this.request = request;
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected Object sendSearchRequest(Query query, Object context) throws IOException {
+            this.query = query;
+            return delegate.sendSearchRequest(query, context != null ? context : request);
+        }
+
+        @Override
+        protected InvokerResult getSearchResult(Execution execution) throws IOException {
+            InvokerResult result = delegate.getSearchResult(execution);
+            if (isCacheable(result.getResult()))
+                put(key, new Entry(result.getLeanHits(), groupingResultsOf(result.getResult()),
+                                   result.getResult().getTotalHitCount(),
+                                   result.getResult().getCoverage(false), query.getOffset(),
+                                   clock.instant().plus(timeToLive)));
+            return result;
+        }
+
+        private boolean isCacheable(Result result) {
+            if (result.hits().getError() != null) return false;
+            for (Hit hit : result.hits()) {
+                if ( ! grouping || ! (hit instanceof GroupingListHit)) return false; // Hits other than lean hits
+            }
+            Coverage coverage = result.getCoverage(false);
+            return coverage != null && coverage.getFull() && ! coverage.isDegraded();
+        }
+
+        private List<GroupingResults> groupingResultsOf(Result result) {
+            List<GroupingResults> groupingResults = new ArrayList<>();
+            for (Hit hit : result.hits())
+                groupingResults.add(new GroupingResults((GroupingListHit)hit));
+            return groupingResults;
+        }
+
+        @Override
+        protected void setFinalStatus(boolean success) {
+            delegate.setFinalStatus(success);
+        }
+
+        @Override
+        protected void release() {
+            delegate.close();
+        }
+
+    }
+
+}
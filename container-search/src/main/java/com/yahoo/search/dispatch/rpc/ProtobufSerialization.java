@@ -39,12 +39,45 @@ public class ProtobufSerialization {
     private static final int INITIAL_SERIALIZATION_BUFFER_SIZE = 10 * 1024;
 
     static byte[] serializeSearchRequest(Query query, int hits, String serverId) {
-        return convertFromQuery(query, hits, serverId).toByteArray();
+        return withHitsOffsetAndTimeout(builderFromQuery(query, serverId), query, hits).build().toByteArray();
     }
 
-    private static SearchProtocol.SearchRequest convertFromQuery(Query query, int hits, String serverId) {
-        var builder = SearchProtocol.SearchRequest.newBuilder().setHits(hits).setOffset(query.getOffset())
-                .setTimeout((int) query.getTimeLeft());
+    /**
+     * Returns the given search request of the given query serialized with the given hits, and the offset and
+     * time left of the query.
+     */
+    static byte[] serializeSearchRequest(SearchProtocol.SearchRequest request, Query query, int hits) {
+        return withHitsOffsetAndTimeout(request.toBuilder(), query, hits).build().toByteArray();
+    }
+
+    /**
+     * Returns the given search request of the given query serialized without the timeout and session key,
+     * such that it is equal for queries which should produce the same result.
+     */
+    public static byte[] serializeSearchRequestKey(SearchProtocol.SearchRequest request, Query query) {
+        return withHitsOffsetAndTimeout(request.toBuilder(), query, query.getHits())
+                .clearTimeout()
+                .clearSessionKey()
+                .build().toByteArray();
+    }
+
+    /**
+     * Returns the search request of the given query, without the hits, offset and timeout,
+     * which are set when it is serialized.
+     */
+    public static SearchProtocol.SearchRequest convertFromQuery(Query query, String serverId) {
+        return builderFromQuery(query, serverId).build();
+    }
+
+    private static SearchProtocol.SearchRequest.Builder withHitsOffsetAndTimeout(SearchProtocol.SearchRequest.Builder builder,
+                                                                           Query query, int hits) {
+        return builder.setHits(query.properties().getBoolean(Model.ESTIMATE) ? 0 : hits)
+                      .setOffset(query.getOffset())
+                      .setTimeout((int) query.getTimeLeft());
+    }
+
+    private static SearchProtocol.SearchRequest.Builder builderFromQuery(Query query, String serverId) {
+        var builder = SearchProtocol.SearchRequest.newBuilder();
 
         var documentDb = query.getModel().getDocumentDb();
         if (documentDb != null) {
@@ -56,9 +89,6 @@ public class ProtobufSerialization {
             // TODO verify that the session key is included whenever rank properties would have been
             builder.setSessionKey(query.getSessionId(serverId).toString());
         }
-        if (query.properties().getBoolean(Model.ESTIMATE)) {
-            builder.setHits(0);
-        }
         if (GroupingExecutor.hasGroupingList(query)) {
             List<Grouping> groupingList = GroupingExecutor.getGroupingList(query);
             BufferSerializer gbuf = new BufferSerializer(new GrowableByteBuffer());
@@ -77,7 +107,7 @@ public class ProtobufSerialization {
 
         mergeToSearchRequestFromRanking(query.getRanking(), builder);
 
-        return builder.build();
+        return builder;
     }
 
     public static int getTraceLevelForBackend(Query query) {
@@ -2,11 +2,13 @@
 package com.yahoo.search.dispatch.rpc;
 
 import com.yahoo.collections.ListMap;
+import com.yahoo.collections.Pair;
 import com.yahoo.compress.CompressionType;
 import com.yahoo.compress.Compressor;
 import com.yahoo.container.protect.Error;
 import com.yahoo.data.access.Inspector;
 import com.yahoo.data.access.slime.SlimeAdapter;
+import com.yahoo.jdisc.Metric;
 import com.yahoo.prelude.Location;
 import com.yahoo.prelude.fastsearch.DocumentDatabase;
 import com.yahoo.prelude.fastsearch.FastHit;
@@ -20,9 +22,11 @@ import com.yahoo.search.result.ErrorMessage;
 import com.yahoo.search.result.Hit;
 import com.yahoo.slime.ArrayTraverser;
 import com.yahoo.slime.BinaryFormat;
+import com.yahoo.slime.BinaryView;
 import com.yahoo.slime.Cursor;
 import com.yahoo.slime.Slime;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -43,29 +47,39 @@ public class RpcFillInvoker extends FillInvoker {
 
     private final DocumentDatabase documentDb;
     private final RpcResourcePool resourcePool;
+    private final Metric metric;
+    private final Metric.Context metricContext;
     private GetDocsumsResponseReceiver responseReceiver;
 
-    RpcFillInvoker(RpcResourcePool resourcePool, DocumentDatabase documentDb) {
+    RpcFillInvoker(RpcResourcePool resourcePool, DocumentDatabase documentDb, Metric metric, Metric.Context metricContext) {
         this.documentDb = documentDb;
         this.resourcePool = resourcePool;
+        this.metric = metric;
+        this.metricContext = metricContext;
     }
 
     @Override
     protected void sendFillRequest(Result result, String summaryClass) {
         ListMap<Integer, FastHit> hitsByNode = hitsByNode(result);
+        List<Pair<Integer, List<FastHit>>> requests = new ArrayList<>();
+        for (Map.Entry<Integer, List<FastHit>> nodeHits : hitsByNode.entrySet()) {
+            for (List<FastHit> batch : RpcProtobufFillInvoker.split(nodeHits.getValue(), resourcePool.maxHitsPerFillRequest(), resourcePool.maxFillRequestsPerNode()))
+                requests.add(new Pair<>(nodeHits.getKey(), batch));
+        }
         Query query = result.getQuery();
 
         CompressionType compression = CompressionType
                 .valueOf(query.properties().getString(RpcResourcePool.dispatchCompression, "LZ4").toUpperCase());
 
         if (query.getTraceLevel() >= 3) {
-            query.trace("Sending " + hitsByNode.size() + " summary fetch RPC requests", 3);
+            query.trace("Sending " + requests.size() + " summary fetch RPC requests to " + hitsByNode.size() + " nodes", 3);
             query.trace("RpcSlime: Not resending query during document summary fetching", 3);
         }
+        metric.set(RpcProtobufFillInvoker.FILL_REQUESTS_METRIC, requests.size(), metricContext);
 
-        responseReceiver = new GetDocsumsResponseReceiver(hitsByNode.size(), resourcePool.compressor(), result);
-        for (Map.Entry<Integer, List<FastHit>> nodeHits : hitsByNode.entrySet()) {
-            sendGetDocsumsRequest(nodeHits.getKey(), nodeHits.getValue(), summaryClass, compression, result, responseReceiver);
+        responseReceiver = new GetDocsumsResponseReceiver(requests.size(), resourcePool.compressor(), result, metric, metricContext);
+        for (Pair<Integer, List<FastHit>> request : requests) {
+            sendGetDocsumsRequest(request.getFirst(), request.getSecond(), summaryClass, compression, result, responseReceiver);
         }
     }
 
@@ -152,6 +166,11 @@ public class RpcFillInvoker extends FillInvoker {
         private final BlockingQueue<Client.ResponseOrError<GetDocsumsResponse>> responses;
         private final Compressor compressor;
         private final Result result;
+        private final Metric metric;
+        private final Metric.Context metricContext;
+
+        /** The time when the requests were sent, as they are all sent at once */
+        private final long sentAt = System.nanoTime();
 
         /** Whether we have already logged/notified about an error - to avoid spamming */
         private boolean hasReportedError = false;
@@ -159,15 +178,19 @@ public class RpcFillInvoker extends FillInvoker {
         /** The number of responses we should receive (and process) before this is complete */
         private int outstandingResponses;
 
-        GetDocsumsResponseReceiver(int requestCount, Compressor compressor, Result result) {
+        GetDocsumsResponseReceiver(int requestCount, Compressor compressor, Result result,
+                                   Metric metric, Metric.Context metricContext) {
             this.compressor = compressor;
             responses = new LinkedBlockingQueue<>(requestCount);
             outstandingResponses = requestCount;
             this.result = result;
+            this.metric = metric;
+            this.metricContext = metricContext;
         }
 
         /** Called by a thread belonging to the client when a valid response becomes available */
         public void receive(Client.ResponseOrError<GetDocsumsResponse> response) {
+            metric.set(RpcProtobufFillInvoker.FILL_REQUEST_LATENCY_METRIC, (System.nanoTime() - sentAt) / 1_000_000.0, metricContext);
             responses.add(response);
         }
 
@@ -232,7 +255,7 @@ public class RpcFillInvoker extends FillInvoker {
         }
 
         private int fill(List<FastHit> hits, String summaryClass, DocumentDatabase documentDb, byte[] slimeBytes) {
-            com.yahoo.slime.Inspector root = BinaryFormat.decode(slimeBytes).get();
+            com.yahoo.slime.Inspector root = BinaryView.inspect(slimeBytes);
             com.yahoo.slime.Inspector errors = root.field("errors");
             boolean hasErrors = errors.valid() && (errors.entries() > 0);
             if (hasErrors) {
@@ -1,6 +1,7 @@
 // Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.search.dispatch.rpc;
 
+import com.yahoo.jdisc.Metric;
 import com.yahoo.prelude.fastsearch.DocumentDatabase;
 import com.yahoo.prelude.fastsearch.VespaBackEndSearcher;
 import com.yahoo.processing.request.CompoundName;
@@ -24,10 +25,14 @@ public class RpcInvokerFactory extends InvokerFactory {
     private final static CompoundName dispatchSummaries = new CompoundName("dispatch.summaries");
 
     private final RpcResourcePool rpcResourcePool;
+    private final Metric metric;
+    private final Metric.Context metricContext;
 
-    public RpcInvokerFactory(RpcResourcePool rpcResourcePool, SearchCluster searchCluster) {
+    public RpcInvokerFactory(RpcResourcePool rpcResourcePool, SearchCluster searchCluster, Metric metric) {
         super(searchCluster);
         this.rpcResourcePool = rpcResourcePool;
+        this.metric = metric;
+        this.metricContext = metric.createContext(null);
     }
 
     @Override
@@ -47,13 +52,14 @@ public class RpcInvokerFactory extends InvokerFactory {
         boolean useDispatchDotSummaries = query.properties().getBoolean(dispatchSummaries, false);
 
         return  ((useDispatchDotSummaries || !useProtoBuf) && ! summaryNeedsQuery)
-                ? new RpcFillInvoker(rpcResourcePool, searcher.getDocumentDatabase(query))
-                : new RpcProtobufFillInvoker(rpcResourcePool, searcher.getDocumentDatabase(query), searcher.getServerId(), summaryNeedsQuery);
+                ? new RpcFillInvoker(rpcResourcePool, searcher.getDocumentDatabase(query), metric, metricContext)
+                : new RpcProtobufFillInvoker(rpcResourcePool, searcher.getDocumentDatabase(query), searcher.getServerId(), summaryNeedsQuery,
+                                             metric, metricContext);
     }
 
     // for testing
     public FillInvoker createFillInvoker(DocumentDatabase documentDb) {
-        return new RpcFillInvoker(rpcResourcePool, documentDb);
+        return new RpcFillInvoker(rpcResourcePool, documentDb, metric, metricContext);
     }
 
 }
@@ -2,6 +2,7 @@
 package com.yahoo.search.dispatch.rpc;
 
 import ai.vespa.searchlib.searchprotocol.protobuf.SearchProtocol;
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.yahoo.collections.ListMap;
 import com.yahoo.collections.Pair;
@@ -10,6 +11,7 @@ import com.yahoo.compress.Compressor;
 import com.yahoo.container.protect.Error;
 import com.yahoo.data.access.Inspector;
 import com.yahoo.data.access.slime.SlimeAdapter;
+import com.yahoo.jdisc.Metric;
 import com.yahoo.prelude.fastsearch.DocumentDatabase;
 import com.yahoo.prelude.fastsearch.FastHit;
 import com.yahoo.prelude.fastsearch.TimeoutException;
@@ -20,8 +22,9 @@ import com.yahoo.search.dispatch.rpc.Client.ProtobufResponse;
 import com.yahoo.search.result.ErrorMessage;
 import com.yahoo.search.result.Hit;
 import com.yahoo.slime.ArrayTraverser;
-import com.yahoo.slime.BinaryFormat;
+import com.yahoo.slime.BinaryView;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -40,12 +43,23 @@ import java.util.logging.Logger;
 public class RpcProtobufFillInvoker extends FillInvoker {
     private static final String RPC_METHOD = "vespa.searchprotocol.getDocsums";
 
+    /** The number of summary requests sent to fill a result, set once per fill and aggregated as max, sum and count */
+    public static final String FILL_REQUESTS_METRIC = "dispatch_fill_requests";
+
+    /**
+     * The time in milliseconds from sending a summary request to a node until the response is received,
+     * set once per request and aggregated as max, sum and count
+     */
+    public static final String FILL_REQUEST_LATENCY_METRIC = "dispatch_fill_request_latency";
+
     private static final Logger log = Logger.getLogger(RpcProtobufFillInvoker.class.getName());
 
     private final DocumentDatabase documentDb;
     private final RpcResourcePool resourcePool;
     private final boolean summaryNeedsQuery;
     private final String serverId;
+    private final Metric metric;
+    private final Metric.Context metricContext;
 
     private BlockingQueue<Pair<Client.ResponseOrError<ProtobufResponse>, List<FastHit>>> responses;
 
@@ -55,29 +69,56 @@ public class RpcProtobufFillInvoker extends FillInvoker {
     /** The number of responses we should receive (and process) before this is complete */
     private int outstandingResponses;
 
-    RpcProtobufFillInvoker(RpcResourcePool resourcePool, DocumentDatabase documentDb, String serverId, boolean summaryNeedsQuery) {
+    RpcProtobufFillInvoker(RpcResourcePool resourcePool, DocumentDatabase documentDb, String serverId, boolean summaryNeedsQuery,
+                           Metric metric, Metric.Context metricContext) {
         this.documentDb = documentDb;
         this.resourcePool = resourcePool;
         this.serverId = serverId;
         this.summaryNeedsQuery = summaryNeedsQuery;
+        this.metric = metric;
+        this.metricContext = metricContext;
     }
 
     @Override
     protected void sendFillRequest(Result result, String summaryClass) {
         ListMap<Integer, FastHit> hitsByNode = hitsByNode(result);
+        List<Pair<Integer, List<FastHit>>> requests = new ArrayList<>();
+        for (Map.Entry<Integer, List<FastHit>> nodeHits : hitsByNode.entrySet()) {
+            for (List<FastHit> batch : split(nodeHits.getValue(), resourcePool.maxHitsPerFillRequest(), resourcePool.maxFillRequestsPerNode()))
+                requests.add(new Pair<>(nodeHits.getKey(), batch));
+        }
 
-        result.getQuery().trace(false, 5, "Sending ", hitsByNode.size(), " summary fetch requests with jrt/protobuf");
+        result.getQuery().trace(false, 5, "Sending ", requests.size(), " summary fetch requests to ", hitsByNode.size(),
+                                " nodes with jrt/protobuf");
+        metric.set(FILL_REQUESTS_METRIC, requests.size(), metricContext);
 
-        outstandingResponses = hitsByNode.size();
+        outstandingResponses = requests.size();
         responses = new LinkedBlockingQueue<>(outstandingResponses);
 
         var builder = ProtobufSerialization.createDocsumRequestBuilder(result.getQuery(), serverId, summaryClass, summaryNeedsQuery);
-        for (Map.Entry<Integer, List<FastHit>> nodeHits : hitsByNode.entrySet()) {
-            var payload = ProtobufSerialization.serializeDocsumRequest(builder, nodeHits.getValue());
-            sendDocsumsRequest(nodeHits.getKey(), nodeHits.getValue(), payload, result);
+        for (Pair<Integer, List<FastHit>> request : requests) {
+            var payload = ProtobufSerialization.serializeDocsumRequest(builder, request.getSecond());
+            sendDocsumsRequest(request.getFirst(), request.getSecond(), payload, result);
         }
     }
 
+    /**
+     * Splits the hits of a node into batches of at most maxHitsPerRequest hits of similar size,
+     * but no more than maxRequests batches.
+     *
+     * @param maxHitsPerRequest the max hits per batch, or 0 to not split
+     * @param maxRequests the max number of batches to return
+     */
+    static List<List<FastHit>> split(List<FastHit> hits, int maxHitsPerRequest, int maxRequests) {
+        if (maxHitsPerRequest <= 0 || hits.size() <= maxHitsPerRequest) return List.of(hits);
+
+        int requests = Math.max(1, Math.min((hits.size() + maxHitsPerRequest - 1) / maxHitsPerRequest, maxRequests));
+        List<List<FastHit>> batches = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++)
+            batches.add(hits.subList(hits.size() * i / requests, hits.size() * (i + 1) / requests));
+        return batches;
+    }
+
     @Override
     protected void getFillResults(Result result, String summaryClass) {
         try {
@@ -127,8 +168,11 @@ public class RpcProtobufFillInvoker extends FillInvoker {
         Query query = result.getQuery();
         double timeoutSeconds = ((double) query.getTimeLeft() - 3.0) / 1000.0;
         Compressor.Compression compressionResult = resourcePool.compress(query, payload);
-        node.request(RPC_METHOD, compressionResult.type(), payload.length, compressionResult.data(), roe -> receive(roe, hits),
-                timeoutSeconds);
+        long startTime = System.nanoTime();
+        node.request(RPC_METHOD, compressionResult.type(), payload.length, compressionResult.data(), roe -> {
+                    metric.set(FILL_REQUEST_LATENCY_METRIC, (System.nanoTime() - startTime) / 1_000_000.0, metricContext);
+                    receive(roe, hits);
+                }, timeoutSeconds);
     }
 
     private void processResponses(Result result, String summaryClass) throws TimeoutException {
@@ -170,9 +214,16 @@ public class RpcProtobufFillInvoker extends FillInvoker {
         } else {
             Client.ProtobufResponse response = responseOrError.response().get();
             CompressionType compression = CompressionType.valueOf(response.compression());
-            byte[] responseBytes = resourcePool.compressor().decompress(response.compressedPayload(), compression,
-                    response.uncompressedSize());
-            return fill(result, hitsContext, summaryClass, responseBytes);
+            if (compression != CompressionType.LZ4) {
+                return fill(result, hitsContext, summaryClass, response.compressedPayload(), response.compressedPayload().length);
+            }
+            byte[] buffer = resourcePool.acquireDecompressionBuffer(response.uncompressedSize());
+            try {
+                resourcePool.compressor().decompress(compression, response.compressedPayload(), response.uncompressedSize(), buffer);
+                return fill(result, hitsContext, summaryClass, buffer, response.uncompressedSize());
+            } finally {
+                resourcePool.releaseDecompressionBuffer(buffer); // fill copies the data we keep
+            }
         }
         return 0;
     }
@@ -184,10 +235,14 @@ public class RpcProtobufFillInvoker extends FillInvoker {
         });
     }
 
-    private int fill(Result result, List<FastHit> hits, String summaryClass, byte[] payload) {
+    private int fill(Result result, List<FastHit> hits, String summaryClass, byte[] payload, int length) {
         try {
-            var protobuf = SearchProtocol.DocsumReply.parseFrom(payload);
-            var root = BinaryFormat.decode(protobuf.getSlimeSummaries().toByteArray()).get();
+            // The parsed reply refers to the payload, and the slime summaries are copied out of it exactly once,
+            // as the payload may be a pooled buffer. Summary fields are decoded from this copy when they are accessed
+            CodedInputStream input = CodedInputStream.newInstance(payload, 0, length);
+            input.enableAliasing(true);
+            var protobuf = SearchProtocol.DocsumReply.parser().parseFrom(input);
+            var root = BinaryView.inspect(protobuf.getSlimeSummaries().toByteArray());
             var errors = root.field("errors");
             boolean hasErrors = errors.valid() && (errors.entries() > 0);
             if (hasErrors) {
@@ -19,6 +19,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * RpcResourcePool constructs {@link FillInvoker} objects that communicate with content nodes over RPC. It also contains
@@ -33,13 +35,25 @@ public class RpcResourcePool extends AbstractComponent {
     private final Compressor compressor = new Compressor(CompressionType.LZ4, 5, 0.95, 32);
     private final Random random = new Random();
 
+    /** Buffers which responses are decompressed into, reused since responses are only needed until they are parsed */
+    private final BufferPool decompressionBuffers = new BufferPool(64, 1 << 16, 1 << 24);
+
     /** Connections to the search nodes this talks to, indexed by node id ("partid") */
     private final ImmutableMap<Integer, NodeConnectionPool> nodeConnectionPools;
 
+    private final int maxHitsPerFillRequest;
+    private final int maxFillRequestsPerNode;
+
     RpcResourcePool(Map<Integer, NodeConnection> nodeConnections) {
+        this(nodeConnections, 0, 1);
+    }
+
+    RpcResourcePool(Map<Integer, NodeConnection> nodeConnections, int maxHitsPerFillRequest, int maxFillRequestsPerNode) {
         var builder = new ImmutableMap.Builder<Integer, NodeConnectionPool>();
         nodeConnections.forEach((key, connection) -> builder.put(key, new NodeConnectionPool(Collections.singletonList(connection))));
         this.nodeConnectionPools = builder.build();
+        this.maxHitsPerFillRequest = maxHitsPerFillRequest;
+        this.maxFillRequestsPerNode = maxFillRequestsPerNode;
     }
 
     @Inject
@@ -58,6 +72,8 @@ public class RpcResourcePool extends AbstractComponent {
             builder.put(node.key(), new NodeConnectionPool(connections));
         }
         this.nodeConnectionPools = builder.build();
+        this.maxHitsPerFillRequest = dispatchConfig.maxHitsPerFillRequest();
+        this.maxFillRequestsPerNode = dispatchConfig.maxFillRequestsPerNode();
     }
 
     public Compressor compressor() {
@@ -69,6 +85,22 @@ public class RpcResourcePool extends AbstractComponent {
         return compressor.compress(compression, payload);
     }
 
+    /** Returns a buffer of at least the given size, which should be released after use */
+    public byte[] acquireDecompressionBuffer(int size) {
+        return decompressionBuffers.acquire(size);
+    }
+
+    /** Returns a buffer acquired from this to be reused. The buffer must not be accessed after this is called */
+    public void releaseDecompressionBuffer(byte[] buffer) {
+        decompressionBuffers.release(buffer);
+    }
+
+    /** Returns the max number of hits to request summaries for in one request to a node, or 0 if unlimited */
+    public int maxHitsPerFillRequest() { return maxHitsPerFillRequest; }
+
+    /** Returns the max number of concurrent summary requests to send to a node when filling a result */
+    public int maxFillRequestsPerNode() { return maxFillRequestsPerNode; }
+
     public NodeConnection getConnection(int nodeId) {
         var pool = nodeConnectionPools.get(nodeId);
         if (pool == null) {
@@ -101,4 +133,31 @@ public class RpcResourcePool extends AbstractComponent {
         }
     }
 
+    /** A bounded pool of byte arrays. Buffers are allocated when the pool is empty, and dropped when it is full. */
+    private static class BufferPool {
+
+        private final BlockingQueue<byte[]> buffers;
+        private final int minSize;
+        private final int maxSize;
+
+        BufferPool(int capacity, int minSize, int maxSize) {
+            this.buffers = new ArrayBlockingQueue<>(capacity);
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+        }
+
+        byte[] acquire(int size) {
+            byte[] buffer = buffers.poll();
+            if (buffer == null || buffer.length < size)
+                buffer = new byte[Math.max(size, minSize)];
+            return buffer;
+        }
+
+        void release(byte[] buffer) {
+            if (buffer.length <= maxSize)
+                buffers.offer(buffer);
+        }
+
+    }
+
 }
@@ -1,6 +1,7 @@
 // Copyright 2018 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.search.dispatch.rpc;
 
+import ai.vespa.searchlib.searchprotocol.protobuf.SearchProtocol;
 import com.yahoo.compress.CompressionType;
 import com.yahoo.compress.Compressor;
 import com.yahoo.prelude.fastsearch.VespaBackEndSearcher;
@@ -71,10 +72,14 @@ public class RpcSearchInvoker extends SearchInvoker implements Client.ResponseRe
         if (incomingContext instanceof RpcContext)
             return (RpcContext)incomingContext;
 
+        int hits = Math.min(query.getHits(), maxHits);
+        if (incomingContext instanceof SearchProtocol.SearchRequest) // already converted from the query
+            return new RpcContext(resourcePool, query,
+                                  ProtobufSerialization.serializeSearchRequest((SearchProtocol.SearchRequest)incomingContext,
+                                                                               query,
+                                                                               hits));
         return new RpcContext(resourcePool, query,
-                              ProtobufSerialization.serializeSearchRequest(query,
-                                                                           Math.min(query.getHits(), maxHits),
-                                                                           searcher.getServerId()));
+                              ProtobufSerialization.serializeSearchRequest(query, hits, searcher.getServerId()));
     }
 
     @Override
@@ -13,12 +13,14 @@ import com.yahoo.search.cluster.NodeManager;
 import com.yahoo.search.dispatch.TopKEstimator;
 import com.yahoo.vespa.config.search.DispatchConfig;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -40,6 +42,8 @@ public class SearchCluster implements NodeManager<Node> {
     private final VipStatus vipStatus;
     private final PingFactory pingFactory;
     private final TopKEstimator hitEstimator;
+    private final AtomicLong generation = new AtomicLong(0);
+    private List<Long> generationState = List.of();
     private long nextLogTime = 0;
     private static final double SKEW_FACTOR = 0.05;
 
@@ -191,8 +195,17 @@ public class SearchCluster implements NodeManager<Node> {
         return localCorpusDispatchTarget;
     }
 
+    /**
+     * Returns the generation of the state of this cluster. This is changed whenever the set of working nodes,
+     * the active documents or the coverage of a group changes, such that results produced at different generations
+     * may differ. This is not a generation of the indexed content, which content nodes do not report:
+     * Writes which do not change the number of active documents, such as updates, do not change it.
+     */
+    public long generation() { return generation.get(); }
+
     private void updateWorkingState(Node node, boolean isWorking) {
         node.setWorking(isWorking);
+        generation.incrementAndGet();
         updateVipStatusOnNodeChange(node, isWorking);
     }
 
@@ -347,6 +360,20 @@ public class SearchCluster implements NodeManager<Node> {
         } else {
             pingIterationCompletedMultipleGroups();
         }
+        updateGeneration();
+    }
+
+    private void updateGeneration() {
+        List<Long> state = new ArrayList<>(orderedGroups().size() * 3);
+        for (Group group : orderedGroups()) {
+            state.add(group.getActiveDocuments());
+            state.add((long)group.workingNodes());
+            state.add(group.hasSufficientCoverage() ? 1L : 0L);
+        }
+        if (state.equals(generationState)) return;
+
+        generationState = state;
+        generation.incrementAndGet();
     }
 
     private boolean isGroupCoverageSufficient(int workingNodes, int nodesInGroup, long activeDocuments, long averageDocumentsInOtherGroups) {
@@ -192,7 +192,9 @@ public class GroupingExecutor extends Searcher {
     /**
      * Performs the actual search passes to complete all the given {@link Grouping} requests. This method uses the
      * grouping map argument as both an input and an output variable, as the contained {@link Grouping} objects are
-     * updates as results arrive from the back end.
+     * updates as results arrive from the back end. Each pass is a separate query containing the grouping state
+     * of the previous passes, such that the dispatcher can return the unchanged passes of continuations and
+     * repeated queries from its grouping result cache.
      *
      * @param query       The query to execute.
      * @param execution   The execution context used to run the queries.
@@ -9,6 +9,7 @@ import com.yahoo.search.Query;
 import com.yahoo.search.query.Properties;
 import com.yahoo.search.query.profile.compiled.CompiledQueryProfile;
 import com.yahoo.search.query.profile.compiled.DimensionalValue;
+import com.yahoo.search.query.profile.compiled.ResolvedView;
 import com.yahoo.search.query.profile.types.FieldDescription;
 import com.yahoo.search.query.profile.types.QueryProfileFieldType;
 import com.yahoo.search.query.profile.types.QueryProfileType;
@@ -41,6 +42,9 @@ public class QueryProfileProperties extends Properties {
      */
     private List<Pair<CompoundName, CompiledQueryProfile>> references = null;
 
+    /** The values of the profile in the context last looked up, or null if none */
+    private ResolvedView view = null;
+
     /** Creates an instance from a profile, throws an exception if the given profile is null */
     public QueryProfileProperties(CompiledQueryProfile profile) {
         Validator.ensureNotNull("The profile wrapped by this cannot be null", profile);
@@ -66,7 +70,7 @@ public class QueryProfileProperties extends Properties {
                 return reference.getSecond().get(name.rest(reference.getFirst().size()), context, substitution); // even if null
         }
 
-        Object value = profile.get(name, context, substitution);
+        Object value = view(context).get(name, context, substitution);
         if (value != null)
             return value;
         return super.get(name, context, substitution);
@@ -170,7 +174,7 @@ public class QueryProfileProperties extends Properties {
         if (context == null) context = Collections.emptyMap();
 
         Map<String, Object> properties = new HashMap<>();
-        for (var entry : profile.listValues(path, context, substitution).entrySet()) {
+        for (var entry : view(context).listValues(path, context, substitution).entrySet()) {
             if (references != null && containsNullParentOf(path, references)) continue;
             properties.put(entry.getKey(), entry.getValue());
         }
@@ -294,6 +298,13 @@ public class QueryProfileProperties extends Properties {
         return unaliasedName;
     }
 
+    /** Returns the values of the profile in the given context, reusing the last view if the context is the same */
+    private ResolvedView view(Map<String, String> context) {
+        if (view == null || ! view.matches(context))
+            view = profile.resolve(context);
+        return view;
+    }
+
     @Override
     public QueryProfileProperties clone() {
         QueryProfileProperties clone = (QueryProfileProperties)super.clone();
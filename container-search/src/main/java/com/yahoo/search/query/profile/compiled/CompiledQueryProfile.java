@@ -6,11 +6,9 @@ import com.yahoo.component.ComponentId;
 import com.yahoo.processing.request.CompoundName;
 import com.yahoo.processing.request.Properties;
 import com.yahoo.search.query.profile.QueryProfileProperties;
-import com.yahoo.search.query.profile.SubstituteString;
 import com.yahoo.search.query.profile.types.QueryProfileType;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -41,6 +39,9 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
     /** Values which are not overridable in this. Used as a set. */
     private final DimensionalMap<CompoundName, Object> unoverridables;
 
+    /** The values of this resolved for the contexts most recently used */
+    private final ResolvedViewCache views;
+
     /**
      * Creates a new query profile from an id.
      */
@@ -60,6 +61,8 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
         this.types = types;
         this.references = references;
         this.unoverridables = unoverridables;
+        this.views = new ResolvedViewCache(entries, ResolvedViewCache.defaultMaxSize,
+                                           registry == null ? null : registry.getMetric(), id.stringValue());
         if ( ! id.isAnonymous())
             validateName(id.getName());
     }
@@ -132,40 +135,22 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
      * will return {"d" =&gt; "a.d-value","e" =&gt; "a.e-value"}
      */
     public Map<String, Object> listValues(CompoundName prefix, Map<String, String> context, Properties substitution) {
-        Map<String, Object> values = new HashMap<>();
-        for (Map.Entry<CompoundName, DimensionalValue<ValueWithSource>> entry : entries.entrySet()) {
-            if ( ! entry.getKey().hasPrefix(prefix)) continue;
-
-            ValueWithSource valueWithSource = entry.getValue().get(context);
-            if (valueWithSource == null) continue;
-
-            Object value = valueWithSource.value();
-            if (value == null) continue;
-
-            value = substitute(value, context, substitution);
-            CompoundName suffixName = entry.getKey().rest(prefix.size());
-            values.put(suffixName.toString(), value);
-        }
-        return values;
+        return resolve(context).listValues(prefix, context, substitution);
     }
 
     public Map<String, ValueWithSource> listValuesWithSources(CompoundName prefix,
                                                               Map<String, String> context,
                                                               Properties substitution) {
-        Map<String, ValueWithSource> values = new HashMap<>();
-        for (Map.Entry<CompoundName, DimensionalValue<ValueWithSource>> entry : entries.entrySet()) {
-            if ( entry.getKey().size() <= prefix.size()) continue;
-            if ( ! entry.getKey().hasPrefix(prefix)) continue;
-
-            ValueWithSource valueWithSource = entry.getValue().get(context);
-            if (valueWithSource == null) continue;
-            if (valueWithSource.value() == null) continue;
-
-            valueWithSource = valueWithSource.withValue(substitute(valueWithSource.value(), context, substitution));
-            CompoundName suffixName = entry.getKey().rest(prefix.size());
-            values.put(suffixName.toString(), valueWithSource);
-        }
-        return values;
+        return resolve(context).listValuesWithSources(prefix, context, substitution);
+    }
+
+    /**
+     * Returns the values of this resolved in the given context. Views are cached per combination of values
+     * of the dimensions of this, so callers doing many lookups in the same context should keep the view
+     * while {@link ResolvedView#matches} the context.
+     */
+    public ResolvedView resolve(Map<String, String> context) {
+        return views.get(context);
     }
 
     public final Object get(String name) {
@@ -178,17 +163,14 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
         return get(new CompoundName(name), context, substitution);
     }
     public final Object get(CompoundName name, Map<String, String> context, Properties substitution) {
-        ValueWithSource value = entries.get(name, context);
-        if (value == null) return null;
-        return substitute(value.value(), context, substitution);
+        return resolve(context).get(name, context, substitution);
     }
 
-    private Object substitute(Object value, Map<String, String> context, Properties substitution) {
-        if (value == null) return value;
-        if (substitution == null) return value;
-        if (value.getClass() != SubstituteString.class) return value;
-        return ((SubstituteString)value).substitute(context, substitution);
-    }
+    /** Returns the values of this in all contexts */
+    DimensionalMap<CompoundName, ValueWithSource> getEntries() { return entries; }
+
+    /** Returns the cache of resolved views of this */
+    ResolvedViewCache resolvedViews() { return views; }
 
     /** Throws IllegalArgumentException if the given string is not a valid query profile name */
     private static void validateName(String name) {
@@ -4,6 +4,7 @@ package com.yahoo.search.query.profile.compiled;
 import com.google.inject.Inject;
 import com.yahoo.component.ComponentSpecification;
 import com.yahoo.component.provider.ComponentRegistry;
+import com.yahoo.jdisc.Metric;
 import com.yahoo.search.query.profile.QueryProfile;
 import com.yahoo.search.query.profile.QueryProfileCompiler;
 import com.yahoo.search.query.profile.QueryProfileRegistry;
@@ -23,8 +24,16 @@ public class CompiledQueryProfileRegistry extends ComponentRegistry<CompiledQuer
     
     private final QueryProfileTypeRegistry typeRegistry;
 
-    @Inject
+    /** The metric query profiles in this report to, or null if none */
+    private final Metric metric;
+
     public CompiledQueryProfileRegistry(QueryProfilesConfig config) {
+        this(config, null);
+    }
+
+    @Inject
+    public CompiledQueryProfileRegistry(QueryProfilesConfig config, Metric metric) {
+        this.metric = metric;
         QueryProfileRegistry registry = QueryProfileConfigurer.createFromConfig(config);
         typeRegistry = registry.getTypeRegistry();
         for (QueryProfile inputProfile : registry.allComponents()) {
@@ -39,6 +48,7 @@ public class CompiledQueryProfileRegistry extends ComponentRegistry<CompiledQuer
 
     public CompiledQueryProfileRegistry(QueryProfileTypeRegistry typeRegistry) {
         this.typeRegistry = typeRegistry;
+        this.metric = null;
     }
 
     /** Registers a type by its id */
@@ -48,6 +58,9 @@ public class CompiledQueryProfileRegistry extends ComponentRegistry<CompiledQuer
 
     public QueryProfileTypeRegistry getTypeRegistry() { return typeRegistry; }
 
+    /** Returns the metric query profiles in this report to, or null if none */
+    public Metric getMetric() { return metric; }
+
     /**
      * <p>Returns a query profile for the given request string, or null if a suitable one is not found.</p>
      *
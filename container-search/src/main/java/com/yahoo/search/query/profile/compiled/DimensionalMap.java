@@ -5,8 +5,10 @@ import com.google.common.collect.ImmutableMap;
 import com.yahoo.search.query.profile.DimensionBinding;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * A map which may return different values depending on the values given in a context
@@ -36,6 +38,14 @@ public class DimensionalMap<KEY, VALUE> {
         return values.entrySet();
     }
 
+    /** Returns the dimensions which decide which values this returns, in sorted order */
+    public List<String> dimensions() {
+        Set<String> dimensions = new TreeSet<>();
+        for (DimensionalValue<VALUE> value : values.values())
+            value.addDimensionsTo(dimensions);
+        return List.copyOf(dimensions);
+    }
+
     /** Returns true if this is empty for all contexts. */
     public boolean isEmpty() {
         return values.isEmpty();
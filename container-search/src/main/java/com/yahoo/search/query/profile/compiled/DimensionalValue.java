@@ -6,6 +6,7 @@ import com.yahoo.search.query.profile.DimensionBinding;
 import com.yahoo.search.query.profile.SubstituteString;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -50,6 +51,12 @@ public class DimensionalValue<VALUE> {
 
     public boolean isEmpty() { return values.isEmpty(); }
 
+    /** Adds the dimensions which decide which value this returns to the given collection */
+    void addDimensionsTo(Collection<String> dimensions) {
+        for (Value<VALUE> value : values)
+            value.binding().addDimensionsTo(dimensions);
+    }
+
     @Override
     public String toString() {
         return values.toString();
@@ -0,0 +1,100 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.query.profile.compiled;
+
+import com.yahoo.processing.request.CompoundName;
+import com.yahoo.processing.request.Properties;
+import com.yahoo.search.query.profile.SubstituteString;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The values of a compiled query profile resolved for one combination of values of the dimensions of the profile,
+ * such that looking up a value is a single map lookup regardless of the number of variants in the profile.
+ * Substitution strings are kept in their parsed form and substituted on lookup, as substitutions may refer to
+ * other properties of the query.
+ *
+ * This is immutable.
+ */
+public class ResolvedView {
+
+    private final List<String> dimensions;
+
+    /** The values of the dimensions of this, in the same order as the dimensions. Values may be null. */
+    private final List<String> dimensionValues;
+
+    /** The non-null values of the profile in this context */
+    private final Map<CompoundName, ValueWithSource> values;
+
+    ResolvedView(List<String> dimensions, List<String> dimensionValues,
+                 DimensionalMap<CompoundName, ValueWithSource> entries, Map<String, String> context) {
+        this.dimensions = dimensions;
+        this.dimensionValues = dimensionValues;
+        Map<CompoundName, ValueWithSource> values = new HashMap<>();
+        for (Map.Entry<CompoundName, DimensionalValue<ValueWithSource>> entry : entries.entrySet()) {
+            ValueWithSource value = entry.getValue().get(context);
+            if (value == null || value.value() == null) continue;
+            values.put(entry.getKey(), value);
+        }
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    /** Returns whether this holds the values resolved in the given context */
+    public boolean matches(Map<String, String> context) {
+        if (context == null)
+            context = Collections.emptyMap();
+        for (int i = 0; i < dimensions.size(); i++) {
+            if ( ! Objects.equals(dimensionValues.get(i), context.get(dimensions.get(i)))) return false;
+        }
+        return true;
+    }
+
+    /** Returns the value of the given name, or null if none */
+    public Object get(CompoundName name, Map<String, String> context, Properties substitution) {
+        ValueWithSource value = values.get(name);
+        if (value == null) return null;
+        return substitute(value.value(), context, substitution);
+    }
+
+    /** Returns the values whose name starts with the given prefix, keyed on the rest of the name */
+    public Map<String, Object> listValues(CompoundName prefix, Map<String, String> context, Properties substitution) {
+        Map<String, Object> result = new HashMap<>();
+        for (Map.Entry<CompoundName, ValueWithSource> entry : values.entrySet()) {
+            if ( ! entry.getKey().hasPrefix(prefix)) continue;
+            Object value = substitute(entry.getValue().value(), context, substitution);
+            result.put(entry.getKey().rest(prefix.size()).toString(), value);
+        }
+        return result;
+    }
+
+    /** Returns the values whose name is longer than and starts with the given prefix, keyed on the rest of the name */
+    public Map<String, ValueWithSource> listValuesWithSources(CompoundName prefix,
+                                                              Map<String, String> context,
+                                                              Properties substitution) {
+        Map<String, ValueWithSource> result = new HashMap<>();
+        for (Map.Entry<CompoundName, ValueWithSource> entry : values.entrySet()) {
+            if ( entry.getKey().size() <= prefix.size()) continue;
+            if ( ! entry.getKey().hasPrefix(prefix)) continue;
+            ValueWithSource value = entry.getValue();
+            result.put(entry.getKey().rest(prefix.size()).toString(),
+                       value.withValue(substitute(value.value(), context, substitution)));
+        }
+        return result;
+    }
+
+    static Object substitute(Object value, Map<String, String> context, Properties substitution) {
+        if (value == null) return value;
+        if (substitution == null) return value;
+        if (value.getClass() != SubstituteString.class) return value;
+        return ((SubstituteString)value).substitute(context, substitution);
+    }
+
+    @Override
+    public String toString() {
+        return "view of " + values.size() + " values for " + dimensions + "=" + dimensionValues;
+    }
+
+}
@@ -0,0 +1,110 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.query.profile.compiled;
+
+import com.yahoo.jdisc.Metric;
+import com.yahoo.processing.request.CompoundName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A size bounded cache of the resolved views of a compiled query profile, keyed on the values of the dimensions
+ * of the profile. The least recently used view is evicted when the cache is full.
+ *
+ * This class is multithread safe.
+ */
+class ResolvedViewCache {
+
+    static final String HITS_METRIC = "query_profile_view_cache_hits";
+    static final String MISSES_METRIC = "query_profile_view_cache_misses";
+    static final String EVICTIONS_METRIC = "query_profile_view_cache_evictions";
+
+    /** The default max number of views cached per query profile */
+    static final int defaultMaxSize = 256;
+
+    private final List<String> dimensions;
+    private final DimensionalMap<CompoundName, ValueWithSource> entries;
+    private final int maxSize;
+    private final Metric metric;
+    private final Metric.Context metricContext;
+
+    private final LinkedHashMap<List<String>, ResolvedView> views = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Creates a view cache
+     *
+     * @param entries the values to resolve
+     * @param maxSize the max number of views to cache
+     * @param metric the metric to report hits, misses and evictions to, or null to not report metrics
+     * @param profileName the name of the query profile this caches views of, used as metric dimension
+     */
+    ResolvedViewCache(DimensionalMap<CompoundName, ValueWithSource> entries, int maxSize, Metric metric, String profileName) {
+        this.dimensions = entries.dimensions();
+        this.entries = entries;
+        this.maxSize = maxSize;
+        this.metric = metric;
+        this.metricContext = metric == null ? null : metric.createContext(Map.of("queryProfile", profileName));
+    }
+
+    /** Returns the view of the values in the given context, creating it if it is not cached */
+    ResolvedView get(Map<String, String> context) {
+        if (context == null)
+            context = Collections.emptyMap();
+        List<String> key = new ArrayList<>(dimensions.size());
+        for (String dimension : dimensions)
+            key.add(context.get(dimension));
+
+        ResolvedView view;
+        synchronized (this) {
+            view = views.get(key);
+            if (view != null)
+                hits++;
+            else
+                misses++;
+        }
+        if (view != null) {
+            report(HITS_METRIC, 1);
+            return view;
+        }
+        report(MISSES_METRIC, 1);
+
+        // Resolve outside the lock; concurrent misses on the same key resolve equal views
+        view = new ResolvedView(dimensions, key, entries, context);
+        int evicted = 0;
+        synchronized (this) {
+            views.put(key, view);
+            for (var iterator = views.entrySet().iterator(); views.size() > maxSize && iterator.hasNext(); evicted++) {
+                iterator.next();
+                iterator.remove();
+            }
+            evictions += evicted;
+        }
+        if (evicted > 0)
+            report(EVICTIONS_METRIC, evicted);
+        return view;
+    }
+
+    private void report(String name, long value) {
+        if (metric == null) return;
+        metric.add(name, value, metricContext);
+    }
+
+    /** Returns the number of views currently in this cache */
+    synchronized int size() { return views.size(); }
+
+    /** Returns the number of lookups which found a cached view */
+    synchronized long hits() { return hits; }
+
+    /** Returns the number of lookups which had to resolve a new view */
+    synchronized long misses() { return misses; }
+
+    /** Returns the number of views evicted from this cache */
+    synchronized long evictions() { return evictions; }
+
+}
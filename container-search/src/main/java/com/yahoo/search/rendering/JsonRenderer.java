@@ -92,6 +92,7 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
     private static final String COVERAGE_DEGRADE_MATCHPHASE = "match-phase";
     private static final String COVERAGE_DEGRADE_TIMEOUT = "timeout";
     private static final String COVERAGE_DEGRADE_ADAPTIVE_TIMEOUT = "adaptive-timeout";
+    private static final String COVERAGE_DEGRADE_EARLY_RETURN = "early-return";
     private static final String COVERAGE_DEGRADED_NON_IDEAL_STATE = "non-ideal-state";
     private static final String COVERAGE_FULL = "full";
     private static final String COVERAGE_NODES = "nodes";
@@ -301,6 +302,8 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
             generator.writeBooleanField(COVERAGE_DEGRADE_MATCHPHASE, c.isDegradedByMatchPhase());
             generator.writeBooleanField(COVERAGE_DEGRADE_TIMEOUT, c.isDegradedByTimeout());
             generator.writeBooleanField(COVERAGE_DEGRADE_ADAPTIVE_TIMEOUT, c.isDegradedByAdapativeTimeout());
+            if (c.isDegradedByEarlyReturn())
+                generator.writeBooleanField(COVERAGE_DEGRADE_EARLY_RETURN, true);
             generator.writeBooleanField(COVERAGE_DEGRADED_NON_IDEAL_STATE, c.isDegradedByNonIdealState());
             generator.writeEndObject();
         }
@@ -587,6 +590,45 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
             }
         }
 
+        @Override
+        public void acceptLong(String name, long value) {
+            renderPrimitiveField(name, () -> generator.writeNumber(value));
+        }
+
+        @Override
+        public void acceptInt(String name, int value) {
+            renderPrimitiveField(name, () -> generator.writeNumber(value));
+        }
+
+        @Override
+        public void acceptDouble(String name, double value) {
+            renderPrimitiveField(name, () -> generator.writeNumber(value));
+        }
+
+        @Override
+        public void acceptFloat(String name, float value) {
+            renderPrimitiveField(name, () -> generator.writeNumber(value));
+        }
+
+        @Override
+        public void acceptBool(String name, boolean value) {
+            renderPrimitiveField(name, () -> generator.writeBoolean(value));
+        }
+
+        /** Writes the name of a field which is available as a primitive, followed by its value, if it should be rendered */
+        private void renderPrimitiveField(String name, ValueWriter valueWriter) {
+            try {
+                if (shouldRenderPrimitiveValue(name)) {
+                    ensureFieldsField();
+                    generator.writeFieldName(name);
+                    valueWriter.write();
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
         protected boolean shouldRender(String name, Object value) {
             if (debugRendering) return true;
             if (name.startsWith(VESPA_HIDDEN_FIELD_PREFIX)) return false;
@@ -604,6 +646,20 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
             return true;
         }
 
+        protected boolean shouldRenderPrimitiveValue(String name) {
+            if (debugRendering) return true;
+            if (name.startsWith(VESPA_HIDDEN_FIELD_PREFIX)) return false;
+            return true;
+        }
+
+        /** Writes a value to the generator */
+        @FunctionalInterface
+        private interface ValueWriter {
+
+            void write() throws IOException;
+
+        }
+
         private static Inspector wrapAsMap(Inspector data) {
             if (data.type() != Type.ARRAY) return null;
             if (data.entryCount() == 0) return null;
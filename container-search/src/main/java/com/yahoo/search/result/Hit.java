@@ -688,6 +688,21 @@ public class Hit extends ListenableFreezableClass implements Data, Comparable<Hi
          */
         void accept(String fieldName, byte[] utf8Data, int offset, int length);
 
+        /** Called for fields which are available as a long instead of accept(String, Object) */
+        default void acceptLong(String fieldName, long value) { accept(fieldName, value); }
+
+        /** Called for fields which are available as an int instead of accept(String, Object) */
+        default void acceptInt(String fieldName, int value) { accept(fieldName, value); }
+
+        /** Called for fields which are available as a double instead of accept(String, Object) */
+        default void acceptDouble(String fieldName, double value) { accept(fieldName, value); }
+
+        /** Called for fields which are available as a float instead of accept(String, Object) */
+        default void acceptFloat(String fieldName, float value) { accept(fieldName, value); }
+
+        /** Called for fields which are available as a boolean instead of accept(String, Object) */
+        default void acceptBool(String fieldName, boolean value) { accept(fieldName, value); }
+
     }
 
 }
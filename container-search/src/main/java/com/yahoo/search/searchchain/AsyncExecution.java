@@ -2,7 +2,6 @@
 package com.yahoo.search.searchchain;
 
 import com.yahoo.component.chain.Chain;
-import com.yahoo.concurrent.ThreadFactoryFactory;
 import com.yahoo.search.Query;
 import com.yahoo.search.Result;
 import com.yahoo.search.Searcher;
@@ -10,7 +9,8 @@ import com.yahoo.search.Searcher;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Provides asynchronous execution of searchchains.
@@ -39,25 +39,16 @@ import java.util.concurrent.*;
  * created for each AsyncExecution instance.
  * </p>
  *
+ * <p>
+ * The executions are run by the {@link AsyncExecutor} of the execution context,
+ * which may return an error result rather than executing if it is at capacity.
+ * </p>
+ *
  * @see com.yahoo.search.searchchain.Execution
  * @author Arne Bergene Fossaa
  */
 public class AsyncExecution {
 
-    private static final ThreadFactory threadFactory = ThreadFactoryFactory.getThreadFactory("search");
-
-    private static final Executor executorMain = createExecutor();
-
-    private static Executor createExecutor() {
-        ThreadPoolExecutor executor = new ThreadPoolExecutor(100, 8192, 1L, TimeUnit.SECONDS,
-                                                            new SynchronousQueue<>(false), threadFactory);
-        // Prestart needed, if not all threads will be created by the fist N tasks and hence they might also
-        // get the dreaded thread locals initialized even if they will never run.
-        // That counters what we we want to achieve with the Q that will prefer thread locality.
-        executor.prestartAllCoreThreads();
-        return executor;
-    }
-
     /** The execution this executes */
     private final Execution execution;
 
@@ -129,10 +120,6 @@ public class AsyncExecution {
         }, query);
     }
 
-    private static Executor getExecutor() {
-        return executorMain;
-    }
-
     /**
      * The future of this functions returns the original Result
      *
@@ -146,22 +133,9 @@ public class AsyncExecution {
 
     }
 
-    private static <T> Future<T> getFuture(Callable<T> callable) {
-        FutureTask<T> future = new FutureTask<>(callable);
-        getExecutor().execute(future);
-        return future;
-    }
-
-    private static Future<Void> runTask(Runnable runnable) {
-        return getFuture(() -> {
-            runnable.run();
-            return null;
-        });
-    }
-
     private FutureResult getFutureResult(Callable<Result> callable, Query query) {
         FutureResult future = new FutureResult(callable, execution, query);
-        getExecutor().execute(future);
+        execution.context().asyncExecutor().execute(future, execution.chain().getId().stringValue());
         return future;
     }
 
@@ -176,13 +150,11 @@ public class AsyncExecution {
     public static List<Result> waitForAll(Collection<FutureResult> tasks, long timeoutMs) {
         // Copy the list in case it is modified while we are waiting
         List<FutureResult> workingTasks = new ArrayList<>(tasks);
-        try {
-            runTask(() -> {
-                for (FutureResult task : workingTasks)
-                    task.get();
-            }).get(timeoutMs, TimeUnit.MILLISECONDS);
-        } catch (TimeoutException | InterruptedException | ExecutionException e) {
-            // Handle timeouts below
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (FutureResult task : workingTasks) {
+            long timeLeft = deadline - System.currentTimeMillis();
+            if (timeLeft <= 0) break;
+            task.getIfAvailable(timeLeft, TimeUnit.MILLISECONDS); // Handle timeouts below
         }
 
         List<Result> results = new ArrayList<>(tasks.size());
@@ -0,0 +1,183 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.searchchain;
+
+import com.yahoo.concurrent.ThreadFactoryFactory;
+import com.yahoo.jdisc.Metric;
+import com.yahoo.search.config.AsyncExecutionConfig;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes the searches and fills of {@link AsyncExecution} instances on a bounded thread pool,
+ * limiting the number of concurrent tasks per search chain (which is the federation target when federating),
+ * and reporting queue wait time, active tasks and rejections per search chain.
+ *
+ * Tasks which cannot be executed because their chain or the thread pool is at capacity are completed
+ * immediately with an error result, such that overload causes errors rather than ever more threads.
+ *
+ * This is multithread safe.
+ */
+public class AsyncExecutor {
+
+    static final String QUEUE_WAIT_TIME_METRIC = "async_execution_queue_wait_time";
+    static final String ACTIVE_TASKS_METRIC = "async_execution_active_tasks";
+    static final String REJECTIONS_METRIC = "async_execution_rejections";
+
+    private final ThreadPoolExecutor pool;
+    private final AsyncExecutionConfig config;
+    private final Metric metric;
+    private final Map<String, ChainTasks> chains = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an executor
+     *
+     * @param config the configuration of this
+     * @param metric the metric to report to, or null to not report metrics
+     */
+    public AsyncExecutor(AsyncExecutionConfig config, Metric metric) {
+        this.config = config;
+        this.metric = metric;
+        BlockingQueue<Runnable> queue = config.queueSize() > 0 ? new ArrayBlockingQueue<>(config.queueSize())
+                                                               : new SynchronousQueue<>(false);
+        pool = new ThreadPoolExecutor(config.coreThreads(), Math.max(config.coreThreads(), config.maxThreads()),
+                                      1L, TimeUnit.SECONDS, queue, ThreadFactoryFactory.getThreadFactory("search"));
+        // Prestart needed, if not all threads will be created by the fist N tasks and hence they might also
+        // get the dreaded thread locals initialized even if they will never run.
+        // That counters what we we want to achieve with the Q that will prefer thread locality.
+        pool.prestartAllCoreThreads();
+    }
+
+    /** Returns the executor used when none is set up for the container, e.g in tests */
+    public static AsyncExecutor shared() { return SharedHolder.instance; }
+
+    /**
+     * Executes a task of a search chain, or completes it with an error result if this is at capacity
+     *
+     * @param task the task to execute
+     * @param chainId the id of the search chain executed by this task
+     */
+    public void execute(FutureResult task, String chainId) {
+        ChainTasks chain = chains.computeIfAbsent(chainId, ChainTasks::new);
+        if ( ! chain.tryAdd()) {
+            reject(task, chain, "Too many concurrent tasks in search chain '" + chainId + "'");
+            return;
+        }
+
+        long submittedAt = System.nanoTime();
+        try {
+            pool.execute(() -> {
+                chain.started(System.nanoTime() - submittedAt);
+                try {
+                    task.run();
+                }
+                finally {
+                    chain.completed();
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            chain.removeQueued();
+            reject(task, chain, "All threads for asynchronous execution are busy");
+        }
+    }
+
+    private void reject(FutureResult task, ChainTasks chain, String message) {
+        chain.rejected();
+        task.reject(message);
+    }
+
+    /** Returns the number of tasks of the given chain which are currently running */
+    public int activeTasks(String chainId) {
+        ChainTasks chain = chains.get(chainId);
+        return chain == null ? 0 : chain.active.get();
+    }
+
+    /** Returns the number of tasks of the given chain which have been rejected by this */
+    public long rejections(String chainId) {
+        ChainTasks chain = chains.get(chainId);
+        return chain == null ? 0 : chain.rejections.get();
+    }
+
+    /** Stops accepting tasks, and stops the threads of this when the tasks submitted are completed */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private int maxConcurrentTasks(String chainId) {
+        for (AsyncExecutionConfig.Chain chain : config.chain())
+            if (chain.id().equals(chainId)) return chain.maxConcurrentTasks();
+        return config.maxConcurrentTasksPerChain();
+    }
+
+    /** Holds the shared executor, such that its threads are only started if it is used */
+    private static class SharedHolder {
+
+        static final AsyncExecutor instance = new AsyncExecutor(new AsyncExecutionConfig.Builder().build(), null);
+
+    }
+
+    /** The tasks of one search chain */
+    private class ChainTasks {
+
+        private final int maxTasks;
+        private final Metric.Context metricContext;
+
+        /** Tasks running or waiting for a thread */
+        private final AtomicInteger tasks = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicLong rejections = new AtomicLong();
+
+        ChainTasks(String chainId) {
+            this.maxTasks = maxConcurrentTasks(chainId);
+            this.metricContext = metric == null ? null : metric.createContext(Map.of("chain", chainId));
+        }
+
+        /** Adds a task if this is not at capacity, and returns whether it was added */
+        boolean tryAdd() {
+            if (maxTasks < 0) {
+                tasks.incrementAndGet();
+                return true;
+            }
+            while (true) {
+                int current = tasks.get();
+                if (current >= maxTasks) return false;
+                if (tasks.compareAndSet(current, current + 1)) return true;
+            }
+        }
+
+        void removeQueued() {
+            tasks.decrementAndGet();
+        }
+
+        void started(long queueWaitNanos) {
+            int nowActive = active.incrementAndGet();
+            if (metric == null) return;
+            metric.set(QUEUE_WAIT_TIME_METRIC, TimeUnit.NANOSECONDS.toMillis(queueWaitNanos), metricContext);
+            metric.set(ACTIVE_TASKS_METRIC, nowActive, metricContext);
+        }
+
+        void completed() {
+            tasks.decrementAndGet();
+            int nowActive = active.decrementAndGet();
+            if (metric == null) return;
+            metric.set(ACTIVE_TASKS_METRIC, nowActive, metricContext);
+        }
+
+        void rejected() {
+            rejections.incrementAndGet();
+            if (metric == null) return;
+            metric.add(REJECTIONS_METRIC, 1, metricContext);
+        }
+
+    }
+
+}
@@ -81,6 +81,9 @@ public class Execution extends com.yahoo.processing.execution.Execution {
         /** The current linguistics */
         private Linguistics linguistics = null;
 
+        /** The executor of asynchronous executions, or null to use the shared one */
+        private AsyncExecutor asyncExecutor = null;
+
         /** Always set if this context belongs to an execution, never set if it does not. */
         private final Execution owner;
 
@@ -124,6 +127,14 @@ public class Execution extends com.yahoo.processing.execution.Execution {
             this.linguistics = linguistics;
         }
 
+        /** Creates a context which also holds the executor of asynchronous executions of a container */
+        Context(SearchChainRegistry searchChainRegistry, IndexFacts indexFacts,
+                SpecialTokenRegistry tokenRegistry, RendererRegistry rendererRegistry, Linguistics linguistics,
+                AsyncExecutor asyncExecutor) {
+            this(searchChainRegistry, indexFacts, tokenRegistry, rendererRegistry, linguistics);
+            this.asyncExecutor = asyncExecutor;
+        }
+
         /** Creates a context stub with no information. This is for unit testing. */
         public static Context createContextStub() {
             return new Context(null, null, null, null, null);
@@ -178,6 +189,9 @@ public class Execution extends com.yahoo.processing.execution.Execution {
             if (linguistics == null) {
                 linguistics = sourceContext.linguistics;
             }
+            if (asyncExecutor == null) {
+                asyncExecutor = sourceContext.asyncExecutor;
+            }
         }
 
         /**
@@ -193,6 +207,7 @@ public class Execution extends com.yahoo.processing.execution.Execution {
             detailedDiagnostics = other.detailedDiagnostics;
             breakdown = other.breakdown;
             linguistics = other.linguistics;
+            asyncExecutor = other.asyncExecutor;
         }
 
         public boolean equals(Context other) {
@@ -204,7 +219,8 @@ public class Execution extends com.yahoo.processing.execution.Execution {
                     && other.searchChainRegistry == searchChainRegistry
                     && other.detailedDiagnostics == detailedDiagnostics
                     && other.breakdown == breakdown
-                    && other.linguistics == linguistics;
+                    && other.linguistics == linguistics
+                    && other.asyncExecutor == asyncExecutor;
         }
 
         @Override
@@ -212,7 +228,7 @@ public class Execution extends com.yahoo.processing.execution.Execution {
             return java.util.Objects.hash(indexFacts,
                                           rendererRegistry, tokenRegistry, searchChainRegistry,
                                           detailedDiagnostics, breakdown,
-                                          linguistics);
+                                          linguistics, asyncExecutor);
         }
 
         @Override
@@ -361,6 +377,15 @@ public class Execution extends com.yahoo.processing.execution.Execution {
             this.linguistics = linguistics;
         }
 
+        /** Returns the executor of asynchronous executions from this, never null */
+        public AsyncExecutor asyncExecutor() {
+            return asyncExecutor != null ? asyncExecutor : AsyncExecutor.shared();
+        }
+
+        public void setAsyncExecutor(AsyncExecutor asyncExecutor) {
+            this.asyncExecutor = asyncExecutor;
+        }
+
         /** Creates a child trace if this has an owner, or a root trace otherwise */
         private Trace createChildTrace() {
             return owner!=null ? owner.trace().createChild() : Trace.createRoot(0);
@@ -1,6 +1,7 @@
 // Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.search.searchchain;
 
+import com.google.inject.Inject;
 import com.yahoo.component.AbstractComponent;
 import com.yahoo.component.chain.Chain;
 import com.yahoo.component.chain.ChainsConfigurer;
@@ -9,6 +10,7 @@ import com.yahoo.component.chain.model.ChainsModelBuilder;
 import com.yahoo.component.provider.ComponentRegistry;
 import com.yahoo.container.QrSearchersConfig;
 import com.yahoo.container.core.ChainsConfig;
+import com.yahoo.jdisc.Metric;
 import com.yahoo.language.Linguistics;
 import com.yahoo.language.simple.SimpleLinguistics;
 import com.yahoo.prelude.IndexFacts;
@@ -16,6 +18,7 @@ import com.yahoo.prelude.IndexModel;
 import com.yahoo.prelude.query.parser.SpecialTokenRegistry;
 import com.yahoo.processing.rendering.Renderer;
 import com.yahoo.search.Searcher;
+import com.yahoo.search.config.AsyncExecutionConfig;
 import com.yahoo.search.config.IndexInfoConfig;
 import com.yahoo.search.rendering.RendererRegistry;
 import com.yahoo.vespa.configdefinition.SpecialtokensConfig;
@@ -35,6 +38,24 @@ public class ExecutionFactory extends AbstractComponent {
     private final Linguistics linguistics;
     private final RendererRegistry rendererRegistry;
 
+    /** The executor of asynchronous executions, or null to use the shared one */
+    private final AsyncExecutor asyncExecutor;
+
+    @Inject
+    public ExecutionFactory(ChainsConfig chainsConfig,
+                            IndexInfoConfig indexInfo,
+                            QrSearchersConfig clusters,
+                            ComponentRegistry<Searcher> searchers,
+                            SpecialtokensConfig specialTokens,
+                            Linguistics linguistics,
+                            ComponentRegistry<Renderer> renderers,
+                            AsyncExecutionConfig asyncExecutionConfig,
+                            Metric metric) {
+        this(chainsConfig, indexInfo, clusters, searchers, specialTokens, linguistics, renderers,
+             new AsyncExecutor(asyncExecutionConfig, metric));
+    }
+
+    /** Creates an execution factory using the executor of asynchronous executions shared by all containers */
     public ExecutionFactory(ChainsConfig chainsConfig,
                             IndexInfoConfig indexInfo,
                             QrSearchersConfig clusters,
@@ -42,11 +63,23 @@ public class ExecutionFactory extends AbstractComponent {
                             SpecialtokensConfig specialTokens,
                             Linguistics linguistics,
                             ComponentRegistry<Renderer> renderers) {
+        this(chainsConfig, indexInfo, clusters, searchers, specialTokens, linguistics, renderers, null);
+    }
+
+    private ExecutionFactory(ChainsConfig chainsConfig,
+                             IndexInfoConfig indexInfo,
+                             QrSearchersConfig clusters,
+                             ComponentRegistry<Searcher> searchers,
+                             SpecialtokensConfig specialTokens,
+                             Linguistics linguistics,
+                             ComponentRegistry<Renderer> renderers,
+                             AsyncExecutor asyncExecutor) {
         this.searchChainRegistry = createSearchChainRegistry(searchers, chainsConfig);
         this.indexFacts = new IndexFacts(new IndexModel(indexInfo, clusters)).freeze();
         this.specialTokens = new SpecialTokenRegistry(specialTokens);
         this.linguistics = linguistics;
         this.rendererRegistry = new RendererRegistry(renderers.allComponents());
+        this.asyncExecutor = asyncExecutor;
     }
 
     private SearchChainRegistry createSearchChainRegistry(ComponentRegistry<Searcher> searchers, ChainsConfig chainsConfig) {
@@ -63,7 +96,8 @@ public class ExecutionFactory extends AbstractComponent {
      */
     public Execution newExecution(Chain<? extends Searcher> searchChain) {
         return new Execution(searchChain,
-                             new Execution.Context(searchChainRegistry, indexFacts, specialTokens, rendererRegistry, linguistics));
+                             new Execution.Context(searchChainRegistry, indexFacts, specialTokens, rendererRegistry, linguistics,
+                                                  asyncExecutor));
     }
 
     /**
@@ -72,7 +106,8 @@ public class ExecutionFactory extends AbstractComponent {
      */
     public Execution newExecution(String searchChainId) {
         return new Execution(searchChainRegistry().getChain(searchChainId),
-                             new Execution.Context(searchChainRegistry, indexFacts, specialTokens, rendererRegistry, linguistics));
+                             new Execution.Context(searchChainRegistry, indexFacts, specialTokens, rendererRegistry, linguistics,
+                                                  asyncExecutor));
     }
 
     /** Returns the search chain registry used by this */
@@ -84,6 +119,8 @@ public class ExecutionFactory extends AbstractComponent {
     @Override
     public void deconstruct() {
         rendererRegistry.deconstruct();
+        if (asyncExecutor != null)
+            asyncExecutor.shutdown();
     }
 
     public static ExecutionFactory empty() {
@@ -85,6 +85,11 @@ public class FutureResult extends FutureTask<Result> {
         }
     }
 
+    /** Completes this with an error result without executing it, because there is no capacity to execute it */
+    void reject(String message) {
+        set(new Result(getQuery(), ErrorMessage.createNoBackendsInService("Error in " + execution + ": " + message)));
+    }
+
     /** Returns the query used in this execution, never null */
     public Query getQuery() {
         return query;
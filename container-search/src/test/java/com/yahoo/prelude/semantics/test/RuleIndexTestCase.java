@@ -0,0 +1,78 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.prelude.semantics.test;
+
+import com.yahoo.prelude.semantics.RuleBase;
+import com.yahoo.prelude.semantics.engine.RuleIndex;
+import com.yahoo.search.Query;
+import com.yahoo.search.test.QueryTestCase;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Tests selecting the rules to evaluate using the rule index
+ */
+public class RuleIndexTestCase {
+
+    private static final String rules =
+            "[brand] -> brand:[brand];\n" +
+            "[brand] :- sony, dell;\n" +
+            "car +> vehicle;\n" +
+            "vehicle +> transport;\n" +
+            "cheap [brand] -> budget [brand];\n" +
+            "![brand] cheap +> nobrand;\n" +
+            "[...] expensive -> premium;\n" +
+            "!nobrand +> nobrand;\n";
+
+    @Test
+    public void testIndexedRules() throws Exception {
+        RuleIndex index = RuleBase.createFromString("test", rules, null).getRuleIndex();
+        assertNotNull(index);
+        assertEquals(7, index.size());
+        assertEquals(1, index.unindexedSize()); // the negation rule
+
+        assertEquals(bits(0, 6), index.candidates(List.of("sony"), false));
+        assertEquals(bits(1, 6), index.candidates(List.of("car"), false));
+        assertEquals(bits(6), index.candidates(List.of("cars"), false));
+        assertEquals(bits(1, 6), index.candidates(List.of("cars"), true));
+        assertEquals(bits(2, 6), index.candidates(List.of("vehicles"), true));
+        assertEquals(bits(3, 4, 6), index.candidates(List.of("cheap"), false));
+        assertEquals(bits(5, 6), index.candidates(List.of("very", "expensive"), false));
+        assertEquals(bits(6), index.candidates(List.of("other"), true));
+    }
+
+    @Test
+    public void testIndexedEvaluationEqualsFullEvaluation() throws Exception {
+        RuleBase indexed = RuleBase.createFromString("test", rules, null);
+        RuleBase unindexed = RuleBase.createFromString("test", rules, null);
+        unindexed.setUseRuleIndex(false);
+
+        for (String query : List.of("sony", "car", "cars", "car sony", "vehicle", "cheap dell", "cheap thing",
+                                    "very expensive car", "other terms", "cheap"))
+            assertEquals("Rewriting '" + query + "'", analyze(unindexed, query), analyze(indexed, query));
+    }
+
+    @Test
+    public void testRulesMatchingTermsProducedByEarlierRules() throws Exception {
+        RuleBase ruleBase = RuleBase.createFromString("test", "car +> vehicle;\nvehicle +> transport;\n", null);
+        assertEquals("AND car vehicle transport", analyze(ruleBase, "car"));
+    }
+
+    private String analyze(RuleBase ruleBase, String queryString) {
+        Query query = new Query("?query=" + QueryTestCase.httpEncode(queryString) + "&language=und");
+        ruleBase.analyze(query, 0);
+        return query.getModel().getQueryTree().getRoot().toString();
+    }
+
+    private BitSet bits(int ... indexes) {
+        BitSet bits = new BitSet();
+        for (int index : indexes)
+            bits.set(index);
+        return bits;
+    }
+
+}
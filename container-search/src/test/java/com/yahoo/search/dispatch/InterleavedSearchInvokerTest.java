@@ -14,6 +14,7 @@ import com.yahoo.search.result.ErrorMessage;
 import com.yahoo.search.result.Hit;
 import com.yahoo.search.result.Relevance;
 import com.yahoo.test.ManualClock;
+import com.yahoo.vespa.config.search.DispatchConfig;
 import org.junit.Test;
 
 import java.io.IOException;
@@ -297,6 +298,78 @@ public class InterleavedSearchInvokerTest {
         assertEquals(3, result.getQuery().getHits());
     }
 
+    @Test
+    public void requireThatEarlyReturnSkipsNodesUnlikelyToChangeTopHits() throws IOException {
+        DispatchConfig config = new DispatchConfig(new DispatchConfig.Builder(createDispatchConfig())
+                                                           .topKEarlyReturn(true)
+                                                           .topKEarlyReturnProbability(0.5));
+        query.setHits(1);
+        Result result = createEarlyReturnTestInvoker(config, 10).search(query, null);
+
+        Coverage cov = result.getCoverage(false);
+        assertThat(cov.getNodes(), is(8));
+        assertThat(cov.getNodesTried(), is(10));
+        assertThat(cov.isDegradedByEarlyReturn(), is(true));
+        assertThat(cov.isDegradedByTimeout(), is(false));
+        assertThat(cov.getActive(), is(1000L));
+        assertEquals(1, result.hits().size());
+        assertEquals(100.0, result.hits().get(0).getRelevance().getScore(), DELTA);
+        assertTrue(findTrace(result, "Returned early without waiting for nodes").isPresent());
+    }
+
+    @Test
+    public void requireThatEarlyReturnProbabilityFollowsTheObservedSkewOfTopHits() {
+        // Top hits evenly distributed: Every answered node has some
+        assertEquals(0.01, InterleavedSearchInvoker.unchangedTopHitsProbability(8, 8, 2), DELTA);
+        // Top hits skewed: One of the answered nodes has some
+        assertEquals(0.64, InterleavedSearchInvoker.unchangedTopHitsProbability(1, 8, 2), DELTA);
+        // Few observations
+        assertEquals(Math.pow(2.0 / 3.0, 9), InterleavedSearchInvoker.unchangedTopHitsProbability(0, 1, 9), DELTA);
+        // Nothing pending
+        assertEquals(1.0, InterleavedSearchInvoker.unchangedTopHitsProbability(8, 8, 0), DELTA);
+    }
+
+    @Test
+    public void requireThatEarlyReturnIsControlledByQuery() throws IOException {
+        DispatchConfig config = new DispatchConfig(new DispatchConfig.Builder(createDispatchConfig())
+                                                           .topKEarlyReturnProbability(0.5));
+        query.setHits(1);
+        Result result = createEarlyReturnTestInvoker(config, 10).search(query, null);
+        assertThat(result.getCoverage(false).getNodes(), is(10));
+        assertThat(result.getCoverage(false).isDegradedByEarlyReturn(), is(false));
+
+        query = new TestQuery();
+        query.setHits(1);
+        query.properties().set(Dispatcher.topKEarlyReturn, true);
+        result = createEarlyReturnTestInvoker(config, 10).search(query, null);
+        assertThat(result.getCoverage(false).getNodes(), is(8));
+        assertThat(result.getCoverage(false).isDegradedByEarlyReturn(), is(true));
+    }
+
+    @Test
+    public void requireThatEarlyReturnIsNotUsedWhenTooFewHitsAreMerged() throws IOException {
+        DispatchConfig config = new DispatchConfig(new DispatchConfig.Builder(createDispatchConfig())
+                                                           .topKEarlyReturn(true)
+                                                           .topKEarlyReturnProbability(0.5));
+        query.setHits(20);
+        Result result = createEarlyReturnTestInvoker(config, 10).search(query, null);
+        assertThat(result.getCoverage(false).getNodes(), is(10));
+        assertEquals(10, result.hits().size());
+    }
+
+    /** Returns an invoker over the given number of nodes, which each return a single hit, the best from the first node */
+    private static InterleavedSearchInvoker createEarlyReturnTestInvoker(DispatchConfig config, int nodes) {
+        SearchCluster cluster = new MockSearchCluster("!", config, 1, nodes);
+        List<SearchInvoker> invokers = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            invokers.add(new MockInvoker(i, createCoverage(100, 100, 100, 1, 1, 0))
+                                 .setHits(createHits(List.of(i == 0 ? 100.0 : (double) i), 0, i)));
+        }
+        InterleavedSearchInvoker invoker = new InterleavedSearchInvoker(invokers, cluster, null);
+        invokers.forEach(invoker::responseAvailable);
+        return invoker;
+    }
+
     private static InterleavedSearchInvoker createInterLeavedTestInvoker(List<Double> a, List<Double> b) {
         SearchCluster cluster = new MockSearchCluster("!", 1, 2);
         List<SearchInvoker> invokers = new ArrayList<>();
@@ -0,0 +1,71 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.vespa.config.search.DispatchConfig;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares pairwise and k-way merging of the partial results from the content nodes of a group.
+ * Run with main.
+ */
+public class LeanHitMergerBenchmark {
+
+    private static final int needed = 400;
+
+    public void run() {
+        for (int nodes : new int[] { 8, 32, 128 }) {
+            List<List<LeanHit>> partials = createPartials(nodes, new TopKEstimator(30, 0.9999).estimateK(needed, nodes));
+            for (DispatchConfig.MergeStrategy.Enum strategy : DispatchConfig.MergeStrategy.Enum.values()) {
+                out("Warming up " + strategy + " with " + nodes + " nodes...");
+                long checksum = merge(strategy, partials, 10000);
+                long startTime = System.nanoTime();
+                int iterations = 100000;
+                checksum += merge(strategy, partials, iterations);
+                long endTime = System.nanoTime();
+                out(strategy + " merge of " + nodes + " partial results into " + needed + " hits took " +
+                    (endTime - startTime) / iterations + " ns per query (checksum " + checksum + ")");
+            }
+        }
+    }
+
+    private static long merge(DispatchConfig.MergeStrategy.Enum strategy, List<List<LeanHit>> partials, int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            LeanHitMerger merger = LeanHitMerger.create(strategy, needed, false);
+            partials.forEach(merger::add);
+            List<LeanHit> merged = new ArrayList<>(needed);
+            merger.addTo(merged, 0);
+            checksum += merged.get(merged.size() - 1).getDistributionKey();
+        }
+        return checksum;
+    }
+
+    private static List<List<LeanHit>> createPartials(int nodes, int hitsPerNode) {
+        Random random = new Random(1);
+        List<List<LeanHit>> partials = new ArrayList<>(nodes);
+        for (int node = 0; node < nodes; node++) {
+            LeanHit [] hits = new LeanHit[hitsPerNode];
+            for (int i = 0; i < hitsPerNode; i++) {
+                byte [] gid = ByteBuffer.allocate(12).putInt(node).putInt(i).array();
+                hits[i] = new LeanHit(gid, 0, node, random.nextDouble());
+            }
+            Arrays.sort(hits);
+            partials.add(Arrays.asList(hits));
+        }
+        return partials;
+    }
+
+    private void out(String string) {
+        System.out.println(string);
+    }
+
+    public static void main(String[] args) {
+        new LeanHitMergerBenchmark().run();
+    }
+
+}
@@ -0,0 +1,110 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.vespa.config.search.DispatchConfig;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LeanHitMergerTest {
+
+    private static LeanHit hit(int gid, double relevance) {
+        return new LeanHit(new byte[] {(byte) gid}, 0, 0, relevance);
+    }
+
+    private static List<LeanHit> merge(DispatchConfig.MergeStrategy.Enum strategy, int needed, int offset, List<List<LeanHit>> partials) {
+        LeanHitMerger merger = LeanHitMerger.create(strategy, needed, false);
+        partials.forEach(merger::add);
+        List<LeanHit> merged = new ArrayList<>();
+        merger.addTo(merged, offset);
+        return merged;
+    }
+
+    private static void assertRelevances(List<LeanHit> hits, double ... expected) {
+        assertEquals(expected.length, hits.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], hits.get(i).getRelevance(), 0.0);
+        }
+    }
+
+    @Test
+    public void requireThatKWayMergeObeysSortingOffsetAndDuplicates() {
+        List<List<LeanHit>> partials = List.of(List.of(hit(1, 9), hit(2, 5), hit(3, 1)),
+                                               List.of(),
+                                               List.of(hit(4, 8), hit(2, 5), hit(5, 4)),
+                                               List.of(hit(6, 7), hit(7, 6)));
+        assertRelevances(merge(DispatchConfig.MergeStrategy.KWAY, 10, 0, partials), 9, 8, 7, 6, 5, 4, 1);
+        assertRelevances(merge(DispatchConfig.MergeStrategy.KWAY, 5, 2, partials), 7, 6, 5);
+        assertRelevances(merge(DispatchConfig.MergeStrategy.KWAY, 5, 10, partials));
+    }
+
+    private static List<List<LeanHit>> randomPartials(Random random, int nodes, int needed) {
+        List<List<LeanHit>> partials = new ArrayList<>();
+        for (int node = 0; node < nodes; node++) {
+            Set<Integer> gids = new HashSet<>();
+            int count = random.nextInt(needed + 1);
+            while (gids.size() < count) {
+                gids.add(random.nextInt(128));
+            }
+            LeanHit [] hits = gids.stream().map(gid -> hit(gid, gid % 20)).toArray(LeanHit[]::new);
+            Arrays.sort(hits);
+            partials.add(Arrays.asList(hits));
+        }
+        return partials;
+    }
+
+    @Test
+    public void requireThatKWayAndPairwiseMergeGiveTheSameResult() {
+        Random random = new Random(17);
+        for (int round = 0; round < 100; round++) {
+            int nodes = 1 + random.nextInt(16);
+            int needed = 1 + random.nextInt(50);
+            int offset = random.nextInt(needed);
+            List<List<LeanHit>> partials = randomPartials(random, nodes, needed);
+            List<LeanHit> pairwise = merge(DispatchConfig.MergeStrategy.PAIRWISE, needed, offset, partials);
+            List<LeanHit> kway = merge(DispatchConfig.MergeStrategy.KWAY, needed, offset, partials);
+            assertEquals(pairwise.size(), kway.size());
+            for (int i = 0; i < pairwise.size(); i++) {
+                assertEquals(0, pairwise.get(i).compareTo(kway.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void requireThatKWayAndPairwiseMergeGiveTheSameLastNeededHit() {
+        Random random = new Random(17);
+        for (int round = 0; round < 100; round++) {
+            int needed = random.nextInt(50);
+            LeanHitMerger pairwise = LeanHitMerger.create(DispatchConfig.MergeStrategy.PAIRWISE, needed, true);
+            LeanHitMerger kway = LeanHitMerger.create(DispatchConfig.MergeStrategy.KWAY, needed, true);
+            for (List<LeanHit> partial : randomPartials(random, 1 + random.nextInt(16), Math.max(1, needed))) {
+                pairwise.add(partial);
+                kway.add(partial);
+                if (pairwise.lastNeeded() == null)
+                    assertNull(kway.lastNeeded());
+                else
+                    assertEquals(0, pairwise.lastNeeded().compareTo(kway.lastNeeded()));
+            }
+        }
+    }
+
+    @Test
+    public void requireThatKWayMergeOnlyTracksTheLastNeededHitWhenAsked() {
+        List<LeanHit> partial = List.of(hit(1, 9), hit(2, 5));
+        LeanHitMerger untracked = LeanHitMerger.create(DispatchConfig.MergeStrategy.KWAY, 2, false);
+        untracked.add(partial);
+        assertNull(untracked.lastNeeded());
+        LeanHitMerger tracked = LeanHitMerger.create(DispatchConfig.MergeStrategy.KWAY, 2, true);
+        tracked.add(partial);
+        assertEquals(5, tracked.lastNeeded().getRelevance(), 0.0);
+    }
+
+}
@@ -0,0 +1,169 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import com.yahoo.search.dispatch.searchcluster.Group;
+import com.yahoo.vespa.config.search.DispatchConfig.DistributionPolicy;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays synthetic latency distributions against each group scheduler of the load balancer,
+ * as a discrete event simulation of queries arriving at a fixed rate.
+ *
+ * Run main to print the latencies for each scenario and scheduler.
+ */
+public class LoadBalancerSimulationTest {
+
+    /** Groups 0-4 are twice as fast as groups 5-9 */
+    private static final Simulation mixedHardware = new Simulation(10, 4.0, 20000,
+            (group, time, inFlight, random) -> serviceTime(group < 5 ? 10 : 20, inFlight, random));
+
+    /** Group 3 is ten times slower than the others for ten seconds */
+    private static final Simulation briefOverload = new Simulation(12, 2.0, 20000,
+            (group, time, inFlight, random) -> serviceTime((group == 3 && time > 10000 && time < 20000) ? 100 : 10, inFlight, random));
+
+    /** All groups are equal, and latency has a long tail */
+    private static final Simulation longTail = new Simulation(10, 2.0, 20000,
+            (group, time, inFlight, random) -> serviceTime(random.nextDouble() < 0.01 ? 100 : 10, inFlight, random));
+
+    @Test
+    public void requireThatBestOfRandom2ReducesLatencyOnMixedHardware() {
+        Latencies roundRobin = mixedHardware.run(DistributionPolicy.ROUNDROBIN);
+        Latencies adaptive = mixedHardware.run(DistributionPolicy.ADAPTIVE);
+        Latencies bestOfRandom2 = mixedHardware.run(DistributionPolicy.BEST_OF_RANDOM_2);
+        assertTrue(bestOfRandom2 + " vs " + roundRobin, bestOfRandom2.mean() < roundRobin.mean());
+        assertTrue(bestOfRandom2 + " vs " + adaptive, bestOfRandom2.mean() < adaptive.mean());
+        assertTrue(bestOfRandom2 + " vs " + adaptive, bestOfRandom2.percentile(99) < adaptive.percentile(99));
+    }
+
+    @Test
+    public void requireThatBestOfRandom2ReducesTailLatencyOnBriefOverload() {
+        Latencies roundRobin = briefOverload.run(DistributionPolicy.ROUNDROBIN);
+        Latencies adaptive = briefOverload.run(DistributionPolicy.ADAPTIVE);
+        Latencies bestOfRandom2 = briefOverload.run(DistributionPolicy.BEST_OF_RANDOM_2);
+        assertTrue(bestOfRandom2 + " vs " + roundRobin, bestOfRandom2.percentile(99) < roundRobin.percentile(99));
+        assertTrue(bestOfRandom2 + " vs " + adaptive, bestOfRandom2.percentile(99) < adaptive.percentile(99));
+    }
+
+    @Test
+    public void requireThatAllSchedulersServeEqualGroups() {
+        for (DistributionPolicy.Enum policy : DistributionPolicy.Enum.values()) {
+            Latencies latencies = longTail.run(policy);
+            assertTrue(policy + ": " + latencies, latencies.percentile(50) < 20);
+        }
+    }
+
+    /** Returns the time to serve a query with the given base latency, with up to 4 queries served in parallel */
+    private static double serviceTime(double baseLatency, int inFlight, Random random) {
+        return baseLatency * (1 + inFlight / 4.0) * (0.8 + 0.4 * random.nextDouble());
+    }
+
+    interface LatencyModel {
+
+        /** Returns the latency in ms of a query started at the given time on a group having the given queries in flight */
+        double latency(int group, double timeMs, int inFlight, Random random);
+
+    }
+
+    static class Simulation {
+
+        private final int groups;
+        private final double queryIntervalMs;
+        private final int queries;
+        private final LatencyModel model;
+
+        Simulation(int groups, double queryIntervalMs, int queries, LatencyModel model) {
+            this.groups = groups;
+            this.queryIntervalMs = queryIntervalMs;
+            this.queries = queries;
+            this.model = model;
+        }
+
+        Latencies run(DistributionPolicy.Enum policy) {
+            MockSearchCluster cluster = new MockSearchCluster("!", groups, 1);
+            LoadBalancer loadBalancer = new LoadBalancer(cluster, policy, new Random(1));
+            Random random = new Random(2);
+            int [] inFlight = new int[groups];
+            double [] latencies = new double[queries];
+            PriorityQueue<Completion> pending = new PriorityQueue<>();
+            for (int i = 0; i < queries; i++) {
+                double now = i * queryIntervalMs;
+                while ( ! pending.isEmpty() && pending.peek().time <= now) {
+                    complete(pending.poll(), loadBalancer, inFlight);
+                }
+                Group group = loadBalancer.takeGroup(null).get();
+                latencies[i] = model.latency(group.id(), now, inFlight[group.id()], random);
+                inFlight[group.id()]++;
+                pending.add(new Completion(now + latencies[i], latencies[i], group));
+            }
+            while ( ! pending.isEmpty()) {
+                complete(pending.poll(), loadBalancer, inFlight);
+            }
+            return new Latencies(latencies);
+        }
+
+        private static void complete(Completion completion, LoadBalancer loadBalancer, int [] inFlight) {
+            inFlight[completion.group.id()]--;
+            loadBalancer.releaseGroup(completion.group, true, completion.latency);
+        }
+
+    }
+
+    private static class Completion implements Comparable<Completion> {
+
+        final double time;
+        final double latency;
+        final Group group;
+
+        Completion(double time, double latency, Group group) {
+            this.time = time;
+            this.latency = latency;
+            this.group = group;
+        }
+
+        @Override
+        public int compareTo(Completion other) {
+            return Double.compare(time, other.time);
+        }
+
+    }
+
+    static class Latencies {
+
+        private final double [] sorted;
+
+        Latencies(double [] latencies) {
+            this.sorted = latencies.clone();
+            Arrays.sort(sorted);
+        }
+
+        double mean() {
+            return Arrays.stream(sorted).average().orElse(0);
+        }
+
+        double percentile(int percentile) {
+            return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("mean %.1f ms, p50 %.1f ms, p99 %.1f ms, max %.1f ms",
+                                 mean(), percentile(50), percentile(99), sorted[sorted.length - 1]);
+        }
+
+    }
+
+    public static void main(String[] args) {
+        for (DistributionPolicy.Enum policy : DistributionPolicy.Enum.values()) {
+            System.out.println(policy + " mixed hardware: " + mixedHardware.run(policy));
+            System.out.println(policy + " brief overload: " + briefOverload.run(policy));
+            System.out.println(policy + " long tail: " + longTail.run(policy));
+        }
+    }
+
+}
@@ -33,6 +33,8 @@ class MockInvoker extends SearchInvoker {
         return this;
     }
 
+    List<Hit> hits() { return hits; }
+
     @Override
     protected Object sendSearchRequest(Query query, Object context) throws IOException {
         this.query = query;
@@ -0,0 +1,262 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.dispatch;
+
+import ai.vespa.searchlib.searchprotocol.protobuf.SearchProtocol;
+import com.yahoo.jdisc.Metric;
+import com.yahoo.prelude.fastsearch.FastHit;
+import com.yahoo.prelude.fastsearch.GroupingListHit;
+import com.yahoo.prelude.fastsearch.VespaBackEndSearcher;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.grouping.vespa.GroupingExecutor;
+import com.yahoo.search.result.Coverage;
+import com.yahoo.search.result.ErrorMessage;
+import com.yahoo.search.result.Hit;
+import com.yahoo.searchlib.aggregation.Group;
+import com.yahoo.searchlib.aggregation.Grouping;
+import com.yahoo.searchlib.expression.StringResultNode;
+import com.yahoo.test.ManualClock;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ResultCacheTest {
+
+    private final ManualClock clock = new ManualClock();
+    private final CountingMetric metric = new CountingMetric();
+    private final ResultCache cache = new ResultCache(2, Duration.ofSeconds(10), clock, metric);
+
+    private final VespaBackEndSearcher searcher = mock(VespaBackEndSearcher.class);
+
+    private int invocations = 0;
+
+    @Test
+    public void requireThatRepeatedQueriesAreServedFromCache() throws IOException {
+        Result first = search("?query=foo&hits=5", 0);
+        Result second = search("?query=foo&hits=5", 0);
+        assertEquals(1, invocations);
+        assertEquals(3, second.hits().size());
+        assertEquals(first.getTotalHitCount(), second.getTotalHitCount());
+        assertEquals(first.getCoverage(false).getDocs(), second.getCoverage(false).getDocs());
+        for (int i = 0; i < first.hits().size(); i++) {
+            assertEquals(first.hits().get(i).getRelevance(), second.hits().get(i).getRelevance());
+            assertTrue(second.hits().get(i) != first.hits().get(i));
+        }
+        assertEquals(1, metric.count(ResultCache.HITS_METRIC));
+        assertEquals(1, metric.count(ResultCache.MISSES_METRIC));
+    }
+
+    @Test
+    public void requireThatDifferentQueriesAreNotServedFromCache() throws IOException {
+        search("?query=foo&hits=5", 0);
+        search("?query=bar&hits=5", 0);
+        search("?query=foo&hits=6", 0);
+        search("?query=foo&hits=5&ranking=other", 0);
+        assertEquals(4, invocations);
+        assertEquals(0, metric.count(ResultCache.HITS_METRIC));
+    }
+
+    @Test
+    public void requireThatResultsExpire() throws IOException {
+        search("?query=foo", 0);
+        clock.advance(Duration.ofSeconds(5));
+        search("?query=foo", 0);
+        assertEquals(1, invocations);
+        clock.advance(Duration.ofSeconds(6));
+        search("?query=foo", 0);
+        assertEquals(2, invocations);
+        assertEquals(1, metric.count(ResultCache.EVICTIONS_METRIC));
+    }
+
+    @Test
+    public void requireThatNewClusterGenerationInvalidatesCache() throws IOException {
+        search("?query=foo", 0);
+        search("?query=bar", 0);
+        search("?query=foo", 1);
+        assertEquals(3, invocations);
+        assertEquals(1, cache.size());
+        assertEquals(2, metric.count(ResultCache.EVICTIONS_METRIC));
+        search("?query=foo", 1);
+        assertEquals(3, invocations);
+    }
+
+    @Test
+    public void requireThatLeastRecentlyUsedResultIsEvicted() throws IOException {
+        search("?query=a", 0);
+        search("?query=b", 0);
+        search("?query=a", 0);
+        search("?query=c", 0);
+        assertEquals(3, invocations);
+        assertEquals(2, cache.size());
+        assertEquals(1, metric.count(ResultCache.EVICTIONS_METRIC));
+        search("?query=a", 0);
+        assertEquals(3, invocations);
+        search("?query=b", 0);
+        assertEquals(4, invocations);
+    }
+
+    @Test
+    public void requireThatIncompleteResultsAreNotCached() throws IOException {
+        search("?query=foo", 0, () -> createInvoker(new Coverage(50, 100, 1)));
+        search("?query=foo", 0, () -> createInvoker(new Coverage(100, 100, 1).setDegradedReason(Coverage.DEGRADED_BY_TIMEOUT)));
+        search("?query=foo", 0, () -> new SearchErrorInvoker(ErrorMessage.createTimeout("timeout")));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void requireThatQueriesWhichShouldNotBeCachedAreNot() throws IOException {
+        search("?query=foo&noCache", 0);
+        search("?query=foo&tracelevel=1", 0);
+        search("?query=foo&model.searchPath=0", 0);
+        Query grouping = new Query("?query=foo");
+        GroupingExecutor.setGroupingList(grouping, List.of(new Grouping()));
+        cache.getSearchInvoker(grouping, searcher, 0, () -> createInvoker(fullCoverage())).search(grouping, null);
+        assertEquals(0, cache.size());
+        assertEquals(0, metric.count(ResultCache.MISSES_METRIC));
+    }
+
+    @Test
+    public void requireThatDisabledCacheIsNotUsed() throws IOException {
+        ResultCache disabled = new ResultCache(0, Duration.ofSeconds(10), clock, metric);
+        Query query = new Query("?query=foo");
+        disabled.getSearchInvoker(query, searcher, 0, () -> createInvoker(fullCoverage())).search(query, null);
+        assertEquals(0, disabled.size());
+        assertEquals(0, metric.count(ResultCache.MISSES_METRIC));
+    }
+
+    @Test
+    public void requireThatGroupingPassesAreServedFromGroupingCache() throws IOException {
+        ResultCache groupingCache = new ResultCache(true, 2, Duration.ofSeconds(10), clock, metric);
+
+        Result first = searchGrouping(groupingCache, new Grouping(0), 0);
+        Result second = searchGrouping(groupingCache, new Grouping(0), 0);
+        assertEquals(1, invocations);
+        assertEquals(1, metric.count(ResultCache.GROUPING_HITS_METRIC));
+        assertEquals(1, metric.count(ResultCache.GROUPING_MISSES_METRIC));
+        assertEquals(0, metric.count(ResultCache.HITS_METRIC));
+
+        Grouping firstGrouping = groupingOf(first);
+        Grouping secondGrouping = groupingOf(second);
+        assertEquals(firstGrouping, secondGrouping);
+        assertNotSame(firstGrouping, secondGrouping);
+        assertEquals(first.hits().size(), second.hits().size());
+        assertEquals(first.getTotalHitCount(), second.getTotalHitCount());
+
+        // Groupings are merged into by the grouping executor, which must not change the cached groupings
+        secondGrouping.getRoot().addChild(new Group().setId(new StringResultNode("added")));
+        assertEquals(firstGrouping, groupingOf(searchGrouping(groupingCache, new Grouping(0), 0)));
+        assertEquals(1, invocations);
+
+        // Later passes contain a different grouping state
+        Grouping nextPass = new Grouping(0);
+        nextPass.getRoot().addChild(new Group().setId(new StringResultNode("group")));
+        searchGrouping(groupingCache, nextPass, 0);
+        assertEquals(2, invocations);
+
+        searchGrouping(groupingCache, new Grouping(0), 1);
+        assertEquals(3, invocations);
+    }
+
+    @Test
+    public void requireThatTheSearchRequestOfTheKeyIsPassedToTheInvokerOnMisses() throws IOException {
+        List<Object> contexts = new ArrayList<>();
+        search("?query=foo&hits=5", 0, () -> new MockInvoker(0, fullCoverage()) {
+            @Override
+            protected Object sendSearchRequest(Query query, Object context) throws IOException {
+                contexts.add(context);
+                return super.sendSearchRequest(query, context);
+            }
+        });
+        assertEquals(1, contexts.size());
+        assertTrue(contexts.get(0) instanceof SearchProtocol.SearchRequest);
+    }
+
+    @Test
+    public void requireThatCachesHoldEitherGroupingOrNonGroupingResults() throws IOException {
+        ResultCache groupingCache = new ResultCache(true, 2, Duration.ofSeconds(10), clock, metric);
+        Query query = new Query("?query=foo");
+        groupingCache.getSearchInvoker(query, searcher, 0, () -> createInvoker(fullCoverage())).search(query, null);
+        assertEquals(0, groupingCache.size());
+
+        searchGrouping(cache, new Grouping(0), 0);
+        assertEquals(0, cache.size());
+    }
+
+    private Result searchGrouping(ResultCache cache, Grouping grouping, long generation) throws IOException {
+        Query query = new Query("?query=foo&hits=5");
+        GroupingExecutor.setGroupingList(query, List.of(grouping));
+        try (SearchInvoker searchInvoker = cache.getSearchInvoker(query, searcher, generation, () -> {
+                    invocations++;
+                    SearchInvoker invoker = createInvoker(fullCoverage());
+                    List<Hit> hits = new ArrayList<>(((MockInvoker)invoker).hits());
+                    Grouping result = grouping.clone();
+                    result.getRoot().addChild(new Group().setId(new StringResultNode("result")));
+                    hits.add(new GroupingListHit(List.of(result), null));
+                    return ((MockInvoker)invoker).setHits(hits);
+                })) {
+            return searchInvoker.search(query, null);
+        }
+    }
+
+    private static Grouping groupingOf(Result result) {
+        for (Hit hit : result.hits())
+            if (hit instanceof GroupingListHit) return ((GroupingListHit)hit).getGroupingList().get(0);
+        throw new IllegalArgumentException("No grouping in " + result);
+    }
+
+    private Result search(String request, long generation) throws IOException {
+        return search(request, generation, () -> createInvoker(fullCoverage()));
+    }
+
+    private Result search(String request, long generation, Supplier<SearchInvoker> invoker) throws IOException {
+        Query query = new Query(request);
+        try (SearchInvoker searchInvoker = cache.getSearchInvoker(query, searcher, generation, () -> {
+                    invocations++;
+                    return invoker.get();
+                })) {
+            return searchInvoker.search(query, null);
+        }
+    }
+
+    private static Coverage fullCoverage() {
+        return new Coverage(100, 100, 1);
+    }
+
+    private static SearchInvoker createInvoker(Coverage coverage) {
+        List<Hit> hits = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            hits.add(new FastHit(new byte[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, (byte)i }, 1.0 - i * 0.1, 0, 0));
+        return new MockInvoker(0, coverage).setHits(hits);
+    }
+
+    private static class CountingMetric implements Metric {
+
+        private final Map<String, Long> counts = new HashMap<>();
+
+        long count(String key) { return counts.getOrDefault(key, 0L); }
+
+        @Override
+        public void set(String key, Number value, Context context) { }
+
+        @Override
+        public void add(String key, Number value, Context context) {
+            counts.merge(key, value.longValue(), Long::sum);
+        }
+
+        @Override
+        public Context createContext(Map<String, ?> properties) { return null; }
+
+    }
+
+}
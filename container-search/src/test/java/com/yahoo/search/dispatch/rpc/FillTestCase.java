@@ -1,13 +1,16 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.search.dispatch.rpc;
 
+import com.yahoo.jdisc.Metric;
 import com.yahoo.prelude.fastsearch.DocsumDefinition;
 import com.yahoo.prelude.fastsearch.DocsumDefinitionSet;
 import com.yahoo.prelude.fastsearch.DocsumField;
 import com.yahoo.prelude.fastsearch.DocumentDatabase;
 import com.yahoo.prelude.fastsearch.FastHit;
+import com.yahoo.prelude.fastsearch.test.MockMetric;
 import com.yahoo.search.Query;
 import com.yahoo.search.Result;
+import com.yahoo.search.dispatch.FillInvoker;
 
 import org.junit.Test;
 
@@ -36,7 +39,7 @@ public class FillTestCase {
         nodes.put(1, client.createConnection("host1", 123));
         nodes.put(2, client.createConnection("host2", 123));
         RpcResourcePool rpcResourcePool = new RpcResourcePool(nodes);
-        RpcInvokerFactory factory = new RpcInvokerFactory(rpcResourcePool, null);
+        RpcInvokerFactory factory = new RpcInvokerFactory(rpcResourcePool, null, new MockMetric());
 
         Query query = new Query();
         Result result = new Result(query);
@@ -66,6 +69,92 @@ public class FillTestCase {
         assertEquals(4L, result.hits().get("hit:4").getField("field2"));
     }
 
+    @Test
+    public void testFillingWithProtobuf() {
+        for (String compression : List.of("lz4", "none")) {
+            Map<Integer, Client.NodeConnection> nodes = new HashMap<>();
+            nodes.put(0, client.createConnection("host0", 123));
+            nodes.put(1, client.createConnection("host1", 123));
+            RpcResourcePool rpcResourcePool = new RpcResourcePool(nodes);
+
+            Query query = new Query();
+            query.properties().set(RpcResourcePool.dispatchCompression, compression);
+            Result result = new Result(query);
+            String longValue = "a long, repetitive, compressible value".repeat(10);
+            for (int i = 0; i < 10; i++) {
+                result.hits().add(createHit(i % 2, i));
+                client.setDocsumReponse("host" + (i % 2), i, "summaryClass1", map("field1", i + longValue, "field2", i));
+            }
+
+            new RpcProtobufFillInvoker(rpcResourcePool, db(), "server", false, new MockMetric(), null).fill(result, "summaryClass1");
+
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i + longValue, result.hits().get("hit:" + i).getField("field1").toString());
+                assertEquals((long)i, result.hits().get("hit:" + i).getField("field2"));
+            }
+            assertNull(result.hits().getError());
+        }
+    }
+
+    @Test
+    public void testFillingWithHitsSplitOverMultipleRequestsPerNode() {
+        for (boolean protobuf : List.of(true, false)) {
+            Map<Integer, Client.NodeConnection> nodes = new HashMap<>();
+            nodes.put(0, client.createConnection("host0", 123));
+            nodes.put(1, client.createConnection("host1", 123));
+            RpcResourcePool rpcResourcePool = new RpcResourcePool(nodes, 3, 2);
+            List<Number> fillRequests = new ArrayList<>();
+            List<Number> latencies = new ArrayList<>();
+            Metric metric = new MockMetric() {
+                @Override
+                public void set(String key, Number value, Context context) {
+                    if (key.equals(RpcProtobufFillInvoker.FILL_REQUESTS_METRIC)) fillRequests.add(value);
+                    if (key.equals(RpcProtobufFillInvoker.FILL_REQUEST_LATENCY_METRIC)) latencies.add(value);
+                }
+            };
+
+            Query query = new Query();
+            Result result = new Result(query);
+            for (int i = 0; i < 12; i++) {
+                int node = i < 10 ? 0 : 1;
+                result.hits().add(createHit(node, i));
+                client.setDocsumReponse("host" + node, i, "summaryClass1", map("field1", "s." + node + "." + i, "field2", i));
+            }
+
+            FillInvoker invoker = protobuf ? new RpcProtobufFillInvoker(rpcResourcePool, db(), "server", false, metric, null)
+                                           : new RpcInvokerFactory(rpcResourcePool, null, metric).createFillInvoker(db());
+            invoker.fill(result, "summaryClass1");
+
+            for (int i = 0; i < 12; i++) {
+                assertEquals("s." + (i < 10 ? 0 : 1) + "." + i, result.hits().get("hit:" + i).getField("field1").toString());
+                assertEquals((long)i, result.hits().get("hit:" + i).getField("field2"));
+            }
+            assertNull(result.hits().getError());
+            assertEquals(List.of(3), fillRequests);
+            assertEquals(3, latencies.size());
+        }
+    }
+
+    @Test
+    public void testSplittingHitsIntoRequests() {
+        List<FastHit> hits = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            hits.add(createHit(0, i));
+
+        assertEquals(List.of(10), batchSizes(RpcProtobufFillInvoker.split(hits, 0, 4)));
+        assertEquals(List.of(10), batchSizes(RpcProtobufFillInvoker.split(hits, 10, 4)));
+        assertEquals(List.of(5, 5), batchSizes(RpcProtobufFillInvoker.split(hits, 5, 4)));
+        assertEquals(List.of(3, 3, 4), batchSizes(RpcProtobufFillInvoker.split(hits, 4, 4)));
+        assertEquals(List.of(2, 3, 2, 3), batchSizes(RpcProtobufFillInvoker.split(hits, 1, 4)));
+        assertEquals(List.of(10), batchSizes(RpcProtobufFillInvoker.split(hits, 1, 0)));
+    }
+
+    private static List<Integer> batchSizes(List<List<FastHit>> batches) {
+        List<Integer> sizes = new ArrayList<>();
+        batches.forEach(batch -> sizes.add(batch.size()));
+        return sizes;
+    }
+
     @Test
     public void testEmptyHits() {
         Map<Integer, Client.NodeConnection> nodes = new HashMap<>();
@@ -73,7 +162,7 @@ public class FillTestCase {
         nodes.put(1, client.createConnection("host1", 123));
         nodes.put(2, client.createConnection("host2", 123));
         RpcResourcePool rpcResourcePool = new RpcResourcePool(nodes);
-        RpcInvokerFactory factory = new RpcInvokerFactory(rpcResourcePool, null);
+        RpcInvokerFactory factory = new RpcInvokerFactory(rpcResourcePool, null, new MockMetric());
 
         Query query = new Query();
         Result result = new Result(query);
@@ -113,7 +202,7 @@ public class FillTestCase {
         nodes.put(1, client.createConnection("host1", 123));
         nodes.put(2, client.createConnection("host2", 123));
         RpcResourcePool rpcResourcePool = new RpcResourcePool(nodes);
-        RpcInvokerFactory factory = new RpcInvokerFactory(rpcResourcePool, null);
+        RpcInvokerFactory factory = new RpcInvokerFactory(rpcResourcePool, null, new MockMetric());
 
         Query query = new Query();
         Result result = new Result(query);
@@ -153,7 +242,7 @@ public class FillTestCase {
         Map<Integer, Client.NodeConnection> nodes = new HashMap<>();
         nodes.put(0, client.createConnection("host0", 123));
         RpcResourcePool rpcResourcePool = new RpcResourcePool(nodes);
-        RpcInvokerFactory factory = new RpcInvokerFactory(rpcResourcePool, null);
+        RpcInvokerFactory factory = new RpcInvokerFactory(rpcResourcePool, null, new MockMetric());
 
         Query query = new Query();
         Result result = new Result(query);
@@ -171,7 +260,7 @@ public class FillTestCase {
         Map<Integer, Client.NodeConnection> nodes = new HashMap<>();
         nodes.put(0, client.createConnection("host0", 123));
         RpcResourcePool rpcResourcePool = new RpcResourcePool(nodes);
-        RpcInvokerFactory factory = new RpcInvokerFactory(rpcResourcePool, null);
+        RpcInvokerFactory factory = new RpcInvokerFactory(rpcResourcePool, null, new MockMetric());
 
         Query query = new Query();
         Result result = new Result(query);
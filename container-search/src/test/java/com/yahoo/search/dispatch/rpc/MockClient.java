@@ -1,6 +1,9 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.search.dispatch.rpc;
 
+import ai.vespa.searchlib.searchprotocol.protobuf.SearchProtocol;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.yahoo.compress.CompressionType;
 import com.yahoo.compress.Compressor;
 import com.yahoo.document.GlobalId;
@@ -61,30 +64,9 @@ public class MockClient implements Client {
             }
 
             Inspector request = BinaryFormat.decode(compressor.decompress(compressedSlime, compression, uncompressedSize)).get();
-            String docsumClass = request.field("class").asString();
-            List<Map<String, Object>> docsumsToReturn = new ArrayList<>();
-            request.field("gids").traverse((ArrayTraverser) (index, gid) -> {
-                GlobalId docId = new GlobalId(gid.asData());
-                docsumsToReturn.add(docsums.get(new DocsumKey(toString(), docId, docsumClass)));
-            });
-            Slime responseSlime = new Slime();
-            Cursor root = responseSlime.setObject();
-            Cursor docsums = root.setArray("docsums");
-            for (Map<String, Object> docsumFields : docsumsToReturn) {
-                if (docsumFields == null) continue;
-
-                Cursor docsumItem = docsums.addObject();
-                Cursor docsum = docsumItem.setObject("docsum");
-                for (Map.Entry<String, Object> field : docsumFields.entrySet()) {
-                    if (field.getValue() instanceof Integer)
-                        docsum.setLong(field.getKey(), (Integer) field.getValue());
-                    else if (field.getValue() instanceof String)
-                        docsum.setString(field.getKey(), (String) field.getValue());
-                    else
-                        throw new RuntimeException();
-                }
-            }
-            byte[] slimeBytes = BinaryFormat.encode(responseSlime);
+            List<byte[]> gids = new ArrayList<>();
+            request.field("gids").traverse((ArrayTraverser) (index, gid) -> gids.add(gid.asData()));
+            byte[] slimeBytes = docsumSlime(request.field("class").asString(), gids);
             CompressionType responseCompressionType = compression == CompressionType.INCOMPRESSIBLE ? CompressionType.NONE : compression;
             Compressor.Compression compressionResult = compressor.compress(responseCompressionType, slimeBytes);
             GetDocsumsResponse response = new GetDocsumsResponse(compressionResult.type().getCode(), slimeBytes.length,
@@ -100,6 +82,11 @@ public class MockClient implements Client {
                 return;
             }
 
+            if (rpcMethod.equals("vespa.searchprotocol.getDocsums")) {
+                requestDocsums(compression, uncompressedLength, compressedPayload, responseReceiver);
+                return;
+            }
+
             if(searchResult == null) {
                 responseReceiver.receive(ResponseOrError.fromError("No result defined"));
                 return;
@@ -110,6 +97,49 @@ public class MockClient implements Client {
             responseReceiver.receive(ResponseOrError.fromResponse(response));
         }
 
+        private void requestDocsums(CompressionType compression, int uncompressedLength, byte[] compressedPayload,
+                                    ResponseReceiver responseReceiver) {
+            try {
+                var request = SearchProtocol.DocsumRequest.parseFrom(compressor.decompress(compressedPayload, compression, uncompressedLength));
+                List<byte[]> gids = new ArrayList<>();
+                request.getGlobalIdsList().forEach(gid -> gids.add(gid.toByteArray()));
+                byte[] payload = SearchProtocol.DocsumReply.newBuilder()
+                                                           .setSlimeSummaries(ByteString.copyFrom(docsumSlime(request.getSummaryClass(), gids)))
+                                                           .build().toByteArray();
+                CompressionType responseCompressionType = compression == CompressionType.INCOMPRESSIBLE ? CompressionType.NONE : compression;
+                var compressionResult = compressor.compress(responseCompressionType, payload);
+                var response = new ProtobufResponse(compressionResult.type().getCode(), payload.length, compressionResult.data());
+                responseReceiver.receive(ResponseOrError.fromResponse(response));
+            } catch (InvalidProtocolBufferException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+
+        /** Returns the binary slime docsums of the given class of the given documents on this node */
+        private byte[] docsumSlime(String docsumClass, List<byte[]> gids) {
+            List<Map<String, Object>> docsumsToReturn = new ArrayList<>();
+            for (byte[] gid : gids)
+                docsumsToReturn.add(docsums.get(new DocsumKey(toString(), new GlobalId(gid), docsumClass)));
+            Slime responseSlime = new Slime();
+            Cursor root = responseSlime.setObject();
+            Cursor docsums = root.setArray("docsums");
+            for (Map<String, Object> docsumFields : docsumsToReturn) {
+                if (docsumFields == null) continue;
+
+                Cursor docsumItem = docsums.addObject();
+                Cursor docsum = docsumItem.setObject("docsum");
+                for (Map.Entry<String, Object> field : docsumFields.entrySet()) {
+                    if (field.getValue() instanceof Integer)
+                        docsum.setLong(field.getKey(), (Integer) field.getValue());
+                    else if (field.getValue() instanceof String)
+                        docsum.setString(field.getKey(), (String) field.getValue());
+                    else
+                        throw new RuntimeException();
+                }
+            }
+            return BinaryFormat.encode(responseSlime);
+        }
+
         @Override
         public void close() { }
 
@@ -180,6 +180,21 @@ public class SearchClusterTest {
         }
     }
 
+    @Test
+    public void requireThatGenerationChangesWhenActiveDocumentsChange() {
+        try (State test = new State("cluster.1", 2, "a", "b")) {
+            test.waitOneFullPingRound();
+            test.waitOneFullPingRound();
+            long generation = test.searchCluster.generation();
+            test.waitOneFullPingRound();
+            assertEquals(generation, test.searchCluster.generation());
+
+            test.numDocsPerNode.get(0).set(2);
+            test.waitOneFullPingRound();
+            assertTrue(test.searchCluster.generation() > generation);
+        }
+    }
+
     @Test
     public void requireThatVipStatusIsDefaultDownWithLocalDispatch() {
         try (State test = new State("cluster.1", 1, HostName.getLocalhost(), "b")) {
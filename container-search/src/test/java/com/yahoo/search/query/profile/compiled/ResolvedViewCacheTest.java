@@ -0,0 +1,72 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.query.profile.compiled;
+
+import com.yahoo.processing.request.CompoundName;
+import com.yahoo.search.query.profile.QueryProfile;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResolvedViewCacheTest {
+
+    @Test
+    public void views_are_cached_per_combination_of_dimension_values() {
+        CompiledQueryProfile profile = createProfile();
+        ResolvedViewCache cache = profile.resolvedViews();
+
+        assertEquals("default", profile.get("a", Map.of(), null));
+        assertEquals("x1", profile.get("a", Map.of("x", "x1"), null));
+        assertEquals("x1", profile.get("a", Map.of("x", "x1", "y", "y?"), null));
+        assertEquals("x1y1", profile.get("a", Map.of("x", "x1", "y", "y1"), null));
+        assertEquals("x1y1", profile.get("a", Map.of("x", "x1", "y", "y1", "other", "ignored"), null));
+        assertEquals("b", profile.get("b", Map.of("x", "x1", "y", "y1"), null));
+        assertNull(profile.get("c", Map.of("x", "x1", "y", "y1"), null));
+        assertEquals(Map.of("a", "x1y1", "b", "b"), profile.listValues(CompoundName.empty, Map.of("x", "x1", "y", "y1"), null));
+
+        assertEquals(4, cache.size());
+        assertEquals(4, cache.misses());
+        assertEquals(4, cache.hits());
+        assertEquals(0, cache.evictions());
+
+        ResolvedView view = profile.resolve(Map.of("x", "x1", "y", "y1"));
+        assertSame(view, profile.resolve(Map.of("y", "y1", "x", "x1")));
+        assertTrue(view.matches(Map.of("x", "x1", "y", "y1", "other", "ignored")));
+        assertFalse(view.matches(Map.of("x", "x1")));
+    }
+
+    @Test
+    public void least_recently_used_views_are_evicted() {
+        CompiledQueryProfile profile = createProfile();
+        ResolvedViewCache cache = new ResolvedViewCache(profile.getEntries(), 2, null, "test");
+
+        ResolvedView first = cache.get(Map.of("x", "x1"));
+        cache.get(Map.of("x", "x2"));
+        assertSame(first, cache.get(Map.of("x", "x1")));
+        cache.get(Map.of("x", "x3")); // evicts x2
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+
+        assertSame(first, cache.get(Map.of("x", "x1")));
+        cache.get(Map.of("x", "x2"));
+        assertEquals(4, cache.misses());
+        assertEquals(2, cache.hits());
+        assertEquals(2, cache.evictions());
+    }
+
+    private static CompiledQueryProfile createProfile() {
+        QueryProfile profile = new QueryProfile("test");
+        profile.setDimensions(new String[] { "x", "y" });
+        profile.set("a", "default", null);
+        profile.set("b", "b", null);
+        profile.set("a", "x1", new String[] { "x1", null }, null);
+        profile.set("a", "x1y1", new String[] { "x1", "y1" }, null);
+        return profile.compile(null);
+    }
+
+}
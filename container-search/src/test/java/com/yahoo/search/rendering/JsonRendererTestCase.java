@@ -22,6 +22,8 @@ import com.yahoo.prelude.Index;
 import com.yahoo.prelude.IndexFacts;
 import com.yahoo.prelude.IndexModel;
 import com.yahoo.prelude.SearchDefinition;
+import com.yahoo.prelude.fastsearch.DocsumDefinition;
+import com.yahoo.prelude.fastsearch.DocsumField;
 import com.yahoo.prelude.fastsearch.FastHit;
 import com.yahoo.prelude.hitfield.JSONString;
 import com.yahoo.prelude.hitfield.RawData;
@@ -49,6 +51,8 @@ import com.yahoo.search.statistics.ElapsedTimeTestCase;
 import com.yahoo.search.statistics.ElapsedTimeTestCase.CreativeTimeSource;
 import com.yahoo.search.statistics.ElapsedTimeTestCase.UselessSearcher;
 import com.yahoo.search.statistics.TimeTracker;
+import com.yahoo.slime.BinaryFormat;
+import com.yahoo.slime.BinaryView;
 import com.yahoo.slime.Cursor;
 import com.yahoo.slime.Slime;
 import com.yahoo.tensor.Tensor;
@@ -72,6 +76,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
+import static com.yahoo.container.handler.Coverage.DEGRADED_BY_EARLY_RETURN;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -678,6 +683,41 @@ public class JsonRendererTestCase {
         assertEqualJson(expected, summary);
     }
 
+    @Test
+    public void testCoverageDegradedByEarlyReturn() throws InterruptedException, ExecutionException, IOException {
+        String expected = "{"
+                + "    \"root\": {"
+                + "        \"coverage\": {"
+                + "            \"coverage\": 83,"
+                + "            \"documents\": 500,"
+                + "            \"degraded\" : {"
+                + "                \"match-phase\" : false,"
+                + "                \"timeout\" : false,"
+                + "                \"adaptive-timeout\" : false,"
+                + "                \"early-return\" : true,"
+                + "                \"non-ideal-state\" : false"
+                + "            },"
+                + "            \"full\": false,"
+                + "            \"nodes\": 1,"
+                + "            \"results\": 1,"
+                + "            \"resultsFull\": 0"
+                + "        },"
+                + "        \"fields\": {"
+                + "            \"totalCount\": 0"
+                + "        },"
+                + "        \"id\": \"toplevel\","
+                + "        \"relevance\": 1.0"
+                + "    }"
+                + "}";
+        Query q = new Query("/?query=a&tracelevel=5");
+        Execution execution = new Execution(Execution.Context.createContextStub());
+        Result r = new Result(q);
+        r.setCoverage(new Coverage(500, 600).setDegradedReason(DEGRADED_BY_EARLY_RETURN));
+
+        String summary = render(execution, r);
+        assertEqualJson(expected, summary);
+    }
+
     @Test
     public void testMoreTypes() throws InterruptedException, ExecutionException, IOException {
         String expected = "{"
@@ -1273,6 +1313,84 @@ public class JsonRendererTestCase {
         assertEqualJson(expected, summary);
     }
 
+    @Test
+    public void testDirectRenderingOfSummaryFieldsProducesIdenticalOutput() throws Exception {
+        for (boolean debug : List.of(false, true)) {
+            String direct = renderWithNewRenderer(createResultWithSummaryFields(true, debug));
+            String converted = renderWithNewRenderer(createResultWithSummaryFields(false, debug));
+            assertEquals(converted, direct);
+            assertEquals(debug, direct.contains("\"$hidden\""));
+            assertEquals(debug, direct.contains("NaN"));
+        }
+        assertEqualJson("{\"root\":{\"id\":\"toplevel\",\"relevance\":1.0,\"fields\":{\"totalCount\":0},\"children\":[" +
+                        "{\"id\":\"hit:0\",\"relevance\":1.0,\"types\":[\"summary\"],\"fields\":{" +
+                        "\"int64\":-1234567890123,\"integer\":-7,\"short\":300,\"byte\":-3,\"double\":1.0E300,\"float\":0.1," +
+                        "\"float16\":0.5,\"bool\":true,\"string\":\"bl\u00e5b\u00e6r \\\"\\n\\u007f\u263a\",\"longstring\":\"long\"," +
+                        "\"json\":{\"a\":[1,2]}}}," +
+                        "{\"id\":\"hit:1\",\"relevance\":1.0,\"types\":[\"summary\"],\"fields\":{\"int64\":7,\"double\":-0.0,\"bool\":false}}]}}",
+                        renderWithNewRenderer(createResultWithSummaryFields(true, false)));
+    }
+
+    private Result createResultWithSummaryFields(boolean directRendering, boolean debug) {
+        List<DocsumField> fields = List.of(DocsumField.create("int64", "int64"),
+                                           DocsumField.create("integer", "integer"),
+                                           DocsumField.create("short", "short"),
+                                           DocsumField.create("byte", "byte"),
+                                           DocsumField.create("double", "double"),
+                                           DocsumField.create("float", "float"),
+                                           DocsumField.create("float16", "float16"),
+                                           DocsumField.create("bool", "bool"),
+                                           DocsumField.create("string", "string"),
+                                           DocsumField.create("longstring", "longstring"),
+                                           DocsumField.create("json", "jsonstring"),
+                                           DocsumField.create("$hidden", "int64"));
+        DocsumDefinition summary = new DocsumDefinition("default", fields, directRendering);
+        Result result = new Result(new Query("/?query=a&renderer.json.debug=" + debug));
+
+        Slime values = new Slime();
+        Cursor docsum = values.setObject();
+        docsum.setLong("int64", -1234567890123L);
+        docsum.setLong("integer", -7);
+        docsum.setLong("short", 300);
+        docsum.setLong("byte", -3);
+        docsum.setDouble("double", 1.0e300);
+        docsum.setDouble("float", 0.1f);
+        docsum.setDouble("float16", 0.5);
+        docsum.setBool("bool", true);
+        docsum.setString("string", "blåbær \"\n\u007f\u263a");
+        docsum.setString("longstring", "long");
+        Cursor array = docsum.setObject("json").setArray("a");
+        array.addLong(1);
+        array.addLong(2);
+        docsum.setLong("$hidden", 1);
+        FastHit hit = new FastHit("hit:0", 1.0);
+        hit.addSummary(summary, new SlimeAdapter(BinaryView.inspect(BinaryFormat.encode(values))));
+        result.hits().add(hit);
+
+        Slime emptyValues = new Slime();
+        Cursor emptyDocsum = emptyValues.setObject();
+        emptyDocsum.setLong("int64", Long.MIN_VALUE);
+        emptyDocsum.setLong("integer", Integer.MIN_VALUE);
+        emptyDocsum.setLong("short", Short.MIN_VALUE);
+        emptyDocsum.setLong("byte", Byte.MIN_VALUE);
+        emptyDocsum.setDouble("double", -0.0);
+        emptyDocsum.setDouble("float", Double.NaN);
+        emptyDocsum.setDouble("float16", Double.NaN);
+        emptyDocsum.setBool("bool", false);
+        emptyDocsum.setString("string", "");
+        FastHit emptyHit = new FastHit("hit:1", 1.0);
+        emptyHit.addSummary(summary, new SlimeAdapter(BinaryView.inspect(BinaryFormat.encode(emptyValues))));
+        emptyHit.setField("int64", 7L);
+        result.hits().add(emptyHit);
+        return result;
+    }
+
+    private String renderWithNewRenderer(Result result) throws Exception {
+        renderer = (JsonRenderer) originalRenderer.clone();
+        renderer.init();
+        return render(result);
+    }
+
     private Result newEmptyResult(String[] args) {
         return new Result(new Query("/?" + String.join("&", args)));
     }
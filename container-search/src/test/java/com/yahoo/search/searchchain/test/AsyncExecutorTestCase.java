@@ -0,0 +1,95 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.searchchain.test;
+
+import com.yahoo.component.ComponentId;
+import com.yahoo.component.chain.Chain;
+import com.yahoo.container.protect.Error;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.Searcher;
+import com.yahoo.search.config.AsyncExecutionConfig;
+import com.yahoo.search.result.Hit;
+import com.yahoo.search.searchchain.AsyncExecution;
+import com.yahoo.search.searchchain.AsyncExecutor;
+import com.yahoo.search.searchchain.Execution;
+import com.yahoo.search.searchchain.FutureResult;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests limiting the concurrent asynchronous executions per search chain
+ */
+public class AsyncExecutorTestCase {
+
+    @Test
+    public void testTasksAreRejectedWhenChainIsAtCapacity() throws InterruptedException {
+        AsyncExecutionConfig config = new AsyncExecutionConfig.Builder()
+                .coreThreads(2)
+                .maxThreads(4)
+                .maxConcurrentTasksPerChain(1)
+                .chain(new AsyncExecutionConfig.Chain.Builder().id("wide").maxConcurrentTasks(2))
+                .build();
+        AsyncExecutor executor = new AsyncExecutor(config, null);
+        try {
+            Execution.Context context = Execution.Context.createContextStub();
+            context.setAsyncExecutor(executor);
+
+            BlockingSearcher blocking = new BlockingSearcher();
+            Chain<Searcher> narrow = new Chain<>(new ComponentId("narrow"), blocking);
+            Chain<Searcher> wide = new Chain<>(new ComponentId("wide"), blocking);
+
+            FutureResult first = new AsyncExecution(narrow, context).search(new Query());
+            blocking.started.await(60, TimeUnit.SECONDS);
+            Result rejected = new AsyncExecution(narrow, context).search(new Query()).get();
+            assertEquals(Error.NO_BACKENDS_IN_SERVICE.code, rejected.hits().getError().getCode());
+            assertEquals(1, executor.rejections("narrow"));
+            assertEquals(1, executor.activeTasks("narrow"));
+
+            FutureResult wide1 = new AsyncExecution(wide, context).search(new Query());
+            FutureResult wide2 = new AsyncExecution(wide, context).search(new Query());
+            assertEquals(0, executor.rejections("wide"));
+
+            blocking.release.countDown();
+            for (FutureResult result : new FutureResult[] { first, wide1, wide2 }) {
+                assertNull(result.get().hits().getError());
+                assertEquals(1, result.get().hits().size());
+            }
+
+            while (executor.activeTasks("narrow") > 0) // the slot is released right after the result is set
+                Thread.sleep(1);
+            Result afterRelease = new AsyncExecution(narrow, context).search(new Query()).get();
+            assertNull(afterRelease.hits().getError());
+            assertEquals(1, executor.rejections("narrow"));
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private static class BlockingSearcher extends Searcher {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public Result search(Query query, Execution execution) {
+            started.countDown();
+            try {
+                release.await(60, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            Result result = execution.search(query);
+            result.hits().add(new Hit("hit"));
+            return result;
+        }
+
+    }
+
+}
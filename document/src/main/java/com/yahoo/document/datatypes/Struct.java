@@ -9,6 +9,7 @@ import com.yahoo.document.PositionDataType;
 import com.yahoo.document.StructDataType;
 import com.yahoo.document.serialization.FieldReader;
 import com.yahoo.document.serialization.FieldWriter;
+import com.yahoo.document.serialization.SerializedFields;
 import com.yahoo.document.serialization.XmlSerializationHelper;
 import com.yahoo.document.serialization.XmlStream;
 import com.yahoo.vespa.objects.Ids;
@@ -22,6 +23,9 @@ import java.util.Set;
 
 
 /**
+ * A struct field value. Reading a struct is thread safe, also when its fields are decoded lazily when first read,
+ * while modifying it is not.
+ *
  * @author Håkon Humberset
  */
 public class Struct extends StructuredFieldValue {
@@ -30,14 +34,22 @@ public class Struct extends StructuredFieldValue {
     private Hashlet<Integer, FieldValue> values = new Hashlet<>();
     private int [] order = null;
 
+    /**
+     * The fields which are not yet decoded, or null if all are. Reads decode fields, so reads of a struct
+     * which still has serialized fields synchronize on it.
+     */
+    private volatile SerializedFields serializedFields = null;
+
     private int version;
 
-    private int [] getInOrder() {
+    private synchronized int [] getInOrder() {
         if (order == null) {
-            order = new int[values.size()];
+            int[] serializedIds = serializedFields != null ? serializedFields.fieldIds() : new int[0];
+            order = new int[values.size() + serializedIds.length];
             for (int i = 0; i < values.size(); i++) {
                 order[i] = values.key(i);
             }
+            System.arraycopy(serializedIds, 0, order, values.size(), serializedIds.length);
             Arrays.sort(order);
         }
         return order;
@@ -65,6 +77,37 @@ public class Struct extends StructuredFieldValue {
         return this.version;
     }
 
+    /**
+     * Sets fields of this which are left serialized until they are accessed.
+     * This is used by deserializers reading documents lazily.
+     */
+    public void setSerializedFields(SerializedFields serializedFields) {
+        this.serializedFields = serializedFields;
+        invalidateOrder();
+    }
+
+    /**
+     * Returns a copy of the fields of this which are not yet decoded, or null if there are none.
+     * The copy is not changed by fields of this being decoded later.
+     */
+    public SerializedFields getSerializedFields() {
+        synchronized (this) {
+            return serializedFields != null && serializedFields.size() > 0 ? serializedFields.copy() : null;
+        }
+    }
+
+    /** Decodes all fields of this which are still serialized */
+    private void decodeAll() {
+        if (serializedFields == null) return;
+        synchronized (this) {
+            if (serializedFields == null) return;
+            for (int id : serializedFields.fieldIds()) {
+                values.put(id, serializedFields.decode(getDataType().getField(id)));
+            }
+            serializedFields = null;
+        }
+    }
+
     public com.yahoo.compress.CompressionType getCompressionType() {
         if (getDataType().getCompressionConfig() == null) {
             return com.yahoo.compress.CompressionType.NONE;
@@ -88,18 +131,24 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public Struct clone() {
-        Struct struct = (Struct) super.clone();
-        struct.values = new Hashlet<>();
-        struct.values.reserve(values.size());
-        for (int i = 0; i < values.size(); i++) {
-            struct.values.put(values.key(i), values.value(i).clone());
+        synchronized (this) {
+            Struct struct = (Struct) super.clone();
+            struct.values = new Hashlet<>();
+            struct.values.reserve(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                struct.values.put(values.key(i), values.value(i).clone());
+            }
+            if (serializedFields != null) {
+                struct.serializedFields = serializedFields.copy();
+            }
+            return struct;
         }
-        return struct;
     }
 
     @Override
     public void clear() {
         values = new Hashlet<>();
+        serializedFields = null;
         invalidateOrder();
     }
 
@@ -127,7 +176,18 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public FieldValue getFieldValue(Field field) {
-        return values.get(field.getId());
+        if (serializedFields == null) return values.get(field.getId());
+
+        synchronized (this) {
+            FieldValue value = values.get(field.getId());
+            if (value == null && serializedFields != null && serializedFields.contains(field.getId())) {
+                value = serializedFields.decode(getDataType().getField(field.getId()));
+                values.put(field.getId(), value);
+                if (serializedFields.size() == 0)
+                    serializedFields = null;
+            }
+            return value;
+        }
     }
 
 
@@ -138,7 +198,11 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public int getFieldCount() {
-        return values.size();
+        if (serializedFields == null) return values.size();
+
+        synchronized (this) {
+            return values.size() + (serializedFields != null ? serializedFields.size() : 0);
+        }
     }
 
     @Override
@@ -164,6 +228,9 @@ public class Struct extends StructuredFieldValue {
                     "Inconsistent field: " + field);
         }
 
+        if (serializedFields != null) {
+            serializedFields.remove(field.getId());
+        }
         int index = values.getIndexOfKey(field.getId());
         if (index == -1) {
             values.put(field.getId(), value);
@@ -175,6 +242,13 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public FieldValue removeFieldValue(Field field) {
+        if (serializedFields != null && serializedFields.contains(field.getId())) {
+            // Decoded only to be returned: The field is removed from the serialized fields, and never added to values
+            FieldValue found = serializedFields.decode(getDataType().getField(field.getId()));
+            invalidateOrder();
+            return found;
+        }
+
         FieldValue found = values.get(field.getId());
         if (found != null) {
             Hashlet<Integer, FieldValue> copy = new Hashlet<>();
@@ -223,11 +297,14 @@ public class Struct extends StructuredFieldValue {
         if (!super.equals(o)) return false;
 
         Struct struct = (Struct) o;
+        decodeAll();
+        struct.decodeAll();
         return values.equals(struct.values);
     }
 
     @Override
     public int hashCode() {
+        decodeAll();
         int result = super.hashCode();
         result = 31 * result + values.hashCode();
         return result;
@@ -237,6 +314,7 @@ public class Struct extends StructuredFieldValue {
     public String toString() {
         StringBuilder retVal = new StringBuilder();
         retVal.append("Struct (").append(getDataType()).append("): ");
+        decodeAll();
         int [] increasing = getInOrder();
         for (int i = 0; i < increasing.length; i++) {
             int id = increasing[i];
@@ -257,6 +335,8 @@ public class Struct extends StructuredFieldValue {
             return cmp;
         }
         Struct rhs = (Struct)obj;
+        decodeAll();
+        rhs.decodeAll();
         cmp = values.size() - rhs.values.size();
         if (cmp != 0) {
             return cmp;
@@ -298,7 +378,7 @@ public class Struct extends StructuredFieldValue {
         }
 
         public FieldValue getValue() {
-            return values.get(id);
+            return getFieldValue(getKey());
         }
 
         public FieldValue setValue(FieldValue value) {
@@ -306,13 +386,12 @@ public class Struct extends StructuredFieldValue {
                 throw new NullPointerException("Null values in Struct not supported, use removeFieldValue() to remove value instead.");
             }
 
+            FieldValue retVal = getFieldValue(getKey());
             int index = values.getIndexOfKey(id);
-            FieldValue retVal = null;
             if (index == -1) {
                 values.put(id, value);
                 invalidateOrder();
             } else {
-                retVal = values.value(index);
                 values.setValue(index, value);
             }
 
@@ -335,7 +414,7 @@ public class Struct extends StructuredFieldValue {
     private class FieldSet extends AbstractSet<Map.Entry<Field, FieldValue>> {
         @Override
         public int size() {
-            return values.size();
+            return getFieldCount();
         }
 
         @Override
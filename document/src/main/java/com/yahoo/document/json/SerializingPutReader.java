@@ -0,0 +1,148 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.PrimitiveDataType;
+import com.yahoo.document.TestAndSetCondition;
+import com.yahoo.document.datatypes.Array;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.document.serialization.SerializedDocumentBuilder;
+import com.yahoo.io.GrowableByteBuffer;
+import com.yahoo.vespaxmlparser.SerializedDocumentFeedOperation;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static com.yahoo.document.json.readers.SingleValueReader.readAtomic;
+import static com.yahoo.document.json.readers.SingleValueReader.readSingleValue;
+
+/**
+ * Reads a JSON feed containing a single put operation directly into the serialized document format,
+ * checking values against the document type, but without creating the document and its struct of field values.
+ * Scalar values and arrays of primitives are read straight from the parser; other composite values are read
+ * through a {@link TokenBuffer} as by {@link JsonReader}.
+ *
+ * Anything else than a plain put, with "put" (or "id") before "fields", is not read by this. Neither are puts which
+ * {@link JsonReader} would reject, so the caller should use a {@link JsonReader} whenever this returns empty,
+ * which also gives the same error messages as before.
+ *
+ * This is thread safe.
+ */
+public class SerializingPutReader {
+
+    private static final JsonFactory jsonFactory = new JsonFactory().disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES);
+
+    private final DocumentTypeManager typeManager;
+
+    public SerializingPutReader(DocumentTypeManager typeManager) {
+        this.typeManager = typeManager;
+    }
+
+    /**
+     * Reads the given bytes, which must contain a JSON array with one put operation.
+     *
+     * @return the put operation, or empty if this must be read by a {@link JsonReader}
+     */
+    public Optional<SerializedDocumentFeedOperation> read(byte[] data, int offset, int length) {
+        try (JsonParser parser = jsonFactory.createParser(data, offset, length)) {
+            return read(parser);
+        }
+        catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Optional<SerializedDocumentFeedOperation> read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) return Optional.empty();
+        if (parser.nextToken() != JsonToken.START_OBJECT) return Optional.empty();
+
+        SerializedDocumentBuilder document = null;
+        TestAndSetCondition condition = TestAndSetCondition.NOT_PRESENT_CONDITION;
+        boolean hasFields = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "put":
+                case "id":
+                    if (value != JsonToken.VALUE_STRING || document != null) return Optional.empty();
+                    DocumentId id = new DocumentId(parser.getText());
+                    DocumentType type = typeManager.getDocumentType(id.getDocType());
+                    if (type == null) return Optional.empty();
+                    document = new SerializedDocumentBuilder(id, type);
+                    break;
+                case "condition":
+                    if (value != JsonToken.VALUE_STRING) return Optional.empty();
+                    condition = TestAndSetCondition.fromConditionString(Optional.of(parser.getText()));
+                    break;
+                case "fields":
+                    if (value != JsonToken.START_OBJECT || document == null || hasFields) return Optional.empty();
+                    if ( ! readFields(parser, document)) return Optional.empty();
+                    hasFields = true;
+                    break;
+                default:
+                    return Optional.empty();
+            }
+        }
+        if (document == null || ! hasFields || parser.currentToken() != JsonToken.END_OBJECT) return Optional.empty();
+        if (parser.nextToken() != JsonToken.END_ARRAY || parser.nextToken() != null) return Optional.empty();
+
+        GrowableByteBuffer buffer = new GrowableByteBuffer(document.getFieldCount() * 64 + 256, 2.0f);
+        document.serialize(buffer);
+        buffer.flip();
+        byte[] serialized = new byte[buffer.remaining()];
+        buffer.get(serialized);
+        return Optional.of(new SerializedDocumentFeedOperation(document.getId(), serialized, typeManager, condition));
+    }
+
+    /** Reads the fields object the parser is at into the given document, or returns false if it can not */
+    private boolean readFields(JsonParser parser, SerializedDocumentBuilder document) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            Field field = document.getType().getField(parser.getCurrentName());
+            if (field == null || document.hasField(field)) return false;
+
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) continue; // as fields set to null are skipped by JsonReader
+
+            FieldValue value = readValue(parser, token, field.getDataType());
+            if (value == null) return false;
+            document.add(field, value);
+        }
+        return parser.currentToken() == JsonToken.END_OBJECT;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static FieldValue readValue(JsonParser parser, JsonToken token, DataType type) throws IOException {
+        if (token.isScalarValue())
+            return readAtomic(parser.getText(), type);
+
+        if (token == JsonToken.START_ARRAY && type instanceof ArrayDataType
+            && ((ArrayDataType) type).getNestedType() instanceof PrimitiveDataType) {
+            DataType nestedType = ((ArrayDataType) type).getNestedType();
+            Array array = (Array) type.createFieldValue();
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null || ! token.isScalarValue() || token == JsonToken.VALUE_NULL) return null;
+                array.add(readAtomic(parser.getText(), nestedType));
+            }
+            return array;
+        }
+
+        TokenBuffer buffer = new TokenBuffer();
+        if (token == JsonToken.START_OBJECT)
+            buffer.bufferObject(token, parser);
+        else if (token == JsonToken.START_ARRAY)
+            buffer.bufferArray(token, parser);
+        else
+            return null;
+        return readSingleValue(buffer, type);
+    }
+
+}
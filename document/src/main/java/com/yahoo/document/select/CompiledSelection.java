@@ -0,0 +1,541 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select;
+
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentOperation;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.Field;
+import com.yahoo.document.PrimitiveDataType;
+import com.yahoo.document.datatypes.ByteFieldValue;
+import com.yahoo.document.datatypes.DoubleFieldValue;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.document.datatypes.FloatFieldValue;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.LongFieldValue;
+import com.yahoo.document.datatypes.NumericFieldValue;
+import com.yahoo.document.select.rule.ArithmeticNode;
+import com.yahoo.document.select.rule.AttributeNode;
+import com.yahoo.document.select.rule.ComparisonNode;
+import com.yahoo.document.select.rule.DocumentNode;
+import com.yahoo.document.select.rule.EmbracedNode;
+import com.yahoo.document.select.rule.ExpressionNode;
+import com.yahoo.document.select.rule.LiteralNode;
+import com.yahoo.document.select.rule.LogicNode;
+import com.yahoo.document.select.rule.NegationNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A document selection expression compiled to a tree of evaluators which are each specialized to one kind of node.
+ * Comparisons between a simple document field and a literal look up the field by the id resolved for the
+ * document type, compare primitive values directly, and use regular expressions compiled once,
+ * and logical operators short-circuit on single results instead of combining result lists.
+ * Other subexpressions are interpreted.
+ *
+ * This returns the same results as the interpreter, and is only used for expressions without field path variables,
+ * as those are the ones where a single result per subexpression is sufficient.
+ *
+ * This is multithread safe.
+ */
+abstract class CompiledSelection {
+
+    /**
+     * Evaluates this for a document operation.
+     *
+     * @param op the document operation to evaluate
+     * @param context the context of the operation, or null if it has no variables
+     */
+    abstract Result evaluate(DocumentOperation op, Context context);
+
+    /** Returns the given expression compiled, or null if there is no gain in compiling it */
+    static CompiledSelection compile(ExpressionNode expression) {
+        if (hasFieldPathVariables(expression)) return null;
+        CompiledSelection compiled = compileNode(expression);
+        return compiled instanceof Interpreted ? null : compiled;
+    }
+
+    private static CompiledSelection compileNode(ExpressionNode node) {
+        if (node instanceof LogicNode)
+            return compileLogic((LogicNode)node);
+        if (node instanceof NegationNode)
+            return new Not(compileNode(((NegationNode)node).getNode()));
+        if (node instanceof EmbracedNode)
+            return compileNode(((EmbracedNode)node).getNode());
+        if (node instanceof LiteralNode)
+            return new Constant(Result.toResult(((LiteralNode)node).getValue()));
+        if (node instanceof DocumentNode)
+            return new DocumentTypeTest((DocumentNode)node);
+        if (node instanceof AttributeNode && isSimpleField((AttributeNode)node))
+            return compileFieldTest(node, (AttributeNode)node, null, null);
+        if (node instanceof ComparisonNode)
+            return compileComparison((ComparisonNode)node);
+        return new Interpreted(node);
+    }
+
+    /** Compiles the items of a logic node into a disjunction of conjunctions, as AND has precedence over OR */
+    private static CompiledSelection compileLogic(LogicNode node) {
+        if (node.getItems().isEmpty()) return new Interpreted(node);
+
+        List<CompiledSelection> alternatives = new ArrayList<>();
+        List<CompiledSelection> conjunction = new ArrayList<>();
+        for (LogicNode.NodeItem item : node.getItems()) {
+            if (item.getOperator() == LogicNode.OR) {
+                alternatives.add(And.of(conjunction));
+                conjunction = new ArrayList<>();
+            }
+            conjunction.add(compileNode(item.getNode()));
+        }
+        alternatives.add(And.of(conjunction));
+        return Or.of(alternatives);
+    }
+
+    private static CompiledSelection compileComparison(ComparisonNode node) {
+        if (node.getLHS() instanceof AttributeNode && isSimpleField((AttributeNode)node.getLHS())
+            && node.getRHS() instanceof LiteralNode)
+            return compileFieldTest(node, (AttributeNode)node.getLHS(), (LiteralNode)node.getRHS(), true);
+        if (node.getRHS() instanceof AttributeNode && isSimpleField((AttributeNode)node.getRHS())
+            && node.getLHS() instanceof LiteralNode)
+            return compileFieldTest(node, (AttributeNode)node.getRHS(), (LiteralNode)node.getLHS(), false);
+        return new Interpreted(node);
+    }
+
+    /**
+     * Compiles a test of a single field: Either the field itself, or a comparison of it with a literal.
+     *
+     * @param node the node to compile
+     * @param field the field accessed by the node
+     * @param literal the literal the field is compared to, or null if the node is the field itself
+     * @param fieldOnLeft whether the field is on the left side of the comparison, or null if not a comparison
+     */
+    private static CompiledSelection compileFieldTest(ExpressionNode node, AttributeNode field,
+                                                      LiteralNode literal, Boolean fieldOnLeft) {
+        try {
+            Interpreted interpreted = new Interpreted(node);
+            FieldReference reference = new FieldReference((DocumentNode)field.getValue(), field.getItems().get(0).getName());
+            Result otherTypeResult = interpretWith(node, fieldOnLeft, Result.FALSE);
+            Result missingResult = interpretWith(node, fieldOnLeft, null);
+            Result invalidResult = interpretWith(node, fieldOnLeft, Result.INVALID);
+
+            if (literal == null)
+                return new FieldTest(reference, interpreted, otherTypeResult, missingResult, invalidResult, Result.TRUE);
+
+            Object value = literal.getValue();
+            String operator = ((ComparisonNode)node).getOperator();
+            if (value == null) // all present values compare the same to null
+                return new FieldTest(reference, interpreted, otherTypeResult, missingResult, invalidResult,
+                                     interpretWith(node, fieldOnLeft, ""));
+            if (operator.equals("==") || operator.equals("!="))
+                return new FieldEquals(reference, interpreted, otherTypeResult, missingResult, invalidResult,
+                                       value, operator.equals("!="));
+            if (Order.of(operator, fieldOnLeft) != null && Double.isNaN(asNumber(value))) // not ordered
+                return new FieldTest(reference, interpreted, otherTypeResult, missingResult, invalidResult, Result.INVALID);
+            if (Order.of(operator, fieldOnLeft) != null)
+                return new FieldOrder(reference, interpreted, otherTypeResult, missingResult, invalidResult,
+                                      Order.of(operator, fieldOnLeft), asNumber(value));
+            if (operator.equals("=~") && fieldOnLeft)
+                return new FieldMatches(reference, interpreted, otherTypeResult, missingResult, invalidResult,
+                                        Pattern.compile("" + value));
+            if (operator.equals("=") && fieldOnLeft)
+                return new FieldMatches(reference, interpreted, otherTypeResult, missingResult, invalidResult,
+                                        Pattern.compile(globToRegex("" + value)));
+            return interpreted;
+        }
+        catch (RuntimeException e) { // e.g an invalid regular expression: Leave it to the interpreter to fail on use
+            return new Interpreted(node);
+        }
+    }
+
+    /**
+     * Returns the result the interpreter produces for the given node when its field evaluates to the given value.
+     * This is used to precompute the result of the cases where the field value does not matter.
+     */
+    private static Result interpretWith(ExpressionNode node, Boolean fieldOnLeft, Object fieldValue) {
+        if (fieldOnLeft == null) return Result.toResult(fieldValue);
+
+        ComparisonNode comparison = (ComparisonNode)node;
+        ComparisonNode replaced = fieldOnLeft ?
+                                  new ComparisonNode(new LiteralNode(fieldValue), comparison.getOperator(), comparison.getRHS()) :
+                                  new ComparisonNode(comparison.getLHS(), comparison.getOperator(), new LiteralNode(fieldValue));
+        return Result.toResult(replaced.evaluate(null));
+    }
+
+    /** Returns whether this is a document type followed by a single top level field name */
+    private static boolean isSimpleField(AttributeNode node) {
+        if ( ! (node.getValue() instanceof DocumentNode)) return false;
+        if (node.getItems().size() != 1) return false;
+        AttributeNode.Item item = node.getItems().get(0);
+        if (item.getType() != AttributeNode.Item.ATTRIBUTE) return false;
+        String name = item.getName();
+        return name.indexOf('.') < 0 && name.indexOf('{') < 0 && name.indexOf('[') < 0;
+    }
+
+    private static boolean hasFieldPathVariables(ExpressionNode node) {
+        if (node instanceof LogicNode) {
+            for (LogicNode.NodeItem item : ((LogicNode)node).getItems())
+                if (hasFieldPathVariables(item.getNode())) return true;
+            return false;
+        }
+        if (node instanceof ArithmeticNode) {
+            for (ArithmeticNode.NodeItem item : ((ArithmeticNode)node).getItems())
+                if (hasFieldPathVariables(item.getNode())) return true;
+            return false;
+        }
+        if (node instanceof ComparisonNode)
+            return hasFieldPathVariables(((ComparisonNode)node).getLHS()) ||
+                   hasFieldPathVariables(((ComparisonNode)node).getRHS());
+        if (node instanceof NegationNode)
+            return hasFieldPathVariables(((NegationNode)node).getNode());
+        if (node instanceof EmbracedNode)
+            return hasFieldPathVariables(((EmbracedNode)node).getNode());
+        if (node instanceof AttributeNode) {
+            for (AttributeNode.Item item : ((AttributeNode)node).getItems())
+                if (item.getName().indexOf('$') >= 0) return true;
+            return hasFieldPathVariables(((AttributeNode)node).getValue());
+        }
+        return false;
+    }
+
+    /** Returns a value as a number as the interpreter does, or NaN if it is not a number */
+    private static double asNumber(Object value) {
+        if (value instanceof Number) return ((Number)value).doubleValue();
+        return Double.NaN;
+    }
+
+    /** Returns a field value as a number as the interpreter does, or NaN if it is not a number, without boxing */
+    private static double asNumber(FieldValue value) {
+        if (value instanceof IntegerFieldValue) return ((IntegerFieldValue)value).getInteger();
+        if (value instanceof LongFieldValue) return ((LongFieldValue)value).getLong();
+        if (value instanceof DoubleFieldValue) return ((DoubleFieldValue)value).getDouble();
+        if (value instanceof FloatFieldValue) return ((FloatFieldValue)value).getFloat();
+        if (value instanceof ByteFieldValue) return ((ByteFieldValue)value).getByte();
+        if (value instanceof NumericFieldValue) return ((NumericFieldValue)value).getNumber().doubleValue();
+        return Double.NaN;
+    }
+
+    private static Result toResult(boolean value) {
+        return value ? Result.TRUE : Result.FALSE;
+    }
+
+    /** Converts a glob pattern to a regular expression, as the interpreter does */
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder("^");
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            switch (c) {
+                case '*': regex.append(".*"); break;
+                case '?': regex.append('.'); break;
+                case '^': case '$': case '|': case '{': case '}': case '(': case ')':
+                case '[': case ']': case '\\': case '+': case '.':
+                    regex.append('\\').append(c); break;
+                default: regex.append(c);
+            }
+        }
+        return regex.append('$').toString();
+    }
+
+    private static final class Interpreted extends CompiledSelection {
+
+        private final ExpressionNode node;
+
+        Interpreted(ExpressionNode node) {
+            this.node = node;
+        }
+
+        @Override
+        Result evaluate(DocumentOperation op, Context context) {
+            return Result.toResult(node.evaluate(context != null ? context : new Context(op)));
+        }
+
+    }
+
+    private static final class Constant extends CompiledSelection {
+
+        private final Result result;
+
+        Constant(Result result) {
+            this.result = result;
+        }
+
+        @Override
+        Result evaluate(DocumentOperation op, Context context) { return result; }
+
+    }
+
+    private static final class Not extends CompiledSelection {
+
+        private final CompiledSelection operand;
+
+        Not(CompiledSelection operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Result evaluate(DocumentOperation op, Context context) {
+            return Result.invert(operand.evaluate(op, context));
+        }
+
+    }
+
+    private static final class And extends CompiledSelection {
+
+        private final CompiledSelection[] operands;
+
+        private And(List<CompiledSelection> operands) {
+            this.operands = operands.toArray(new CompiledSelection[0]);
+        }
+
+        @Override
+        Result evaluate(DocumentOperation op, Context context) {
+            Result result = Result.TRUE;
+            for (CompiledSelection operand : operands) {
+                Result operandResult = operand.evaluate(op, context);
+                if (operandResult == Result.FALSE) return Result.FALSE;
+                if (operandResult == Result.INVALID) result = Result.INVALID;
+            }
+            return result;
+        }
+
+        static CompiledSelection of(List<CompiledSelection> operands) {
+            return operands.size() == 1 ? operands.get(0) : new And(operands);
+        }
+
+    }
+
+    private static final class Or extends CompiledSelection {
+
+        private final CompiledSelection[] operands;
+
+        private Or(List<CompiledSelection> operands) {
+            this.operands = operands.toArray(new CompiledSelection[0]);
+        }
+
+        @Override
+        Result evaluate(DocumentOperation op, Context context) {
+            Result result = Result.FALSE;
+            for (CompiledSelection operand : operands) {
+                Result operandResult = operand.evaluate(op, context);
+                if (operandResult == Result.TRUE) return Result.TRUE;
+                if (operandResult == Result.INVALID) result = Result.INVALID;
+            }
+            return result;
+        }
+
+        static CompiledSelection of(List<CompiledSelection> operands) {
+            return operands.size() == 1 ? operands.get(0) : new Or(operands);
+        }
+
+    }
+
+    private static final class DocumentTypeTest extends CompiledSelection {
+
+        private final DocumentNode node;
+
+        DocumentTypeTest(DocumentNode node) {
+            this.node = node;
+        }
+
+        @Override
+        Result evaluate(DocumentOperation op, Context context) {
+            return node.evaluate(op) == Boolean.FALSE ? Result.FALSE : Result.TRUE;
+        }
+
+    }
+
+    /** A top level field of a document type, resolved for the last document type seen */
+    private static final class FieldReference {
+
+        private final DocumentNode documentNode;
+        private final String fieldName;
+
+        /** The resolution of this for the last document type seen. Replaced when a new type is seen */
+        private volatile Resolution resolution = null;
+
+        FieldReference(DocumentNode documentNode, String fieldName) {
+            this.documentNode = documentNode;
+            this.fieldName = fieldName;
+        }
+
+        /** Returns the document type check of the interpreter, which is also used for operations other than puts */
+        DocumentNode documentNode() { return documentNode; }
+
+        Resolution resolve(DocumentType type) {
+            Resolution current = resolution;
+            if (current != null && current.type == type) return current;
+            current = new Resolution(type, documentNode.getType(), fieldName);
+            resolution = current;
+            return current;
+        }
+
+    }
+
+    private enum FieldKind { OTHER_TYPE, IMPORTED, PRIMITIVE, INTERPRETED }
+
+    private static final class Resolution {
+
+        final DocumentType type;
+        final FieldKind kind;
+
+        /** The resolved field if the kind is PRIMITIVE, null otherwise */
+        final Field field;
+
+        Resolution(DocumentType type, String typeName, String fieldName) {
+            this.type = type;
+            if ( ! type.isA(typeName)) {
+                kind = FieldKind.OTHER_TYPE;
+                field = null;
+            }
+            else if (type.hasImportedField(fieldName)) {
+                kind = FieldKind.IMPORTED;
+                field = null;
+            }
+            else {
+                Field field = type.getField(fieldName);
+                boolean primitive = field != null && field.getDataType() instanceof PrimitiveDataType;
+                this.kind = primitive ? FieldKind.PRIMITIVE : FieldKind.INTERPRETED;
+                this.field = primitive ? field : null;
+            }
+        }
+
+    }
+
+    /**
+     * A test of a field value, which is true for all present values unless overridden.
+     * Primitive fields of puts are tested directly, while the results of all other cases are either given,
+     * or interpreted when the field is not primitive.
+     */
+    private static class FieldTest extends CompiledSelection {
+
+        private final FieldReference field;
+        private final Interpreted interpreted;
+        private final Result otherTypeResult;
+        private final Result missingResult;
+        private final Result invalidResult;
+        private final Result presentResult;
+
+        FieldTest(FieldReference field, Interpreted interpreted,
+                  Result otherTypeResult, Result missingResult, Result invalidResult, Result presentResult) {
+            this.field = field;
+            this.interpreted = interpreted;
+            this.otherTypeResult = otherTypeResult;
+            this.missingResult = missingResult;
+            this.invalidResult = invalidResult;
+            this.presentResult = presentResult;
+        }
+
+        @Override
+        final Result evaluate(DocumentOperation op, Context context) {
+            if ( ! (op instanceof DocumentPut)) // fields of other operations are invalid
+                return field.documentNode().evaluate(op) == Boolean.FALSE ? otherTypeResult : invalidResult;
+
+            Document document = ((DocumentPut)op).getDocument();
+            Resolution resolution = field.resolve(document.getDataType());
+            switch (resolution.kind) {
+                case OTHER_TYPE: return otherTypeResult;
+                case IMPORTED: return missingResult; // imported fields can only be evaluated in the backend
+                case INTERPRETED: return interpreted.evaluate(op, context);
+            }
+            FieldValue value = document.getFieldValue(resolution.field);
+            if (value == null) return missingResult;
+            return test(value);
+        }
+
+        /** Returns the result of this for a present field value */
+        Result test(FieldValue value) { return presentResult; }
+
+    }
+
+    /** Equality and inequality to a literal, with numbers compared numerically and everything else as strings */
+    private static final class FieldEquals extends FieldTest {
+
+        private final double number;
+        private final String string;
+        private final boolean negated;
+
+        FieldEquals(FieldReference field, Interpreted interpreted,
+                    Result otherTypeResult, Result missingResult, Result invalidResult,
+                    Object literal, boolean negated) {
+            super(field, interpreted, otherTypeResult, missingResult, invalidResult, null);
+            this.number = asNumber(literal);
+            this.string = literal.toString();
+            this.negated = negated;
+        }
+
+        @Override
+        Result test(FieldValue value) {
+            double valueNumber = asNumber(value);
+            boolean equal = Double.isNaN(valueNumber) || Double.isNaN(number) ? value.toString().equals(string)
+                                                                              : valueNumber == number;
+            return toResult(equal != negated);
+        }
+
+    }
+
+    /** The order relations, with the field on the left side */
+    private enum Order {
+
+        LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL;
+
+        /** Returns the relation of the given operator with the field on the left side, or null if not an order */
+        static Order of(String operator, boolean fieldOnLeft) {
+            switch (operator) {
+                case "<" : return fieldOnLeft ? LESS : GREATER;
+                case "<=" : return fieldOnLeft ? LESS_OR_EQUAL : GREATER_OR_EQUAL;
+                case ">" : return fieldOnLeft ? GREATER : LESS;
+                case ">=" : return fieldOnLeft ? GREATER_OR_EQUAL : LESS_OR_EQUAL;
+                default: return null;
+            }
+        }
+
+    }
+
+    /** Order relations to a numeric literal, which are invalid for values which are not numbers */
+    private static final class FieldOrder extends FieldTest {
+
+        private final Order order;
+        private final double number;
+
+        FieldOrder(FieldReference field, Interpreted interpreted,
+                   Result otherTypeResult, Result missingResult, Result invalidResult,
+                   Order order, double number) {
+            super(field, interpreted, otherTypeResult, missingResult, invalidResult, null);
+            this.order = order;
+            this.number = number;
+        }
+
+        @Override
+        Result test(FieldValue value) {
+            double valueNumber = asNumber(value);
+            if (Double.isNaN(valueNumber)) return Result.INVALID;
+            switch (order) {
+                case LESS: return toResult(valueNumber < number);
+                case LESS_OR_EQUAL: return toResult(valueNumber <= number);
+                case GREATER: return toResult(valueNumber > number);
+                default: return toResult(valueNumber >= number);
+            }
+        }
+
+    }
+
+    /** Regular expression and glob matches of the string form of values */
+    private static final class FieldMatches extends FieldTest {
+
+        private final Pattern pattern;
+
+        FieldMatches(FieldReference field, Interpreted interpreted,
+                     Result otherTypeResult, Result missingResult, Result invalidResult,
+                     Pattern pattern) {
+            super(field, interpreted, otherTypeResult, missingResult, invalidResult, null);
+            this.pattern = pattern;
+        }
+
+        @Override
+        Result test(FieldValue value) {
+            return toResult(pattern.matcher(value.toString()).find());
+        }
+
+    }
+
+}
@@ -21,6 +21,9 @@ public class DocumentSelector {
 
     private ExpressionNode expression;
 
+    /** The expression compiled for evaluation, or null if it is interpreted */
+    private final CompiledSelection compiled;
+
     /**
      * Creates a document selector from a Document Selection Language string
      *
@@ -40,6 +43,7 @@ public class DocumentSelector {
             throw (ParseException)t.initCause(e instanceof ParseException ?
                                               new ParseException(input.formatException(e.getMessage())) : e);
         }
+        compiled = CompiledSelection.compile(expression);
     }
 
     /**
@@ -50,6 +54,7 @@ public class DocumentSelector {
      * @throws RuntimeException if the evaluation enters an illegal state
      */
     public Result accepts(DocumentOperation op) {
+        if (compiled != null) return compiled.evaluate(op, null);
         return accepts(new Context(op));
     }
 
@@ -61,6 +66,7 @@ public class DocumentSelector {
      * @throws RuntimeException if the evaluation enters an illegal state
      */
     public Result accepts(Context context) {
+        if (compiled != null) return compiled.evaluate(context.getDocumentOperation(), context);
         return Result.toResult(expression.evaluate(context));
     }
 
@@ -0,0 +1,70 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.Field;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.io.GrowableByteBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a document in the 6.x document format one field at a time, serializing each field value as it is added,
+ * so that the document and its struct of field values never need to be created. The result can be read with
+ * {@link com.yahoo.document.Document#createDocument(DocumentReader)}.
+ *
+ * This is not thread safe.
+ */
+public class SerializedDocumentBuilder {
+
+    private final DocumentId id;
+    private final DocumentType type;
+    private final GrowableByteBuffer fields = new GrowableByteBuffer(4096, 2.0f);
+    private final VespaDocumentSerializer6 fieldSerializer = new VespaDocumentSerializer6(fields);
+    private final List<Integer> fieldIds = new ArrayList<>();
+    private final List<Integer> fieldLengths = new ArrayList<>();
+
+    public SerializedDocumentBuilder(DocumentId id, DocumentType type) {
+        this.id = id;
+        this.type = type;
+    }
+
+    public DocumentId getId() { return id; }
+
+    public DocumentType getType() { return type; }
+
+    /** Returns whether a value is already added for the given field */
+    public boolean hasField(Field field) {
+        return fieldIds.contains(field.getId());
+    }
+
+    /**
+     * Serializes and adds a field value.
+     *
+     * @throws IllegalArgumentException if the field is already added, or if the value is not compatible with the field
+     */
+    public SerializedDocumentBuilder add(Field field, FieldValue value) {
+        if (hasField(field))
+            throw new IllegalArgumentException("Field '" + field.getName() + "' is already set");
+        if ( ! field.getDataType().isValueCompatible(value))
+            throw new IllegalArgumentException("Incompatible data types. Got " + value.getDataType() +
+                                               ", expected " + field.getDataType());
+        int start = fields.position();
+        value.serialize(field, fieldSerializer);
+        fieldIds.add(field.getId());
+        fieldLengths.add(fields.position() - start);
+        return this;
+    }
+
+    /** Returns the number of fields added to this */
+    public int getFieldCount() { return fieldIds.size(); }
+
+    /** Writes the document to the given buffer. No fields can be added after this. */
+    public void serialize(GrowableByteBuffer buffer) {
+        fields.flip();
+        new VespaDocumentSerializer6(buffer).write(id, type, fieldIds, fieldLengths, fields);
+    }
+
+}
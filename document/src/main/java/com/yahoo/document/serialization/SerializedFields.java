@@ -0,0 +1,123 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.io.GrowableByteBuffer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The fields of a struct which are not decoded yet, as read by a deserializer creating documents lazily.
+ * Each field is decoded the first time it is accessed, and fields which are never accessed are serialized
+ * by copying the bytes they were read from.
+ *
+ * This is not thread safe.
+ *
+ * @see DocumentDeserializerFactory#createLazyHead
+ */
+public final class SerializedFields {
+
+    private final DocumentTypeManager manager;
+    private final short version;
+
+    /** The uncompressed field data of the struct */
+    private final byte[] data;
+
+    private final int[] fieldIds;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    /** The indexes of the fields above which are not yet decoded or replaced */
+    private final BitSet remaining;
+
+    SerializedFields(DocumentTypeManager manager, short version, byte[] data, int[] fieldIds, int[] offsets, int[] lengths) {
+        this.manager = manager;
+        this.version = version;
+        this.data = data;
+        this.fieldIds = fieldIds;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.remaining = new BitSet(fieldIds.length);
+        this.remaining.set(0, fieldIds.length);
+    }
+
+    private SerializedFields(SerializedFields other) {
+        this.manager = other.manager;
+        this.version = other.version;
+        this.data = other.data;
+        this.fieldIds = other.fieldIds;
+        this.offsets = other.offsets;
+        this.lengths = other.lengths;
+        this.remaining = (BitSet)other.remaining.clone();
+    }
+
+    /** Returns the number of fields which are not decoded yet */
+    public int size() { return remaining.cardinality(); }
+
+    /** Returns whether the field with the given id is present and not decoded yet */
+    public boolean contains(int fieldId) {
+        return indexOf(fieldId) >= 0;
+    }
+
+    /** Returns the ids of the fields which are not decoded yet */
+    public int[] fieldIds() {
+        int[] ids = new int[size()];
+        int count = 0;
+        for (int i = remaining.nextSetBit(0); i >= 0; i = remaining.nextSetBit(i + 1))
+            ids[count++] = fieldIds[i];
+        return ids;
+    }
+
+    /**
+     * Decodes the value of the given field, after which it is no longer contained in this.
+     *
+     * @return the decoded value, or null if this does not contain the field
+     * @throws DeserializationException if the field data is invalid
+     */
+    public FieldValue decode(Field field) {
+        int index = indexOf(field.getId());
+        if (index < 0) return null;
+
+        VespaDocumentDeserializer6 deserializer = new VespaDocumentDeserializer6(manager, GrowableByteBuffer.wrap(data), version);
+        deserializer.position(offsets[index]);
+        FieldValue value = field.getDataType().createFieldValue();
+        value.deserialize(field, deserializer);
+        remaining.clear(index);
+        return value;
+    }
+
+    /** Removes the given field from this, if present, without decoding it */
+    public void remove(int fieldId) {
+        int index = indexOf(fieldId);
+        if (index >= 0)
+            remaining.clear(index);
+    }
+
+    /** Returns a copy of this which can be modified independently. The field data is shared. */
+    public SerializedFields copy() {
+        return new SerializedFields(this);
+    }
+
+    /** Writes the serialized data of the given field, which must be contained in this, to the given buffer */
+    void write(int fieldId, GrowableByteBuffer buffer) {
+        int index = indexOf(fieldId);
+        if (index < 0) throw new IllegalArgumentException("Field " + fieldId + " is not in " + this);
+        buffer.put(data, offsets[index], lengths[index]);
+    }
+
+    private int indexOf(int fieldId) {
+        for (int i = 0; i < fieldIds.length; i++)
+            if (fieldIds[i] == fieldId)
+                return remaining.get(i) ? i : -1;
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "serialized fields " + Arrays.toString(fieldIds());
+    }
+
+}
@@ -67,6 +67,7 @@ import com.yahoo.vespa.objects.FieldBase;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -88,10 +89,24 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
     private List<Annotation> annotations;
     private int[] stringPositions;
 
+    /** Whether to leave the fields of documents serialized until they are accessed */
+    private final boolean lazyFields;
+
     VespaDocumentDeserializer6(DocumentTypeManager manager, GrowableByteBuffer buf) {
+        this(manager, buf, false);
+    }
+
+    VespaDocumentDeserializer6(DocumentTypeManager manager, GrowableByteBuffer buf, boolean lazyFields) {
         super(buf);
         this.manager = manager;
         this.version = Document.SERIALIZED_VERSION;
+        this.lazyFields = lazyFields;
+    }
+
+    /** Creates a deserializer of field values which are serialized with the given version */
+    VespaDocumentDeserializer6(DocumentTypeManager manager, GrowableByteBuffer buf, short version) {
+        this(manager, buf, false);
+        this.version = version;
     }
 
     final public DocumentTypeManager getDocumentTypeManager() { return manager; }
@@ -119,11 +134,13 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
 
         Struct h = doc.getHeader();
         h.clear();
+        // Fields are only left serialized when they are all in one block, as with documents written by this version
+        boolean lazy = lazyFields && (content & 0x4) == 0;
         if ((content & 0x2) != 0) {
-            readHeaderBody(h);
+            readHeaderBody(h, lazy);
         }
         if ((content & 0x4) != 0) {
-            readHeaderBody(h);
+            readHeaderBody(h, false);
         }
 
         if (dataLength != (position() - dataPos)) {
@@ -324,7 +341,7 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
         buf = bigBuf;
     }
 
-    private void readHeaderBody(Struct primary) {
+    private void readHeaderBody(Struct primary, boolean lazy) {
         primary.setVersion(version);
 
         if (version < 8) {
@@ -365,6 +382,11 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
         // set position in original buffer to after data
         position(position() + dataSize);
 
+        if (lazy) {
+            primary.setSerializedFields(indexFields(primary.getDataType(), destination, fieldIdsAndLengths));
+            return;
+        }
+
         // for a while: deserialize from this buffer instead:
         buf = GrowableByteBuffer.wrap(destination);
 
@@ -386,6 +408,32 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
         buf = bigBuf;
     }
 
+    /** Returns the offsets of the fields of the given type in the given field data, without decoding them */
+    private SerializedFields indexFields(StructDataType type, byte[] data, List<Tuple2<Integer, Long>> fieldIdsAndLengths) {
+        int[] fieldIds = new int[fieldIdsAndLengths.size()];
+        int[] offsets = new int[fieldIdsAndLengths.size()];
+        int[] lengths = new int[fieldIdsAndLengths.size()];
+        int knownFields = 0;
+        int offset = 0;
+        for (Tuple2<Integer, Long> fieldIdAndLength : fieldIdsAndLengths) {
+            int length = fieldIdAndLength.second.intValue();
+            if (offset + length > data.length) {
+                throw new DeserializationException("Field " + fieldIdAndLength.first + " extends past the end of the struct data");
+            }
+            if (type.getField(fieldIdAndLength.first) != null) { // ignoring unknown fields
+                fieldIds[knownFields] = fieldIdAndLength.first;
+                offsets[knownFields] = offset;
+                lengths[knownFields] = length;
+                knownFields++;
+            }
+            offset += length;
+        }
+        return new SerializedFields(manager, version, data,
+                                    Arrays.copyOf(fieldIds, knownFields),
+                                    Arrays.copyOf(offsets, knownFields),
+                                    Arrays.copyOf(lengths, knownFields));
+    }
+
     public void read(FieldBase field, StructuredFieldValue value) {
         throw new IllegalArgumentException("read not implemented yet.");
     }
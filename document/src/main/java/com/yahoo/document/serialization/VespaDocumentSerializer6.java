@@ -11,6 +11,7 @@ import com.yahoo.document.DocumentId;
 import com.yahoo.document.DocumentType;
 import com.yahoo.document.DocumentUpdate;
 import com.yahoo.document.Field;
+import com.yahoo.document.StructDataType;
 import com.yahoo.document.WeightedSetDataType;
 import com.yahoo.document.annotation.AlternateSpanList;
 import com.yahoo.document.annotation.Annotation;
@@ -116,6 +117,42 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
         buf.position(finalPos);
     }
 
+    /**
+     * Writes a document from fields which are already serialized.
+     *
+     * @param id           the id of the document
+     * @param type         the type of the document
+     * @param fieldIds     the ids of the serialized fields
+     * @param fieldLengths the serialized length of each field, in the same order as the ids
+     * @param fields       the serialized fields, in the same order as the ids, starting at position 0
+     */
+    void write(DocumentId id, DocumentType type, List<Integer> fieldIds, List<Integer> fieldLengths,
+               GrowableByteBuffer fields) {
+        buf.putShort(Document.SERIALIZED_VERSION);
+
+        int lenPos = buf.position();
+        buf.putInt(0);
+
+        id.serialize(this);
+
+        boolean hasHead = ! fieldIds.isEmpty();
+        byte contents = 0x01;
+        if (hasHead) {
+            contents |= 0x2;
+        }
+        buf.put(contents);
+
+        type.serialize(this);
+        if (hasHead) {
+            writeStruct(type.contentStruct(), fieldIds, fieldLengths, fields);
+        }
+
+        int finalPos = buf.position();
+        buf.position(lenPos);
+        buf.putInt(finalPos - lenPos - 4);
+        buf.position(finalPos);
+    }
+
     /**
      * Write out the value of field
      *
@@ -331,22 +368,41 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
         List<Integer> fieldIds = new LinkedList<>();
         List<java.lang.Integer> fieldLengths = new LinkedList<>();
 
+        SerializedFields serializedFields = s.getSerializedFields();
         for (Map.Entry<Field, FieldValue> value : s.getFields()) {
 
             int startPos = buffer.position();
-            value.getValue().serialize(value.getKey(), this);
+            int fieldId = value.getKey().getId();
+            if (serializedFields != null && serializedFields.contains(fieldId)) {
+                serializedFields.write(fieldId, buffer); // not accessed since it was read: copy the bytes
+            } else {
+                value.getValue().serialize(value.getKey(), this);
+            }
 
             fieldLengths.add(buffer.position() - startPos);
-            fieldIds.add(value.getKey().getId());
+            fieldIds.add(fieldId);
         }
 
         // Switch buffers again:
         buffer.flip();
         buf = bigBuffer;
 
+        writeStruct(s.getDataType(), fieldIds, fieldLengths, buffer);
+    }
+
+    /**
+     * Writes a struct of the given type from fields which are already serialized.
+     *
+     * @param type         the type of the struct
+     * @param fieldIds     the ids of the serialized fields
+     * @param fieldLengths the serialized length of each field, in the same order as the ids
+     * @param buffer       the serialized fields, in the same order as the ids, starting at position 0
+     */
+    private void writeStruct(StructDataType type, List<Integer> fieldIds, List<Integer> fieldLengths,
+                             GrowableByteBuffer buffer) {
         int uncompressedSize = buffer.remaining();
         Compressor.Compression compression =
-            s.getDataType().getCompressor().compress(buffer.getByteBuffer().array(), buffer.remaining());
+            type.getCompressor().compress(buffer.getByteBuffer().array(), buffer.remaining());
 
         // Actual serialization starts here.
         int lenPos = buf.position();
@@ -357,11 +413,12 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
             buf.putInt2_4_8Bytes(uncompressedSize);
         }
 
-        buf.putInt1_4Bytes(s.getFieldCount());
+        buf.putInt1_4Bytes(fieldIds.size());
 
-        for (int i = 0; i < s.getFieldCount(); ++i) {
-            putInt1_4Bytes(null, fieldIds.get(i));
-            putInt2_4_8Bytes(null, fieldLengths.get(i));
+        Iterator<Integer> lengths = fieldLengths.iterator();
+        for (Integer fieldId : fieldIds) {
+            putInt1_4Bytes(null, fieldId);
+            putInt2_4_8Bytes(null, lengths.next());
         }
 
         int pos = buf.position();
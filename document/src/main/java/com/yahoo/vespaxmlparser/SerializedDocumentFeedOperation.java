@@ -0,0 +1,55 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespaxmlparser;
+
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.TestAndSetCondition;
+import com.yahoo.document.serialization.DocumentDeserializerFactory;
+import com.yahoo.io.GrowableByteBuffer;
+
+/**
+ * A document put operation where the document is read directly into serialized form.
+ * The document is only created if {@link #getDocument()} is called.
+ */
+public class SerializedDocumentFeedOperation extends ConditionalFeedOperation {
+
+    private final DocumentId documentId;
+    private final byte[] serializedDocument;
+    private final DocumentTypeManager typeManager;
+    private Document document = null;
+
+    /**
+     * Creates an operation putting a serialized document.
+     *
+     * @param documentId the id of the document
+     * @param serializedDocument the document in serialized form
+     * @param typeManager the type manager to use if the document needs to be deserialized
+     * @param condition the test-and-set condition of the operation
+     */
+    public SerializedDocumentFeedOperation(DocumentId documentId, byte[] serializedDocument,
+                                           DocumentTypeManager typeManager, TestAndSetCondition condition) {
+        super(Type.DOCUMENT, condition);
+        this.documentId = documentId;
+        this.serializedDocument = serializedDocument;
+        this.typeManager = typeManager;
+    }
+
+    /** Returns the id of the document, without deserializing it */
+    public DocumentId getDocumentId() { return documentId; }
+
+    /** Returns the serialized document, which must not be modified */
+    public byte[] getSerializedDocument() { return serializedDocument; }
+
+    /** Returns the type manager to use to deserialize the document */
+    public DocumentTypeManager getDocumentTypeManager() { return typeManager; }
+
+    /** Returns the document, deserializing it on first access */
+    @Override
+    public Document getDocument() {
+        if (document == null)
+            document = Document.createDocument(DocumentDeserializerFactory.createHead(typeManager, GrowableByteBuffer.wrap(serializedDocument)));
+        return document;
+    }
+
+}
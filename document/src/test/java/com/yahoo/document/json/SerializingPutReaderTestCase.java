@@ -0,0 +1,117 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.MapDataType;
+import com.yahoo.document.PositionDataType;
+import com.yahoo.document.StructDataType;
+import com.yahoo.document.TensorDataType;
+import com.yahoo.document.WeightedSetDataType;
+import com.yahoo.tensor.TensorType;
+import com.yahoo.text.Utf8;
+import com.yahoo.vespaxmlparser.SerializedDocumentFeedOperation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SerializingPutReaderTestCase {
+
+    private DocumentTypeManager types;
+    private SerializingPutReader reader;
+
+    @Before
+    public void setUp() {
+        types = new DocumentTypeManager();
+        DocumentType type = new DocumentType("music");
+        type.addField(new Field("title", DataType.STRING));
+        type.addField(new Field("year", DataType.INT));
+        type.addField(new Field("plays", DataType.LONG));
+        type.addField(new Field("rating", DataType.FLOAT));
+        type.addField(new Field("score", DataType.DOUBLE));
+        type.addField(new Field("level", DataType.BYTE));
+        type.addField(new Field("live", DataType.BOOL));
+        type.addField(new Field("cover", DataType.RAW));
+        type.addField(new Field("tags", new ArrayDataType(DataType.STRING)));
+        type.addField(new Field("tracks", new ArrayDataType(DataType.INT)));
+        type.addField(new Field("genres", new WeightedSetDataType(DataType.STRING, true, true)));
+        type.addField(new Field("labels", new MapDataType(DataType.STRING, DataType.STRING)));
+        StructDataType artist = new StructDataType("artist");
+        artist.addField(new Field("name", DataType.STRING));
+        artist.addField(new Field("born", DataType.INT));
+        type.addField(new Field("artist", artist));
+        type.addField(new Field("members", new ArrayDataType(artist)));
+        type.addField(new Field("location", PositionDataType.INSTANCE));
+        type.addField(new Field("embedding", new TensorDataType(TensorType.fromSpec("tensor(x[3])"))));
+        types.registerDocumentType(type);
+        reader = new SerializingPutReader(types);
+    }
+
+    @Test
+    public void requireThatPutsAreSerializedAsDocumentsReadByJsonReader() {
+        assertSameAsJsonReader("{\"put\": \"id:ns:music::1\", \"fields\": {}}");
+        assertSameAsJsonReader("{\"put\": \"id:ns:music::1\", \"fields\": {" +
+                               "\"title\": \"Blue in Green\", \"year\": 1959, \"plays\": 12345678901, " +
+                               "\"rating\": 4.5, \"score\": 0.25, \"level\": 3, \"live\": true, " +
+                               "\"cover\": \"AQID\", \"tags\": [\"jazz\", \"modal\"], \"tracks\": [1, 2, 3]}}");
+        assertSameAsJsonReader("{\"id\": \"id:ns:music::2\", \"fields\": {" +
+                               "\"genres\": {\"jazz\": 10, \"blues\": 2}, " +
+                               "\"labels\": {\"a\": \"b\"}, " +
+                               "\"artist\": {\"name\": \"Miles\", \"born\": 1926}, " +
+                               "\"members\": [{\"name\": \"Bill\"}, {\"name\": \"John\", \"born\": 1926}], " +
+                               "\"location\": \"N63.429722;E10.393333\", " +
+                               "\"embedding\": {\"values\": [1.0, 2.0, 3.0]}, " +
+                               "\"title\": null}}");
+    }
+
+    @Test
+    public void requireThatConditionIsRead() {
+        SerializedDocumentFeedOperation put = read("{\"put\": \"id:ns:music::1\", \"condition\": \"music.year > 1950\", " +
+                                                   "\"fields\": {\"year\": 1959}}").get();
+        assertEquals("music.year > 1950", put.getCondition().getSelection());
+        assertEquals("id:ns:music::1", put.getDocumentId().toString());
+        assertEquals(1959, put.getDocument().getFieldValue("year").getWrappedValue());
+    }
+
+    @Test
+    public void requireThatOtherOperationsAndInvalidPutsAreLeftToJsonReader() {
+        assertFalse(read("{\"update\": \"id:ns:music::1\", \"fields\": {\"year\": {\"assign\": 1}}}").isPresent());
+        assertFalse(read("{\"remove\": \"id:ns:music::1\"}").isPresent());
+        assertFalse(read("{\"put\": \"id:ns:music::1\"}").isPresent());
+        assertFalse(read("{\"fields\": {\"year\": 1959}, \"put\": \"id:ns:music::1\"}").isPresent());
+        assertFalse(read("{\"put\": \"id:ns:music::1\", \"create\": true, \"fields\": {}}").isPresent());
+        assertFalse(read("{\"put\": \"id:ns:movie::1\", \"fields\": {}}").isPresent());
+        assertFalse(read("{\"put\": \"id:ns:music::1\", \"fields\": {\"nosuchfield\": 1}}").isPresent());
+        assertFalse(read("{\"put\": \"id:ns:music::1\", \"fields\": {\"year\": 1, \"year\": 2}}").isPresent());
+        assertFalse(read("{\"put\": \"id:ns:music::1\", \"fields\": {\"year\": \"not a number\"}}").isPresent());
+        assertFalse(read("{\"put\": \"id:ns:music::1\", \"fields\": {\"tracks\": [1, null]}}").isPresent());
+        assertFalse(read("{\"put\": \"id:ns:music::1\", \"fields\": {\"year\": 1}").isPresent());
+        assertTrue(read("{\"put\": \"id:ns:music::1\", \"fields\": {\"year\": 1}}").isPresent());
+    }
+
+    private Optional<SerializedDocumentFeedOperation> read(String operation) {
+        byte[] data = Utf8.toBytes("[" + operation + "]");
+        return reader.read(data, 0, data.length);
+    }
+
+    private void assertSameAsJsonReader(String operation) {
+        Document expected = ((DocumentPut) new JsonReader(types,
+                                                          new ByteArrayInputStream(Utf8.toBytes("[" + operation + "]")),
+                                                          new JsonFactory()).next()).getDocument();
+        Document actual = read(operation).get().getDocument();
+        assertEquals(expected, actual);
+    }
+
+}
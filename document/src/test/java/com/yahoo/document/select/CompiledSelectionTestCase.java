@@ -0,0 +1,168 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select;
+
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentGet;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentOperation;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentRemove;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.DocumentUpdate;
+import com.yahoo.document.datatypes.Array;
+import com.yahoo.document.datatypes.BoolFieldValue;
+import com.yahoo.document.datatypes.ByteFieldValue;
+import com.yahoo.document.datatypes.DoubleFieldValue;
+import com.yahoo.document.datatypes.FloatFieldValue;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.LongFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.select.parser.ParseException;
+import com.yahoo.document.select.parser.SelectInput;
+import com.yahoo.document.select.parser.SelectParser;
+import com.yahoo.document.select.rule.ExpressionNode;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests that compiled selections return the same results as the interpreter.
+ */
+public class CompiledSelectionTestCase {
+
+    private final DocumentType parent;
+    private final DocumentType child;
+    private final DocumentType other;
+
+    public CompiledSelectionTestCase() {
+        parent = new DocumentType("parent");
+        parent.addField("pint", DataType.INT);
+        child = new DocumentType("child", Set.of("imported"));
+        child.inherit(parent);
+        child.addField("int", DataType.INT);
+        child.addField("long", DataType.LONG);
+        child.addField("float", DataType.FLOAT);
+        child.addField("double", DataType.DOUBLE);
+        child.addField("byte", DataType.BYTE);
+        child.addField("string", DataType.STRING);
+        child.addField("bool", DataType.BOOL);
+        child.addField("array", new ArrayDataType(DataType.STRING));
+        other = new DocumentType("other");
+        other.addField("int", DataType.INT);
+        DocumentTypeManager manager = new DocumentTypeManager();
+        manager.registerDocumentType(parent);
+        manager.registerDocumentType(child);
+        manager.registerDocumentType(other);
+    }
+
+    @Test
+    public void testCompiledSelectionsGiveInterpretedResults() throws ParseException {
+        List<String> fields = List.of("pint", "int", "long", "float", "double", "byte", "string", "bool",
+                                      "array", "imported");
+        List<String> literals = List.of("3", "-7", "3.5", "0", "\"3\"", "\"foo\"", "\"f*\"", "\"o+$\"", "\"\"",
+                                        "true", "null");
+        List<String> operators = List.of("==", "!=", "<", "<=", ">", ">=", "=~", "=");
+        List<String> selections = new ArrayList<>();
+        for (String field : fields) {
+            selections.add("child." + field);
+            selections.add("parent." + field);
+            for (String operator : operators) {
+                for (String literal : literals) {
+                    selections.add("child." + field + " " + operator + " " + literal);
+                    selections.add(literal + " " + operator + " child." + field);
+                }
+            }
+        }
+        selections.add("child");
+        selections.add("other or child");
+        selections.add("not child and child.int > 2");
+        selections.add("child.int > 2 or child.string == \"foo\" and child.long < 0");
+        selections.add("(child.int > 2 or child.string == \"foo\") and not (child.long < 0)");
+        selections.add("child.int > 2 and child.nosuchvalue == 3 or true");
+        selections.add("child.string.lowercase() == \"foo\" and child.int == 3");
+        selections.add("child.array == \"foo\" or child.int != 3");
+        selections.add("id.namespace == \"ns\" and child.int <= 3.0");
+        selections.add("child.int + 1 > 3 or other.int == 3");
+        selections.add("true and child.double > 3 or false");
+
+        List<DocumentOperation> operations = List.of(put(child, 3, "foo"),
+                                                     put(child, -7, "3"),
+                                                     put(child, 0, ""),
+                                                     new DocumentPut(new Document(child, new DocumentId("id:ns:child::empty"))),
+                                                     put(other, 3, null),
+                                                     new DocumentUpdate(child, new DocumentId("id:ns:child::1")),
+                                                     new DocumentUpdate(other, new DocumentId("id:ns:other::1")),
+                                                     new DocumentRemove(new DocumentId("id:ns:child::1")),
+                                                     new DocumentGet(new DocumentId("id:ns:other::1")));
+
+        for (String selection : selections) {
+            ExpressionNode expression = parse(selection);
+            CompiledSelection compiled = CompiledSelection.compile(expression);
+            if (selection.startsWith("child."))
+                assertNotNull(selection + " is compiled", compiled);
+            if (compiled == null) continue;
+            for (DocumentOperation operation : operations)
+                assertEquals(selection + " on " + operation,
+                             interpret(expression, operation), evaluate(compiled, operation));
+        }
+    }
+
+    @Test
+    public void testFieldPathVariablesAreInterpreted() throws ParseException {
+        assertNull(CompiledSelection.compile(parse("child.array[$x] == \"foo\" and child.array[$x] == \"bar\"")));
+        assertNull(CompiledSelection.compile(parse("id.namespace == \"ns\"")));
+        assertNotNull(CompiledSelection.compile(parse("child.int == 3")));
+        assertNotNull(CompiledSelection.compile(parse("child.int == 3 and id.namespace == \"ns\"")));
+    }
+
+    private DocumentPut put(DocumentType type, int value, String string) {
+        Document document = new Document(type, new DocumentId("id:ns:" + type.getName() + "::" + value));
+        document.setFieldValue("int", new IntegerFieldValue(value));
+        if (type != child) return new DocumentPut(document);
+
+        document.setFieldValue("pint", new IntegerFieldValue(value));
+        document.setFieldValue("long", new LongFieldValue(value));
+        document.setFieldValue("float", new FloatFieldValue(value + 0.5f));
+        document.setFieldValue("double", new DoubleFieldValue(value));
+        document.setFieldValue("byte", new ByteFieldValue((byte)value));
+        document.setFieldValue("string", new StringFieldValue(string));
+        document.setFieldValue("bool", new BoolFieldValue(value > 0));
+        Array<StringFieldValue> array = new Array<>(child.getField("array").getDataType());
+        array.add(new StringFieldValue(string));
+        array.add(new StringFieldValue("foo"));
+        document.setFieldValue("array", array);
+        return new DocumentPut(document);
+    }
+
+    private static ExpressionNode parse(String selection) throws ParseException {
+        return new SelectParser(new SelectInput(selection)).expression();
+    }
+
+    private static String interpret(ExpressionNode expression, DocumentOperation operation) {
+        try {
+            return Result.toResult(expression.evaluate(new Context(operation))).toString();
+        }
+        catch (RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static String evaluate(CompiledSelection compiled, DocumentOperation operation) {
+        try {
+            return compiled.evaluate(operation, null).toString();
+        }
+        catch (RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
+}
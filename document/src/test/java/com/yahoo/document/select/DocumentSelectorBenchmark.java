@@ -0,0 +1,92 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select;
+
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentOperation;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.select.parser.ParseException;
+import com.yahoo.document.select.parser.SelectInput;
+import com.yahoo.document.select.parser.SelectParser;
+import com.yahoo.document.select.rule.ExpressionNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the speed of compiled and interpreted document selections of the kind used for routing and visiting.
+ */
+public class DocumentSelectorBenchmark {
+
+    private static final List<String> selections = List.of("music",
+                                                           "music.year > 2000",
+                                                           "music.genre == \"rock\"",
+                                                           "music.year >= 1990 and music.year < 2000 and music.genre != \"pop\"",
+                                                           "music.genre = \"r*\" or music.title =~ \"^The\"");
+
+    public static void main(String[] args) throws ParseException {
+        List<DocumentOperation> operations = createOperations();
+        for (int run = 0; run < 3; run++) {
+            for (String selection : selections) {
+                ExpressionNode expression = new SelectParser(new SelectInput(selection)).expression();
+                DocumentSelector selector = new DocumentSelector(selection);
+                System.out.println(selection);
+                benchmark("  interpreted", operations, operation -> Result.toResult(expression.evaluate(new Context(operation))));
+                benchmark("  compiled   ", operations, selector::accepts);
+            }
+        }
+    }
+
+    private static void benchmark(String name, List<DocumentOperation> operations, Selection selection) {
+        int iterations = 2000;
+        int accepted = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (DocumentOperation operation : operations)
+                if (selection.accepts(operation) == Result.TRUE)
+                    accepted++;
+        }
+        double nanosPerOperation = (System.nanoTime() - startTime) / ((double)iterations * operations.size());
+        System.out.println(String.format("%s: %8.1f ns/document (accepted %d)", name, nanosPerOperation, accepted));
+    }
+
+    private static List<DocumentOperation> createOperations() {
+        DocumentTypeManager manager = new DocumentTypeManager();
+        DocumentType music = new DocumentType("music");
+        music.addField("year", DataType.INT);
+        music.addField("genre", DataType.STRING);
+        music.addField("title", DataType.STRING);
+        manager.registerDocumentType(music);
+        DocumentType book = new DocumentType("book");
+        book.addField("year", DataType.INT);
+        manager.registerDocumentType(book);
+
+        String[] genres = { "rock", "pop", "jazz", "rap" };
+        List<DocumentOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            if (i % 4 == 3) {
+                Document document = new Document(book, new DocumentId("id:ns:book::" + i));
+                document.setFieldValue("year", new IntegerFieldValue(1950 + i % 70));
+                operations.add(new DocumentPut(document));
+            }
+            else {
+                Document document = new Document(music, new DocumentId("id:ns:music::" + i));
+                document.setFieldValue("year", new IntegerFieldValue(1950 + i % 70));
+                document.setFieldValue("genre", new StringFieldValue(genres[i % genres.length]));
+                document.setFieldValue("title", new StringFieldValue((i % 3 == 0 ? "The song " : "Song ") + i));
+                operations.add(new DocumentPut(document));
+            }
+        }
+        return operations;
+    }
+
+    private interface Selection {
+        Result accepts(DocumentOperation operation);
+    }
+
+}
@@ -0,0 +1,237 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.compress.CompressionType;
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.CompressionConfig;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.StructDataType;
+import com.yahoo.document.annotation.Annotation;
+import com.yahoo.document.annotation.AnnotationType;
+import com.yahoo.document.annotation.SpanTree;
+import com.yahoo.document.datatypes.Array;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.datatypes.Struct;
+import com.yahoo.io.GrowableByteBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("deprecation")
+public class LazyDocumentDeserializationTestCase {
+
+    private final DocumentTypeManager manager = new DocumentTypeManager();
+    private final DocumentType type;
+    private final StructDataType structType;
+
+    public LazyDocumentDeserializationTestCase() {
+        structType = new StructDataType("my_struct");
+        structType.addField(new Field("s", DataType.STRING));
+        structType.addField(new Field("i", DataType.INT));
+
+        type = new DocumentType("my_type");
+        type.addField("title", DataType.STRING);
+        type.addField("count", DataType.INT);
+        type.addField("tags", new ArrayDataType(DataType.STRING));
+        type.addField("nested", structType);
+        type.addField("unset", DataType.STRING);
+        manager.register(type);
+    }
+
+    @Test
+    public void fields_are_decoded_on_first_access() {
+        Document document = lazyCopy(createDocument());
+        Struct header = document.getHeader();
+        assertEquals(4, document.getFieldCount());
+        assertEquals(4, header.getSerializedFields().size());
+
+        assertEquals(new IntegerFieldValue(42), document.getFieldValue("count"));
+        assertEquals(3, header.getSerializedFields().size());
+        assertNull(document.getFieldValue("unset"));
+        assertEquals(3, header.getSerializedFields().size());
+        assertEquals(4, document.getFieldCount());
+
+        assertEquals(createDocument(), document);
+        assertNull(header.getSerializedFields());
+    }
+
+    @Test
+    public void fields_are_iterated_in_id_order_whether_decoded_or_not() {
+        Document expected = createDocument();
+        Document document = lazyCopy(expected);
+        document.getFieldValue("nested");
+
+        Iterator<Map.Entry<Field, FieldValue>> expectedFields = expected.iterator();
+        for (Iterator<Map.Entry<Field, FieldValue>> fields = document.iterator(); fields.hasNext(); ) {
+            Map.Entry<Field, FieldValue> expectedField = expectedFields.next();
+            Map.Entry<Field, FieldValue> field = fields.next();
+            assertEquals(expectedField.getKey(), field.getKey());
+            assertEquals(expectedField.getValue(), field.getValue());
+        }
+        assertFalse(expectedFields.hasNext());
+    }
+
+    @Test
+    public void untouched_fields_are_serialized_as_they_were_read() {
+        Document original = createDocument();
+        byte[] serialized = serialize(original);
+        Document document = lazyCopy(original);
+        assertArrayEquals(serialized, serialize(document));
+        assertEquals(4, document.getHeader().getSerializedFields().size());
+
+        document.getFieldValue("title");
+        assertArrayEquals(serialized, serialize(document));
+    }
+
+    @Test
+    public void modified_fields_are_serialized_with_their_new_value() {
+        Document document = lazyCopy(createDocument());
+        document.setFieldValue("count", new IntegerFieldValue(7));
+        document.removeFieldValue("tags");
+        document.setFieldValue("unset", new StringFieldValue("now set"));
+        assertEquals(2, document.getHeader().getSerializedFields().size());
+
+        Document expected = createDocument();
+        expected.setFieldValue("count", new IntegerFieldValue(7));
+        expected.removeFieldValue("tags");
+        expected.setFieldValue("unset", new StringFieldValue("now set"));
+        assertEquals(expected, deserialize(serialize(document), false));
+    }
+
+    @Test
+    public void removed_fields_are_not_decoded_into_the_struct() {
+        Document document = lazyCopy(createDocument());
+        Struct header = document.getHeader();
+        assertEquals(createDocument().getFieldValue("tags"), document.removeFieldValue("tags"));
+        assertEquals(3, header.getSerializedFields().size());
+        assertEquals(3, document.getFieldCount());
+        assertEquals(3, header.getFields().size());
+        assertNull(document.getFieldValue("tags"));
+    }
+
+    @Test
+    public void fields_may_be_read_and_decoded_by_multiple_threads() throws Exception {
+        Document expected = createDocument();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 100; round++) {
+                Document document = lazyCopy(expected);
+                List<Future<Boolean>> reads = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    reads.add(executor.submit(() -> {
+                        for (Field field : type.getFields()) {
+                            if ( ! Objects.equals(expected.getFieldValue(field), document.getFieldValue(field)))
+                                return false;
+                        }
+                        return document.getHeader().getFields().size() == 4;
+                    }));
+                }
+                for (Future<Boolean> read : reads)
+                    assertTrue(read.get());
+                assertNull(document.getHeader().getSerializedFields());
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void copies_are_independent() {
+        Document document = lazyCopy(createDocument());
+        Document copy = document.clone();
+        copy.setFieldValue("title", new StringFieldValue("changed"));
+        assertEquals(new StringFieldValue("the title"), document.getFieldValue("title"));
+        assertEquals(new StringFieldValue("changed"), copy.getFieldValue("title"));
+        assertEquals(createDocument(), document);
+    }
+
+    @Test
+    public void compressed_documents_are_read_lazily() {
+        type.contentStruct().setCompressionConfig(new CompressionConfig(CompressionType.LZ4));
+        try {
+            Document original = createDocument();
+            original.setFieldValue("title", new StringFieldValue("compressible ".repeat(100)));
+            Document document = lazyCopy(original);
+            assertEquals(original.getFieldValue("title"), document.getFieldValue("title"));
+            assertEquals(original, deserialize(serialize(document), false));
+        }
+        finally {
+            type.contentStruct().setCompressionConfig(new CompressionConfig());
+        }
+    }
+
+    @Test
+    public void annotated_strings_are_decoded_with_their_span_trees() {
+        AnnotationType annotationType = new AnnotationType("my_annotation");
+        manager.getAnnotationTypeRegistry().register(annotationType);
+        Document original = createDocument();
+        StringFieldValue title = new StringFieldValue("the title");
+        SpanTree tree = new SpanTree("my_tree");
+        tree.annotate(new Annotation(annotationType));
+        title.setSpanTree(tree);
+        original.setFieldValue("title", title);
+
+        Document document = lazyCopy(original);
+        StringFieldValue decoded = (StringFieldValue)document.getFieldValue("title");
+        assertNotNull(decoded.getSpanTree("my_tree"));
+        assertEquals(original, document);
+    }
+
+    private Document createDocument() {
+        Document document = new Document(type, "id:ns:my_type::1");
+        document.setFieldValue("title", new StringFieldValue("the title"));
+        document.setFieldValue("count", new IntegerFieldValue(42));
+        Array<StringFieldValue> tags = new Array<>(type.getField("tags").getDataType());
+        tags.add(new StringFieldValue("a"));
+        tags.add(new StringFieldValue("b"));
+        document.setFieldValue("tags", tags);
+        Struct nested = new Struct(structType);
+        nested.setFieldValue("s", new StringFieldValue("nested"));
+        nested.setFieldValue("i", new IntegerFieldValue(3));
+        document.setFieldValue("nested", nested);
+        return document;
+    }
+
+    private Document lazyCopy(Document document) {
+        Document copy = deserialize(serialize(document), true);
+        assertTrue(copy.getHeader().getSerializedFields() != null);
+        return copy;
+    }
+
+    private byte[] serialize(Document document) {
+        GrowableByteBuffer buffer = new GrowableByteBuffer();
+        DocumentSerializerFactory.createHead(buffer).write(document);
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private Document deserialize(byte[] data, boolean lazy) {
+        GrowableByteBuffer buffer = GrowableByteBuffer.wrap(data);
+        return new Document(lazy ? DocumentDeserializerFactory.createLazyHead(manager, buffer)
+                                 : DocumentDeserializerFactory.createHead(manager, buffer));
+    }
+
+}
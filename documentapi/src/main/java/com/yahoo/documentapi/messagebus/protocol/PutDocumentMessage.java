@@ -1,6 +1,7 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.documentapi.messagebus.protocol;
 
+import com.yahoo.document.DocumentId;
 import com.yahoo.document.DocumentPut;
 import com.yahoo.document.TestAndSetCondition;
 import com.yahoo.document.serialization.DocumentDeserializer;
@@ -17,6 +18,7 @@ public class PutDocumentMessage extends TestAndSetMessage {
     private DocumentPut put = null;
     private long time = 0;
     private LazyDecoder decoder = null;
+    private DocumentId serializedId = null;
 
     /**
      * Constructs a new message for deserialization.
@@ -36,6 +38,15 @@ public class PutDocumentMessage extends TestAndSetMessage {
         this.buffer = buffer;
     }
 
+    /**
+     * Constructs a new message from a byte buffer containing a put of a document with a known id.
+     * The sequence id of this message is available without deserializing the buffer.
+     */
+    PutDocumentMessage(LazyDecoder decoder, DocumentDeserializer buffer, DocumentId id) {
+        this(decoder, buffer);
+        this.serializedId = id;
+    }
+
     /** Constructs a new document put message */
     public PutDocumentMessage(DocumentPut put) {
         this.put = put;
@@ -57,6 +68,7 @@ public class PutDocumentMessage extends TestAndSetMessage {
             decoder.decode(this, buffer);
             decoder = null;
             buffer = null;
+            serializedId = null;
         }
     }
 
@@ -70,6 +82,7 @@ public class PutDocumentMessage extends TestAndSetMessage {
     public void setDocumentPut(DocumentPut put) {
         buffer = null;
         decoder = null;
+        serializedId = null;
         this.put = put;
     }
 
@@ -83,6 +96,7 @@ public class PutDocumentMessage extends TestAndSetMessage {
     public void setTimestamp(long time) {
         buffer = null;
         decoder = null;
+        serializedId = null;
         this.time = time;
     }
 
@@ -116,6 +130,9 @@ public class PutDocumentMessage extends TestAndSetMessage {
 
     @Override
     public long getSequenceId() {
+        if (serializedId != null) {
+            return Arrays.hashCode(serializedId.getGlobalId());
+        }
         deserialize();
         return Arrays.hashCode(put.getId().getGlobalId());
     }
@@ -133,6 +150,7 @@ public class PutDocumentMessage extends TestAndSetMessage {
 
     @Override
     public void setCondition(TestAndSetCondition condition) {
+        deserialize();
         put.setCondition(condition);
     }
 
@@ -5,13 +5,16 @@ import com.yahoo.document.BucketId;
 import com.yahoo.document.Document;
 import com.yahoo.document.DocumentId;
 import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentTypeManager;
 import com.yahoo.document.DocumentUpdate;
 import com.yahoo.document.FixedBucketSpaces;
 import com.yahoo.document.TestAndSetCondition;
 import com.yahoo.document.serialization.DocumentDeserializer;
+import com.yahoo.document.serialization.DocumentDeserializerFactory;
 import com.yahoo.document.serialization.DocumentSerializer;
 import com.yahoo.document.serialization.DocumentSerializerFactory;
 import com.yahoo.documentapi.messagebus.loadtypes.LoadTypeSet;
+import com.yahoo.io.GrowableByteBuffer;
 import java.util.logging.Level;
 import com.yahoo.messagebus.Routable;
 import com.yahoo.vdslib.DocumentSummary;
@@ -623,11 +626,35 @@ public abstract class RoutableFactories60 {
             return new PutDocumentMessage(decoder, buffer);
         }
 
+        /**
+         * Creates a message putting a document which is already serialized. The message is encoded without
+         * deserializing the document, which is only done if the content of the message is accessed.
+         *
+         * @param typeManager the type manager to use if the document is deserialized
+         * @param id the id of the serialized document
+         * @param document the serialized document, which must not be modified
+         * @param condition the test-and-set condition of the put
+         */
+        public PutDocumentMessage createSerialized(DocumentTypeManager typeManager, DocumentId id,
+                                                   byte[] document, TestAndSetCondition condition) {
+            GrowableByteBuffer buffer = new GrowableByteBuffer(document.length + 64);
+            DocumentSerializer out = DocumentSerializerFactory.createHead(buffer);
+            out.put(null, document);
+            out.putLong(null, 0); // timestamp
+            encodeString(condition.getSelection(), out);
+            buffer.flip();
+
+            final LazyDecoder decoder = (obj, buf) -> {
+                decodeInto((PutDocumentMessage) obj, buf);
+            };
+            return new PutDocumentMessage(decoder, DocumentDeserializerFactory.createHead(typeManager, buffer), id);
+        }
+
         @Override
         protected boolean doEncode(DocumentMessage obj, DocumentSerializer buf) {
             PutDocumentMessage msg = (PutDocumentMessage)obj;
             if (msg.getSerializedBuffer() != null) {
-                buf.put(null, msg.getSerializedBuffer());
+                buf.put(null, msg.getSerializedBuffer().duplicate()); // may be encoded again on resend
             } else {
                 msg.getDocumentPut().getDocument().serialize(buf);
                 buf.putLong(null, msg.getTimestamp());
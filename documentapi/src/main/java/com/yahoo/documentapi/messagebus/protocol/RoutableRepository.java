@@ -58,7 +58,8 @@ final class RoutableRepository {
             log.log(Level.SEVERE,"Can not decode anything from (version " + version + "). Only major version 5 and up supported.");
             return null;
         }
-        DocumentDeserializer in = DocumentDeserializerFactory.createHead(docMan, GrowableByteBuffer.wrap(data));
+        // Documents are decoded lazily, as routing and most document processors only access a few fields
+        DocumentDeserializer in = DocumentDeserializerFactory.createLazyHead(docMan, GrowableByteBuffer.wrap(data));
 
 
         int type = in.getInt(null);
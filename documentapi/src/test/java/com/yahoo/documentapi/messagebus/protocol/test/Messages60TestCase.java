@@ -12,6 +12,7 @@ import com.yahoo.document.GlobalId;
 import com.yahoo.document.TestAndSetCondition;
 import com.yahoo.document.fieldpathupdate.RemoveFieldPathUpdate;
 import com.yahoo.document.idstring.IdString;
+import com.yahoo.document.serialization.DocumentSerializerFactory;
 import com.yahoo.documentapi.messagebus.protocol.CreateVisitorMessage;
 import com.yahoo.documentapi.messagebus.protocol.CreateVisitorReply;
 import com.yahoo.documentapi.messagebus.protocol.DestroyVisitorMessage;
@@ -34,6 +35,7 @@ import com.yahoo.documentapi.messagebus.protocol.QueryResultMessage;
 import com.yahoo.documentapi.messagebus.protocol.RemoveDocumentMessage;
 import com.yahoo.documentapi.messagebus.protocol.RemoveDocumentReply;
 import com.yahoo.documentapi.messagebus.protocol.RemoveLocationMessage;
+import com.yahoo.documentapi.messagebus.protocol.RoutableFactories60;
 import com.yahoo.documentapi.messagebus.protocol.SearchResultMessage;
 import com.yahoo.documentapi.messagebus.protocol.StatBucketMessage;
 import com.yahoo.documentapi.messagebus.protocol.StatBucketReply;
@@ -43,14 +45,17 @@ import com.yahoo.documentapi.messagebus.protocol.VisitorInfoMessage;
 import com.yahoo.documentapi.messagebus.protocol.VisitorReply;
 import com.yahoo.documentapi.messagebus.protocol.WriteDocumentReply;
 import com.yahoo.documentapi.messagebus.protocol.WrongDistributionReply;
+import com.yahoo.io.GrowableByteBuffer;
 import com.yahoo.messagebus.Routable;
 import com.yahoo.text.Utf8;
 import com.yahoo.vdslib.SearchResult;
+import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -624,6 +629,30 @@ public class Messages60TestCase extends MessagesTestBase {
         }
     }
 
+    @Test
+    public void requireThatPutOfSerializedDocumentIsEncodedAsPut() {
+        Document document = new Document(protocol.getDocumentTypeManager().getDocumentType("testdoc"), "id:ns:testdoc::");
+        GrowableByteBuffer buffer = new GrowableByteBuffer();
+        document.serialize(DocumentSerializerFactory.createHead(buffer));
+        buffer.flip();
+        byte[] serialized = new byte[buffer.remaining()];
+        buffer.get(serialized);
+
+        PutDocumentMessage expected = new PutDocumentMessage(new DocumentPut(document));
+        expected.setCondition(new TestAndSetCondition(CONDITION_STRING));
+        PutDocumentMessage msg = new RoutableFactories60.PutDocumentMessageFactory()
+                .createSerialized(protocol.getDocumentTypeManager(), document.getId(), serialized,
+                                  new TestAndSetCondition(CONDITION_STRING));
+
+        assertEquals(expected.getSequenceId(), msg.getSequenceId());
+        assertArrayEquals(encode(expected), encode(msg));
+        assertArrayEquals(encode(expected), encode(msg)); // as on resend
+
+        assertEquals(document, msg.getDocumentPut().getDocument());
+        assertEquals(CONDITION_STRING, msg.getCondition().getSelection());
+        assertEquals(0, msg.getTimestamp());
+    }
+
     public class testPutDocumentReply implements RunnableTest {
 
         @Override
@@ -10,7 +10,7 @@ import com.yahoo.document.annotation.SpanTrees;
 import com.yahoo.document.datatypes.StringFieldValue;
 import com.yahoo.language.Linguistics;
 import com.yahoo.language.process.StemMode;
-import com.yahoo.language.process.Token;
+import com.yahoo.language.process.TokenCursor;
 import com.yahoo.language.process.Tokenizer;
 
 import java.util.HashMap;
@@ -72,12 +72,12 @@ public class LinguisticsAnnotator {
         String input = (text.getString().length() <=  config.getMaxTokenizeLength())
                 ? text.getString()
                 : text.getString().substring(0, config.getMaxTokenizeLength());
-        Iterable<Token> tokens = tokenizer.tokenize(input, config.getLanguage(), config.getStemMode(),
-                                                    config.getRemoveAccents());
+        TokenCursor tokens = tokenizer.tokenCursor(input, config.getLanguage(), config.getStemMode(),
+                                                   config.getRemoveAccents());
         TermOccurrences termOccurrences = new TermOccurrences(config.getMaxTermOccurrences());
         SpanTree tree = new SpanTree(SpanTrees.LINGUISTICS);
-        for (Token token : tokens) {
-            addAnnotationSpan(text.getString(), tree.spanList(), tokenizer, token, config.getStemMode(), termOccurrences);
+        while (tokens.next()) {
+            addAnnotationSpan(text.getString(), tree.spanList(), tokenizer, tokens, config.getStemMode(), termOccurrences);
         }
 
         if (tree.numAnnotations() == 0) return false;
@@ -107,20 +107,13 @@ public class LinguisticsAnnotator {
         }
     }
 
-    private static void addAnnotationSpan(String input, SpanList parent, Tokenizer tokenizer, Token token, StemMode mode, TermOccurrences termOccurrences) {
-        if ( ! token.isSpecialToken()) {
-            if (token.getNumComponents() > 0) {
-                for (int i = 0; i < token.getNumComponents(); ++i) {
-                    addAnnotationSpan(input, parent, tokenizer, token.getComponent(i), mode, termOccurrences);
-                }
-                return;
-            }
-            if ( ! token.isIndexable()) {
-                return;
-            }
+    /** Annotates the current token of the given cursor. Components are returned by the cursor in place of tokens. */
+    private static void addAnnotationSpan(String input, SpanList parent, Tokenizer tokenizer, TokenCursor token, StemMode mode, TermOccurrences termOccurrences) {
+        if ( ! token.isSpecialToken() && ! token.isIndexable()) {
+            return;
         }
         String orig = token.getOrig();
-        int pos = (int)token.getOffset();
+        int pos = token.getOffset();
         if (pos >= input.length()) {
             throw new IllegalArgumentException("Token '" + orig + "' has offset " + pos + ", which is outside the " +
                                                "bounds of the input string; " + input);
@@ -9,6 +9,7 @@ class Buffer {
 
     static final int MAX_IO = 65000;
 
+    private final BufferPool pool;
     private ByteBuffer buf;
     private int        readPos;
     private int        writePos;
@@ -58,35 +59,80 @@ class Buffer {
             if (buf.capacity() + free < minFree) {
                 size = buf.capacity() + minFree;
             }
-            ByteBuffer tmp = ByteBuffer.allocate(size);
+            ByteBuffer tmp = allocate(size);
             tmp.order(buf.order());
             buf.position(readPos);
             buf.limit(writePos);
             tmp.put(buf);
+            free(buf);
             buf = tmp;
             readPos = 0;
         }
     }
 
+    private ByteBuffer allocate(int size) {
+        return (pool != null) ? pool.allocate(size) : ByteBuffer.allocate(size);
+    }
+
+    private void free(ByteBuffer old) {
+        if (pool != null) {
+            pool.release(old);
+        }
+    }
+
     public Buffer(int size) {
+        pool = null;
         buf = ByteBuffer.allocate(size);
         readPos = 0;
         writePos = 0;
         readMode = false;
     }
 
+    /**
+     * Create a buffer backed by direct buffers from the given
+     * pool. Growing past the pooled size allocates a heap buffer
+     * which is given up again when shrinking back down. The buffer
+     * should be released when no longer in use.
+     *
+     * @param pool the pool to obtain backing buffers from
+     **/
+    public Buffer(BufferPool pool) {
+        this.pool = pool;
+        buf = pool.allocate(pool.bufferSize());
+        readPos = 0;
+        writePos = 0;
+        readMode = false;
+    }
+
+    /**
+     * Give the backing buffer back to the pool and discard any
+     * content. The buffer is still usable afterwards, but will need
+     * to allocate again.
+     **/
+    public void release() {
+        free(buf);
+        buf = ByteBuffer.allocate(0);
+        readPos = 0;
+        writePos = 0;
+        readMode = false;
+    }
+
     public boolean shrink(int size) {
+        if (pool != null && size < pool.bufferSize()) {
+            size = pool.bufferSize();
+        }
         int rpos = readMode? buf.position() : readPos;
         int wpos = readMode? writePos : buf.position();
         int used = wpos - rpos;
         if (used > size || buf.capacity() <= size) {
             return false;
         }
-        ByteBuffer tmp = ByteBuffer.allocate(size);
+        ByteBuffer tmp = allocate(size);
         tmp.order(buf.order());
         buf.position(rpos);
         buf.limit(wpos);
         tmp.put(buf);
+        free(buf);
         buf = tmp;
         readPos = 0;
         writePos = used;
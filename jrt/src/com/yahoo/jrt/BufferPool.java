@@ -0,0 +1,95 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+
+/**
+ * A bounded pool of direct byte buffers of a single size, shared by
+ * the connections of a {@link Supervisor}. Direct buffers are read
+ * into and written from by socket channels without an intermediate
+ * copy, but are expensive to allocate, so they are reused. At most
+ * a given number of direct buffers are allocated by a pool, such that
+ * the direct memory used does not grow with the number of
+ * connections. When all of them are in use, heap buffers are used
+ * instead. Buffers larger than the pooled size are heap buffers, as
+ * they are only used temporarily until the owner shrinks back to the
+ * pooled size.
+ **/
+class BufferPool {
+
+    private final int bufferSize;
+    private final int maxBuffers;
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+    private int allocated = 0;
+
+    /**
+     * Create a new buffer pool
+     *
+     * @param bufferSize the size of pooled buffers
+     * @param maxBuffers the max number of direct buffers allocated by this pool
+     **/
+    BufferPool(int bufferSize, int maxBuffers) {
+        this.bufferSize = bufferSize;
+        this.maxBuffers = maxBuffers;
+    }
+
+    /**
+     * @return the size of pooled buffers
+     **/
+    int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Obtain a cleared buffer with at least the given capacity. The
+     * buffer is pooled if the size is at most the pooled size and
+     * this pool has not allocated all its direct buffers to others.
+     *
+     * @return a buffer of at least the given size
+     * @param size the min capacity of the buffer
+     **/
+    ByteBuffer allocate(int size) {
+        if (size > bufferSize) {
+            return ByteBuffer.allocate(size);
+        }
+        synchronized (this) {
+            ByteBuffer buffer = free.pollLast();
+            if (buffer != null) {
+                return buffer;
+            }
+            if (allocated >= maxBuffers) {
+                return ByteBuffer.allocate(bufferSize);
+            }
+            allocated++;
+        }
+        return ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Give a buffer back to this pool. The buffer must not be used
+     * by the caller after this. Buffers which were not allocated by
+     * this pool are ignored.
+     *
+     * @param buffer the buffer to give back
+     **/
+    void release(ByteBuffer buffer) {
+        if ( ! buffer.isDirect() || buffer.capacity() != bufferSize) {
+            return;
+        }
+        buffer.clear();
+        buffer.order(java.nio.ByteOrder.BIG_ENDIAN);
+        synchronized (this) {
+            free.addLast(buffer);
+        }
+    }
+
+    /**
+     * @return the number of unused buffers currently held by this pool
+     **/
+    synchronized int freeCount() {
+        return free.size();
+    }
+}
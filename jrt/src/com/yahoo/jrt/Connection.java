@@ -32,8 +32,10 @@ class Connection extends Target {
     private int state = INITIAL;
     private final Queue  queue   = new Queue();
     private final Queue  myQueue = new Queue();
-    private final Buffer input   = new Buffer(READ_SIZE * 2);
-    private final Buffer output  = new Buffer(WRITE_SIZE * 2);
+    private final Buffer input;
+    private final Buffer output;
+    private ByteBuffer[] gatheredOutput = null;
+    private ByteBuffer gatheredHead = ByteBuffer.allocate(0);
     private int maxInputSize  = 64*1024;
     private int maxOutputSize = 64*1024;
     private final boolean tcpNoDelay;
@@ -94,6 +96,8 @@ class Connection extends Target {
 
         this.parent = parent;
         this.owner = owner;
+        this.input = new Buffer(owner.bufferPool());
+        this.output = new Buffer(owner.bufferPool());
         this.socket = parent.transport().createServerCryptoSocket(channel);
         this.spec = null;
         this.tcpNoDelay = tcpNoDelay;
@@ -105,6 +109,8 @@ class Connection extends Target {
         super(context);
         this.parent = parent;
         this.owner = owner;
+        this.input = new Buffer(owner.bufferPool());
+        this.output = new Buffer(owner.bufferPool());
         this.spec = spec;
         this.tcpNoDelay = tcpNoDelay;
         server = false;
@@ -322,20 +328,66 @@ class Connection extends Target {
         }
     }
 
+    /**
+     * Obtain an empty buffer to encode the parts of a packet which
+     * are not referenced by the gathered output into. The buffer is
+     * reused, as only one packet is gathered at a time.
+     **/
+    private ByteBuffer gatheredHead(int size) {
+        if (gatheredHead.capacity() < size) {
+            gatheredHead = ByteBuffer.allocate(size);
+        }
+        gatheredHead.clear();
+        return gatheredHead;
+    }
+
+    /**
+     * Copy as much of the gathered output as fits within the write
+     * size into the output buffer, which is written to the socket
+     * without further copying.
+     **/
+    private void copyGatheredOutput() {
+        int room = WRITE_SIZE - output.bytes();
+        ByteBuffer wb = output.getWritable(room);
+        for (ByteBuffer src : gatheredOutput) {
+            int n = Math.min(room, src.remaining());
+            int limit = src.limit();
+            src.limit(src.position() + n);
+            wb.put(src);
+            src.limit(limit);
+            room -= n;
+            if (src.hasRemaining()) {
+                return;
+            }
+        }
+        gatheredOutput = null;
+    }
+
     private void write() throws IOException {
         synchronized (this) {
             queue.flush(myQueue);
         }
         for (int i = 0; i < WRITE_REDO; i++) {
             while (output.bytes() < WRITE_SIZE) {
+                if (gatheredOutput != null) {
+                    copyGatheredOutput();
+                    continue;
+                }
                 Packet packet = (Packet) myQueue.dequeue();
                 if (packet == null) {
                     break;
                 }
                 PacketInfo info = packet.getPacketInfo();
-                ByteBuffer wb = output.getWritable(info.packetLength());
-                owner.writePacket(info);
-                info.encodePacket(packet, wb);
+                int gatheredBytes = packet.gatheredBytes();
+                if (gatheredBytes > 0) {
+                    owner.writePacket(info);
+                    gatheredOutput = info.encodePacket(packet, gatheredBytes,
+                                                       gatheredHead(info.packetLength() - gatheredBytes));
+                } else {
+                    ByteBuffer wb = output.getWritable(info.packetLength());
+                    owner.writePacket(info);
+                    info.encodePacket(packet, wb);
+                }
             }
             ByteBuffer rb = output.getChannelReadable();
             if (rb.remaining() == 0) {
@@ -347,7 +399,7 @@ class Connection extends Target {
             }
         }
         int myWriteWork = 0;
-        if (output.bytes() > 0) {
+        if (output.bytes() > 0 || gatheredOutput != null) {
             myWriteWork++;
         }
         if (socket.flush() == CryptoSocket.FlushResult.NEED_WRITE) {
@@ -383,6 +435,9 @@ class Connection extends Target {
         if (selectionKey != null) {
             selectionKey.cancel();
         }
+        input.release();
+        output.release();
+        gatheredOutput = null;
     }
 
     public boolean isClosed() {
@@ -42,6 +42,18 @@ public class DataValue extends Value
         dst.put(value);
     }
 
+    int gatheredBytes() {
+        return GatheredData.shouldGather(value) ? value.length : 0;
+    }
+    void encode(ByteBuffer dst, GatheredData gathered) {
+        if (gathered == null || ! GatheredData.shouldGather(value)) {
+            encode(dst);
+            return;
+        }
+        dst.putInt(value.length);
+        gathered.add(dst.position(), value);
+    }
+
     public byte[] asData() { return value; }
 
     @Override
@@ -0,0 +1,72 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Large data referenced by an encoded packet instead of being copied
+ * into the encoding buffer. Each piece of data is tagged with the
+ * offset into the encoding buffer where it belongs, so that the
+ * packet can be copied into the output buffer of a connection piece
+ * by piece as it is written, instead of the output buffer growing to
+ * hold the whole packet.
+ **/
+class GatheredData {
+
+    /** data values smaller than this are always copied **/
+    static final int MIN_SIZE = 16 * 1024;
+
+    private final List<Integer> offsets = new ArrayList<>();
+    private final List<byte[]>  data    = new ArrayList<>();
+
+    /**
+     * @return whether the given data is large enough to be referenced rather than copied
+     * @param data the data to check
+     **/
+    static boolean shouldGather(byte[] data) {
+        return data.length >= MIN_SIZE;
+    }
+
+    /**
+     * Reference data which belongs at the given offset in the
+     * encoding buffer
+     *
+     * @param offset position in the encoding buffer where the data belongs
+     * @param data the data
+     **/
+    void add(int offset, byte[] data) {
+        offsets.add(offset);
+        this.data.add(data);
+    }
+
+    /**
+     * Split the given encoding buffer at the referenced offsets and
+     * interleave the parts with the referenced data.
+     *
+     * @return the buffers to write, in order
+     * @param head the encoding buffer, ready for reading from position 0
+     **/
+    ByteBuffer[] segments(ByteBuffer head) {
+        List<ByteBuffer> result = new ArrayList<>(2 * data.size() + 1);
+        int pos = 0;
+        for (int i = 0; i < data.size(); i++) {
+            int offset = offsets.get(i);
+            result.add(slice(head, pos, offset));
+            result.add(ByteBuffer.wrap(data.get(i)));
+            pos = offset;
+        }
+        result.add(slice(head, pos, head.limit()));
+        return result.toArray(new ByteBuffer[0]);
+    }
+
+    private static ByteBuffer slice(ByteBuffer head, int from, int to) {
+        ByteBuffer slice = head.duplicate();
+        slice.position(from);
+        slice.limit(to);
+        return slice;
+    }
+}
@@ -10,11 +10,14 @@ class InvocationServer {
     private int        replyKey;
     private boolean    noReply;
     private TieBreaker done;
+    private TransportMetrics metrics;
+    private long       receivedNanos;
 
     public InvocationServer(Connection conn, Request request, Method method,
-                            int replyKey, boolean noReply) {
+                            int replyKey, boolean noReply, TransportMetrics metrics) {
 
         this.conn = conn;
+        this.metrics = metrics;
         this.request = request;
         this.method = method;
         this.replyKey = replyKey;
@@ -22,6 +25,7 @@ class InvocationServer {
         request.serverHandler(this);
 
         done = conn.startRequest();
+        receivedNanos = System.nanoTime();
     }
 
     public Target getTarget() {
@@ -38,11 +42,23 @@ class InvocationServer {
         } else {
             request.setError(ErrorCode.NO_SUCH_METHOD, "No such method");
         }
+        metrics.addInvocation(System.nanoTime() - receivedNanos);
         if (!request.isDetached()) {
             returnRequest();
         }
     }
 
+    /**
+     * Returns the request with an error without invoking the method.
+     *
+     * @param errorCode the error code
+     * @param errorMessage the error message
+     **/
+    public void reject(int errorCode, String errorMessage) {
+        request.setError(errorCode, errorMessage);
+        returnRequest();
+    }
+
     public void returnRequest() {
         if (!conn.completeRequest(done)) {
             throw new IllegalStateException("Request already returned");
@@ -106,4 +106,34 @@ class PacketInfo
             dst.limit(limit);
         }
     }
+
+    /**
+     * Encode a packet into a sequence of buffers, in which large
+     * data values are referenced instead of being copied. The
+     * remaining parts of the packet are encoded into the given head
+     * buffer, which is referenced by the returned buffers.
+     *
+     * @return the buffers holding the encoded packet, in order
+     * @param packet the packet to encode
+     * @param gatheredBytes the number of bytes of the packet to reference rather than copy
+     * @param head an empty buffer with room for the bytes of the packet which are not referenced
+     **/
+    public ByteBuffer[] encodePacket(Packet packet, int gatheredBytes, ByteBuffer head) {
+        GatheredData gathered = new GatheredData();
+        try {
+            head.limit(head.position() + packetLength - gatheredBytes);
+            head.putInt(packetLength - 4);
+            head.putShort((short)flags);
+            head.putShort((short)packetCode);
+            head.putInt(requestId);
+            if (reverseByteOrder()) {
+                head.order(ByteOrder.LITTLE_ENDIAN);
+            }
+            packet.encode(head, gathered);
+        } finally {
+            head.order(ByteOrder.BIG_ENDIAN);
+        }
+        head.flip();
+        return gathered.segments(head);
+    }
 }
@@ -36,6 +36,14 @@ class ReplyPacket extends Packet
         returnValues.encode(dst);
     }
 
+    public int gatheredBytes() {
+        return returnValues.gatheredBytes();
+    }
+
+    public void encode(ByteBuffer dst, GatheredData gathered) {
+        returnValues.encode(dst, gathered);
+    }
+
     public Values returnValues() {
         return returnValues;
     }
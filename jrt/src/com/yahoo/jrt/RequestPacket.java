@@ -42,6 +42,15 @@ class RequestPacket extends Packet
         parameters.encode(dst);
     }
 
+    public int gatheredBytes() {
+        return parameters.gatheredBytes();
+    }
+
+    public void encode(ByteBuffer dst, GatheredData gathered) {
+        methodName.encode(dst);
+        parameters.encode(dst, gathered);
+    }
+
     public String methodName() {
         return methodName.asString();
     }
@@ -1,7 +1,15 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.jrt;
 
+import com.yahoo.concurrent.DaemonThreadFactory;
+
 import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -15,12 +23,17 @@ import java.util.concurrent.atomic.AtomicReference;
  **/
 public class Supervisor {
 
+    private static final int BUFFER_SIZE        = 64 * 1024;
+    private static final int MAX_DIRECT_BUFFERS = 64;
+
     private final Transport         transport;
+    private final BufferPool        bufferPool = new BufferPool(BUFFER_SIZE, MAX_DIRECT_BUFFERS);
     private SessionHandler          sessionHandler = null;
     private final Object            methodMapLock = new Object();
     private final AtomicReference<HashMap<String, Method>> methodMap = new AtomicReference<>(new HashMap<>());
     private int                     maxInputBufferSize  = 0;
     private int                     maxOutputBufferSize = 0;
+    private volatile Executor       invocationExecutor  = null;
 
     /**
      * Create a new Supervisor based on the given {@link Transport}
@@ -61,6 +74,42 @@ public class Supervisor {
         maxOutputBufferSize = bytes;
     }
 
+    /**
+     * Set the executor used to invoke the methods of incoming
+     * requests. By default methods are invoked by the transport
+     * thread owning the connection the request arrived on, which
+     * means that a slow method delays all other connections handled
+     * by that thread. With an executor, the transport thread only
+     * decodes requests, while replies are still written by the
+     * transport thread. Requests rejected by the executor get an
+     * {@link ErrorCode#OVERLOAD} error reply. The executor may be
+     * one creating a virtual thread per task where those are
+     * available, or a bounded one created by {@link
+     * #createInvocationExecutor}. It is owned by the caller, and must
+     * not be shut down before the transport of this Supervisor.
+     *
+     * @param executor the executor to invoke methods in, or null to
+     * invoke methods in the transport threads
+     **/
+    public void setInvocationExecutor(Executor executor) {
+        invocationExecutor = executor;
+    }
+
+    /**
+     * Create a bounded executor suitable for {@link
+     * #setInvocationExecutor}, which rejects requests arriving while
+     * its queue is full.
+     *
+     * @return a new executor of daemon threads
+     * @param threads the number of threads invoking methods
+     * @param queueSize the max number of requests waiting for a thread
+     **/
+    public static ExecutorService createInvocationExecutor(int threads, int queueSize) {
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+                                      new ArrayBlockingQueue<>(queueSize),
+                                      new DaemonThreadFactory("jrt-invoker-"));
+    }
+
     /**
      * Obtain the method map for this Supervisor
      *
@@ -70,6 +119,16 @@ public class Supervisor {
         return methodMap.getAcquire();
     }
 
+    /**
+     * Obtain the pool of direct buffers used for io by the
+     * connections of this Supervisor.
+     *
+     * @return the buffer pool of this Supervisor
+     **/
+    BufferPool bufferPool() {
+        return bufferPool;
+    }
+
     /**
      * Obtain the underlying Transport object.
      *
@@ -257,8 +316,25 @@ public class Supervisor {
         RequestPacket rp = (RequestPacket) packet;
         Request req = new Request(rp.methodName(), rp.parameters());
         Method method = methodMap().get(req.methodName());
-        new InvocationServer(conn, req, method,
-                             packet.requestId(),
-                             packet.noReply()).invoke();
+        TransportMetrics metrics = transport.metrics();
+        InvocationServer invocation = new InvocationServer(conn, req, method,
+                                                           packet.requestId(),
+                                                           packet.noReply(),
+                                                           metrics);
+        Executor executor = invocationExecutor;
+        if (executor == null) {
+            invocation.invoke();
+            return;
+        }
+        metrics.incrementInvocationQueueSize();
+        try {
+            executor.execute(() -> {
+                metrics.decrementInvocationQueueSize();
+                invocation.invoke();
+            });
+        } catch (RejectedExecutionException e) {
+            metrics.decrementInvocationQueueSize();
+            invocation.reject(ErrorCode.OVERLOAD, "Too many pending invocations");
+        }
     }
 }
@@ -1,6 +1,8 @@
 // Copyright 2018 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.jrt;
 
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.ToLongFunction;
 
@@ -11,6 +13,9 @@ import java.util.function.ToLongFunction;
  */
 public class TransportMetrics {
 
+    /** The max number of invocation latencies sampled between each time the samples are drained */
+    static final int MAX_LATENCY_SAMPLES = 1024;
+
     private static final TransportMetrics instance = new TransportMetrics();
 
     private final AtomicLong tlsCertificateVerificationFailures = new AtomicLong(0);
@@ -19,8 +24,15 @@ public class TransportMetrics {
     private final AtomicLong clientTlsConnectionsEstablished = new AtomicLong(0);
     private final AtomicLong serverUnencryptedConnectionsEstablished = new AtomicLong(0);
     private final AtomicLong clientUnencryptedConnectionsEstablished = new AtomicLong(0);
-
-    private TransportMetrics() {}
+    private final AtomicLong invocationQueueSize = new AtomicLong(0);
+    private final AtomicLong invocations = new AtomicLong(0);
+    private final AtomicLong invocationsSampled = new AtomicLong(0);
+    /** The sampled latencies, where -1 marks a slot with no sample */
+    private final long[] invocationLatencySamples = new long[MAX_LATENCY_SAMPLES];
+
+    private TransportMetrics() {
+        Arrays.fill(invocationLatencySamples, -1);
+    }
 
     public static TransportMetrics getInstance() { return instance; }
 
@@ -48,6 +60,29 @@ public class TransportMetrics {
         return clientUnencryptedConnectionsEstablished.get();
     }
 
+    /** Returns the number of incoming requests currently waiting for an invocation executor */
+    public long invocationQueueSize() {
+        return invocationQueueSize.get();
+    }
+
+    /** Returns the number of methods invoked for incoming requests */
+    public long invocations() {
+        return invocations.get();
+    }
+
+    /**
+     * Returns the latencies of invocations, in nanoseconds, since this was last called. When there have been
+     * more than {@link #MAX_LATENCY_SAMPLES} invocations, this is a uniform random sample of their latencies.
+     */
+    public long[] drainInvocationLatencySamples() {
+        synchronized (invocationLatencySamples) {
+            long[] samples = Arrays.stream(invocationLatencySamples).filter(latency -> latency >= 0).toArray();
+            Arrays.fill(invocationLatencySamples, -1);
+            invocationsSampled.set(0);
+            return samples;
+        }
+    }
+
     public Snapshot snapshot() { return new Snapshot(this); }
 
     void incrementTlsCertificateVerificationFailures() {
@@ -74,6 +109,29 @@ public class TransportMetrics {
         clientUnencryptedConnectionsEstablished.incrementAndGet();
     }
 
+    void incrementInvocationQueueSize() {
+        invocationQueueSize.incrementAndGet();
+    }
+
+    void decrementInvocationQueueSize() {
+        invocationQueueSize.decrementAndGet();
+    }
+
+    /**
+     * Adds an invocation, sampling its latency by reservoir sampling, which keeps each latency with equal probability.
+     * Only the latencies kept are written under the lock, and these become rare as more invocations are seen,
+     * so invocations rarely contend on it.
+     */
+    void addInvocation(long latencyNanos) {
+        invocations.incrementAndGet();
+        long sampled = invocationsSampled.getAndIncrement();
+        long index = sampled < MAX_LATENCY_SAMPLES ? sampled : ThreadLocalRandom.current().nextLong(sampled + 1);
+        if (index >= MAX_LATENCY_SAMPLES) return;
+        synchronized (invocationLatencySamples) {
+            invocationLatencySamples[(int)index] = latencyNanos;
+        }
+    }
+
     @Override
     public String toString() {
         return "TransportMetrics{" +
@@ -83,11 +141,13 @@ public class TransportMetrics {
                 ", clientTlsConnectionsEstablished=" + clientTlsConnectionsEstablished +
                 ", serverUnencryptedConnectionsEstablished=" + serverUnencryptedConnectionsEstablished +
                 ", clientUnencryptedConnectionsEstablished=" + clientUnencryptedConnectionsEstablished +
+                ", invocationQueueSize=" + invocationQueueSize +
+                ", invocations=" + invocations +
                 '}';
     }
 
     public static class Snapshot {
-        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0);
+        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0, 0, 0);
 
         private final long tlsCertificateVerificationFailures;
         private final long peerAuthorizationFailures;
@@ -95,6 +155,8 @@ public class TransportMetrics {
         private final long clientTlsConnectionsEstablished;
         private final long serverUnencryptedConnectionsEstablished;
         private final long clientUnencryptedConnectionsEstablished;
+        private final long invocationQueueSize;
+        private final long invocations;
 
         private Snapshot(TransportMetrics metrics) {
             this(metrics.tlsCertificateVerificationFailures.get(),
@@ -102,7 +164,9 @@ public class TransportMetrics {
                  metrics.serverTlsConnectionsEstablished.get(),
                  metrics.clientTlsConnectionsEstablished.get(),
                  metrics.serverUnencryptedConnectionsEstablished.get(),
-                 metrics.clientUnencryptedConnectionsEstablished.get());
+                 metrics.clientUnencryptedConnectionsEstablished.get(),
+                 metrics.invocationQueueSize.get(),
+                 metrics.invocations.get());
         }
 
         private Snapshot(long tlsCertificateVerificationFailures,
@@ -110,13 +174,17 @@ public class TransportMetrics {
                         long serverTlsConnectionsEstablished,
                         long clientTlsConnectionsEstablished,
                         long serverUnencryptedConnectionsEstablished,
-                        long clientUnencryptedConnectionsEstablished) {
+                        long clientUnencryptedConnectionsEstablished,
+                        long invocationQueueSize,
+                        long invocations) {
             this.tlsCertificateVerificationFailures = tlsCertificateVerificationFailures;
             this.peerAuthorizationFailures = peerAuthorizationFailures;
             this.serverTlsConnectionsEstablished = serverTlsConnectionsEstablished;
             this.clientTlsConnectionsEstablished = clientTlsConnectionsEstablished;
             this.serverUnencryptedConnectionsEstablished = serverUnencryptedConnectionsEstablished;
             this.clientUnencryptedConnectionsEstablished = clientUnencryptedConnectionsEstablished;
+            this.invocationQueueSize = invocationQueueSize;
+            this.invocations = invocations;
         }
 
         public long tlsCertificateVerificationFailures() { return tlsCertificateVerificationFailures; }
@@ -125,6 +193,8 @@ public class TransportMetrics {
         public long clientTlsConnectionsEstablished() { return clientTlsConnectionsEstablished; }
         public long serverUnencryptedConnectionsEstablished() { return serverUnencryptedConnectionsEstablished; }
         public long clientUnencryptedConnectionsEstablished() { return clientUnencryptedConnectionsEstablished; }
+        public long invocationQueueSize() { return invocationQueueSize; }
+        public long invocations() { return invocations; }
 
         public Snapshot changesSince(Snapshot base) {
             return new Snapshot(
@@ -133,7 +203,9 @@ public class TransportMetrics {
                 changesSince(base, Snapshot::serverTlsConnectionsEstablished),
                 changesSince(base, Snapshot::clientTlsConnectionsEstablished),
                 changesSince(base, Snapshot::serverUnencryptedConnectionsEstablished),
-                changesSince(base, Snapshot::clientUnencryptedConnectionsEstablished));
+                changesSince(base, Snapshot::clientUnencryptedConnectionsEstablished),
+                invocationQueueSize, // a current value rather than a count
+                changesSince(base, Snapshot::invocations));
         }
 
         private long changesSince(Snapshot base, ToLongFunction<Snapshot> metricProperty) {
@@ -149,6 +221,8 @@ public class TransportMetrics {
                     ", clientTlsConnectionsEstablished=" + clientTlsConnectionsEstablished +
                     ", serverUnencryptedConnectionsEstablished=" + serverUnencryptedConnectionsEstablished +
                     ", clientUnencryptedConnectionsEstablished=" + clientUnencryptedConnectionsEstablished +
+                    ", invocationQueueSize=" + invocationQueueSize +
+                    ", invocations=" + invocations +
                     '}';
         }
     }
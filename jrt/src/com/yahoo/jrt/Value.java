@@ -100,6 +100,27 @@ public abstract class Value
      **/
     abstract void encode(ByteBuffer dst);
 
+    /**
+     * Determine the number of bytes of this value that will be
+     * referenced rather than copied when encoded with {@link
+     * #encode(ByteBuffer,GatheredData)}
+     *
+     * @return number of bytes left out of the encoding buffer
+     **/
+    int gatheredBytes() { return 0; }
+
+    /**
+     * Encode this value into the given buffer, leaving large data
+     * out of the buffer and referencing it in the given gathered
+     * data instead
+     *
+     * @param dst where to encode this value
+     * @param gathered where to reference large data, may be null
+     **/
+    void encode(ByteBuffer dst, GatheredData gathered) {
+        encode(dst);
+    }
+
     /**
      * Decode a value from the given buffer. This method also acts as
      * a factory for value objects
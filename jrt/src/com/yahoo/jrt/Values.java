@@ -99,6 +99,32 @@ public class Values
      * @param dst where to encode this value sequence
      **/
     void encode(ByteBuffer dst) {
+        encode(dst, null);
+    }
+
+    /**
+     * Determine the number of bytes of this value sequence that will
+     * be referenced rather than copied when encoded with {@link
+     * #encode(ByteBuffer,GatheredData)}
+     *
+     * @return number of bytes left out of the encoding buffer
+     **/
+    int gatheredBytes() {
+        int bytes = 0;
+        for (int i = 0; i < values.size(); i++) {
+            bytes += get(i).gatheredBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Encode this value sequence into the given buffer, referencing
+     * large data in the given gathered data instead of copying it
+     *
+     * @param dst where to encode this value sequence
+     * @param gathered where to reference large data, may be null
+     **/
+    void encode(ByteBuffer dst, GatheredData gathered) {
         byte[] types = new byte[values.size()];
         for (int i = 0; i < types.length; i++) {
             types[i] = get(i).type();
@@ -106,7 +132,7 @@ public class Values
         dst.putInt(types.length);
         dst.put(types);
         for (int i = 0; i < types.length; i++) {
-            get(i).encode(dst);
+            get(i).encode(dst, gathered);
         }
     }
 
@@ -278,4 +278,51 @@ public class BufferTest {
         }
     }
 
+    @org.junit.Test
+    public void testPooledBuffer() {
+        BufferPool pool = new BufferPool(1024, 2);
+        Buffer     buf  = new Buffer(pool);
+        ByteBuffer b    = buf.getWritable(10);
+        assertTrue(b.isDirect());
+        assertEquals(1024, b.capacity());
+        ByteBuffer pooled = b;
+
+        byte[] x = new byte[3000];
+        Arrays.fill(x, (byte) 10);
+        b.put(x, 0, 1000);
+        b = buf.getWritable(2000);
+        assertFalse(b.isDirect());
+        b.put(x, 1000, 2000);
+        assertEquals(1, pool.freeCount());
+
+        b = buf.getReadable();
+        byte[] y = new byte[3000];
+        b.get(y, 0, 2500);
+        assertTrue(buf.shrink(100));
+        assertEquals(0, pool.freeCount());
+        assertFalse(buf.shrink(100));
+        b = buf.getReadable();
+        assertTrue(b == pooled);
+        assertEquals(500, b.remaining());
+        b.get(y, 2500, 500);
+        assertTrue(Arrays.equals(x, y));
+
+        buf.release();
+        assertEquals(1, pool.freeCount());
+        assertEquals(0, buf.bytes());
+        assertTrue(pool.allocate(1024) == pooled);
+        assertFalse(pool.allocate(2048).isDirect());
+        assertEquals(0, pool.freeCount());
+
+        ByteBuffer second = pool.allocate(100);
+        assertTrue(second.isDirect());
+        ByteBuffer third = pool.allocate(100);
+        assertFalse(third.isDirect());
+        assertEquals(1024, third.capacity());
+        pool.release(third);
+        assertEquals(0, pool.freeCount());
+        pool.release(second);
+        assertTrue(pool.allocate(100) == second);
+    }
+
 }
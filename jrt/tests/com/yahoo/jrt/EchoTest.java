@@ -11,9 +11,11 @@ import org.junit.runners.Parameterized.Parameters;
 
 import java.security.cert.X509Certificate;
 import java.util.List;
+import java.util.Random;
 
 import static com.yahoo.jrt.CryptoUtils.createTestTlsContext;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -96,6 +98,7 @@ public class EchoTest {
         acceptor = server.listen(new Spec(0));
         target   = client.connect(new Spec("localhost", acceptor.port()));
         server.addMethod(new Method("echo", "*", "*", this::rpc_echo));
+        server.addMethod(new Method("echo_any", "*", "*", this::rpc_echo_any));
         refValues = new Values();
         byte[]   dataValue   = { 1, 2, 3, 4 };
         byte[]   int8Array   = { 1, 2, 3, 4 };
@@ -149,6 +152,35 @@ public class EchoTest {
         securityContext = req.target().getSecurityContext().orElse(null);
     }
 
+    private void rpc_echo_any(Request req) {
+        Values p = req.parameters();
+        Values r = req.returnValues();
+        for (int i = 0; i < p.size(); i++) {
+            r.add(p.get(i));
+        }
+    }
+
+    @org.junit.Test
+    public void testEchoLargeData() {
+        Random random = new Random(42);
+        Values values = new Values();
+        for (int size : new int[] { 1024 * 1024, 100, 64 * 1024, GatheredData.MIN_SIZE }) {
+            byte[] data = new byte[size];
+            random.nextBytes(data);
+            values.add(new DataValue(data));
+            values.add(new Int32Value(size));
+        }
+        for (int i = 0; i < 3; i++) {
+            Request req = new Request("echo_any");
+            for (int j = 0; j < values.size(); j++) {
+                req.parameters().add(values.get(j));
+            }
+            target.invokeSync(req, 60.0);
+            assertFalse(req.isError());
+            assertTrue(Test.equals(req.returnValues(), values));
+        }
+    }
+
     @org.junit.Test
     public void testEcho() {
         Request req = new Request("echo");
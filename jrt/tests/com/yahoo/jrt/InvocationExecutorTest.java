@@ -0,0 +1,105 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jrt;
+
+
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InvocationExecutorTest {
+
+    Supervisor      server;
+    Acceptor        acceptor;
+    Supervisor      client;
+    Target          target;
+    ExecutorService executor;
+    Test.Barrier    barrier;
+
+    @Before
+    public void setUp() throws ListenFailedException {
+        server   = new Supervisor(new Transport());
+        client   = new Supervisor(new Transport());
+        executor = Supervisor.createInvocationExecutor(1, 1);
+        server.setInvocationExecutor(executor);
+        acceptor = server.listen(new Spec(0));
+        target   = client.connect(new Spec("localhost", acceptor.port()));
+        server.addMethod(new Method("slow", "", "", this::rpc_slow));
+        barrier = new Test.Barrier();
+    }
+
+    @After
+    public void tearDown() {
+        target.close();
+        acceptor.shutdown().join();
+        client.transport().shutdown().join();
+        server.transport().shutdown().join();
+        executor.shutdown();
+    }
+
+    private void rpc_slow(Request req) {
+        barrier.waitFor();
+    }
+
+    @org.junit.Test
+    public void testSlowMethodsDoNotBlockTheTransportThread() {
+        long invocations = server.transport().metrics().invocations();
+        server.transport().metrics().drainInvocationLatencySamples();
+        Request slow = new Request("slow");
+        Test.Waiter slowWaiter = new Test.Waiter();
+        target.invokeAsync(slow, 60.0, slowWaiter);
+        Request queued = new Request("slow");
+        Test.Waiter queuedWaiter = new Test.Waiter();
+        target.invokeAsync(queued, 60.0, queuedWaiter);
+
+        // the transport thread still answers requests while the executor is full
+        Request rejected = new Request("slow");
+        target.invokeSync(rejected, 60.0);
+        assertTrue(rejected.isError());
+        assertEquals(ErrorCode.OVERLOAD, rejected.errorCode());
+        assertFalse(slowWaiter.isDone());
+        assertFalse(queuedWaiter.isDone());
+        waitForInvocationQueueSize(1);
+
+        barrier.breakIt();
+        slowWaiter.waitDone();
+        queuedWaiter.waitDone();
+        assertFalse(slow.isError());
+        assertFalse(queued.isError());
+        assertEquals(0, server.transport().metrics().invocationQueueSize());
+        assertTrue(server.transport().metrics().invocations() >= invocations + 2);
+        assertTrue(server.transport().metrics().drainInvocationLatencySamples().length >= 2);
+    }
+
+    @org.junit.Test
+    public void testInvocationLatencySamplesAreBounded() {
+        TransportMetrics metrics = server.transport().metrics();
+        metrics.drainInvocationLatencySamples();
+        for (int i = 0; i < 3; i++) {
+            metrics.addInvocation(7);
+        }
+        assertArrayEquals(new long[] { 7, 7, 7 }, metrics.drainInvocationLatencySamples());
+        for (int i = 0; i < 10 * TransportMetrics.MAX_LATENCY_SAMPLES; i++) {
+            metrics.addInvocation(i);
+        }
+        long[] samples = metrics.drainInvocationLatencySamples();
+        assertEquals(TransportMetrics.MAX_LATENCY_SAMPLES, samples.length);
+        assertTrue(Arrays.stream(samples).anyMatch(latency -> latency >= TransportMetrics.MAX_LATENCY_SAMPLES));
+        assertEquals(0, metrics.drainInvocationLatencySamples().length);
+    }
+
+    private void waitForInvocationQueueSize(long size) {
+        // the invoker thread may not have started the first request yet
+        for (int i = 0; i < 6000 && server.transport().metrics().invocationQueueSize() != size; i++) {
+            try { Thread.sleep(10); } catch (InterruptedException e) {}
+        }
+        assertEquals(size, server.transport().metrics().invocationQueueSize());
+    }
+
+}
@@ -2,6 +2,7 @@
 package com.yahoo.jrt;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -122,4 +123,42 @@ public class PacketTest {
         assertEquals(errStr, ((ErrorPacket)packet2).errorMessage());
     }
 
+    @org.junit.Test
+    public void testGatheredRequestPacket() {
+        byte[] large = new byte[GatheredData.MIN_SIZE + 7];
+        Arrays.fill(large, (byte)7);
+        Values params = new Values();
+        params.add(new DataValue(large));
+        params.add(new Int32Value(123));
+        params.add(new DataValue(new byte[] { 1, 2, 3 }));
+        params.add(new DataValue(large));
+
+        for (int flags : new int[] { 0, Packet.FLAG_REVERSE }) {
+            Packet packet = new RequestPacket(flags, 42, "foobar", params);
+            assertEquals(2 * large.length, packet.gatheredBytes());
+            PacketInfo info = packet.getPacketInfo();
+
+            ByteBuffer ref = ByteBuffer.allocate(info.packetLength());
+            info.encodePacket(packet, ref);
+            ref.flip();
+
+            ByteBuffer head = ByteBuffer.allocate(info.packetLength());
+            ByteBuffer[] segments = info.encodePacket(packet, packet.gatheredBytes(), head);
+            assertEquals(5, segments.length);
+            assertEquals(info.packetLength() - packet.gatheredBytes(), head.limit());
+            assertTrue(segments[1].array() == large);
+            assertTrue(segments[3].array() == large);
+            ByteBuffer buf = ByteBuffer.allocate(info.packetLength());
+            for (ByteBuffer segment : segments) {
+                buf.put(segment);
+            }
+            buf.flip();
+            assertTrue(buf.equals(ref));
+
+            Packet packet2 = PacketInfo.getPacketInfo(buf).decodePacket(buf);
+            assertEquals(0, buf.remaining());
+            assertTrue(Test.equals(params, ((RequestPacket)packet2).parameters()));
+        }
+    }
+
 }
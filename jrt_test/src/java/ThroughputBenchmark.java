@@ -0,0 +1,92 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+
+import com.yahoo.jrt.*;
+
+/**
+ * Measures echo throughput over a local connection for data values of
+ * different sizes. Usage: ThroughputBenchmark [seconds per size]
+ **/
+public class ThroughputBenchmark {
+
+    private static final int[] SIZES   = { 1024, 64 * 1024, 1024 * 1024 };
+    private static final int   PENDING = 16;
+
+    public void rpc_echo(Request req) {
+	req.returnValues().add(req.parameters().get(0));
+    }
+
+    private static class Client implements RequestWaiter {
+	private final Target target;
+	private final byte[] data;
+	private final long   endTime;
+	private long         bytes    = 0;
+	private int          pending  = 0;
+	private boolean      failed   = false;
+
+	Client(Target target, byte[] data, long endTime) {
+	    this.target = target;
+	    this.data = data;
+	    this.endTime = endTime;
+	}
+
+	synchronized void start() {
+	    for (int i = 0; i < PENDING; i++) {
+		send();
+	    }
+	}
+
+	private void send() {
+	    Request req = new Request("echo");
+	    req.parameters().add(new DataValue(data));
+	    pending++;
+	    target.invokeAsync(req, 60.0, this);
+	}
+
+	public synchronized void handleRequestDone(Request req) {
+	    pending--;
+	    if (req.isError()) {
+		failed = true;
+	    } else {
+		bytes += 2L * req.returnValues().get(0).asData().length;
+	    }
+	    if (!failed && System.nanoTime() < endTime) {
+		send();
+	    }
+	    notifyAll();
+	}
+
+	synchronized long await() throws InterruptedException {
+	    while (pending > 0) {
+		wait();
+	    }
+	    if (failed) {
+		throw new IllegalStateException("echo request failed");
+	    }
+	    return bytes;
+	}
+    }
+
+    public static void main(String[] args) throws Exception {
+	double seconds = (args.length > 0) ? Double.parseDouble(args[0]) : 5.0;
+	Supervisor server = new Supervisor(new Transport());
+	Supervisor client = new Supervisor(new Transport());
+	server.addMethod(new Method("echo", "x", "x", new ThroughputBenchmark()::rpc_echo));
+	Acceptor acceptor = server.listen(new Spec(0));
+	Target target = client.connect(new Spec("localhost", acceptor.port()));
+	for (int run = 0; run < 2; run++) {
+	    for (int size : SIZES) {
+		long start = System.nanoTime();
+		Client c = new Client(target, new byte[size], start + (long)(seconds * 1e9));
+		c.start();
+		long bytes = c.await();
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%s: %8d bytes: %10.1f MB/s%n", (run == 0) ? "warmup" : "result",
+				  size, bytes / elapsed / (1024 * 1024));
+	    }
+	}
+	target.close();
+	acceptor.shutdown().join();
+	client.transport().shutdown().join();
+	server.transport().shutdown().join();
+    }
+}
@@ -60,6 +60,13 @@ public class OpenNlpTokenizer implements Tokenizer {
         return tokens;
     }
 
+    @Override
+    public TokenCursor tokenCursor(CharSequence input, Language language, StemMode stemMode, boolean removeAccents) {
+        if (getStemmerForLanguage(language, stemMode) == null)
+            return simpleTokenizer.tokenCursor(input, language, stemMode, removeAccents);
+        return Tokenizer.super.tokenCursor(input, language, stemMode, removeAccents);
+    }
+
     private Stemmer getStemmerForLanguage(Language language, StemMode stemMode) {
         log.log(Level.FINEST, () -> "getStemmerForLanguage '"+language+"' mode: "+stemMode);
         if (language == null || Language.ENGLISH.equals(language) || StemMode.NONE.equals(stemMode)) {
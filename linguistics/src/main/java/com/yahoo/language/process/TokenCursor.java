@@ -0,0 +1,47 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.language.process;
+
+/**
+ * A cursor over the tokens of a text, which is positioned before the first token when created.
+ * Unlike the tokens returned by {@link Tokenizer#tokenize}, the information about the current token
+ * is only valid until the next call to {@link #next}, and implementations may create the original and processed
+ * strings of a token only when they are requested. Consumers can therefore skip tokens, e.g those
+ * which are not indexable, without paying for more than locating them.
+ *
+ * Tokens with components are not returned, their components are returned in order instead.
+ *
+ * This is not multithread safe.
+ */
+public interface TokenCursor {
+
+    /** Advances to the next token and returns true, or returns false if there are no more tokens */
+    boolean next();
+
+    /** Returns the type of the current token */
+    TokenType getType();
+
+    /** Returns the offset of the current token in the input text */
+    int getOffset();
+
+    /** Returns the length of the current token in the input text */
+    int getLength();
+
+    /** Returns the input text of the current token. This may create a new string. */
+    String getOrig();
+
+    /** Returns the processed form of the current token, or null if none. This may process the token. */
+    String getTokenString();
+
+    /** Returns the number of stems of the current token */
+    int getNumStems();
+
+    /** Returns a stem of the current token */
+    String getStem(int i);
+
+    /** Returns whether the current token is a special token, which should be kept as-is */
+    boolean isSpecialToken();
+
+    /** Returns whether the current token should be indexed */
+    default boolean isIndexable() { return getType().isIndexable(); }
+
+}
@@ -0,0 +1,90 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.language.process;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * A cursor over already created tokens, used by tokenizers which do not provide a streaming implementation.
+ * Components of tokens which are not special tokens are returned in place of the token, recursively.
+ */
+class TokenListCursor implements TokenCursor {
+
+    /** The iterators over the tokens and their components on the path to the current token */
+    private final Deque<Iterator<Token>> iterators = new ArrayDeque<>();
+    private Token current = null;
+
+    TokenListCursor(Iterable<Token> tokens) {
+        iterators.push(tokens.iterator());
+    }
+
+    @Override
+    public boolean next() {
+        while ( ! iterators.isEmpty()) {
+            if ( ! iterators.peek().hasNext()) {
+                iterators.pop();
+                continue;
+            }
+            Token token = iterators.peek().next();
+            if ( ! token.isSpecialToken() && token.getNumComponents() > 0) {
+                iterators.push(new ComponentIterator(token));
+                continue;
+            }
+            current = token;
+            return true;
+        }
+        current = null;
+        return false;
+    }
+
+    @Override
+    public TokenType getType() { return current().getType(); }
+
+    @Override
+    public int getOffset() { return (int)current().getOffset(); }
+
+    @Override
+    public int getLength() { return current().getOrig().length(); }
+
+    @Override
+    public String getOrig() { return current().getOrig(); }
+
+    @Override
+    public String getTokenString() { return current().getTokenString(); }
+
+    @Override
+    public int getNumStems() { return current().getNumStems(); }
+
+    @Override
+    public String getStem(int i) { return current().getStem(i); }
+
+    @Override
+    public boolean isSpecialToken() { return current().isSpecialToken(); }
+
+    @Override
+    public boolean isIndexable() { return current().isIndexable(); }
+
+    private Token current() {
+        if (current == null) throw new IllegalStateException("The cursor is not positioned at a token");
+        return current;
+    }
+
+    private static class ComponentIterator implements Iterator<Token> {
+
+        private final Token token;
+        private int next = 0;
+
+        ComponentIterator(Token token) {
+            this.token = token;
+        }
+
+        @Override
+        public boolean hasNext() { return next < token.getNumComponents(); }
+
+        @Override
+        public Token next() { return token.getComponent(next++); }
+
+    }
+
+}
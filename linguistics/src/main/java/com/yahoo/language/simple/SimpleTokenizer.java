@@ -4,7 +4,6 @@ package com.yahoo.language.simple;
 import com.yahoo.language.Language;
 import com.yahoo.language.LinguisticsCase;
 import com.yahoo.language.process.*;
-import com.yahoo.language.simple.kstem.KStemmer;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -26,7 +25,6 @@ public class SimpleTokenizer implements Tokenizer {
     private final static int SPACE_CODE = 32;
     private final Normalizer normalizer;
     private final Transformer transformer;
-    private final KStemmer stemmer = new KStemmer();
     private static final Logger log = Logger.getLogger(SimpleTokenizer.class.getName());
 
     public SimpleTokenizer() {
@@ -47,25 +45,23 @@ public class SimpleTokenizer implements Tokenizer {
         if (input.isEmpty()) return Collections.emptyList();
 
         List<Token> tokens = new ArrayList<>();
-        int nextCode = input.codePointAt(0);
-        TokenType prevType = SimpleTokenType.valueOf(nextCode);
-        for (int prev = 0, next = Character.charCount(nextCode); next <= input.length(); ) {
-            nextCode = next < input.length() ? input.codePointAt(next) : SPACE_CODE;
-            TokenType nextType = SimpleTokenType.valueOf(nextCode);
-            if (!prevType.isIndexable() || !nextType.isIndexable()) {
-                String original = input.substring(prev, next);
-                String token = processToken(original, language, stemMode, removeAccents);
-                tokens.add(new SimpleToken(original).setOffset(prev)
-                                                .setType(prevType)
-                                                .setTokenString(token));
-                prev = next;
-                prevType = nextType;
-            }
-            next += Character.charCount(nextCode);
-        }
+        TokenCursor cursor = tokenCursor(input, language, stemMode, removeAccents);
+        while (cursor.next())
+            tokens.add(new SimpleToken(cursor.getOrig()).setOffset(cursor.getOffset())
+                                                        .setType(cursor.getType())
+                                                        .setTokenString(cursor.getTokenString()));
         return tokens;
     }
 
+    /**
+     * Returns a cursor over the same tokens as {@link #tokenize}, which creates no objects to locate a token,
+     * and processes a token only when its token string is requested.
+     */
+    @Override
+    public TokenCursor tokenCursor(CharSequence input, Language language, StemMode stemMode, boolean removeAccents) {
+        return new Cursor(input, language, stemMode, removeAccents);
+    }
+
     private String processToken(String token, Language language, StemMode stemMode, boolean removeAccents) {
         final String original = token;
         log.log(Level.FINEST, () -> "processToken '"+original+"'");
@@ -75,7 +71,7 @@ public class SimpleTokenizer implements Tokenizer {
             token = transformer.accentDrop(token, language);
         if (stemMode != StemMode.NONE) {
             final String oldToken = token;
-            token = stemmer.stem(token);
+            token = StemCache.current().stem(token);
             final String newToken = token;
             log.log(Level.FINEST, () -> "stem '"+oldToken+"' to '"+newToken+"'");
         }
@@ -84,4 +80,96 @@ public class SimpleTokenizer implements Tokenizer {
         return result;
     }
 
+    private class Cursor implements TokenCursor {
+
+        private final CharSequence input;
+        private final Language language;
+        private final StemMode stemMode;
+        private final boolean removeAccents;
+
+        /** The start of the current token, or -1 before the first token */
+        private int start = -1;
+        private int end = 0;
+        private TokenType type = null;
+
+        /** The code point and type at the end of the current token, which starts the next token */
+        private int nextCode;
+        private TokenType nextType;
+
+        private String orig = null;
+        private String tokenString = null;
+
+        Cursor(CharSequence input, Language language, StemMode stemMode, boolean removeAccents) {
+            this.input = input;
+            this.language = language;
+            this.stemMode = stemMode;
+            this.removeAccents = removeAccents;
+            if (input.length() > 0) {
+                nextCode = Character.codePointAt(input, 0);
+                nextType = SimpleTokenType.valueOf(nextCode);
+            }
+        }
+
+        @Override
+        public boolean next() {
+            if (end >= input.length()) {
+                type = null;
+                return false;
+            }
+            start = end;
+            type = nextType;
+            orig = null;
+            tokenString = null;
+            int next = start + Character.charCount(nextCode);
+            while (true) {
+                nextCode = next < input.length() ? Character.codePointAt(input, next) : SPACE_CODE;
+                nextType = SimpleTokenType.valueOf(nextCode);
+                if ( ! type.isIndexable() || ! nextType.isIndexable()) break;
+                next += Character.charCount(nextCode);
+            }
+            end = next;
+            return true;
+        }
+
+        @Override
+        public TokenType getType() { return current(type); }
+
+        @Override
+        public int getOffset() { current(type); return start; }
+
+        @Override
+        public int getLength() { current(type); return end - start; }
+
+        @Override
+        public String getOrig() {
+            if (orig == null)
+                orig = current(input.subSequence(start, end).toString());
+            return orig;
+        }
+
+        @Override
+        public String getTokenString() {
+            if (tokenString == null)
+                tokenString = processToken(getOrig(), language, stemMode, removeAccents);
+            return tokenString;
+        }
+
+        @Override
+        public int getNumStems() { return 0; }
+
+        @Override
+        public String getStem(int i) {
+            throw new IndexOutOfBoundsException("Tokens of this tokenizer have no stems");
+        }
+
+        @Override
+        public boolean isSpecialToken() { return false; }
+
+        private <T> T current(T value) {
+            if (type == null) throw new IllegalStateException("The cursor is not positioned at a token");
+            return value;
+        }
+
+    }
+
 }
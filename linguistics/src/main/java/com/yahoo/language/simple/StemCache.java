@@ -0,0 +1,62 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.language.simple;
+
+import com.yahoo.language.simple.kstem.KStemmer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the stems produced by the kstem algorithm, evicting the least recently used stems.
+ * As terms are heavily repeated in natural text, most terms are stemmed by a lookup in this.
+ *
+ * This is not multithread safe, use {@link #current} to get the cache of the calling thread.
+ */
+class StemCache {
+
+    static final int DEFAULT_MAX_SIZE = 8192;
+
+    private static final ThreadLocal<StemCache> threadCache = ThreadLocal.withInitial(StemCache::new);
+
+    private final KStemmer stemmer = new KStemmer();
+    private final Map<String, String> stems;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    StemCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    StemCache(int maxSize) {
+        this.stems = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /** Returns the stem cache of the calling thread */
+    static StemCache current() { return threadCache.get(); }
+
+    /** Returns the kstem stem of the given term */
+    String stem(String term) {
+        String stem = stems.get(term);
+        if (stem != null) {
+            hits++;
+            return stem;
+        }
+        misses++;
+        stem = stemmer.stem(term);
+        stems.put(term, stem);
+        return stem;
+    }
+
+    int size() { return stems.size(); }
+
+    long hits() { return hits; }
+
+    long misses() { return misses; }
+
+}
@@ -25,6 +25,12 @@ public abstract class AbstractTokenizerTestCase {
             findTokenStrings(token, actual);
         }
         assertEquals(expectedTokenStrings, actual);
+
+        List<String> actualFromCursor = new ArrayList<>();
+        TokenCursor cursor = linguistics.getTokenizer().tokenCursor(input, language, stemMode, accentDrop);
+        while (cursor.next())
+            actualFromCursor.add(cursor.getTokenString());
+        assertEquals(expectedTokenStrings, actualFromCursor);
     }
 
     public List<String> findTokenStrings(Token token, List<String> out) {
@@ -1,10 +1,18 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.language.simple;
 
+import com.yahoo.language.Language;
 import com.yahoo.language.process.AbstractTokenizerTestCase;
 import com.yahoo.language.process.StemMode;
+import com.yahoo.language.process.TokenCursor;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
 /**
  * @author <a href="mailto:steinar@yahoo-inc.com">Steinar Knutsen</a>
  * @author bratseth
@@ -33,4 +41,32 @@ public class SimpleTokenizerTestCase extends AbstractTokenizerTestCase {
                             " ", "gods", ".", "running", ")");
     }
 
+    @Test
+    public void testTokenCursor() {
+        String input = "Running 2 offended, 3x";
+        TokenCursor cursor = new SimpleTokenizer().tokenCursor(input, Language.ENGLISH, StemMode.SHORTEST, false);
+        List<String> tokens = new ArrayList<>();
+        while (cursor.next()) {
+            if ( ! cursor.isIndexable()) continue;
+            assertEquals(input.substring(cursor.getOffset(), cursor.getOffset() + cursor.getLength()), cursor.getOrig());
+            tokens.add(cursor.getOffset() + ":" + cursor.getType() + ":" + cursor.getTokenString());
+        }
+        assertEquals(List.of("0:ALPHABETIC:running", "8:NUMERIC:2", "10:ALPHABETIC:offend", "20:NUMERIC:3x"), tokens);
+        assertFalse(cursor.next());
+        assertFalse(new SimpleTokenizer().tokenCursor("", Language.ENGLISH, StemMode.NONE, false).next());
+    }
+
+    @Test
+    public void testStemCacheEvictsLeastRecentlyUsed() {
+        StemCache cache = new StemCache(2);
+        assertEquals("gods", cache.stem("gods"));
+        assertEquals("offend", cache.stem("offended"));
+        assertEquals("gods", cache.stem("gods"));
+        assertEquals("running", cache.stem("running")); // evicts "offended"
+        assertEquals("offend", cache.stem("offended"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.hits());
+        assertEquals(4, cache.misses());
+    }
+
 }
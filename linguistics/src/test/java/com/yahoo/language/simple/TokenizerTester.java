@@ -5,6 +5,7 @@ import com.yahoo.language.Language;
 import com.yahoo.language.Linguistics;
 import com.yahoo.language.process.StemMode;
 import com.yahoo.language.process.Token;
+import com.yahoo.language.process.TokenCursor;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -28,6 +29,12 @@ public class TokenizerTester {
             findTokenStrings(token, actual);
         }
         assertEquals(Arrays.asList(expectedTokenStrings), actual);
+
+        List<String> actualFromCursor = new ArrayList<>();
+        TokenCursor cursor = linguistics.getTokenizer().tokenCursor(input, language, stemMode, accentDrop);
+        while (cursor.next())
+            actualFromCursor.add(cursor.getTokenString());
+        assertEquals(Arrays.asList(expectedTokenStrings), actualFromCursor);
     }
 
     public List<String> findTokenStrings(Token token, List<String> out) {
@@ -8,6 +8,7 @@ import com.yahoo.messagebus.network.Network;
 import com.yahoo.messagebus.network.NetworkOwner;
 import com.yahoo.messagebus.routing.Resender;
 import com.yahoo.messagebus.routing.RetryPolicy;
+import com.yahoo.messagebus.routing.RoutingNode;
 import com.yahoo.messagebus.routing.RoutingPolicy;
 import com.yahoo.messagebus.routing.RoutingSpec;
 import com.yahoo.messagebus.routing.RoutingTable;
@@ -138,12 +139,12 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
             throw new IllegalStateException("Network failed to become ready in time.");
 
         // Start messenger.
-        msn = new Messenger();
+        msn = new Messenger(params.getNumMessengerThreads());
 
         RetryPolicy retryPolicy = params.getRetryPolicy();
         if (retryPolicy != null) {
             resender = new Resender(retryPolicy);
-            msn.addRecurrentTask(new ResenderTask(resender));
+            msn.addRecurrentTask(new ResenderTask(resender, msn));
         } else {
             resender = null;
         }
@@ -453,6 +454,38 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
         return resender;
     }
 
+    /**
+     * <p>Returns the number of messenger threads running resends and other
+     * internal tasks of this message bus.</p>
+     *
+     * @return The number of threads.
+     */
+    public int getNumMessengerThreads() {
+        return msn.getNumThreads();
+    }
+
+    /**
+     * <p>Returns the number of tasks waiting to be run by the given messenger
+     * thread.</p>
+     *
+     * @param thread The index of the thread, less than {@link #getNumMessengerThreads()}.
+     * @return The queue size.
+     */
+    public int getMessengerQueueSize(int thread) {
+        return msn.getQueueSize(thread);
+    }
+
+    /**
+     * <p>Returns the fraction of time the given messenger thread has spent
+     * running tasks since this was last called for the same thread.</p>
+     *
+     * @param thread The index of the thread, less than {@link #getNumMessengerThreads()}.
+     * @return The utilization, in the range [0, 1].
+     */
+    public double getMessengerUtilization(int thread) {
+        return msn.getUtilization(thread);
+    }
+
     /**
      * <p>Returns the number of messages received that have not been replied to
      * yet.</p>
@@ -589,14 +622,18 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
     /**
      * <p>Implements a task for running the resender in the messenger
      * thread. This task acts as a proxy for the resender, allowing the task to
-     * be deleted without affecting the resender itself.</p>
+     * be deleted without affecting the resender itself. When the messenger has
+     * more than one thread, the resends are spread over them by sequence
+     * id.</p>
      */
     private static class ResenderTask implements Messenger.Task {
 
         final Resender resender;
+        final Messenger msn;
 
-        ResenderTask(Resender resender) {
+        ResenderTask(Resender resender, Messenger msn) {
             this.resender = resender;
+            this.msn = msn;
         }
 
         public void destroy() {
@@ -604,7 +641,42 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
         }
 
         public void run() {
-            resender.resendScheduled();
+            if (msn.getNumThreads() == 1) {
+                resender.resendScheduled();
+            } else {
+                resender.resendScheduled(node -> msn.enqueue(new ResendTask(node), shardKey(node.getMessage())));
+            }
+        }
+
+        private static long shardKey(Message msg) {
+            return msg.hasSequenceId() ? msg.getSequenceId() : System.identityHashCode(msg);
+        }
+
+    }
+
+    /**
+     * <p>Implements a task for resending a single routing node in the
+     * messenger thread owning its sequence id. The node is discarded if the
+     * messenger is destroyed before the task is run.</p>
+     */
+    private static class ResendTask implements Messenger.Task {
+
+        final RoutingNode node;
+        boolean sent = false;
+
+        ResendTask(RoutingNode node) {
+            this.node = node;
+        }
+
+        public void run() {
+            sent = true;
+            node.send();
+        }
+
+        public void destroy() {
+            if (!sent) {
+                node.discard();
+            }
         }
 
     }
@@ -9,12 +9,16 @@ import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 /**
- * <p>This class implements a single thread that is able to process arbitrary
- * tasks. Tasks are enqueued using the synchronized {@link #enqueue(Task)}
- * method, and are run in the order they were enqueued.</p>
+ * <p>This class implements a pool of threads that are able to process
+ * arbitrary tasks. Tasks are enqueued using the synchronized {@link
+ * #enqueue(Task)} method, and are run in the order they were enqueued. Tasks
+ * enqueued with a key using {@link #enqueue(Task, long)} are run by the
+ * thread owning that key, so tasks with the same key are also run in the
+ * order they were enqueued. By default there is a single thread.</p>
  *
  * @author Simon Thoresen Hult
  */
@@ -23,12 +27,31 @@ public class Messenger implements Runnable {
     private static final Logger log = Logger.getLogger(Messenger.class.getName());
     private final AtomicBoolean destroyed = new AtomicBoolean(false);
     private final List<Task> children = new ArrayList<>();
-    private final Queue<Task> queue = new ArrayDeque<>();
-
-    private final Thread thread = new Thread(this, "Messenger");
+    private final List<Worker> workers = new ArrayList<>();
 
     public Messenger() {
-        thread.setDaemon(true);
+        this(1);
+    }
+
+    /**
+     * <p>Constructs a messenger with the given number of threads. Recurrent
+     * tasks and tasks without a key are run by the first thread.</p>
+     *
+     * @param numThreads The number of threads to run tasks in.
+     */
+    public Messenger(int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("Messenger must have at least one thread, got " + numThreads);
+        }
+        workers.add(new Worker(new Thread(this, "Messenger")));
+        for (int i = 1; i < numThreads; ++i) {
+            Worker worker = new Worker(null);
+            workers.add(worker);
+            worker.thread = new Thread(worker::run, "Messenger-" + i);
+        }
+        for (Worker worker : workers) {
+            worker.thread.setDaemon(true);
+        }
     }
 
     /**
@@ -44,13 +67,15 @@ public class Messenger implements Runnable {
     }
 
     /**
-     * <p>Starts the internal thread. This must be done AFTER all recurrent
+     * <p>Starts the internal threads. This must be done AFTER all recurrent
      * tasks have been added.</p>
      *
      * @see #addRecurrentTask(Task)
      */
     public void start() {
-        thread.start();
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
     }
 
     /**
@@ -86,36 +111,85 @@ public class Messenger implements Runnable {
     }
 
     /**
-     * <p>Enqueues the given task in the list of tasks that this worker is to
-     * process. If this thread has been destroyed previously, this method
+     * <p>Enqueues the given task in the list of tasks that the first thread of
+     * this is to process. If this has been destroyed previously, this method
      * invokes {@link Messenger.Task#destroy()}.</p>
      *
      * @param task The task to enqueue.
      */
     public void enqueue(final Task task) {
+        enqueue(task, workers.get(0));
+    }
+
+    /**
+     * <p>Enqueues the given task in the list of tasks that the thread owning
+     * the given key is to process. Typically, the key is a sequence id or
+     * something else identifying tasks that must run in order. If this has
+     * been destroyed previously, this method invokes {@link
+     * Messenger.Task#destroy()}.</p>
+     *
+     * @param task The task to enqueue.
+     * @param key  The key deciding which thread runs the task.
+     */
+    public void enqueue(final Task task, long key) {
+        enqueue(task, workers.get((int)Math.floorMod(key, (long)workers.size())));
+    }
+
+    private void enqueue(Task task, Worker worker) {
         if (destroyed.get()) {
             task.destroy();
             return;
         }
-        synchronized (this) {
-            queue.offer(task);
-            if (queue.size() == 1) {
-                notify();
-            }
-        }
+        worker.enqueue(task);
+    }
+
+    /** Returns the number of threads running tasks in this */
+    public int getNumThreads() {
+        return workers.size();
     }
 
     /**
-     * <p>Handshakes with the internal thread. If this method is called using
-     * the messenger thread, this will deadlock.</p>
+     * <p>Returns the number of tasks waiting to be run by the given
+     * thread.</p>
+     *
+     * @param thread The index of the thread, less than {@link #getNumThreads()}.
+     * @return The queue size.
+     */
+    public int getQueueSize(int thread) {
+        return workers.get(thread).queueSize();
+    }
+
+    /**
+     * <p>Returns the fraction of time the given thread has spent running tasks
+     * since the previous call to this method for the same thread, or since it
+     * was started.</p>
+     *
+     * @param thread The index of the thread, less than {@link #getNumThreads()}.
+     * @return The utilization, in the range [0, 1].
+     */
+    public double getUtilization(int thread) {
+        return workers.get(thread).sampleUtilization();
+    }
+
+    /**
+     * <p>Handshakes with the internal threads. If this method is called using
+     * a messenger thread, this returns immediately.</p>
      */
     public void sync() {
-        if (Thread.currentThread() == thread) {
-            return; // no need to wait for self
+        for (Worker worker : workers) {
+            if (Thread.currentThread() == worker.thread) {
+                return; // no need to wait for self
+            }
+        }
+        final List<SyncTask> tasks = new ArrayList<>();
+        for (Worker worker : workers) {
+            final SyncTask task = new SyncTask();
+            enqueue(task, worker);
+            tasks.add(task);
+        }
+        for (SyncTask task : tasks) {
+            task.await();
         }
-        final SyncTask task = new SyncTask();
-        enqueue(task);
-        task.await();
     }
 
     /**
@@ -128,15 +202,15 @@ public class Messenger implements Runnable {
      */
     public boolean destroy() {
         boolean done = false;
-        enqueue(Terminate.INSTANCE);
+        for (Worker worker : workers) {
+            enqueue(Terminate.INSTANCE, worker);
+        }
         if (!destroyed.getAndSet(true)) {
             try {
-                synchronized (this) {
-                    while (!queue.isEmpty()) {
-                        wait();
-                    }
+                for (Worker worker : workers) {
+                    worker.awaitEmpty();
+                    worker.thread.join();
                 }
-                thread.join();
             } catch (final InterruptedException e) {
                 // ignore
             }
@@ -145,53 +219,10 @@ public class Messenger implements Runnable {
         return done;
     }
 
+    /** Runs the main loop of the first thread of this, which also runs the recurrent tasks */
     @Override
     public void run() {
-        while (true) {
-            Task task = null;
-            synchronized (this) {
-                if (queue.isEmpty()) {
-                    try {
-                        wait(10);
-                    } catch (final InterruptedException e) {
-                        continue;
-                    }
-                }
-                if (queue.size() > 0) {
-                    task = queue.poll();
-                }
-            }
-            if (task == Terminate.INSTANCE) {
-                break;
-            }
-            if (task != null) {
-                try {
-                    task.run();
-                } catch (final Exception e) {
-                    log.log(Level.SEVERE, "An exception was thrown while running " + task.getClass().getName(), e);
-                }
-                try {
-                    task.destroy();
-                } catch (final Exception e) {
-                    log.warning("An exception was thrown while destroying " + task.getClass().getName() + ": " +
-                                e.toString());
-                    log.warning("Someone, somewhere might have to wait indefinetly for something.");
-                }
-            }
-            for (final Task child : children) {
-                child.run();
-            }
-        }
-        for (final Task child : children) {
-            child.destroy();
-        }
-        synchronized (this) {
-            while (!queue.isEmpty()) {
-                final Task task = queue.poll();
-                task.destroy();
-            }
-            notify();
-        }
+        workers.get(0).run();
     }
 
     /**
@@ -212,6 +243,114 @@ public class Messenger implements Runnable {
         void destroy();
     }
 
+    /** A thread of this messenger, with its own queue of tasks */
+    private class Worker {
+
+        private final Queue<Task> queue = new ArrayDeque<>();
+        private final AtomicLong busyNanos = new AtomicLong(0);
+        private Thread thread;
+        private boolean terminated = false;
+        private long lastSampleNanos = System.nanoTime();
+        private long lastBusyNanos = 0;
+
+        Worker(Thread thread) {
+            this.thread = thread;
+        }
+
+        /**
+         * Enqueues the given task, or destroys it if this has terminated. This is checked under the lock
+         * of the queue, as the messenger may not yet be marked as destroyed when a worker terminates.
+         */
+        void enqueue(Task task) {
+            synchronized (this) {
+                if (!terminated) {
+                    queue.offer(task);
+                    if (queue.size() == 1) {
+                        notify();
+                    }
+                    return;
+                }
+            }
+            task.destroy();
+        }
+
+        synchronized int queueSize() {
+            return queue.size();
+        }
+
+        synchronized double sampleUtilization() {
+            long now = System.nanoTime();
+            long busy = busyNanos.get();
+            double utilization = (now > lastSampleNanos) ? (double)(busy - lastBusyNanos) / (now - lastSampleNanos) : 0;
+            lastSampleNanos = now;
+            lastBusyNanos = busy;
+            return Math.min(1.0, Math.max(0.0, utilization));
+        }
+
+        synchronized void awaitEmpty() throws InterruptedException {
+            while (!queue.isEmpty()) {
+                wait();
+            }
+        }
+
+        void run() {
+            boolean runsChildren = (this == workers.get(0));
+            while (true) {
+                Task task = null;
+                synchronized (this) {
+                    if (queue.isEmpty()) {
+                        try {
+                            wait(10);
+                        } catch (final InterruptedException e) {
+                            continue;
+                        }
+                    }
+                    if (queue.size() > 0) {
+                        task = queue.poll();
+                    }
+                }
+                if (task == Terminate.INSTANCE) {
+                    break;
+                }
+                long startNanos = System.nanoTime();
+                if (task != null) {
+                    try {
+                        task.run();
+                    } catch (final Exception e) {
+                        log.log(Level.SEVERE, "An exception was thrown while running " + task.getClass().getName(), e);
+                    }
+                    try {
+                        task.destroy();
+                    } catch (final Exception e) {
+                        log.warning("An exception was thrown while destroying " + task.getClass().getName() + ": " +
+                                    e.toString());
+                        log.warning("Someone, somewhere might have to wait indefinetly for something.");
+                    }
+                }
+                if (runsChildren) {
+                    for (final Task child : children) {
+                        child.run();
+                    }
+                }
+                busyNanos.addAndGet(System.nanoTime() - startNanos);
+            }
+            if (runsChildren) {
+                for (final Task child : children) {
+                    child.destroy();
+                }
+            }
+            synchronized (this) {
+                terminated = true;
+                while (!queue.isEmpty()) {
+                    final Task task = queue.poll();
+                    task.destroy();
+                }
+                notify();
+            }
+        }
+
+    }
+
     private static class SyncTask implements Task {
 
         final CountDownLatch latch = new CountDownLatch(1);
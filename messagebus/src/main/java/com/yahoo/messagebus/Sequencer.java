@@ -1,17 +1,21 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.messagebus;
 
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.ArrayDeque;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Sequencing is implemented as a message handler that is configured in a source session in that session's chain of
  * linked message handlers. Each message that carries a sequencing id is queued in an internal list of messages for that
  * id, and messages are only sent when they are at the front of their list. When a reply arrives, the current front of
  * the list is removed and the next message, if any, is sent.
+ * <p>
+ * The state of each sequence id is only locked while it is updated, so messages with different sequence ids
+ * do not contend with each other.
  *
  * @author Simon Thoresen Hult
  */
@@ -19,7 +23,9 @@ public class Sequencer implements MessageHandler, ReplyHandler {
 
     private final AtomicBoolean destroyed = new AtomicBoolean(false);
     private final MessageHandler sender;
-    private final Map<Long, Queue<Message>> seqMap = new HashMap<>();
+    /** The messages waiting for a reply to an earlier message with the same id, by id. Present for all ids in flight. */
+    private final ConcurrentMap<Long, Queue<Message>> seqMap = new ConcurrentHashMap<>();
+    private final AtomicInteger queuedCount = new AtomicInteger(0);
 
     /**
      * Constructs a new sequencer on top of the given async sender.
@@ -38,15 +44,14 @@ public class Sequencer implements MessageHandler, ReplyHandler {
      */
     public boolean destroy() {
         if (!destroyed.getAndSet(true)) {
-            synchronized (this) {
-                for (Queue<Message> queue : seqMap.values()) {
-                    if (queue != null) {
-                        for (Message msg : queue) {
-                            msg.discard();
-                        }
+            for (Long seqId : seqMap.keySet()) {
+                Queue<Message> queue = seqMap.remove(seqId);
+                if (queue != null) {
+                    for (Message msg : queue) {
+                        queuedCount.decrementAndGet();
+                        msg.discard();
                     }
                 }
-                seqMap.clear();
             }
             return true;
         }
@@ -65,23 +70,26 @@ public class Sequencer implements MessageHandler, ReplyHandler {
     private boolean filter(Message msg) {
         long seqId = msg.getSequenceId();
         msg.setContext(seqId);
-        synchronized (this) {
-            if (seqMap.containsKey(seqId)) {
-                Queue<Message> queue = seqMap.get(seqId);
-                if (queue == null) {
-                    queue = new LinkedList<>();
-                    seqMap.put(seqId, queue);
-                }
-                if (msg.getTrace().shouldTrace(TraceLevel.COMPONENT)) {
-                    msg.getTrace().trace(TraceLevel.COMPONENT,
-                                         "Sequencer queued message with sequence id '" + seqId + "'.");
-                }
-                queue.add(msg);
-                return false;
+        boolean[] queued = new boolean[1];
+        seqMap.compute(seqId, (id, queue) -> {
+            if (queue == null) {
+                return new ArrayDeque<>(1);
             }
-            seqMap.put(seqId, null);
-        }
-        return true;
+            if (msg.getTrace().shouldTrace(TraceLevel.COMPONENT)) {
+                msg.getTrace().trace(TraceLevel.COMPONENT,
+                                     "Sequencer queued message with sequence id '" + id + "'.");
+            }
+            queue.add(msg);
+            queuedCount.incrementAndGet(); // while the queue is locked, so it is counted before it can be polled
+            queued[0] = true;
+            return queue;
+        });
+        return ! queued[0];
+    }
+
+    /** Returns the number of messages currently waiting for a reply to an earlier message with the same sequence id */
+    public int getQueuedCount() {
+        return queuedCount.get();
     }
 
     /**
@@ -137,17 +145,15 @@ public class Sequencer implements MessageHandler, ReplyHandler {
             reply.getTrace().trace(TraceLevel.COMPONENT,
                                    "Sequencer received reply with sequence id '" + seqId + "'.");
         }
-        Message msg = null;
-        synchronized (this) {
-            Queue<Message> queue = seqMap.get(seqId);
-            if (queue == null || queue.isEmpty()) {
-                seqMap.remove(seqId);
-            } else {
-                msg = queue.remove();
-            }
-        }
-        if (msg != null) {
-            sequencedSend(msg);
+        Message[] next = new Message[1];
+        seqMap.computeIfPresent(seqId, (id, queue) -> {
+            next[0] = queue.poll();
+            if (next[0] == null) return null;
+            queuedCount.decrementAndGet();
+            return queue;
+        });
+        if (next[0] != null) {
+            sequencedSend(next[0]);
         }
         ReplyHandler handler = reply.popHandler();
         handler.handleReply(reply);
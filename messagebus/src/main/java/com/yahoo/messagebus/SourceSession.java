@@ -383,6 +383,11 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
         return pendingCount;
     }
 
+    /** Returns the number of messages held back until an earlier message with the same sequence id is replied to */
+    public int getSequencedQueueCount() {
+        return sequencer.getQueuedCount();
+    }
+
     /**
      * Sets the number of seconds a message can be attempted sent until it times out.
      *
@@ -0,0 +1,258 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.messagebus;
+
+import com.yahoo.concurrent.SystemTimer;
+import com.yahoo.concurrent.Timer;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This is an implementation of the {@link ThrottlePolicy} that sizes the window of pending messages a {@link
+ * SourceSession} is allowed to have so that a given percentile of the reply latency stays close to a target.
+ *
+ * Latencies are collected in batches of at least one window of replies. At the end of each batch the window is
+ * multiplied by the ratio between the target latency and the observed latency percentile, limited to halving or
+ * doubling the window, and the result is smoothed with the previous window size. The window is never grown to more
+ * than twice the number of messages actually pending, so a client which does not fill its window does not build up
+ * a window it has not verified it can use.
+ *
+ * <b>NOTE:</b> By context, "pending" is refering to the number of sent messages that have not been replied to yet.
+ */
+public class TargetLatencyThrottlePolicy extends StaticThrottlePolicy {
+
+    private static final Logger log = Logger.getLogger(TargetLatencyThrottlePolicy.class.getName());
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double MAX_GRADIENT = 2.0;
+
+    private final Timer timer;
+    private long targetLatencyMillis = 1000;
+    private double latencyPercentile = 50;
+    private int minSamples = 64;
+    private double smoothing = 0.5;
+    private double windowSize = 20;
+    private double minWindowSize = 1;
+    private double maxWindowSize = Integer.MAX_VALUE;
+    private long[] samples = new long[minSamples];
+    private int numSamples = 0;
+    private int maxPendingInBatch = 0;
+    private long observedLatencyMillis = 0;
+
+    /**
+     * Constructs a new instance of this policy and sets the appropriate default values of member data.
+     */
+    public TargetLatencyThrottlePolicy() {
+        this(SystemTimer.INSTANCE);
+    }
+
+    /**
+     * Constructs a new instance of this class using the given clock to measure reply latency.
+     *
+     * @param timer the timer to use
+     */
+    public TargetLatencyThrottlePolicy(Timer timer) {
+        this.timer = timer;
+    }
+
+    @Override
+    public boolean canSend(Message message, int pendingCount) {
+        if ( ! super.canSend(message, pendingCount)) {
+            return false;
+        }
+        maxPendingInBatch = Math.max(maxPendingInBatch, pendingCount + 1);
+        return pendingCount < windowSize;
+    }
+
+    @Override
+    public void processMessage(Message message) {
+        super.processMessage(message);
+        message.setContext(new SendContext((Integer)message.getContext(), timer.milliTime()));
+    }
+
+    @Override
+    public void processReply(Reply reply) {
+        SendContext context = (SendContext)reply.getContext();
+        reply.setContext(context.size);
+        super.processReply(reply);
+        addSample(Math.max(0, timer.milliTime() - context.sendTimeMillis));
+    }
+
+    private void addSample(long latencyMillis) {
+        if (numSamples == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[numSamples++] = latencyMillis;
+        if (numSamples >= Math.max(minSamples, windowSize)) {
+            resize();
+        }
+    }
+
+    private void resize() {
+        Arrays.sort(samples, 0, numSamples);
+        int index = (int)Math.ceil(latencyPercentile / 100 * numSamples) - 1;
+        observedLatencyMillis = samples[Math.max(0, Math.min(numSamples - 1, index))];
+        numSamples = 0;
+
+        double gradient = (double)targetLatencyMillis / Math.max(1, observedLatencyMillis);
+        gradient = Math.max(MIN_GRADIENT, Math.min(MAX_GRADIENT, gradient));
+        double candidate = windowSize * gradient;
+        if (candidate > windowSize) {
+            candidate = Math.max(windowSize, Math.min(candidate, 2.0 * maxPendingInBatch));
+        }
+        maxPendingInBatch = 0;
+
+        windowSize = (1 - smoothing) * windowSize + smoothing * candidate;
+        windowSize = Math.max(minWindowSize, windowSize);
+        windowSize = Math.min(maxWindowSize, windowSize);
+        if (log.isLoggable(Level.FINE)) {
+            log.log(Level.FINE, "windowSize " + windowSize + " latency " + observedLatencyMillis +
+                                " target " + targetLatencyMillis + " gradient " + gradient);
+        }
+    }
+
+    /**
+     * Sets the reply latency this policy tries to keep the configured latency percentile at.
+     *
+     * @param targetLatencyMillis the target latency, in milliseconds
+     * @return this, to allow chaining
+     */
+    public TargetLatencyThrottlePolicy setTargetLatency(long targetLatencyMillis) {
+        if (targetLatencyMillis <= 0) {
+            throw new IllegalArgumentException("Target latency must be positive, got " + targetLatencyMillis);
+        }
+        this.targetLatencyMillis = targetLatencyMillis;
+        return this;
+    }
+
+    /** Returns the target reply latency, in milliseconds */
+    public long getTargetLatency() {
+        return targetLatencyMillis;
+    }
+
+    /**
+     * Sets the percentile of reply latencies which is compared to the target, e.g. 50 for the median or 99 to keep
+     * almost all replies below the target.
+     *
+     * @param percentile the percentile, in the range (0, 100]
+     * @return this, to allow chaining
+     */
+    public TargetLatencyThrottlePolicy setLatencyPercentile(double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Latency percentile must be in (0, 100], got " + percentile);
+        }
+        this.latencyPercentile = percentile;
+        return this;
+    }
+
+    /** Returns the percentile of reply latencies which is compared to the target */
+    public double getLatencyPercentile() {
+        return latencyPercentile;
+    }
+
+    /**
+     * Sets the minimum number of replies to observe before the window size is changed. The window is resized after
+     * this many replies, or after a full window of replies if that is more.
+     *
+     * @param minSamples the minimum number of replies per resize
+     * @return this, to allow chaining
+     */
+    public TargetLatencyThrottlePolicy setMinSamples(int minSamples) {
+        this.minSamples = Math.max(1, minSamples);
+        return this;
+    }
+
+    /**
+     * Sets how much of each computed window size is used in the new window size, in the range (0, 1]. A value of 1
+     * means the new window is used as computed, and smaller values give a slower, more stable, adjustment.
+     *
+     * @param smoothing the smoothing factor to set
+     * @return this, to allow chaining
+     */
+    public TargetLatencyThrottlePolicy setSmoothing(double smoothing) {
+        this.smoothing = Math.max(0.01, Math.min(1, smoothing));
+        return this;
+    }
+
+    /**
+     * Sets the maximium number of pending operations allowed at any time, in
+     * order to avoid using too much resources.
+     *
+     * @param max the max to set
+     * @return this, to allow chaining
+     */
+    public TargetLatencyThrottlePolicy setMaxWindowSize(double max) {
+        this.maxWindowSize = max;
+        this.windowSize = Math.min(windowSize, max);
+        return this;
+    }
+
+    /**
+     * Get the maximum number of pending operations allowed at any time.
+     *
+     * @return the maximum number of operations
+     */
+    public double getMaxWindowSize() {
+        return maxWindowSize;
+    }
+
+    /**
+     * Sets the minimium number of pending operations allowed at any time, in
+     * order to keep a level of performance.
+     *
+     * @param min the min to set
+     * @return this, to allow chaining
+     */
+    public TargetLatencyThrottlePolicy setMinWindowSize(double min) {
+        this.minWindowSize = min;
+        this.windowSize = Math.max(windowSize, min);
+        return this;
+    }
+
+    /**
+     * Get the minimum number of pending operations allowed at any time.
+     *
+     * @return the minimum number of operations
+     */
+    public double getMinWindowSize() {
+        return minWindowSize;
+    }
+
+    /** Returns the latency percentile observed in the last completed batch of replies, in milliseconds */
+    public long getObservedLatency() {
+        return observedLatencyMillis;
+    }
+
+    @Override
+    public TargetLatencyThrottlePolicy setMaxPendingCount(int maxCount) {
+        super.setMaxPendingCount(maxCount);
+        if (maxCount > 0) {
+            setMaxWindowSize(maxCount);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of pending messages allowed.
+     *
+     * @return the max limit
+     */
+    @Override
+    public int getMaxPendingCount() {
+        return (int)windowSize;
+    }
+
+    /** The context of a sent message, holding what the base policy needs together with the time it was sent */
+    private static class SendContext {
+
+        final Integer size;
+        final long sendTimeMillis;
+
+        SendContext(Integer size, long sendTimeMillis) {
+            this.size = size;
+            this.sendTimeMillis = sendTimeMillis;
+        }
+
+    }
+
+}
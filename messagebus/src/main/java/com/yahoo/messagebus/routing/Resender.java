@@ -10,6 +10,7 @@ import com.yahoo.messagebus.TraceLevel;
 import java.util.PriorityQueue;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * The resender handles scheduling and execution of sending instances of {@link RoutingNode}. An instance of this class
@@ -98,6 +99,16 @@ public class Resender {
      * Invokes {@link RoutingNode#send()} on all routing nodes that are applicable for sending at the current time.
      */
     public void resendScheduled() {
+        resendScheduled(RoutingNode::send);
+    }
+
+    /**
+     * Passes all the routing nodes that are applicable for sending at the current time to the given sender, which
+     * must invoke {@link RoutingNode#send()} on each of them, possibly in another thread.
+     *
+     * @param sender The consumer sending each routing node.
+     */
+    public void resendScheduled(Consumer<RoutingNode> sender) {
         List<RoutingNode> sendList;
 
         long now = SystemTimer.INSTANCE.milliTime();
@@ -111,7 +122,7 @@ public class Resender {
 
         for (RoutingNode node : sendList) {
             node.getTrace().trace(TraceLevel.COMPONENT, "Resender resending message.");
-            node.send();
+            sender.accept(node);
         }
     }
 
@@ -3,9 +3,20 @@ package com.yahoo.messagebus;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -95,6 +106,96 @@ public class MessengerTestCase {
         assertTrue(tryMessenger(msn));
     }
 
+    @Test
+    public void requireThatKeyedTasksRunInOrderOnTheThreadOwningTheKey() throws InterruptedException {
+        Messenger msn = new Messenger(4);
+        assertEquals(4, msn.getNumThreads());
+        CountDownLatch blocker = new CountDownLatch(1);
+        msn.enqueue(new Messenger.Task() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public void destroy() {
+
+            }
+        }, 1);
+        Map<Long, List<Integer>> runs = new ConcurrentHashMap<>();
+        Map<Long, Set<Thread>> threads = new ConcurrentHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            int index = i;
+            for (long key = 0; key < 8; key++) {
+                long myKey = key;
+                msn.enqueue(new Messenger.Task() {
+                    @Override
+                    public void run() {
+                        runs.computeIfAbsent(myKey, k -> Collections.synchronizedList(new ArrayList<>())).add(index);
+                        threads.computeIfAbsent(myKey, k -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread());
+                    }
+
+                    @Override
+                    public void destroy() {
+
+                    }
+                }, key);
+            }
+        }
+        assertEquals(200 + 1, msn.getQueueSize(1));
+        msn.start();
+        assertTrue(tryMessenger(msn)); // the first thread is not blocked
+        blocker.countDown();
+        msn.sync();
+        assertEquals(0, msn.getQueueSize(1));
+        Set<Thread> allThreads = new HashSet<>();
+        for (long key = 0; key < 8; key++) {
+            assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toList()), runs.get(key));
+            assertEquals(1, threads.get(key).size());
+            assertEquals(threads.get(key), threads.get(key % 4));
+            allThreads.addAll(threads.get(key));
+        }
+        assertEquals(4, allThreads.size());
+        double utilization = msn.getUtilization(1);
+        assertTrue(utilization >= 0 && utilization <= 1);
+        assertTrue(msn.destroy());
+    }
+
+    @Test
+    public void requireThatTasksEnqueuedWhileDestroyingAreDestroyed() throws InterruptedException {
+        for (int i = 0; i < 20; i++) {
+            final Messenger msn = new Messenger(4);
+            msn.start();
+            final AtomicInteger enqueued = new AtomicInteger(0);
+            final AtomicInteger destroyed = new AtomicInteger(0);
+            final Thread producer = new Thread(() -> {
+                for (long key = 0; key < 1000; key++) {
+                    msn.enqueue(new Messenger.Task() {
+
+                        @Override
+                        public void run() {
+                            // empty
+                        }
+
+                        @Override
+                        public void destroy() {
+                            destroyed.incrementAndGet();
+                        }
+                    }, key);
+                    enqueued.incrementAndGet();
+                }
+            });
+            producer.start();
+            assertTrue(msn.destroy());
+            producer.join();
+            assertEquals(enqueued.get(), destroyed.get());
+        }
+    }
+
     private static boolean tryMessenger(Messenger msn) {
         MyTask task = new MyTask();
         msn.enqueue(task);
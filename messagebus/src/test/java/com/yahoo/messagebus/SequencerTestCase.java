@@ -4,10 +4,20 @@ package com.yahoo.messagebus;
 import com.yahoo.messagebus.test.SimpleMessage;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -71,6 +81,7 @@ public class SequencerTestCase {
         seq.handleMessage(src.createMessage(true, 3L));
         assertEquals(0, src.size());
         assertEquals(6, dst.size());
+        assertEquals(5, seq.getQueuedCount());
 
         dst.replyNext();
         dst.replyNext();
@@ -79,6 +90,7 @@ public class SequencerTestCase {
         dst.replyNext();
         assertEquals(5, src.size());
         assertEquals(6, dst.size());
+        assertEquals(0, seq.getQueuedCount());
 
         dst.replyNext();
         dst.replyNext();
@@ -104,6 +116,59 @@ public class SequencerTestCase {
         assertEquals(0, dst.size());
     }
 
+    @Test
+    public void testConcurrentSendersKeepOrderPerId() throws InterruptedException {
+        int numThreads = 4;
+        int numIds = 8;
+        int numMessages = 2000;
+        BlockingQueue<Message> dst = new LinkedBlockingQueue<>();
+        Map<Long, Integer> inFlight = new ConcurrentHashMap<>();
+        Map<Long, Integer> lastSent = new ConcurrentHashMap<>();
+        AtomicBoolean failed = new AtomicBoolean(false);
+        Sequencer seq = new Sequencer(msg -> {
+            OrderedMessage message = (OrderedMessage)msg;
+            if (inFlight.merge(message.seqId, 1, Integer::sum) != 1) failed.set(true);
+            if (lastSent.getOrDefault(message.seqId, -1) >= message.index) failed.set(true);
+            lastSent.put(message.seqId, message.index);
+            dst.add(msg);
+        });
+        CountDownLatch replies = new CountDownLatch(numThreads * numMessages);
+        ReplyHandler owner = reply -> replies.countDown();
+        Thread replier = new Thread(() -> {
+            try {
+                while (replies.getCount() > 0) {
+                    Message msg = dst.take();
+                    inFlight.merge(((OrderedMessage)msg).seqId, -1, Integer::sum);
+                    Reply reply = new EmptyReply();
+                    reply.swapState(msg);
+                    reply.setMessage(msg);
+                    reply.popHandler().handleReply(reply);
+                    if (seq.getQueuedCount() < 0) failed.set(true);
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        replier.start();
+        List<Thread> senders = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            long firstId = t * numIds;
+            senders.add(new Thread(() -> {
+                for (int i = 0; i < numMessages; i++) {
+                    Message msg = new OrderedMessage(firstId + i % numIds, i);
+                    msg.pushHandler(owner);
+                    seq.handleMessage(msg);
+                }
+            }));
+        }
+        senders.forEach(Thread::start);
+        for (Thread sender : senders) sender.join();
+        assertTrue(replies.await(60, TimeUnit.SECONDS));
+        replier.join();
+        assertFalse(failed.get());
+        assertEquals(0, seq.getQueuedCount());
+    }
+
     @SuppressWarnings("serial")
     private static class TestQueue extends LinkedList<Routable> implements ReplyHandler {
 
@@ -183,5 +248,26 @@ public class SequencerTestCase {
         }
     }
 
-}
+    private static class OrderedMessage extends SimpleMessage {
+
+        final long seqId;
+        final int index;
+
+        OrderedMessage(long seqId, int index) {
+            super("foo");
+            this.seqId = seqId;
+            this.index = index;
+        }
 
+        @Override
+        public boolean hasSequenceId() {
+            return true;
+        }
+
+        @Override
+        public long getSequenceId() {
+            return seqId;
+        }
+    }
+
+}
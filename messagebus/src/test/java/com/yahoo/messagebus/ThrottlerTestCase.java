@@ -14,7 +14,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -204,6 +206,90 @@ public class ThrottlerTestCase {
         assertTrue(windowSize >= 40 && windowSize <= 50);
     }
 
+    @Test
+    public void testTargetLatencyWindowSize() {
+        CustomTimer timer = new CustomTimer();
+        TargetLatencyThrottlePolicy policy = new TargetLatencyThrottlePolicy(timer);
+
+        policy.setTargetLatency(1500);
+        double windowSize = getWindowSize(policy, timer, 100);
+        assertTrue(windowSize >= 140 && windowSize <= 160);
+
+        policy.setTargetLatency(3000);
+        windowSize = getWindowSize(policy, timer, 100);
+        assertTrue(windowSize >= 280 && windowSize <= 320);
+
+        policy.setTargetLatency(3000);
+        windowSize = getWindowSize(policy, timer, 50);
+        assertTrue(windowSize >= 140 && windowSize <= 160);
+        assertTrue(policy.getObservedLatency() >= 2800 && policy.getObservedLatency() <= 3200);
+
+        policy.setTargetLatency(500);
+        windowSize = getWindowSize(policy, timer, 50);
+        assertEquals(1, windowSize, 0);
+    }
+
+    @Test
+    public void testTargetLatencyMinAndMaxWindowSize() {
+        CustomTimer timer = new CustomTimer();
+        TargetLatencyThrottlePolicy policy = new TargetLatencyThrottlePolicy(timer);
+
+        policy.setTargetLatency(1500).setMaxPendingCount(100);
+        assertEquals(100, policy.getMaxWindowSize(), 0);
+        assertTrue(getWindowSize(policy, timer, 100) <= 100);
+
+        policy.setTargetLatency(500).setMinWindowSize(20);
+        assertEquals(20, getWindowSize(policy, timer, 100));
+    }
+
+    @Test
+    public void testTargetLatencyWindowDoesNotGrowBeyondUse() {
+        CustomTimer timer = new CustomTimer();
+        TargetLatencyThrottlePolicy policy = new TargetLatencyThrottlePolicy(timer);
+        policy.setTargetLatency(1000);
+
+        Message msg = new SimpleMessage("foo");
+        for (int i = 0; i < 1000; ++i) {
+            assertTrue(policy.canSend(msg, 5));
+            policy.processMessage(msg);
+            Reply reply = new SimpleReply("bar");
+            reply.setContext(msg.getContext());
+            timer.millis += 10;
+            policy.processReply(reply);
+            assertTrue(reply.getContext() instanceof Integer);
+        }
+        assertEquals(20, policy.getMaxPendingCount());
+    }
+
+    /**
+     * Simulates a server which handles up to the given number of concurrent messages in 1000 ms,
+     * and which queues what exceeds this.
+     */
+    private int getWindowSize(TargetLatencyThrottlePolicy policy, CustomTimer timer, int capacity) {
+        Message msg = new SimpleMessage("foo");
+        List<Reply> replies = new ArrayList<>();
+        for (int i = 0; i < 999; ++i) {
+            int numPending = 0;
+            while (policy.canSend(msg, numPending)) {
+                policy.processMessage(msg);
+                Reply reply = new SimpleReply("bar");
+                reply.setContext(msg.getContext());
+                replies.add(reply);
+                ++numPending;
+            }
+
+            timer.millis += 1000 * Math.max(1, numPending) / Math.min(capacity, Math.max(1, numPending));
+
+            for (Reply reply : replies) {
+                policy.processReply(reply);
+            }
+            replies.clear();
+        }
+        int ret = policy.getMaxPendingCount();
+        System.out.println("getWindowSize() = " + ret);
+        return ret;
+    }
+
     private int getWindowSize(DynamicThrottlePolicy policy, CustomTimer timer, int maxPending) {
         Message msg = new SimpleMessage("foo");
         Reply reply = new SimpleReply("bar");
@@ -186,6 +186,44 @@ public class ResenderTestCase {
         assertTrue(trace.contains("retry 5 in 0.08"));
     }
 
+    @Test
+    public void testRetryWithMultipleMessengerThreads() {
+        TestServer server = new TestServer(new MessageBusParams().setRetryPolicy(retryPolicy)
+                                                                 .setNumMessengerThreads(4)
+                                                                 .addProtocol(new SimpleProtocol()),
+                                           new RPCNetworkParams().setSlobrokConfigId(TestServer.getSlobrokConfig(slobrok)));
+        SourceSession session = server.mb.createSourceSession(
+                new SourceSessionParams().setTimeout(600.0).setReplyHandler(new Receptor()));
+        assertEquals(4, server.mb.getNumMessengerThreads());
+        assertTrue(server.waitSlobrok("dst/session", 1));
+        int numMessages = 16;
+        for (int i = 0; i < numMessages; ++i) {
+            assertTrue(session.send(createMessage("msg" + i), Route.parse("dst/session")).isAccepted());
+        }
+        for (int i = 0; i < numMessages; ++i) {
+            Message msg = ((Receptor)dstSession.getMessageHandler()).getMessage(60);
+            assertNotNull(msg);
+            assertEquals(0, msg.getRetry());
+            replyFromDestination(msg, ErrorCode.APP_TRANSIENT_ERROR, 0);
+        }
+        for (int i = 0; i < numMessages; ++i) {
+            Message msg = ((Receptor)dstSession.getMessageHandler()).getMessage(60);
+            assertNotNull(msg);
+            assertEquals(1, msg.getRetry());
+            dstSession.acknowledge(msg);
+        }
+        for (int i = 0; i < numMessages; ++i) {
+            Reply reply = ((Receptor)session.getReplyHandler()).getReply(60);
+            assertNotNull(reply);
+            assertFalse(reply.hasErrors());
+        }
+        for (int i = 0; i < server.mb.getNumMessengerThreads(); ++i) {
+            assertEquals(0, server.mb.getMessengerQueueSize(i));
+        }
+        session.destroy();
+        server.destroy();
+    }
+
     private static Message createMessage(String msg) {
         SimpleMessage ret = new SimpleMessage(msg);
         ret.getTrace().setLevel(9);
@@ -0,0 +1,96 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+import com.yahoo.messagebus.*;
+import com.yahoo.messagebus.test.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the throughput of a Sequencer when several threads send sequenced messages concurrently,
+ * with replies arriving on other threads. Usage: SequencerBenchmark [threads] [messages per thread]
+ */
+public class SequencerBenchmark {
+
+    private static class MyMessage extends SimpleMessage {
+
+        final long seqId;
+
+        MyMessage(long seqId) {
+            super("message");
+            this.seqId = seqId;
+        }
+
+        @Override
+        public boolean hasSequenceId() {
+            return true;
+        }
+
+        @Override
+        public long getSequenceId() {
+            return seqId;
+        }
+    }
+
+    private static void run(String name, int numThreads, int numMessages, long numIds) throws InterruptedException {
+        BlockingQueue<Message> sent = new LinkedBlockingQueue<>();
+        Sequencer sequencer = new Sequencer(sent::add);
+        CountDownLatch done = new CountDownLatch(numThreads * numMessages);
+        ReplyHandler owner = reply -> done.countDown();
+        AtomicInteger maxQueued = new AtomicInteger(0);
+
+        List<Thread> repliers = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            Thread replier = new Thread(() -> {
+                try {
+                    while (true) {
+                        Message msg = sent.take();
+                        maxQueued.accumulateAndGet(sequencer.getQueuedCount(), Math::max);
+                        Reply reply = new EmptyReply();
+                        reply.swapState(msg);
+                        reply.setMessage(msg);
+                        reply.popHandler().handleReply(reply);
+                    }
+                } catch (InterruptedException e) {
+                    // done
+                }
+            });
+            replier.setDaemon(true);
+            repliers.add(replier);
+        }
+        List<Thread> senders = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            senders.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < numMessages; j++) {
+                    Message msg = new MyMessage(random.nextLong(numIds));
+                    msg.pushHandler(owner);
+                    sequencer.handleMessage(msg);
+                }
+            }));
+        }
+        long start = System.nanoTime();
+        repliers.forEach(Thread::start);
+        senders.forEach(Thread::start);
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        repliers.forEach(Thread::interrupt);
+        System.out.printf("%-16s %10.0f msg/s, max %d queued behind busy sequence ids%n",
+                          name, numThreads * numMessages / seconds, maxQueued.get());
+        sequencer.destroy();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int numThreads = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+        int numMessages = (args.length > 1) ? Integer.parseInt(args[1]) : 250000;
+        for (int i = 0; i < 3; i++) {
+            run("unique ids", numThreads, numMessages, Long.MAX_VALUE);
+            run("1000 ids", numThreads, numMessages, 1000);
+            run("10 ids", numThreads, numMessages, 10);
+        }
+    }
+}
@@ -7,11 +7,15 @@ import com.yahoo.searchlib.rankingexpression.evaluation.TensorValue;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
- * An evaluator which can be used to evaluate a single function once.
+ * An evaluator which can be used to evaluate a single function once, or once for each of a batch of bindings.
  *
  * @author bratseth
  */
@@ -22,6 +26,9 @@ public class FunctionEvaluator {
     private final LazyArrayContext context;
     private boolean evaluated = false;
 
+    /** The smallest batch which is evaluated in parallel */
+    private static final int minParallelBatchSize = 100;
+
     FunctionEvaluator(ExpressionFunction function, LazyArrayContext context) {
         this.function = function;
         this.context = context;
@@ -37,14 +44,7 @@ public class FunctionEvaluator {
     public FunctionEvaluator bind(String name, Tensor value) {
         if (evaluated)
             throw new IllegalStateException("Cannot bind a new value in a used evaluator");
-        TensorType requiredType = function.argumentTypes().get(name);
-        if (requiredType == null)
-            throw new IllegalArgumentException("'" + name + "' is not a valid argument in " + function +
-                                               ". Expected arguments: " + function.argumentTypes().entrySet().stream()
-                                                                                  .map(e -> e.getKey() + ": " + e.getValue())
-                                                                                  .collect(Collectors.joining(", ")));
-        if ( ! value.type().isAssignableTo(requiredType))
-            throw new IllegalArgumentException("'" + name + "' must be of type " + requiredType + ", not " + value.type());
+        requireAssignable(name, value);
         context.put(name, new TensorValue(value));
         return this;
     }
@@ -100,6 +100,57 @@ public class FunctionEvaluator {
     }
 
     public Tensor evaluate() {
+        requireArgumentsBound(context);
+        evaluated = true;
+        return function.getBody().evaluate(context).asTensor();
+    }
+
+    /**
+     * Evaluates this function once for each of the given sets of bindings.
+     * The values bound in this, and the missing value, are used in all the evaluations, while each set
+     * of bindings is used in its evaluation only. All evaluations use copies of the same context,
+     * and large batches are evaluated in parallel.
+     *
+     * @param bindings the values to bind in each evaluation, by argument name
+     * @return the result of each evaluation, in the order of the given bindings
+     * @throws IllegalArgumentException if a name is not a valid argument, or a value is of the wrong type
+     * @throws IllegalStateException if an argument is not bound in some evaluation
+     */
+    public List<Tensor> evaluate(List<Map<String, Tensor>> bindings) {
+        Map<String, Integer> indexes = new HashMap<>();
+        List<LazyArrayContext> contexts = new ArrayList<>(bindings.size());
+        for (Map<String, Tensor> binding : bindings) {
+            LazyArrayContext bindingContext = context.copy();
+            for (Map.Entry<String, Tensor> value : binding.entrySet()) {
+                requireAssignable(value.getKey(), value.getValue());
+                bindingContext.put(indexes.computeIfAbsent(value.getKey(), bindingContext::getIndex),
+                                   new TensorValue(value.getValue()));
+            }
+            requireArgumentsBound(bindingContext);
+            contexts.add(bindingContext);
+        }
+        evaluated = true;
+
+        Tensor[] results = new Tensor[contexts.size()];
+        IntStream evaluations = IntStream.range(0, results.length);
+        if (results.length >= minParallelBatchSize)
+            evaluations = evaluations.parallel();
+        evaluations.forEach(i -> results[i] = function.getBody().evaluate(contexts.get(i)).asTensor());
+        return List.of(results);
+    }
+
+    private void requireAssignable(String name, Tensor value) {
+        TensorType requiredType = function.argumentTypes().get(name);
+        if (requiredType == null)
+            throw new IllegalArgumentException("'" + name + "' is not a valid argument in " + function +
+                                               ". Expected arguments: " + function.argumentTypes().entrySet().stream()
+                                                                                  .map(e -> e.getKey() + ": " + e.getValue())
+                                                                                  .collect(Collectors.joining(", ")));
+        if ( ! value.type().isAssignableTo(requiredType))
+            throw new IllegalArgumentException("'" + name + "' must be of type " + requiredType + ", not " + value.type());
+    }
+
+    private void requireArgumentsBound(LazyArrayContext context) {
         for (Map.Entry<String, TensorType> argument : function.argumentTypes().entrySet()) {
             if (context.isMissing(argument.getKey()))
                 throw new IllegalStateException("Missing argument '" + argument.getKey() +
@@ -109,8 +160,6 @@ public class FunctionEvaluator {
                                                 "' must be bound to a value of type " + argument.getValue());
 
         }
-        evaluated = true;
-        return function.getBody().evaluate(context).asTensor();
     }
 
     /** Returns the function evaluated by this */
@@ -9,6 +9,7 @@ import com.yahoo.searchlib.rankingexpression.evaluation.ContextIndex;
 import com.yahoo.searchlib.rankingexpression.evaluation.DoubleValue;
 import com.yahoo.searchlib.rankingexpression.evaluation.ExpressionOptimizer;
 import com.yahoo.searchlib.rankingexpression.evaluation.Value;
+import com.yahoo.searchlib.rankingexpression.evaluation.compilation.ExpressionCompiler;
 import com.yahoo.tensor.TensorType;
 
 import java.util.Arrays;
@@ -43,7 +44,7 @@ public class Model {
     /** Context prototypes, indexed by function name (as all invocations of the same function share the same context prototype) */
     private final ImmutableMap<String, LazyArrayContext> contextPrototypes;
 
-    private final ExpressionOptimizer expressionOptimizer = new ExpressionOptimizer();
+    private final ExpressionOptimizer expressionOptimizer = createOptimizer();
 
     /** Programmatically create a model containing functions without constant of function references only */
     public Model(String name, Collection<ExpressionFunction> functions) {
@@ -87,10 +88,15 @@ public class Model {
             }
         }
         this.contextPrototypes = contextBuilder.build();
-        this.functions = ImmutableList.copyOf(functions.values());
-        this.publicFunctions = ImmutableList.copyOf(functions.values().stream()
-                                                                      .filter(f ->  ! f.getName().startsWith(INTERMEDIATE_OPERATION_FUNCTION_PREFIX))
-                                                                      .collect(Collectors.toList()));
+
+        // Compile copies of the free functions, as their bodies are shared with the referenced functions
+        ImmutableList.Builder<ExpressionFunction> compiledFunctions = new ImmutableList.Builder<>();
+        for (ExpressionFunction function : functions.values())
+            compiledFunctions.add(compile(function, contextPrototypes.get(function.getName())));
+        this.functions = compiledFunctions.build();
+        this.publicFunctions = ImmutableList.copyOf(this.functions.stream()
+                                                                  .filter(f ->  ! f.getName().startsWith(INTERMEDIATE_OPERATION_FUNCTION_PREFIX))
+                                                                  .collect(Collectors.toList()));
 
         // Optimize functions
         ImmutableMap.Builder<FunctionReference, ExpressionFunction> functionsBuilder = new ImmutableMap.Builder<>();
@@ -102,6 +108,14 @@ public class Model {
         this.referencedFunctions = functionsBuilder.build();
     }
 
+    private static ExpressionOptimizer createOptimizer() {
+        ExpressionOptimizer optimizer = new ExpressionOptimizer();
+        // Referenced functions are evaluated in the context of the function referencing them, whose indexes
+        // may differ from those of the context they are optimized for, so they cannot be compiled
+        optimizer.getOptimizer(ExpressionCompiler.class).setEnabled(false);
+        return optimizer;
+    }
+
     /** Returns an optimized version of the given function */
     private ExpressionFunction optimize(ExpressionFunction function, ContextIndex context) {
         // Note: Optimization is in-place but we do not depend on that outside this method
@@ -109,6 +123,22 @@ public class Model {
         return function;
     }
 
+    /**
+     * Returns an optimized copy of the given free function, with its scalar parts compiled to look up values
+     * by the indexes of the given context, which evaluators of this function use copies of.
+     */
+    private ExpressionFunction compile(ExpressionFunction function, ContextIndex context) {
+        if ( ! hasScalarSignature(function)) return function; // compiled code could not be used for tensor values
+        ExpressionFunction copy = function.withBody(function.getBody().copy());
+        new ExpressionOptimizer().optimize(copy.getBody(), context);
+        return copy;
+    }
+
+    private static boolean hasScalarSignature(ExpressionFunction function) {
+        return function.returnType().map(type -> type.rank() == 0).orElse(true) &&
+               function.argumentTypes().values().stream().allMatch(type -> type.rank() == 0);
+    }
+
     public String name() { return name; }
 
     /**
@@ -9,17 +9,26 @@ import com.yahoo.container.jdisc.HttpResponse;
 import com.yahoo.container.jdisc.ThreadedHttpRequestHandler;
 import com.yahoo.searchlib.rankingexpression.ExpressionFunction;
 import com.yahoo.slime.Cursor;
+import com.yahoo.slime.Inspector;
+import com.yahoo.slime.JsonParseException;
 import com.yahoo.slime.Slime;
+import com.yahoo.slime.SlimeUtils;
+import com.yahoo.slime.Type;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
 import com.yahoo.tensor.serialization.JsonFormat;
 import com.yahoo.yolean.Exceptions;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Executor;
@@ -32,6 +41,7 @@ public class ModelsEvaluationHandler extends ThreadedHttpRequestHandler {
     public static final String API_ROOT = "model-evaluation";
     public static final String VERSION_V1 = "v1";
     public static final String EVALUATE = "eval";
+    public static final String EVALUATE_BATCH = "eval-batch";
 
     private final ModelsEvaluator modelsEvaluator;
 
@@ -57,6 +67,10 @@ public class ModelsEvaluationHandler extends ThreadedHttpRequestHandler {
 
             Model model = modelsEvaluator.requireModel(modelName.get());
 
+            Optional<Integer> batchSegment = path.lastIndexOf(EVALUATE_BATCH);
+            if (batchSegment.isPresent()) {
+                return evaluateModelBatch(request, model, path.range(3, batchSegment));
+            }
             Optional<Integer> evalSegment = path.lastIndexOf(EVALUATE);
             String[] function = path.range(3, evalSegment);
             if (evalSegment.isPresent()) {
@@ -73,7 +87,43 @@ public class ModelsEvaluationHandler extends ThreadedHttpRequestHandler {
 
     private HttpResponse evaluateModel(HttpRequest request, Model model, String[] function)  {
         FunctionEvaluator evaluator = model.evaluatorOf(function);
+        bindProperties(request, evaluator);
+        Tensor result = evaluator.evaluate();
+        return new Response(200, JsonFormat.encode(result));
+    }
+
+    /**
+     * Evaluates a function once for each set of bindings in the request body, which must be a JSON array
+     * of objects where each field binds an argument to a tensor or number.
+     * Request properties are bound in all the evaluations. Returns a JSON array of the results.
+     */
+    private HttpResponse evaluateModelBatch(HttpRequest request, Model model, String[] function) {
+        FunctionEvaluator evaluator = model.evaluatorOf(function);
+        bindProperties(request, evaluator);
 
+        List<Map<String, Tensor>> bindings = new ArrayList<>();
+        try {
+            Inspector inputs = SlimeUtils.jsonToSlimeOrThrow(readBody(request)).get();
+            if (inputs.type() != Type.ARRAY)
+                return new ErrorResponse(400, "Expected a JSON array of argument bindings");
+            for (int i = 0; i < inputs.entries(); i++)
+                bindings.add(toBindings(inputs.entry(i), evaluator.function().argumentTypes()));
+        } catch (JsonParseException | IllegalArgumentException e) {
+            return new ErrorResponse(400, Exceptions.toMessageString(e));
+        }
+
+        ByteArrayOutputStream results = new ByteArrayOutputStream();
+        results.write('[');
+        for (Tensor result : evaluator.evaluate(bindings)) {
+            if (results.size() > 1)
+                results.write(',');
+            results.writeBytes(JsonFormat.encode(result));
+        }
+        results.write(']');
+        return new Response(200, results.toByteArray());
+    }
+
+    private void bindProperties(HttpRequest request, FunctionEvaluator evaluator) {
         property(request, missingValueKey).ifPresent(missingValue -> evaluator.setMissingValue(Tensor.from(missingValue)));
 
         for (Map.Entry<String, TensorType> argument : evaluator.function().argumentTypes().entrySet()) {
@@ -86,8 +136,26 @@ public class ModelsEvaluationHandler extends ThreadedHttpRequestHandler {
                 }
             }
         }
-        Tensor result = evaluator.evaluate();
-        return new Response(200, JsonFormat.encode(result));
+    }
+
+    private Map<String, Tensor> toBindings(Inspector input, Map<String, TensorType> argumentTypes) {
+        Map<String, Tensor> bindings = new HashMap<>();
+        for (Map.Entry<String, TensorType> argument : argumentTypes.entrySet()) {
+            Inspector value = input.field(argument.getKey());
+            if ( ! value.valid()) continue;
+            String tensor = value.type() == Type.STRING ? value.asString() : String.valueOf(value.asDouble());
+            bindings.put(argument.getKey(), Tensor.from(argument.getValue(), tensor));
+        }
+        return bindings;
+    }
+
+    private byte[] readBody(HttpRequest request) {
+        try {
+            return request.getData().readAllBytes();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     private HttpResponse listAllModels(HttpRequest request) {
@@ -7,6 +7,11 @@ import com.yahoo.filedistribution.fileacquirer.MockFileAcquirer;
 import com.yahoo.path.Path;
 import com.yahoo.searchlib.rankingexpression.ExpressionFunction;
 import com.yahoo.searchlib.rankingexpression.RankingExpression;
+import com.yahoo.searchlib.rankingexpression.Reference;
+import com.yahoo.searchlib.rankingexpression.evaluation.Context;
+import com.yahoo.searchlib.rankingexpression.evaluation.Value;
+import com.yahoo.searchlib.rankingexpression.evaluation.compilation.CompiledExpressionNode;
+import com.yahoo.searchlib.rankingexpression.rule.ExpressionNode;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
 import com.yahoo.vespa.config.search.RankProfilesConfig;
@@ -16,9 +21,11 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author bratseth
@@ -36,6 +43,29 @@ public class ModelsEvaluatorTest {
         assertEquals(32.0, function.evaluate().asDouble(), delta);
     }
 
+    /** Tests a function defined as 4 * (var1 + var2) */
+    @Test
+    public void testEvaluationOfCompiledFunction() {
+        ModelsEvaluator models = createModels("src/test/resources/config/rankexpression/");
+        FunctionEvaluator function = models.evaluatorOf("macros", "fourtimessum");
+        function.bind("var1", 3);
+        function.bind("var2", 5);
+        assertEquals(32.0, function.evaluate().asDouble(), delta);
+
+        ExpressionNode root = function.function().getBody().getRoot();
+        assertTrue(root instanceof CompiledExpressionNode);
+        // Compiled code looks up values by index only, so this can only be evaluated by compiled code
+        Context indexOnlyContext = new Context() {
+            @Override
+            public Value get(String name) { throw new IllegalStateException("Interpreted lookup of " + name); }
+            @Override
+            public TensorType getType(Reference reference) { return TensorType.empty; }
+            @Override
+            public double getDouble(int index) { return function.context().getDouble(index); }
+        };
+        assertEquals(32.0, root.evaluate(indexOnlyContext).asDouble(), delta);
+    }
+
     /** Tests a function defined as 4 * (var1 + var2) */
     @Test
     public void testSettingMissingValue() {
@@ -60,6 +90,51 @@ public class ModelsEvaluatorTest {
         }
     }
 
+    @Test
+    public void testBatchEvaluation() {
+        ModelsEvaluator models = createModels("src/test/resources/config/rankexpression/");
+
+        {
+            FunctionEvaluator function = models.evaluatorOf("macros", "secondphase");
+            function.bind("match", 3);
+            List<Tensor> results = function.evaluate(List.of(Map.of("rankBoost", scalar(5)),
+                                                             Map.of("rankBoost", scalar(1)),
+                                                             Map.of("match", scalar(0), "rankBoost", scalar(1))));
+            assertEquals(3, results.size());
+            assertEquals(32.0, results.get(0).asDouble(), delta);
+            assertEquals(16.0, results.get(1).asDouble(), delta);
+            assertEquals(4.0, results.get(2).asDouble(), delta);
+        }
+
+        {
+            FunctionEvaluator function = models.evaluatorOf("macros", "secondphase");
+            function.setMissingValue(5);
+            List<Tensor> results = function.evaluate(List.of(Map.of(), Map.of("match", scalar(3))));
+            assertEquals(40.0, results.get(0).asDouble(), delta);
+            assertEquals(32.0, results.get(1).asDouble(), delta);
+        }
+
+        { // Large enough to be evaluated in parallel
+            FunctionEvaluator function = models.evaluatorOf("macros", "secondphase");
+            function.bind("match", 3);
+            List<Map<String, Tensor>> bindings = new ArrayList<>();
+            for (int i = 0; i < 1000; i++)
+                bindings.add(Map.of("rankBoost", scalar(i)));
+            List<Tensor> results = function.evaluate(bindings);
+            for (int i = 0; i < 1000; i++)
+                assertEquals(4.0 * (3 + i), results.get(i).asDouble(), delta);
+        }
+
+        try {
+            FunctionEvaluator function = models.evaluatorOf("macros", "secondphase");
+            function.evaluate(List.of(Map.of("match", scalar(1)), Map.of("argNone", scalar(1))));
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(Exceptions.toMessageString(e).startsWith("'argNone' is not a valid argument in function 'secondphase'"));
+        }
+    }
+
     @Test
     public void testBindingValidation() {
         List<ExpressionFunction> functions = new ArrayList<>();
@@ -125,6 +200,10 @@ public class ModelsEvaluatorTest {
     // TODO: Test argument-less function
     // TODO: Test with nested functions
 
+    private Tensor scalar(double value) {
+        return Tensor.Builder.of(TensorType.empty).cell(value).build();
+    }
+
     private ModelsEvaluator createModels(String path) {
         Path configDir = Path.fromString(path);
         RankProfilesConfig config = new ConfigGetter<>(new FileSource(configDir.append("rank-profiles.cfg").toFile()),
@@ -16,8 +16,10 @@ import com.yahoo.vespa.config.search.core.RankingConstantsConfig;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -93,6 +95,28 @@ public class ModelsEvaluationHandlerTest {
         assertResponse(url, properties, 200, expected);
     }
 
+    @Test
+    public void testXgBoostBatchEvaluation() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("f56", "0.2");
+        properties.put("f60", "0.3");
+        properties.put("f109", "0.4");
+        String url = "http://localhost/model-evaluation/v1/xgboost_2_2/eval-batch";
+        String body = "[{\"f29\":-1.0}, {\"f29\":\"-1.0\", \"non-existing-binding\":-1}, {}]";
+        String expected = "[{\"cells\":[{\"address\":{},\"value\":-7.936679999999999}]}," +
+                          "{\"cells\":[{\"address\":{},\"value\":-7.936679999999999}]}," +
+                          "{\"cells\":[{\"address\":{},\"value\":-8.17695}]}]";
+        assertBatchResponse(url, properties, body, 200, expected);
+    }
+
+    @Test
+    public void testInvalidBatchEvaluation() {
+        String url = "http://localhost/model-evaluation/v1/xgboost_2_2/eval-batch";
+        assertBatchResponse(url, Collections.emptyMap(), "{\"f29\":-1.0}", 400,
+                            "{\"error\":\"Expected a JSON array of argument bindings\"}");
+        assertBatchResponse(url, Collections.emptyMap(), "[{\"f29\":-1.0}", 400, null);
+    }
+
     @Test
     public void testLightGBMEvaluationWithoutBindings() {
         String url = "http://localhost/model-evaluation/v1/lightgbm_regression/eval";
@@ -217,6 +241,13 @@ public class ModelsEvaluationHandlerTest {
         assertResponse(postRequest, expectedCode, expectedResult);
     }
 
+    static private void assertBatchResponse(String url, Map<String, String> properties, String body, int expectedCode, String expectedResult) {
+        HttpRequest request = HttpRequest.createTestRequest(url, com.yahoo.jdisc.http.HttpRequest.Method.POST,
+                                                            new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                                                            properties);
+        assertResponse(request, expectedCode, expectedResult);
+    }
+
     static private void assertResponse(HttpRequest request, int expectedCode, String expectedResult) {
         HttpResponse response = handler.handle(request);
         assertEquals("application/json", response.getContentType());
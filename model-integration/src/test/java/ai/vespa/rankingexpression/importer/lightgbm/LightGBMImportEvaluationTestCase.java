@@ -6,9 +6,12 @@ import com.yahoo.searchlib.rankingexpression.evaluation.ArrayContext;
 import com.yahoo.searchlib.rankingexpression.evaluation.ContextIndex;
 import com.yahoo.searchlib.rankingexpression.evaluation.DoubleValue;
 import com.yahoo.searchlib.rankingexpression.evaluation.ExpressionOptimizer;
+import com.yahoo.searchlib.rankingexpression.evaluation.OptimizationReport;
+import com.yahoo.searchlib.rankingexpression.evaluation.compilation.CompiledExpressionNode;
 import com.yahoo.searchlib.rankingexpression.evaluation.gbdtoptimization.GBDTForestNode;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -27,8 +30,9 @@ public class LightGBMImportEvaluationTestCase extends LightGBMTestBase {
         assertEvaluation(2.3571838,  expression, features(context).add("numerical_1", 0.7).add("numerical_2", 0.8).add("categorical_2", "m"));
 
         ExpressionOptimizer optimizer = new ExpressionOptimizer();
-        optimizer.optimize(expression, (ContextIndex)context);
-        assertTrue(expression.getRoot() instanceof GBDTForestNode);
+        OptimizationReport report = optimizer.optimize(expression, (ContextIndex)context);
+        assertEquals(OptimizationReport.Backend.COMPILED, report.getBackend());
+        assertTrue(((CompiledExpressionNode)expression.getRoot()).node() instanceof GBDTForestNode);
 
         assertEvaluation(1.91300868, expression, features(context));
         assertEvaluation(2.05469776, expression, features(context).add("numerical_1", 0.1).add("numerical_2", 0.2).add("categorical_1", "a").add("categorical_2", "i"));
@@ -7,7 +7,9 @@ import com.yahoo.searchlib.rankingexpression.evaluation.Context;
 import com.yahoo.searchlib.rankingexpression.evaluation.ContextIndex;
 import com.yahoo.searchlib.rankingexpression.evaluation.DoubleValue;
 import com.yahoo.searchlib.rankingexpression.evaluation.ExpressionOptimizer;
+import com.yahoo.searchlib.rankingexpression.evaluation.OptimizationReport;
 import com.yahoo.searchlib.rankingexpression.evaluation.TensorValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.compilation.CompiledExpressionNode;
 import com.yahoo.searchlib.rankingexpression.evaluation.gbdtoptimization.GBDTForestNode;
 import com.yahoo.tensor.Tensor;
 import org.junit.Test;
@@ -41,8 +43,9 @@ public class XGBoostImportEvaluationTestCase {
         assertXGBoostEvaluation(6.0, expression, features(context, "f1", Tensor.from(1.0)));
 
         ExpressionOptimizer optimizer = new ExpressionOptimizer();
-        optimizer.optimize(expression, (ContextIndex)context);
-        assertTrue(expression.getRoot() instanceof GBDTForestNode);
+        OptimizationReport report = optimizer.optimize(expression, (ContextIndex)context);
+        assertEquals(OptimizationReport.Backend.COMPILED, report.getBackend());
+        assertTrue(((CompiledExpressionNode)expression.getRoot()).node() instanceof GBDTForestNode);
 
         assertXGBoostEvaluation(1.0, expression, features(context, "f1", 0.0, "f2", 0.0));
         assertXGBoostEvaluation(2.0, expression, features(context, "f1", 0.0, "f2", 1.0));
@@ -17,6 +17,8 @@ public class OptimizationReport {
 
     private List<String> notes=new ArrayList<String>();
 
+    private Backend backend = Backend.INTERPRETED;
+
     public void setMetric(String name,int value) {
         metrics.put(name,value);
     }
@@ -41,6 +43,12 @@ public class OptimizationReport {
         notes.add(note);
     }
 
+    /** Sets how the optimized expression is evaluated */
+    public void setBackend(Backend backend) { this.backend = backend; }
+
+    /** Returns how the optimized expression is evaluated. Default INTERPRETED */
+    public Backend getBackend() { return backend; }
+
     /** Returns all the content of this report as a multiline string */
     public String toString() {
         StringBuilder b=new StringBuilder();
@@ -57,7 +65,22 @@ public class OptimizationReport {
         b.append("Optimization metrics:\n");
         for (Map.Entry<String,Integer> metric : metrics.entrySet())
             b.append("   " + metric.getKey() + ": " + metric.getValue() + "\n");
+        b.append("Evaluation backend: ").append(backend).append("\n");
         return b.toString();
     }
 
+    /** How an optimized expression is evaluated */
+    public enum Backend {
+
+        /** By interpreting the expression tree */
+        INTERPRETED,
+
+        /** By compiled code */
+        COMPILED,
+
+        /** By compiled code for some subexpressions, and by interpreting the rest */
+        PARTIALLY_COMPILED
+
+    }
+
 }
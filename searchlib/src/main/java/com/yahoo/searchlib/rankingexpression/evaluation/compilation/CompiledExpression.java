@@ -0,0 +1,33 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.searchlib.rankingexpression.evaluation.compilation;
+
+import com.yahoo.searchlib.rankingexpression.evaluation.Context;
+
+/**
+ * A scalar expression compiled to a generated class by {@link ExpressionCompiler}.
+ * Instances are stateless, and may be used by multiple threads at the same time.
+ *
+ * This class is public because the generated subclasses are loaded in class loaders of their own.
+ * It is not for use outside this package.
+ */
+public abstract class CompiledExpression {
+
+    /**
+     * Returns the value of this expression, looking up variables by the index they had in the context this
+     * was compiled for.
+     *
+     * @throws UnsupportedOperationException if some value is not a double, or the context does not support
+     *         lookup by index
+     */
+    public abstract double evaluate(Context context);
+
+    /** Returns the value of a boolean as a ranking expression represents it */
+    public static double asDouble(boolean value) { return value ? 1.0 : 0.0; }
+
+    public static double and(double x, double y) { return asDouble(x != 0.0 && y != 0.0); }
+
+    public static double or(double x, double y) { return asDouble(x != 0.0 || y != 0.0); }
+
+    public static double not(double x) { return asDouble(x == 0.0); }
+
+}
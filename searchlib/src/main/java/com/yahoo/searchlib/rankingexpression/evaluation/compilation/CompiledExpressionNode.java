@@ -0,0 +1,60 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.searchlib.rankingexpression.evaluation.compilation;
+
+import com.yahoo.searchlib.rankingexpression.Reference;
+import com.yahoo.searchlib.rankingexpression.evaluation.Context;
+import com.yahoo.searchlib.rankingexpression.evaluation.DoubleValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.Value;
+import com.yahoo.searchlib.rankingexpression.rule.CompositeNode;
+import com.yahoo.searchlib.rankingexpression.rule.ExpressionNode;
+import com.yahoo.searchlib.rankingexpression.rule.SerializationContext;
+import com.yahoo.tensor.TensorType;
+import com.yahoo.tensor.evaluation.TypeContext;
+
+import java.util.Deque;
+
+/**
+ * A scalar expression evaluated by compiled code. If the compiled code cannot evaluate it,
+ * because some value turns out not to be a double or the context cannot look up values by index,
+ * that evaluation falls back to interpreting the expression it was compiled from.
+ * Whether compiled code can be used depends on the values of each context, so this is decided per evaluation.
+ */
+public final class CompiledExpressionNode extends ExpressionNode {
+
+    /** The expression this is compiled from */
+    private final ExpressionNode node;
+
+    /** The compiled expression, or null if this has been serialized */
+    private final transient CompiledExpression compiled;
+
+    public CompiledExpressionNode(ExpressionNode node, CompiledExpression compiled) {
+        this.node = node;
+        this.compiled = compiled;
+    }
+
+    /** Returns the expression this is compiled from */
+    public ExpressionNode node() { return node; }
+
+    @Override
+    public TensorType type(TypeContext<Reference> context) { return node.type(context); }
+
+    @Override
+    public Value evaluate(Context context) {
+        if (compiled == null)
+            return node.evaluate(context);
+
+        try {
+            return new DoubleValue(compiled.evaluate(context));
+        }
+        catch (UnsupportedOperationException e) {
+            return node.evaluate(context);
+        }
+    }
+
+    /** Returns the string of the expression this is compiled from */
+    @Override
+    public StringBuilder toString(StringBuilder string, SerializationContext context, Deque<String> path, CompositeNode parent) {
+        return node.toString(string, context, path, parent);
+    }
+
+}
@@ -0,0 +1,498 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.searchlib.rankingexpression.evaluation.compilation;
+
+import com.yahoo.searchlib.rankingexpression.evaluation.BooleanValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.Context;
+import com.yahoo.searchlib.rankingexpression.evaluation.ContextIndex;
+import com.yahoo.searchlib.rankingexpression.evaluation.DoubleValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.Value;
+import com.yahoo.searchlib.rankingexpression.evaluation.gbdtoptimization.GBDTForestNode;
+import com.yahoo.searchlib.rankingexpression.evaluation.gbdtoptimization.GBDTNode;
+import com.yahoo.searchlib.rankingexpression.rule.ArithmeticNode;
+import com.yahoo.searchlib.rankingexpression.rule.ArithmeticOperator;
+import com.yahoo.searchlib.rankingexpression.rule.ComparisonNode;
+import com.yahoo.searchlib.rankingexpression.rule.CompositeNode;
+import com.yahoo.searchlib.rankingexpression.rule.ConstantNode;
+import com.yahoo.searchlib.rankingexpression.rule.EmbracedNode;
+import com.yahoo.searchlib.rankingexpression.rule.ExpressionNode;
+import com.yahoo.searchlib.rankingexpression.rule.Function;
+import com.yahoo.searchlib.rankingexpression.rule.FunctionNode;
+import com.yahoo.searchlib.rankingexpression.rule.IfNode;
+import com.yahoo.searchlib.rankingexpression.rule.NegativeNode;
+import com.yahoo.searchlib.rankingexpression.rule.NotNode;
+import com.yahoo.searchlib.rankingexpression.rule.ReferenceNode;
+import com.yahoo.searchlib.rankingexpression.rule.SetMembershipNode;
+import com.yahoo.searchlib.rankingexpression.rule.TruthOperator;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates the classes of a compiled expression and loads them in a class loader of their own.
+ * The expression is evaluated by a generated subclass of {@link CompiledExpression}, while the trees of
+ * GBDT forests are generated as static methods of separate classes, to keep each class within the
+ * size limits of class files.
+ *
+ * Instances of this are for generating a single expression.
+ */
+class ExpressionClassGenerator {
+
+    private static final String packagePath = Type.getInternalName(CompiledExpression.class)
+                                                  .substring(0, Type.getInternalName(CompiledExpression.class).lastIndexOf('/') + 1);
+    private static final String compiledExpressionName = Type.getInternalName(CompiledExpression.class);
+    private static final String contextName = Type.getInternalName(Context.class);
+    private static final String functionName = Type.getInternalName(Function.class);
+    private static final String truthOperatorName = Type.getInternalName(TruthOperator.class);
+
+    private static final String evaluateDescriptor = "(L" + contextName + ";)D";
+    private static final String sumDescriptor = "(DL" + contextName + ";)D";
+
+    /** The max number of tree values to put in one class, as each distinct value is an entry in its constant pool */
+    private static final int maxTreeValuesPerClass = 10000;
+
+    private static final AtomicLong generatedCount = new AtomicLong();
+
+    private final ContextIndex context;
+
+    /** The internal name of the class evaluating the expression */
+    private final String name;
+
+    /** The bytecode of the generated classes, by class name */
+    private final Map<String, byte[]> classes = new HashMap<>();
+
+    private int treesClassCount = 0;
+
+    /** The next free local variable slot of the evaluate method, where 0 is this and 1 is the context */
+    private int nextLocal = 2;
+
+    ExpressionClassGenerator(ContextIndex context) {
+        this.context = context;
+        this.name = packagePath + "GeneratedExpression" + generatedCount.incrementAndGet();
+    }
+
+    /** Returns whether the given expression is a scalar expression which can be compiled for the given context */
+    static boolean canCompile(ExpressionNode node, ContextIndex context) {
+        if (node instanceof ConstantNode) {
+            Value value = ((ConstantNode)node).getValue();
+            return value instanceof DoubleValue || value instanceof BooleanValue;
+        }
+        if (node instanceof ReferenceNode)
+            return indexOf((ReferenceNode)node, context) >= 0;
+        if (node instanceof GBDTNode || node instanceof GBDTForestNode)
+            return true;
+        if (node instanceof SetMembershipNode) {
+            SetMembershipNode setMembership = (SetMembershipNode)node;
+            return canCompile(setMembership.getTestValue(), context) &&
+                   setMembership.getSetValues().stream().allMatch(value -> value instanceof ConstantNode &&
+                                                                           canCompile(value, context));
+        }
+        if (node instanceof FunctionNode && ((FunctionNode)node).children().size() > 2)
+            return false;
+        if (isScalarComposite(node))
+            return ((CompositeNode)node).children().stream().allMatch(child -> canCompile(child, context));
+        return false;
+    }
+
+    /** Returns whether the given node is a composite which operates only on scalars */
+    static boolean isScalarComposite(ExpressionNode node) {
+        return node instanceof ArithmeticNode || node instanceof EmbracedNode ||
+               node instanceof NegativeNode || node instanceof NotNode ||
+               node instanceof IfNode || node instanceof ComparisonNode || node instanceof FunctionNode;
+    }
+
+    /** Generates and loads a compiled version of the given expression, which must be compilable */
+    CompiledExpression compile(ExpressionNode node) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+        writer.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, name, null, compiledExpressionName, null);
+
+        MethodVisitor constructor = writer.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitMethodInsn(INVOKESPECIAL, compiledExpressionName, "<init>", "()V", false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor evaluate = writer.visitMethod(ACC_PUBLIC, "evaluate", evaluateDescriptor, null, null);
+        evaluate.visitCode();
+        generate(node, evaluate);
+        evaluate.visitInsn(DRETURN);
+        evaluate.visitMaxs(0, 0);
+        evaluate.visitEnd();
+        writer.visitEnd();
+        addClass(name, writer);
+
+        try {
+            ClassLoader loader = new GeneratedClassLoader(classes);
+            return (CompiledExpression)loader.loadClass(className(name)).getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not load the class generated from " + node, e);
+        }
+    }
+
+    /** Generates code which leaves the value of the given node on the stack */
+    private void generate(ExpressionNode node, MethodVisitor method) {
+        if (node instanceof ConstantNode) {
+            method.visitLdcInsn(((ConstantNode)node).getValue().asDouble());
+        }
+        else if (node instanceof ReferenceNode) {
+            generateVariable(indexOf((ReferenceNode)node, context), 1, method);
+        }
+        else if (node instanceof EmbracedNode) {
+            generate(((EmbracedNode)node).getValue(), method);
+        }
+        else if (node instanceof NegativeNode) {
+            generate(((NegativeNode)node).getValue(), method);
+            method.visitInsn(DNEG);
+        }
+        else if (node instanceof NotNode) {
+            generate(((NotNode)node).getValue(), method);
+            method.visitMethodInsn(INVOKESTATIC, compiledExpressionName, "not", "(D)D", false);
+        }
+        else if (node instanceof ArithmeticNode) {
+            generate(applyPrecedence((ArithmeticNode)node), method);
+        }
+        else if (node instanceof ComparisonNode) {
+            generateComparison((ComparisonNode)node, method);
+            method.visitMethodInsn(INVOKESTATIC, compiledExpressionName, "asDouble", "(Z)D", false);
+        }
+        else if (node instanceof IfNode) {
+            generateIf((IfNode)node, method);
+        }
+        else if (node instanceof SetMembershipNode) {
+            generateSetMembership((SetMembershipNode)node, method);
+        }
+        else if (node instanceof FunctionNode) {
+            generateFunction((FunctionNode)node, method);
+        }
+        else if (node instanceof GBDTNode) {
+            double[] values = ((GBDTNode)node).values();
+            TreesClass trees = new TreesClass();
+            String tree = trees.add(values, 0, values.length);
+            trees.complete();
+            method.visitVarInsn(ALOAD, 1);
+            method.visitMethodInsn(INVOKESTATIC, trees.name, tree, evaluateDescriptor, false);
+        }
+        else if (node instanceof GBDTForestNode) {
+            generateForest(((GBDTForestNode)node).values(), method);
+        }
+        else {
+            throw new IllegalArgumentException("Cannot compile " + node);
+        }
+    }
+
+    private void generate(Operation operation, MethodVisitor method) {
+        if (operation.operator == ArithmeticOperator.POWER)
+            method.visitFieldInsn(GETSTATIC, functionName, Function.pow.name(), "L" + functionName + ";");
+        generate(operation.left, method);
+        generate(operation.right, method);
+        switch (operation.operator) {
+            case OR: method.visitMethodInsn(INVOKESTATIC, compiledExpressionName, "or", "(DD)D", false); break;
+            case AND: method.visitMethodInsn(INVOKESTATIC, compiledExpressionName, "and", "(DD)D", false); break;
+            case PLUS: method.visitInsn(DADD); break;
+            case MINUS: method.visitInsn(DSUB); break;
+            case MULTIPLY: method.visitInsn(DMUL); break;
+            case DIVIDE: method.visitInsn(DDIV); break;
+            case MODULO: method.visitInsn(DREM); break;
+            case POWER: method.visitMethodInsn(INVOKEVIRTUAL, functionName, "evaluate", "(DD)D", false); break;
+            default: throw new IllegalArgumentException("Cannot compile " + operation.operator);
+        }
+    }
+
+    private void generate(Object operand, MethodVisitor method) {
+        if (operand instanceof Operation)
+            generate((Operation)operand, method);
+        else
+            generate((ExpressionNode)operand, method);
+    }
+
+    /** Generates code which leaves the boolean result of the comparison on the stack */
+    private void generateComparison(ComparisonNode comparison, MethodVisitor method) {
+        method.visitFieldInsn(GETSTATIC, truthOperatorName, comparison.getOperator().name(), "L" + truthOperatorName + ";");
+        generate(comparison.getLeftCondition(), method);
+        generate(comparison.getRightCondition(), method);
+        method.visitMethodInsn(INVOKEVIRTUAL, truthOperatorName, "evaluate", "(DD)Z", false);
+    }
+
+    private void generateIf(IfNode node, MethodVisitor method) {
+        Label falseBranch = new Label();
+        Label end = new Label();
+        if (node.getCondition() instanceof ComparisonNode) {
+            generateComparison((ComparisonNode)node.getCondition(), method);
+            method.visitJumpInsn(IFEQ, falseBranch);
+        }
+        else { // true unless 0, as Value.asBoolean
+            generate(node.getCondition(), method);
+            method.visitInsn(DCONST_0);
+            method.visitInsn(DCMPL);
+            method.visitJumpInsn(IFEQ, falseBranch);
+        }
+        generate(node.getTrueExpression(), method);
+        method.visitJumpInsn(GOTO, end);
+        method.visitLabel(falseBranch);
+        generate(node.getFalseExpression(), method);
+        method.visitLabel(end);
+    }
+
+    private void generateSetMembership(SetMembershipNode node, MethodVisitor method) {
+        int testValue = nextLocal;
+        nextLocal += 2;
+        generate(node.getTestValue(), method);
+        method.visitVarInsn(DSTORE, testValue);
+
+        Label member = new Label();
+        Label end = new Label();
+        for (ExpressionNode setValue : node.getSetValues()) {
+            method.visitVarInsn(DLOAD, testValue);
+            generate(setValue, method);
+            method.visitInsn(DCMPL);
+            method.visitJumpInsn(IFEQ, member);
+        }
+        method.visitInsn(DCONST_0);
+        method.visitJumpInsn(GOTO, end);
+        method.visitLabel(member);
+        method.visitInsn(DCONST_1);
+        method.visitLabel(end);
+    }
+
+    /** Generates a call to the function, where missing arguments are 0 as in FunctionNode */
+    private void generateFunction(FunctionNode node, MethodVisitor method) {
+        List<ExpressionNode> arguments = node.children();
+        method.visitFieldInsn(GETSTATIC, functionName, node.getFunction().name(), "L" + functionName + ";");
+        for (int i = 0; i < 2; i++) {
+            if (i < arguments.size())
+                generate(arguments.get(i), method);
+            else
+                method.visitInsn(DCONST_0);
+        }
+        method.visitMethodInsn(INVOKEVIRTUAL, functionName, "evaluate", "(DD)D", false);
+    }
+
+    /** Generates code which adds the trees of the forest to 0, in order, as GBDTForestNode does */
+    private void generateForest(double[] values, MethodVisitor method) {
+        method.visitInsn(DCONST_0);
+        TreesClass trees = null;
+        int pc = 0;
+        while (pc < values.length) {
+            int treeSize = (int)values[pc++];
+            if (trees == null || trees.valueCount >= maxTreeValuesPerClass) {
+                if (trees != null)
+                    generateSum(trees, method);
+                trees = new TreesClass();
+            }
+            trees.add(values, pc, treeSize);
+            pc += treeSize;
+        }
+        if (trees != null)
+            generateSum(trees, method);
+    }
+
+    private void generateSum(TreesClass trees, MethodVisitor method) {
+        trees.complete();
+        method.visitVarInsn(ALOAD, 1);
+        method.visitMethodInsn(INVOKESTATIC, trees.name, "sum", sumDescriptor, false);
+    }
+
+    /**
+     * Generates code returning the value of the tree starting at the given offset, which is encoded as
+     * described in GBDTNode. The context is in local variable 0.
+     */
+    private void generateTree(double[] values, int pc, MethodVisitor method) {
+        double value = values[pc++];
+        if (value < GBDTNode.MAX_LEAF_VALUE) {
+            method.visitLdcInsn(value);
+            method.visitInsn(DRETURN);
+            return;
+        }
+
+        Label falseBranch = new Label();
+        int offset = (int)value - GBDTNode.MAX_LEAF_VALUE;
+        if (offset < GBDTNode.MAX_VARIABLES) { // <
+            generateVariable(offset, 0, method);
+            method.visitLdcInsn(values[pc++]);
+            method.visitInsn(DCMPG);
+            method.visitJumpInsn(IFGE, falseBranch);
+        }
+        else if (offset < GBDTNode.MAX_VARIABLES * 2) { // ==
+            generateVariable(offset - GBDTNode.MAX_VARIABLES, 0, method);
+            method.visitLdcInsn(values[pc++]);
+            method.visitInsn(DCMPL);
+            method.visitJumpInsn(IFNE, falseBranch);
+        }
+        else if (offset < GBDTNode.MAX_VARIABLES * 3) { // in
+            generateVariable(offset - GBDTNode.MAX_VARIABLES * 2, 0, method);
+            method.visitVarInsn(DSTORE, 1);
+            Label trueBranch = new Label();
+            int setSize = (int)values[pc++];
+            for (int i = 0; i < setSize; i++) {
+                method.visitVarInsn(DLOAD, 1);
+                method.visitLdcInsn(values[pc++]);
+                method.visitInsn(DCMPL);
+                method.visitJumpInsn(IFEQ, trueBranch);
+            }
+            method.visitJumpInsn(GOTO, falseBranch);
+            method.visitLabel(trueBranch);
+        }
+        else { // !(>=)
+            generateVariable(offset - GBDTNode.MAX_VARIABLES * 3, 0, method);
+            method.visitLdcInsn(values[pc++]);
+            method.visitInsn(DCMPL);
+            method.visitJumpInsn(IFGE, falseBranch);
+        }
+
+        // pc is now at the length of the true branch, which is followed by the true branch
+        generateTree(values, pc + 1, method);
+        method.visitLabel(falseBranch);
+        generateTree(values, pc + (int)values[pc], method);
+    }
+
+    private void generateVariable(int index, int contextVariable, MethodVisitor method) {
+        method.visitVarInsn(ALOAD, contextVariable);
+        method.visitLdcInsn(index);
+        method.visitMethodInsn(INVOKEVIRTUAL, contextName, "getDouble", "(I)D", false);
+    }
+
+    private void addClass(String name, ClassWriter writer) {
+        classes.put(className(name), writer.toByteArray());
+    }
+
+    /** Returns the index of the given reference in the context, or -1 if it cannot be looked up by index */
+    private static int indexOf(ReferenceNode reference, ContextIndex context) {
+        try {
+            return context.getIndex(reference.toString());
+        }
+        catch (RuntimeException e) { // contexts throw different exceptions for unknown names
+            return -1;
+        }
+    }
+
+    private static String className(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    /** Returns the operands of the given node combined in the order ArithmeticNode applies its operators */
+    private static Object applyPrecedence(ArithmeticNode node) {
+        Iterator<ExpressionNode> child = node.children().iterator();
+        Deque<Operand> stack = new ArrayDeque<>();
+        stack.push(new Operand(ArithmeticOperator.OR, child.next()));
+        for (Iterator<ArithmeticOperator> it = node.operators().iterator(); it.hasNext() && child.hasNext();) {
+            ArithmeticOperator operator = it.next();
+            while (stack.peek().operator.hasPrecedenceOver(operator))
+                combineTop(stack);
+            stack.push(new Operand(operator, child.next()));
+        }
+        while (stack.size() > 1)
+            combineTop(stack);
+        return stack.getFirst().value;
+    }
+
+    private static void combineTop(Deque<Operand> stack) {
+        Operand right = stack.pop();
+        Operand left = stack.peek();
+        left.value = new Operation(right.operator, left.value, right.value);
+    }
+
+    /** An operand of an arithmetic expression, and the operator applying it to the operand before it */
+    private static class Operand {
+
+        final ArithmeticOperator operator;
+
+        /** An ExpressionNode or Operation */
+        Object value;
+
+        Operand(ArithmeticOperator operator, Object value) {
+            this.operator = operator;
+            this.value = value;
+        }
+
+    }
+
+    /** A binary operation, where each operand is an ExpressionNode or Operation */
+    private static class Operation {
+
+        final ArithmeticOperator operator;
+        final Object left, right;
+
+        Operation(ArithmeticOperator operator, Object left, Object right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+    }
+
+    /** A generated class with a static method per tree, and a method adding the values of all its trees to a sum */
+    private class TreesClass {
+
+        private final String name;
+        private final ClassWriter writer;
+        private final MethodVisitor sum;
+        private int treeCount = 0;
+        private int valueCount = 0;
+
+        TreesClass() {
+            this.name = ExpressionClassGenerator.this.name + "Trees" + treesClassCount++;
+            writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+            writer.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, name, null, "java/lang/Object", null);
+            sum = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, "sum", sumDescriptor, null, null);
+            sum.visitCode();
+            sum.visitVarInsn(DLOAD, 0);
+        }
+
+        /** Adds the tree at the given offset and size, and returns the name of its method */
+        String add(double[] values, int offset, int size) {
+            String treeName = "tree" + treeCount++;
+            MethodVisitor tree = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, treeName, evaluateDescriptor, null, null);
+            tree.visitCode();
+            generateTree(values, offset, tree);
+            tree.visitMaxs(0, 0);
+            tree.visitEnd();
+            valueCount += size;
+
+            sum.visitVarInsn(ALOAD, 2);
+            sum.visitMethodInsn(INVOKESTATIC, name, treeName, evaluateDescriptor, false);
+            sum.visitInsn(DADD);
+            return treeName;
+        }
+
+        void complete() {
+            sum.visitInsn(DRETURN);
+            sum.visitMaxs(0, 0);
+            sum.visitEnd();
+            writer.visitEnd();
+            addClass(name, writer);
+        }
+
+    }
+
+    private static class GeneratedClassLoader extends ClassLoader {
+
+        private final Map<String, byte[]> classes;
+
+        GeneratedClassLoader(Map<String, byte[]> classes) {
+            super(CompiledExpression.class.getClassLoader());
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytecode = classes.get(name);
+            if (bytecode == null) throw new ClassNotFoundException(name);
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+
+    }
+
+}
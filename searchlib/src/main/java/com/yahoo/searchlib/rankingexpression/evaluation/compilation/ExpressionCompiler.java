@@ -0,0 +1,86 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.searchlib.rankingexpression.evaluation.compilation;
+
+import com.yahoo.searchlib.rankingexpression.RankingExpression;
+import com.yahoo.searchlib.rankingexpression.evaluation.ContextIndex;
+import com.yahoo.searchlib.rankingexpression.evaluation.OptimizationReport;
+import com.yahoo.searchlib.rankingexpression.evaluation.Optimizer;
+import com.yahoo.searchlib.rankingexpression.rule.CompositeNode;
+import com.yahoo.searchlib.rankingexpression.rule.ConstantNode;
+import com.yahoo.searchlib.rankingexpression.rule.ExpressionNode;
+import com.yahoo.searchlib.rankingexpression.rule.ReferenceNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles the scalar parts of ranking expressions, including GBDT forests, to JVM bytecode,
+ * such that they are evaluated without interpreting the expression tree.
+ * The largest scalar subexpressions of the expression are each replaced by a {@link CompiledExpressionNode},
+ * while the rest of the expression, such as tensor functions, is left to be interpreted.
+ *
+ * Compiled expressions look up variables by the index they have in the context given when optimizing,
+ * so they must be evaluated with that context or a copy of it.
+ */
+public class ExpressionCompiler extends Optimizer {
+
+    @Override
+    public void optimize(RankingExpression expression, ContextIndex context, OptimizationReport report) {
+        if ( ! isEnabled()) return;
+
+        Compilation compilation = new Compilation(context, report);
+        ExpressionNode root = compilation.compile(expression.getRoot());
+        expression.setRoot(root);
+        if (root instanceof CompiledExpressionNode)
+            report.setBackend(OptimizationReport.Backend.COMPILED);
+        else if (compilation.compiledCount > 0)
+            report.setBackend(OptimizationReport.Backend.PARTIALLY_COMPILED);
+        report.note("Expression compilation done");
+    }
+
+    /** The state of a single optimize call */
+    private class Compilation {
+
+        private final ContextIndex context;
+        private final OptimizationReport report;
+
+        /** The number of subexpressions compiled so far */
+        private int compiledCount = 0;
+
+        Compilation(ContextIndex context, OptimizationReport report) {
+            this.context = context;
+            this.report = report;
+        }
+
+        /** Returns the given node with its largest compilable subexpressions replaced by compiled ones */
+        ExpressionNode compile(ExpressionNode node) {
+            if (isWorthCompiling(node) && ExpressionClassGenerator.canCompile(node, context)) {
+                try {
+                    CompiledExpression compiled = new ExpressionClassGenerator(context).compile(node);
+                    compiledCount++;
+                    report.incMetric("Compiled expressions", 1);
+                    return new CompiledExpressionNode(node, compiled);
+                }
+                catch (RuntimeException e) { // e.g the expression is too large for a class file
+                    report.note("Could not compile " + node + ": " + e.getMessage());
+                    return node;
+                }
+            }
+
+            if ( ! ExpressionClassGenerator.isScalarComposite(node)) return node;
+
+            CompositeNode composite = (CompositeNode)node;
+            List<ExpressionNode> children = new ArrayList<>();
+            for (ExpressionNode child : composite.children())
+                children.add(compile(child));
+            return composite.setChildren(children);
+        }
+
+    }
+
+    /** Constants and references are evaluated as fast by the interpreter */
+    private boolean isWorthCompiling(ExpressionNode node) {
+        return ! (node instanceof ConstantNode) && ! (node instanceof ReferenceNode);
+    }
+
+}
@@ -3,6 +3,7 @@ package com.yahoo.searchlib.rankingexpression.evaluation;
 
 import com.yahoo.io.IOUtils;
 import com.yahoo.searchlib.rankingexpression.RankingExpression;
+import com.yahoo.searchlib.rankingexpression.evaluation.compilation.ExpressionCompiler;
 import com.yahoo.searchlib.rankingexpression.evaluation.gbdtoptimization.GBDTForestOptimizer;
 import com.yahoo.searchlib.rankingexpression.parser.ParseException;
 
@@ -145,13 +146,26 @@ public class EvaluationBenchmark {
         // Forest optimized...................
         RankingExpression forestOptimized=new RankingExpression(gbdtString);
         DoubleOnlyArrayContext forestContext = new DoubleOnlyArrayContext(forestOptimized, true);
+        ExpressionOptimizer forestOptimizer = new ExpressionOptimizer();
+        forestOptimizer.getOptimizer(ExpressionCompiler.class).setEnabled(false);
         System.out.print("Forest optimizing ... ");
-        OptimizationReport forestOptimizationReport=new ExpressionOptimizer().optimize(forestOptimized, forestContext);
+        OptimizationReport forestOptimizationReport=forestOptimizer.optimize(forestOptimized, forestContext);
         System.out.println("done");
         System.out.println(forestOptimizationReport);
         double forestTotal=benchmark(forestOptimized,forestContext,iterations,"Forest optimized");
         assertEqualish(total,forestTotal);
         System.out.println("-----------------------------------------------------------------------------------------------------");
+
+        // Compiled...................
+        RankingExpression compiled = new RankingExpression(gbdtString);
+        DoubleOnlyArrayContext compiledContext = new DoubleOnlyArrayContext(compiled, true);
+        System.out.print("Compiling ... ");
+        OptimizationReport compilationReport = new ExpressionOptimizer().optimize(compiled, compiledContext);
+        System.out.println("done");
+        System.out.println(compilationReport);
+        double compiledTotal = benchmark(compiled, compiledContext, iterations, "Compiled");
+        assertEqualish(total, compiledTotal);
+        System.out.println("-----------------------------------------------------------------------------------------------------");
     }
 
     private double benchmark(RankingExpression gbdt, Context context, int iterations, String description) {
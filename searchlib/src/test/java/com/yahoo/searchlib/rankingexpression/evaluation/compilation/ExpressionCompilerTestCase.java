@@ -0,0 +1,178 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.searchlib.rankingexpression.evaluation.compilation;
+
+import com.yahoo.searchlib.rankingexpression.RankingExpression;
+import com.yahoo.searchlib.rankingexpression.Reference;
+import com.yahoo.searchlib.rankingexpression.evaluation.ArrayContext;
+import com.yahoo.searchlib.rankingexpression.evaluation.Context;
+import com.yahoo.searchlib.rankingexpression.evaluation.DoubleValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.ExpressionOptimizer;
+import com.yahoo.searchlib.rankingexpression.evaluation.MapContext;
+import com.yahoo.searchlib.rankingexpression.evaluation.OptimizationReport;
+import com.yahoo.searchlib.rankingexpression.evaluation.StringValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.TensorValue;
+import com.yahoo.searchlib.rankingexpression.evaluation.Value;
+import com.yahoo.searchlib.rankingexpression.parser.ParseException;
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExpressionCompilerTestCase {
+
+    @Test
+    public void testArithmetic() throws ParseException {
+        assertCompiled("1 + a * b - c / 2", Map.of("a", 2.0, "b", 3.0, "c", 5.0));
+        assertCompiled("a - b - c", Map.of("a", 2.0, "b", 3.0, "c", 5.0));
+        assertCompiled("a / b / c * 2 % 3", Map.of("a", 20.0, "b", 3.0, "c", 0.5));
+        assertCompiled("a ^ 2 ^ b + -a", Map.of("a", 1.5, "b", 3.0));
+        assertCompiled("(a + b) * (c - a)", Map.of("a", 1.0, "b", 2.0, "c", 7.0));
+        assertCompiled("a && b || !c", Map.of("a", 1.0, "b", 0.0, "c", 0.0));
+        assertCompiled("a || b && c", Map.of("a", 0.0, "b", 1.0, "c", 2.0));
+        assertCompiled("a + b", Map.of("a", Double.NaN, "b", 2.0));
+    }
+
+    @Test
+    public void testConditions() throws ParseException {
+        String expression = "if (a < b, if (a == 3, 1, 2), if (a >= c, a * 10, if (b ~= c, 4, 5)))";
+        assertCompiled(expression, Map.of("a", 1.0, "b", 2.0, "c", 0.0));
+        assertCompiled(expression, Map.of("a", 3.0, "b", 4.0, "c", 0.0));
+        assertCompiled(expression, Map.of("a", 3.0, "b", 2.0, "c", 1.0));
+        assertCompiled(expression, Map.of("a", 3.0, "b", 2.0, "c", 5.0));
+        assertCompiled(expression, Map.of("a", Double.NaN, "b", 2.0, "c", 5.0));
+        assertCompiled("if (a, 1, 2)", Map.of("a", Double.NaN));
+        assertCompiled("if (a, 1, 2)", Map.of("a", 0.0));
+        assertCompiled("(a > b) + (a != b) * 2", Map.of("a", 2.0, "b", 1.0));
+        assertCompiled("if (a in [1, 2, 3], 10, 20) + if (b in [4], 1, 2)", Map.of("a", 2.0, "b", 5.0));
+        assertCompiled("if (a in [1, 2, 3], 10, 20)", Map.of("a", Double.NaN));
+    }
+
+    @Test
+    public void testFunctions() throws ParseException {
+        assertCompiled("max(a, b) + min(a, 3) + log(b) + sqrt(a) + atan2(a, b) + fmod(b, a) + isNan(c)",
+                       Map.of("a", 2.0, "b", 7.5, "c", Double.NaN));
+        assertCompiled("sigmoid(a * 2) + relu(-a) + exp(a) + pow(a, b)", Map.of("a", 0.5, "b", 3.0));
+    }
+
+    @Test
+    public void testGBDTForest() throws ParseException {
+        String forest =
+                "if (F1 < 1.72971, 0.0697159, if (F2 < 0.10496, if (F3 < 0.0329127, 0.151257, 0.117501), if (F4 < 18.5, 0.0897622, 0.0756903))) + \n" +
+                "if (F1 < 1.73156, if (F5 < 0.0737993, -0.00481646, 0.00110018), if (F2 == 0.0844616, 0.0488919, if (F4 < 32.5, 0.0136917, 9.85328E-4))) + \n" +
+                "if (F1 in [1, 2, 3], -0.00298257, if (F2 < 0.116207, if (F3 < 0.0329127, 0.0676105, 0.0340198), if (F6 < 1.5, -8.55514E-5, 0.0112406))) + \n" +
+                "if (!(F1 >= 1.72995), if (F5 < 0.0737993, -0.00407515, 0.00139088), if (F2 == 0.0509035, 0.0439466, if (F2 < 0.325818, 0.0187156, 0.00236949)))";
+        Random random = new Random(17);
+        for (int i = 0; i < 100; i++) {
+            assertCompiled(forest, Map.of("F1", (double)random.nextInt(4),
+                                          "F2", random.nextDouble() / 2,
+                                          "F3", random.nextDouble() / 10,
+                                          "F4", random.nextDouble() * 50,
+                                          "F5", i % 10 == 0 ? Double.NaN : random.nextDouble() / 10,
+                                          "F6", random.nextDouble() * 3));
+        }
+
+        RankingExpression expression = new RankingExpression(forest);
+        OptimizationReport report = new ExpressionOptimizer().optimize(expression, new ArrayContext(expression, DoubleValue.NaN));
+        assertEquals(OptimizationReport.Backend.COMPILED, report.getBackend());
+        assertEquals(1, report.getMetric("Number of forests"));
+        assertEquals(1, report.getMetric("Compiled expressions"));
+    }
+
+    @Test
+    public void testGBDTForestWithStringSets() throws ParseException {
+        String forest =
+                "if (S in [\"string 1\",\"string 2\"], 0.0697159, if (F < 0.10496, 0.151257, 0.117501)) + \n" +
+                "if (S in [\"string 2\"], 0.0136917, 9.85328E-4)";
+        RankingExpression expression = new RankingExpression(forest);
+        MapContext interpreted = new MapContext(DoubleValue.NaN);
+        interpreted.put("S", new StringValue("string 2"));
+        interpreted.put("F", 0.5);
+        double expected = expression.evaluate(interpreted).asDouble();
+
+        ArrayContext context = new ArrayContext(expression, DoubleValue.NaN);
+        assertEquals(OptimizationReport.Backend.COMPILED, new ExpressionOptimizer().optimize(expression, context).getBackend());
+        context.put("S", new StringValue("string 2"));
+        context.put("F", 0.5);
+        assertEquals(expected, expression.evaluate(context).asDouble(), 1e-9);
+    }
+
+    @Test
+    public void testPartialCompilation() throws ParseException {
+        String expressionString = "sum(t * (a + 1)) + if (a < b, a * b, 0)";
+        RankingExpression expression = new RankingExpression(expressionString);
+        ArrayContext context = new ArrayContext(expression, DoubleValue.NaN);
+        OptimizationReport report = new ExpressionOptimizer().optimize(expression, context);
+        assertEquals(OptimizationReport.Backend.PARTIALLY_COMPILED, report.getBackend());
+        assertEquals(1, report.getMetric("Compiled expressions"));
+        assertEquals(new RankingExpression(expressionString).toString(), expression.toString());
+
+        context.put("t", new TensorValue(Tensor.from("tensor(x[2]):[1, 2]")));
+        context.put("a", 2.0);
+        context.put("b", 3.0);
+        assertEquals(15.0, expression.evaluate(context).asDouble(), 1e-9);
+    }
+
+    @Test
+    public void testFallbackToInterpretation() throws ParseException {
+        RankingExpression expression = new RankingExpression("a * 2 + b");
+        ArrayContext context = new ArrayContext(expression, DoubleValue.NaN);
+        assertEquals(OptimizationReport.Backend.COMPILED, new ExpressionOptimizer().optimize(expression, context).getBackend());
+
+        context.put("a", new TensorValue(Tensor.from("tensor(x[2]):[1, 2]")));
+        context.put("b", 1.0);
+        assertEquals(Tensor.from("tensor(x[2]):[3, 5]"), expression.evaluate(context).asTensor());
+
+        // Contexts which cannot look up values by index are interpreted
+        MapContext mapContext = new MapContext();
+        mapContext.put("a", 3.0);
+        mapContext.put("b", 1.0);
+        assertEquals(7.0, expression.evaluate(mapContext).asDouble(), 0);
+
+        // Falling back is decided per evaluation, so later evaluations of doubles still use the compiled code
+        int aIndex = context.getIndex("a");
+        Context indexOnlyContext = new Context() {
+            @Override
+            public Value get(String name) { throw new IllegalStateException("Interpreted lookup of " + name); }
+            @Override
+            public TensorType getType(Reference reference) { return TensorType.empty; }
+            @Override
+            public double getDouble(int index) { return index == aIndex ? 3.0 : 1.0; }
+        };
+        assertEquals(7.0, expression.evaluate(indexOnlyContext).asDouble(), 0);
+    }
+
+    @Test
+    public void testDisabled() throws ParseException {
+        RankingExpression expression = new RankingExpression("a * 2 + b");
+        ExpressionOptimizer optimizer = new ExpressionOptimizer();
+        optimizer.getOptimizer(ExpressionCompiler.class).setEnabled(false);
+        OptimizationReport report = optimizer.optimize(expression, new ArrayContext(expression));
+        assertEquals(OptimizationReport.Backend.INTERPRETED, report.getBackend());
+        assertTrue(report.toString().contains("Evaluation backend: INTERPRETED"));
+    }
+
+    /** Asserts that the compiled expression produces the same value as the interpreted one */
+    private void assertCompiled(String expressionString, Map<String, Double> arguments) throws ParseException {
+        RankingExpression expression = new RankingExpression(expressionString);
+        MapContext interpreted = new MapContext(DoubleValue.NaN);
+        arguments.forEach(interpreted::put);
+        Value expected = expression.evaluate(interpreted);
+
+        ArrayContext context = new ArrayContext(expression, DoubleValue.NaN);
+        OptimizationReport report = new ExpressionOptimizer().optimize(expression, context);
+        assertEquals(expressionString, OptimizationReport.Backend.COMPILED, report.getBackend());
+        Context evaluationContext = context.clone();
+        arguments.forEach((name, value) -> {
+            if ( ! Double.isNaN(value)) // NaN is bound by leaving the value missing, as array contexts require
+                evaluationContext.put(name, value);
+        });
+        assertEquals(expressionString + " with " + arguments,
+                     expected.asDouble(), expression.evaluate(evaluationContext).asDouble(), 1e-9);
+    }
+
+}
@@ -44,6 +44,8 @@ public final class FeedParams {
         private boolean denyIfBusyV3 = true;
         private long maxSleepTimeMs = 3000;
         private boolean silentUpgrade = true;
+        private long targetLatency = 0;
+        private double targetLatencyPercentile = 50;
 
         /**
          * Make server not throw 4xx/5xx for situations that are normal during upgrade as this can esily mask
@@ -171,6 +173,38 @@ public final class FeedParams {
             return this;
         }
 
+        /**
+         * Sets a target latency for operations. When this is set, and dynamic throttling is enabled, the number
+         * of operations in-flight is adjusted to keep the configured percentile of operation latency at this target,
+         * instead of trying to maximize throughput. The default is 0, which means no target.
+         *
+         * @param targetLatency the target latency, or 0 to maximize throughput
+         * @param unit the unit of targetLatency
+         * @return this, for chaining
+         */
+        public Builder setTargetLatency(long targetLatency, TimeUnit unit) {
+            if (targetLatency < 0) {
+                throw new IllegalArgumentException("Target latency must be non-negative, got " + targetLatency);
+            }
+            this.targetLatency = unit.toMillis(targetLatency);
+            return this;
+        }
+
+        /**
+         * Sets the percentile of operation latencies which is kept at the target latency, e.g. 50 for the median
+         * or 99 to keep almost all operations below the target. The default is 50.
+         *
+         * @param percentile the percentile, in the range (0, 100]
+         * @return this, for chaining
+         */
+        public Builder setTargetLatencyPercentile(double percentile) {
+            if (percentile <= 0 || percentile > 100) {
+                throw new IllegalArgumentException("Target latency percentile must be in (0, 100], got " + percentile);
+            }
+            this.targetLatencyPercentile = percentile;
+            return this;
+        }
+
         public Builder setLocalQueueTimeOut(long timeOutMs) {
             this.localQueueTimeOut = timeOutMs;
             return this;
@@ -221,7 +255,7 @@ public final class FeedParams {
             return new FeedParams(
                     dataFormat, serverTimeout, clientTimeout, route,
                     maxChunkSizeBytes, maxInFlightRequests, localQueueTimeOut, priority,
-                    denyIfBusyV3, maxSleepTimeMs, silentUpgrade);
+                    denyIfBusyV3, maxSleepTimeMs, silentUpgrade, targetLatency, targetLatencyPercentile);
         }
 
         public long getClientTimeout(TimeUnit unit) {
@@ -248,6 +282,10 @@ public final class FeedParams {
             return maxInFlightRequests;
         }
 
+        public long getTargetLatency(TimeUnit unit) {
+            return unit.convert(targetLatency, TimeUnit.MILLISECONDS);
+        }
+
     }
 
     // NOTE! See toBuilder at the end of this class if you add fields here
@@ -263,11 +301,13 @@ public final class FeedParams {
     private final boolean denyIfBusyV3;
     private final long maxSleepTimeMs;
     private final boolean silentUpgrade;
+    private final long targetLatencyMillis;
+    private final double targetLatencyPercentile;
 
     private FeedParams(DataFormat dataFormat, long serverTimeout, long clientTimeout, String route,
                        int maxChunkSizeBytes, final int maxInFlightRequests,
                        long localQueueTimeOut, String priority, boolean denyIfBusyV3, long maxSleepTimeMs,
-                       boolean silentUpgrade) {
+                       boolean silentUpgrade, long targetLatencyMillis, double targetLatencyPercentile) {
         this.dataFormat = dataFormat;
         this.serverTimeoutMillis = serverTimeout;
         this.clientTimeoutMillis = clientTimeout;
@@ -279,6 +319,8 @@ public final class FeedParams {
         this.denyIfBusyV3 = denyIfBusyV3;
         this.maxSleepTimeMs = maxSleepTimeMs;
         this.silentUpgrade = silentUpgrade;
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.targetLatencyPercentile = targetLatencyPercentile;
     }
 
     public DataFormat getDataFormat() {
@@ -319,6 +361,16 @@ public final class FeedParams {
         return localQueueTimeOut;
     }
 
+    /** Returns the target latency of operations, or 0 if the number of operations in-flight should maximize throughput */
+    public long getTargetLatency(TimeUnit unit) {
+        return unit.convert(targetLatencyMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Returns the percentile of operation latencies which is kept at the target latency */
+    public double getTargetLatencyPercentile() {
+        return targetLatencyPercentile;
+    }
+
     /** Returns a builder initialized to the values of this */
     public FeedParams.Builder toBuilder() {
         Builder b = new Builder();
@@ -332,6 +384,8 @@ public final class FeedParams {
         b.setDenyIfBusyV3(denyIfBusyV3);
         b.setMaxSleepTimeMs(maxSleepTimeMs);
         b.setSilentUpgrade(silentUpgrade);
+        b.setTargetLatency(targetLatencyMillis, TimeUnit.MILLISECONDS);
+        b.setTargetLatencyPercentile(targetLatencyPercentile);
         return b;
     }
 
@@ -38,7 +38,9 @@ public class FeedClientImpl implements FeedClient {
                         sessionParams.getThrottlerMinSize(),
                         sessionParams.getClientQueueSize(),
                         ()->System.currentTimeMillis(),
-                        new ThrottlePolicy()),
+                        new ThrottlePolicy(),
+                        sessionParams.getFeedParams().getTargetLatency(TimeUnit.MILLISECONDS),
+                        sessionParams.getFeedParams().getTargetLatencyPercentile()),
                 resultCallback,
                 sessionParams,
                 timeoutExecutor);
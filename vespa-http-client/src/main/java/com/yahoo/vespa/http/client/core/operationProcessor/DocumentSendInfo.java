@@ -18,6 +18,7 @@ class DocumentSendInfo {
     // This is lazily populated as normal cases does not require retries.
     private Map<Integer, Integer> attemptedRetriesByClusterId = null;
     private final StringBuilder localTrace;
+    private final long sendTimeMillis = System.currentTimeMillis();
 
     DocumentSendInfo(Document document, boolean traceThisDoc) {
         this.document = document;
@@ -45,6 +46,11 @@ class DocumentSendInfo {
         return detailByClusterId.size();
     }
 
+    /** Returns the time since this operation was first sent */
+    long latencyMillis() {
+        return System.currentTimeMillis() - sendTimeMillis;
+    }
+
     public Result createResult() {
         return new Result(document, detailByClusterId.values(), localTrace);
     }
@@ -3,6 +3,7 @@ package com.yahoo.vespa.http.client.core.operationProcessor;
 
 import com.yahoo.vespa.http.client.core.ThrottlePolicy;
 
+import java.util.Arrays;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -25,6 +26,11 @@ import java.util.concurrent.ThreadLocalRandom;
  * In case the where the queue is moved to minimum size, it will now and then increase queue size to get
  * more sample data and possibly grow size.
  *
+ * If a target latency is given, max in-flight is instead adjusted after each batch of results, by the ratio between
+ * the target latency and a percentile of the observed latency. The ratio is limited to halving or doubling, max
+ * in-flight is never grown to more than twice what was actually in flight, and each change is smoothed with the
+ * previous value.
+ *
  * Class is fully thread safe, i.e. all public methods are thread safe.
  *
  * @author dybis
@@ -35,6 +41,8 @@ public class IncompleteResultsThrottler {
     private final int maxInFlightValue;
     private final int minInFlightValue;
     private final ThrottlePolicy policy;
+    private final long targetLatencyMs;
+    private final double targetLatencyPercentile;
 
     // 9-11 seconds with some randomness to avoid fully synchronous feeders.
     public final long phaseSizeMs = 9000 + (ThreadLocalRandom.current().nextInt() % 2000);
@@ -50,9 +58,14 @@ public class IncompleteResultsThrottler {
     private int numOk = 0;
     private int minWindowSizeCounter = 0;
     private int minPermitsAvailable = 0;
+    private long[] latencySamples = new long[MIN_LATENCY_SAMPLES];
+    private int numLatencySamples = 0;
+    private int maxInFlightInBatch = 0;
+    private double latencyWindowSize;
 
     protected static int INITIAL_MAX_IN_FLIGHT_VALUE = 200;
     protected static int SECOND_MAX_IN_FLIGHT_VALUE = 270;
+    private static final int MIN_LATENCY_SAMPLES = 64;
     private StringBuilder debugMessage = new StringBuilder();
 
     /**
@@ -63,14 +76,32 @@ public class IncompleteResultsThrottler {
      * @param policy is the algorithm for finding next value of the number of in-flight documents operations.
      */
     public IncompleteResultsThrottler(int minInFlightValue, int maxInFlightValue, Clock clock, ThrottlePolicy policy) {
+        this(minInFlightValue, maxInFlightValue, clock, policy, 0, 50);
+    }
+
+    /**
+     * Creates the throttler.
+     * @param minInFlightValue the throttler will never throttle beyond this limit.
+     * @param maxInFlightValue the throttler will never throttle above this limit. If zero, no limit.
+     * @param clock use to calculate window size. Can be null if minWindowSize and maxInFlightValue are equal.
+     * @param policy is the algorithm for finding next value of the number of in-flight documents operations.
+     * @param targetLatencyMs if positive, the number of in-flight operations is adjusted to keep operation
+     *                        latency at this target instead of using the policy.
+     * @param targetLatencyPercentile the percentile of operation latencies to keep at the target latency.
+     */
+    public IncompleteResultsThrottler(int minInFlightValue, int maxInFlightValue, Clock clock, ThrottlePolicy policy,
+                                      long targetLatencyMs, double targetLatencyPercentile) {
         this.maxInFlightValue = maxInFlightValue == 0 ? Integer.MAX_VALUE : maxInFlightValue;
         this.minInFlightValue = minInFlightValue == 0 ? this.maxInFlightValue : minInFlightValue;
         this.policy = policy;
         this.clock = clock;
+        this.targetLatencyMs = targetLatencyMs;
+        this.targetLatencyPercentile = targetLatencyPercentile;
         if (minInFlightValue != maxInFlightValue) {
             this.sampleStartTimeMs = clock.getTimeMillis();
         }
         setNewSemaphoreSize(INITIAL_MAX_IN_FLIGHT_VALUE);
+        this.latencyWindowSize = maxInFlightNow;
     }
 
     public int availableCapacity() {
@@ -83,7 +114,7 @@ public class IncompleteResultsThrottler {
         } catch (InterruptedException e) {
             // Ignore
         }
-        if (maxInFlightValue != minInFlightValue) {
+        if (maxInFlightValue != minInFlightValue && ! targetsLatency()) {
             synchronized (monitor) {
                 adjustThrottling();
             }
@@ -101,7 +132,22 @@ public class IncompleteResultsThrottler {
     }
 
     public void resultReady(boolean success) {
+        resultReady(success, -1);
+    }
+
+    /**
+     * Signals that an operation is done.
+     * @param success whether the operation was successful.
+     * @param latencyMs the time from the operation was sent until this result, or negative if unknown.
+     */
+    public void resultReady(boolean success, long latencyMs) {
+        int inFlight = maxInFlightNow - blocker.availablePermits();
         blocker.operationDone();
+        if (targetsLatency() && latencyMs >= 0) {
+            synchronized (monitor) {
+                addLatencySample(latencyMs, inFlight);
+            }
+        }
         if (!success) {
             return;
         }
@@ -111,6 +157,40 @@ public class IncompleteResultsThrottler {
         }
     }
 
+    private boolean targetsLatency() {
+        return targetLatencyMs > 0 && maxInFlightValue != minInFlightValue;
+    }
+
+    private void addLatencySample(long latencyMs, int inFlight) {
+        if (numLatencySamples == latencySamples.length) {
+            latencySamples = Arrays.copyOf(latencySamples, latencySamples.length * 2);
+        }
+        latencySamples[numLatencySamples++] = latencyMs;
+        maxInFlightInBatch = Math.max(maxInFlightInBatch, inFlight);
+        if (numLatencySamples < Math.max(MIN_LATENCY_SAMPLES, maxInFlightNow)) {
+            return;
+        }
+        Arrays.sort(latencySamples, 0, numLatencySamples);
+        int index = (int) Math.ceil(targetLatencyPercentile / 100 * numLatencySamples) - 1;
+        long observedLatencyMs = latencySamples[Math.max(0, Math.min(numLatencySamples - 1, index))];
+        numLatencySamples = 0;
+
+        double gradient = Math.max(0.5, Math.min(2.0, (double) targetLatencyMs / Math.max(1, observedLatencyMs)));
+        double candidate = latencyWindowSize * gradient;
+        if (candidate > latencyWindowSize) {
+            candidate = Math.max(latencyWindowSize, Math.min(candidate, 2.0 * maxInFlightInBatch));
+        }
+        maxInFlightInBatch = 0;
+        latencyWindowSize = Math.max(minInFlightValue, Math.min(maxInFlightValue, (latencyWindowSize + candidate) / 2));
+
+        debugMessage = new StringBuilder();
+        debugMessage.append("maxInFlightNow: " + maxInFlightNow
+                + " observed latency: " + observedLatencyMs + " target latency: " + targetLatencyMs
+                + " new size is: " + (int) latencyWindowSize);
+        maxInFlightNow = (int) latencyWindowSize;
+        blocker.setMaxConcurrency(maxInFlightNow);
+    }
+
     // Only for testing
     protected int waitingThreads() {
         synchronized (monitor) {
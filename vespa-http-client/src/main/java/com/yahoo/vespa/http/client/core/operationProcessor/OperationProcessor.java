@@ -151,6 +151,7 @@ public class OperationProcessor {
 
     private Result process(EndpointResult endpointResult, int clusterId) {
         Result result;
+        long latencyMillis;
         Document blockedDocumentToSend = null;
         synchronized (monitor) {
             if (!docSendInfoByOperationId.containsKey(endpointResult.getOperationId())) {
@@ -168,6 +169,7 @@ public class OperationProcessor {
             if (documentSendInfo.detailCount() != numDestinations) return null;
 
             result = documentSendInfo.createResult();
+            latencyMillis = documentSendInfo.latencyMillis();
             docSendInfoByOperationId.remove(endpointResult.getOperationId());
 
             String documentId = documentSendInfo.getDocument().getDocumentId();
@@ -180,6 +182,7 @@ public class OperationProcessor {
                 blockedDocumentToSend = blockedDocuments.remove(0);
             }
         }
+        incompleteResultsThrottler.resultReady(result.isSuccess(), latencyMillis);
         if (blockedDocumentToSend != null) {
             sendToClusters(blockedDocumentToSend);
         }
@@ -189,7 +192,6 @@ public class OperationProcessor {
     public void resultReceived(EndpointResult endpointResult, int clusterId) {
         Result result = process(endpointResult, clusterId);
         if (result != null) {
-            incompleteResultsThrottler.resultReady(result.isSuccess());
             resultCallback.onCompletion(result.getDocumentId(), result);
             if (traceToStderr && result.hasLocalTrace()) {
                 System.err.println(result.toString());
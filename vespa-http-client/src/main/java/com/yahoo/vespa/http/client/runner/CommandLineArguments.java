@@ -164,6 +164,11 @@ public class CommandLineArguments {
             description = "Try to maximize throughput by using dynamic throttling.")
     private boolean useDynamicThrottlingArg = false;
 
+    @Option(name = {"--targetLatency"},
+            description = "With dynamic throttling, adjust the number of pending operations to keep the median " +
+                          "operation latency at this number of milliseconds, instead of maximizing throughput.")
+    private long targetLatencyMsArg = 0;
+
     @Option(name = {"--maxpending"},
             description = "The maximum number of operations that are allowed " +
                     "to be pending at any given time.")
@@ -273,6 +278,7 @@ public class CommandLineArguments {
                                 .setLocalQueueTimeOut(timeoutArg * 1000)
                                 .setPriority(priorityArg)
                                 .setMaxChunkSizeBytes(maxChunkSizeBytes)
+                                .setTargetLatency(targetLatencyMsArg, TimeUnit.MILLISECONDS)
                                 .build()
                 )
                 .setConnectionParams(
@@ -34,6 +34,24 @@ public class IncompleteResultsThrottlerTest {
         assertThat(incompleteResultsThrottler.waitingThreads(), is(0));
     }
 
+    @Test
+    public void targetLatencyQueueSizeTest() {
+        IncompleteResultsThrottler throttler = new IncompleteResultsThrottler(1, 50000, () -> 0, new ThrottlePolicy(), 300, 50);
+        // A server handling 100 operations in parallel in 100 ms, and queueing the rest.
+        for (int round = 0; round < 500; round++) {
+            int inFlight = throttler.availableCapacity();
+            for (int i = 0; i < inFlight; i++) {
+                throttler.operationStart();
+            }
+            long latencyMs = 100L * Math.max(100, inFlight) / 100;
+            for (int i = 0; i < inFlight; i++) {
+                throttler.resultReady(true, latencyMs);
+            }
+        }
+        int size = throttler.availableCapacity();
+        assertTrue("Size " + size + " should be close to 300", size >= 280 && size <= 320);
+    }
+
     /**
      * Simulate running requests.
      * @param clientCount number of parallel clients.
@@ -289,6 +289,10 @@ class ClientFeederV3 {
                     MetricNames.PENDING,
                     Double.valueOf(sourceSession.getResource().session().getPendingCount()),
                     null);
+            metric.set(
+                    MetricNames.SEQUENCED_QUEUED,
+                    Double.valueOf(sourceSession.getResource().session().getSequencedQueueCount()),
+                    null);
         }
 
         DocumentOperationMessageV3 message = DocumentOperationMessageV3.create(operation, operationId, metric);
@@ -6,10 +6,12 @@ import com.yahoo.document.DocumentRemove;
 import com.yahoo.document.DocumentUpdate;
 import com.yahoo.documentapi.messagebus.protocol.PutDocumentMessage;
 import com.yahoo.documentapi.messagebus.protocol.RemoveDocumentMessage;
+import com.yahoo.documentapi.messagebus.protocol.RoutableFactories60;
 import com.yahoo.documentapi.messagebus.protocol.UpdateDocumentMessage;
 import com.yahoo.jdisc.Metric;
 import com.yahoo.messagebus.Message;
 import com.yahoo.vespaxmlparser.FeedOperation;
+import com.yahoo.vespaxmlparser.SerializedDocumentFeedOperation;
 
 /**
  * Keeps an operation with its message.
@@ -20,6 +22,8 @@ import com.yahoo.vespaxmlparser.FeedOperation;
  */
 class DocumentOperationMessageV3 {
 
+    private static final RoutableFactories60.PutDocumentMessageFactory putFactory = new RoutableFactories60.PutDocumentMessageFactory();
+
     private final String operationId;
     private final Message message;
 
@@ -54,7 +58,18 @@ class DocumentOperationMessageV3 {
         return new DocumentOperationMessageV3(id, msg);
     }
 
+    private static DocumentOperationMessageV3 newSerializedPutMessage(SerializedDocumentFeedOperation op, String operationId) {
+        Message msg = putFactory.createSerialized(op.getDocumentTypeManager(), op.getDocumentId(),
+                                                  op.getSerializedDocument(), op.getCondition());
+
+        String id = (operationId == null) ? op.getDocumentId().toString() : operationId;
+        return new DocumentOperationMessageV3(id, msg);
+    }
+
     private static DocumentOperationMessageV3 newPutMessage(FeedOperation op, String operationId) {
+        if (op instanceof SerializedDocumentFeedOperation)
+            return newSerializedPutMessage((SerializedDocumentFeedOperation) op, operationId);
+
         DocumentPut put = new DocumentPut(op.getDocument());
         put.setCondition(op.getCondition());
         Message msg = new PutDocumentMessage(put);
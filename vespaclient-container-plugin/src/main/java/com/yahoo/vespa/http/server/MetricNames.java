@@ -21,6 +21,7 @@ public final class MetricNames {
     public static final String PARSE_ERROR = PREFIX + "parse_error";
     public static final String SUCCEEDED = PREFIX + "succeeded";
     public static final String PENDING = PREFIX + "pending";
+    public static final String SEQUENCED_QUEUED = PREFIX + "sequenced_queued";
 
     private MetricNames() {
     }
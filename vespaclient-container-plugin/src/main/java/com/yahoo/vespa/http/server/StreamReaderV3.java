@@ -3,11 +3,14 @@ package com.yahoo.vespa.http.server;
 
 import com.yahoo.container.jdisc.HttpRequest;
 import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.json.SerializingPutReader;
+import com.yahoo.vespa.http.client.config.FeedParams;
 import com.yahoo.vespa.http.client.core.Encoder;
 import com.yahoo.vespa.http.server.util.ByteLimitedInputStream;
 import com.yahoo.vespaxmlparser.FeedOperation;
 import com.yahoo.vespaxmlparser.FeedReader;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Optional;
@@ -24,22 +27,35 @@ public class StreamReaderV3 {
 
     private final FeedReaderFactory feedReaderFactory;
     private final DocumentTypeManager docTypeManager;
+    private final SerializingPutReader putReader;
 
     public StreamReaderV3(FeedReaderFactory feedReaderFactory, DocumentTypeManager docTypeManager) {
         this.feedReaderFactory = feedReaderFactory;
         this.docTypeManager = docTypeManager;
+        this.putReader = new SerializingPutReader(docTypeManager);
     }
 
+    /**
+     * Reads the next operation. JSON puts are read directly into a serialized document when possible,
+     * while everything else is read by a {@link FeedReader}.
+     */
     public FeedOperation getNextOperation(InputStream requestInputStream, FeederSettings settings) throws Exception {
-        FeedOperation op = null;
-
         int length = readByteLength(requestInputStream);
 
-        try (InputStream limitedInputStream = new ByteLimitedInputStream(requestInputStream, length)){
-            FeedReader reader = feedReaderFactory.createReader(limitedInputStream, docTypeManager, settings.dataFormat);
-            op = reader.read();
+        if (settings.dataFormat == FeedParams.DataFormat.JSON_UTF8) {
+            byte[] data = requestInputStream.readNBytes(length);
+            Optional<? extends FeedOperation> put = putReader.read(data, 0, data.length);
+            if (put.isPresent()) return put.get();
+            return read(new ByteArrayInputStream(data), settings);
+        }
+        return read(new ByteLimitedInputStream(requestInputStream, length), settings);
+    }
+
+    private FeedOperation read(InputStream operationInputStream, FeederSettings settings) throws Exception {
+        try (InputStream in = operationInputStream) {
+            FeedReader reader = feedReaderFactory.createReader(in, docTypeManager, settings.dataFormat);
+            return reader.read();
         }
-        return op;
     }
 
     public Optional<String> getNextOperationId(InputStream requestInputStream) throws IOException {
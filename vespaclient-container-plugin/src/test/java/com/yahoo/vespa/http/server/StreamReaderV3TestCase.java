@@ -0,0 +1,65 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.http.server;
+
+import com.yahoo.container.jdisc.HttpRequest;
+import com.yahoo.document.DataType;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.text.Utf8;
+import com.yahoo.vespa.http.client.config.FeedParams;
+import com.yahoo.vespa.http.client.core.Headers;
+import com.yahoo.vespaxmlparser.FeedOperation;
+import com.yahoo.vespaxmlparser.SerializedDocumentFeedOperation;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StreamReaderV3TestCase {
+
+    private final DocumentTypeManager manager = new DocumentTypeManager();
+    private final StreamReaderV3 reader = new StreamReaderV3(new FeedReaderFactory(false), manager);
+
+    public StreamReaderV3TestCase() {
+        DocumentType type = new DocumentType("music");
+        type.addField(new Field("year", DataType.INT));
+        manager.registerDocumentType(type);
+    }
+
+    @Test
+    public void requireThatJsonPutsAreReadAsSerializedDocuments() throws Exception {
+        InputStream in = stream("[{\"put\": \"id:ns:music::1\", \"fields\": {\"year\": 1959}}]",
+                                "[{\"update\": \"id:ns:music::1\", \"fields\": {\"year\": {\"assign\": 1960}}}]");
+        FeederSettings settings = jsonSettings();
+
+        FeedOperation put = reader.getNextOperation(in, settings);
+        assertTrue(put instanceof SerializedDocumentFeedOperation);
+        assertEquals(new IntegerFieldValue(1959), put.getDocument().getFieldValue("year"));
+
+        FeedOperation update = reader.getNextOperation(in, settings);
+        assertFalse(update instanceof SerializedDocumentFeedOperation);
+        assertEquals(FeedOperation.Type.UPDATE, update.getType());
+        assertEquals("id:ns:music::1", update.getDocumentUpdate().getId().toString());
+    }
+
+    private static InputStream stream(String ... operations) {
+        StringBuilder feed = new StringBuilder();
+        for (String operation : operations)
+            feed.append(Integer.toHexString(Utf8.toBytes(operation).length)).append('\n').append(operation);
+        return new ByteArrayInputStream(Utf8.toBytes(feed.toString()));
+    }
+
+    private static FeederSettings jsonSettings() {
+        HttpRequest request = HttpRequest.createTestRequest("http://foo.bar:19020/reserved-for-internal-use/feedapi",
+                                                            com.yahoo.jdisc.http.HttpRequest.Method.POST);
+        request.getJDiscRequest().headers().add(Headers.DATA_FORMAT, FeedParams.DataFormat.JSON_UTF8.name());
+        return new FeederSettings(request);
+    }
+
+}
@@ -6,6 +6,7 @@ import com.yahoo.messagebus.DynamicThrottlePolicy;
 import com.yahoo.messagebus.RateThrottlingPolicy;
 import com.yahoo.messagebus.SourceSessionParams;
 import com.yahoo.messagebus.StaticThrottlePolicy;
+import com.yahoo.messagebus.TargetLatencyThrottlePolicy;
 import com.yahoo.messagebus.network.rpc.RPCNetworkParams;
 import com.yahoo.vespaclient.config.FeederConfig;
 
@@ -24,6 +25,8 @@ public class FeederOptions {
     private double timeout = 60;
     private int maxPendingDocs = 0;
     private double maxFeedRate = 0.0;
+    private double targetLatency = 0.0;
+    private double targetLatencyPercentile = 50.0;
     private String route = "default";
     private int traceLevel;
     private int mbusPort;
@@ -45,12 +48,23 @@ public class FeederOptions {
         setTraceLevel(config.tracelevel());
         setMessageBusPort(config.mbusport());
         setMaxFeedRate(config.maxfeedrate());
+        setTargetLatency(config.targetlatency());
+        setTargetLatencyPercentile(config.targetlatencypercentile());
     }
 
     void setMaxFeedRate(double feedRate) {
         maxFeedRate = feedRate;
     }
 
+    /** Sets the reply latency, in seconds, to keep the number of pending operations at, or 0 to maximize throughput */
+    void setTargetLatency(double targetLatency) {
+        this.targetLatency = targetLatency;
+    }
+
+    void setTargetLatencyPercentile(double targetLatencyPercentile) {
+        this.targetLatencyPercentile = targetLatencyPercentile;
+    }
+
     boolean getRetryEnabled() {
         return retryEnabled;
     }
@@ -125,6 +139,9 @@ public class FeederOptions {
         StaticThrottlePolicy policy;
         if (maxFeedRate > 0.0) {
             policy = new RateThrottlingPolicy(maxFeedRate);
+        } else if (targetLatency > 0.0) {
+            policy = new TargetLatencyThrottlePolicy().setTargetLatency(Math.max(1, (long)(targetLatency * 1000)))
+                                                      .setLatencyPercentile(targetLatencyPercentile);
         } else if (maxPendingDocs == 0) {
             policy = new DynamicThrottlePolicy();
         } else {
@@ -161,6 +178,8 @@ public class FeederOptions {
                ", retryEnabled=" + retryEnabled +
                ", timeout=" + timeout +
                ", maxPendingDocs=" + maxPendingDocs +
+               ", targetLatency=" + targetLatency +
+               ", targetLatencyPercentile=" + targetLatencyPercentile +
                ", route='" + route + '\'' +
                ", traceLevel=" + traceLevel +
                ", mbusPort=" + mbusPort +
@@ -179,6 +198,8 @@ public class FeederOptions {
         if (abortOnSendError != that.abortOnSendError) return false;
         if (maxPendingDocs != that.maxPendingDocs) return false;
         if (maxFeedRate != that.maxFeedRate) return false;
+        if (Double.compare(that.targetLatency, targetLatency) != 0) return false;
+        if (Double.compare(that.targetLatencyPercentile, targetLatencyPercentile) != 0) return false;
         if (mbusPort != that.mbusPort) return false;
         if (retryEnabled != that.retryEnabled) return false;
         if (Double.compare(that.timeout, timeout) != 0) return false;
@@ -200,6 +221,8 @@ public class FeederOptions {
         result = 31 * result + (int) (temp ^ (temp >>> 32));
         result = 31 * result + maxPendingDocs;
         result = 31 * result + ((int)(maxFeedRate * 1000));
+        result = 31 * result + ((int)(targetLatency * 1000));
+        result = 31 * result + ((int)(targetLatencyPercentile * 1000));
         result = 31 * result + (route != null ? route.hashCode() : 0);
         result = 31 * result + traceLevel;
         result = 31 * result + mbusPort;
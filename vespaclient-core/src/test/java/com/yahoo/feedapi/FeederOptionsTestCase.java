@@ -1,8 +1,11 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.feedapi;
 
+import com.yahoo.messagebus.DynamicThrottlePolicy;
+import com.yahoo.messagebus.TargetLatencyThrottlePolicy;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -70,4 +73,17 @@ public class FeederOptionsTestCase {
         assertTrue(f1.hashCode() != f2.hashCode());
     }
 
+    @Test
+    public void testTargetLatencySelectsThrottlePolicy() {
+        FeederOptions options = new FeederOptions();
+        assertTrue(options.toSourceSessionParams().getThrottlePolicy() instanceof DynamicThrottlePolicy);
+
+        options.setTargetLatency(0.2);
+        options.setTargetLatencyPercentile(99);
+        TargetLatencyThrottlePolicy policy = (TargetLatencyThrottlePolicy)options.toSourceSessionParams().getThrottlePolicy();
+        assertEquals(200, policy.getTargetLatency());
+        assertEquals(99, policy.getLatencyPercentile(), 0);
+        assertFalse(options.equals(new FeederOptions()));
+    }
+
 }
@@ -134,6 +134,24 @@ public class Compressor {
                 throw new IllegalArgumentException(compression + " is not supported");
         }
     }
+
+    /**
+     * Decompresses into the given buffer, which must have room for the uncompressed data,
+     * to avoid allocating a new array for each decompression.
+     */
+    public void decompress(CompressionType compression, byte[] compressedData, int uncompressedSize, byte[] target) {
+        switch (compression) {
+            case NONE: case INCOMPRESSIBLE:
+                System.arraycopy(compressedData, 0, target, 0, uncompressedSize);
+                break;
+            case LZ4:
+                factory.fastDecompressor().decompress(compressedData, 0, target, 0, uncompressedSize);
+                break;
+            default:
+                throw new IllegalArgumentException(compression + " is not supported");
+        }
+    }
+
     /** Decompresses some data */
     public byte[] decompress(byte[] compressedData, CompressionType compressionType, int uncompressedSize) {
         return decompress(compressionType, compressedData, 0, uncompressedSize, Optional.empty());
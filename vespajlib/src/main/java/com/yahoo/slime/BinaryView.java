@@ -0,0 +1,341 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.slime;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static com.yahoo.slime.BinaryFormat.decode_double;
+import static com.yahoo.slime.BinaryFormat.decode_meta;
+import static com.yahoo.slime.BinaryFormat.decode_type;
+import static com.yahoo.slime.BinaryFormat.decode_zigzag;
+
+/**
+ * A read-only inspector of binary slime data which does not decode the values into a Slime object.
+ * A single pass over the data records where each value is located, and values are then decoded from
+ * the underlying bytes only when they are accessed. This is cheaper than decoding everything up front
+ * when only some of the data is used, or when it is just passed through to some other format.
+ *
+ * The given byte array is referenced, not copied, and must not be modified after creating a view of it.
+ */
+public final class BinaryView implements Inspector {
+
+    private static final String emptyString = "";
+    private static final byte[] emptyData = new byte[0];
+
+    private final byte[] data;
+    private final SymbolTable names;
+    private final DecodeIndex index;
+    private final int self;
+
+    private BinaryView(byte[] data, SymbolTable names, DecodeIndex index, int self) {
+        this.data = data;
+        this.names = names;
+        this.index = index;
+        this.self = self;
+    }
+
+    /**
+     * Returns an inspector of the root value of the given binary slime data.
+     * If the data can not be indexed without problems, this returns the result of
+     * {@link BinaryFormat#decode(byte[])} instead, which contains the details.
+     */
+    public static Inspector inspect(byte[] data) {
+        BinaryDecoder decoder = new BinaryDecoder();
+        decoder.in = new BufferedInput(data);
+        SymbolTable names = new SymbolTable();
+        decodeSymbolTable(decoder, names);
+        DecodeIndex index = new DecodeIndex(data.length);
+        int root = index.reserve(1);
+        indexValue(decoder, index, root, SymbolTable.INVALID);
+        if (decoder.in.failed()) {
+            return BinaryFormat.decode(data).get();
+        }
+        return new BinaryView(data, names, index, root);
+    }
+
+    private static void decodeSymbolTable(BinaryDecoder decoder, SymbolTable names) {
+        long numSymbols = decoder.read_cmpr_long();
+        byte [] backing = decoder.in.getBacking();
+        for (int i = 0; i < numSymbols && ! decoder.in.failed(); ++i) {
+            int size = (int)decoder.read_cmpr_long();
+            int offset = decoder.in.getPosition();
+            decoder.in.skip(size);
+            if (names.insert(Utf8Codec.decode(backing, offset, size)) != i) {
+                decoder.in.fail("duplicate symbols in symbol table");
+            }
+        }
+    }
+
+    private static void indexValue(BinaryDecoder decoder, DecodeIndex index, int value, int symbol) {
+        byte tag = decoder.in.getByte();
+        int meta = decode_meta(tag);
+        index.tags[value] = tag;
+        index.symbols[value] = symbol;
+        switch (decode_type(tag)) {
+            case LONG:
+            case DOUBLE:
+                index.offsets[value] = decoder.in.getPosition();
+                decoder.in.skip(meta);
+                break;
+            case STRING:
+            case DATA: {
+                int size = readSize(decoder, meta);
+                index.offsets[value] = decoder.in.getPosition();
+                index.sizes[value] = size;
+                decoder.in.skip(size);
+                break;
+            }
+            case ARRAY: {
+                int size = readSize(decoder, meta);
+                int first = index.reserve(size);
+                index.offsets[value] = first;
+                index.sizes[value] = size;
+                for (int i = 0; i < size; i++)
+                    indexValue(decoder, index, first + i, SymbolTable.INVALID);
+                break;
+            }
+            case OBJECT: {
+                int size = readSize(decoder, meta);
+                int first = index.reserve(size);
+                index.offsets[value] = first;
+                index.sizes[value] = size;
+                for (int i = 0; i < size; i++)
+                    indexValue(decoder, index, first + i, (int)decoder.read_cmpr_long());
+                break;
+            }
+        }
+    }
+
+    /** Reads a size which can not be larger than the remaining data, as each element occupies at least one byte */
+    private static int readSize(BinaryDecoder decoder, int meta) {
+        long size = decoder.read_size(meta);
+        int remaining = decoder.in.getBacking().length - decoder.in.getPosition();
+        if (size > remaining) {
+            decoder.in.fail("size " + size + " exceeds remaining input");
+            return 0;
+        }
+        return (int)size;
+    }
+
+    private Type typeOf(int value) { return decode_type(index.tags[value]); }
+
+    private int meta() { return decode_meta(index.tags[self]); }
+
+    private int offset() { return index.offsets[self]; }
+
+    private int size() { return index.sizes[self]; }
+
+    private Inspector child(int value) { return new BinaryView(data, names, index, value); }
+
+    private long readBytesLittleEndian(int offset, int bytes) {
+        long value = 0;
+        for (int i = 0, shift = 0; i < bytes; ++i, shift += 8)
+            value |= (data[offset + i] & 0xffL) << shift;
+        return value;
+    }
+
+    private long readBytesBigEndian(int offset, int bytes) {
+        long value = 0;
+        for (int i = 0, shift = 56; i < bytes; ++i, shift -= 8)
+            value |= (data[offset + i] & 0xffL) << shift;
+        return value;
+    }
+
+    @Override
+    public boolean valid() { return true; }
+
+    @Override
+    public Type type() { return typeOf(self); }
+
+    @Override
+    public int children() { return (type() == Type.ARRAY || type() == Type.OBJECT) ? size() : 0; }
+
+    @Override
+    public int entries() { return (type() == Type.ARRAY) ? size() : 0; }
+
+    @Override
+    public int fields() { return (type() == Type.OBJECT) ? size() : 0; }
+
+    @Override
+    public boolean asBool() { return (type() == Type.BOOL) && meta() != 0; }
+
+    @Override
+    public long asLong() {
+        switch (type()) {
+            case LONG: return decode_zigzag(readBytesLittleEndian(offset(), meta()));
+            case DOUBLE: return (long)asDouble();
+            default: return 0;
+        }
+    }
+
+    @Override
+    public double asDouble() {
+        switch (type()) {
+            case LONG: return (double)asLong();
+            case DOUBLE: return decode_double(readBytesBigEndian(offset(), meta()));
+            default: return 0.0;
+        }
+    }
+
+    @Override
+    public String asString() {
+        if (type() != Type.STRING) return emptyString;
+        return Utf8Codec.decode(data, offset(), size());
+    }
+
+    @Override
+    public byte[] asUtf8() {
+        if (type() != Type.STRING) return emptyData;
+        return Arrays.copyOfRange(data, offset(), offset() + size());
+    }
+
+    @Override
+    public byte[] asData() {
+        if (type() != Type.DATA) return emptyData;
+        return Arrays.copyOfRange(data, offset(), offset() + size());
+    }
+
+    @Override
+    public void accept(Visitor v) {
+        switch (type()) {
+            case NIX: v.visitNix(); break;
+            case BOOL: v.visitBool(asBool()); break;
+            case LONG: v.visitLong(asLong()); break;
+            case DOUBLE: v.visitDouble(asDouble()); break;
+            case STRING: v.visitString(asUtf8()); break;
+            case DATA: v.visitData(asData()); break;
+            case ARRAY: v.visitArray(this); break;
+            case OBJECT: v.visitObject(this); break;
+        }
+    }
+
+    @Override
+    public void traverse(ArrayTraverser at) {
+        if (type() != Type.ARRAY) return;
+        for (int i = 0; i < size(); i++)
+            at.entry(i, child(offset() + i));
+    }
+
+    @Override
+    public void traverse(ObjectSymbolTraverser ot) {
+        if (type() != Type.OBJECT) return;
+        for (int i = 0; i < size(); i++)
+            ot.field(index.symbols[offset() + i], child(offset() + i));
+    }
+
+    @Override
+    public void traverse(ObjectTraverser ot) {
+        if (type() != Type.OBJECT) return;
+        for (int i = 0; i < size(); i++)
+            ot.field(names.inspect(index.symbols[offset() + i]), child(offset() + i));
+    }
+
+    @Override
+    public Inspector entry(int idx) {
+        if (type() != Type.ARRAY || idx < 0 || idx >= size()) return NixValue.invalid();
+        return child(offset() + idx);
+    }
+
+    @Override
+    public Inspector field(int sym) {
+        if (type() != Type.OBJECT || sym == SymbolTable.INVALID) return NixValue.invalid();
+        for (int i = 0; i < size(); i++) {
+            if (index.symbols[offset() + i] == sym)
+                return child(offset() + i);
+        }
+        return NixValue.invalid();
+    }
+
+    @Override
+    public Inspector field(String name) {
+        if (type() != Type.OBJECT) return NixValue.invalid();
+        return field(names.lookup(name));
+    }
+
+    @Override
+    public boolean equalTo(Inspector that) {
+        if (type() != that.type()) return false;
+        switch (type()) {
+            case NIX: return that.valid();
+            case BOOL: return asBool() == that.asBool();
+            case LONG: return asLong() == that.asLong();
+            case DOUBLE: return Double.compare(asDouble(), that.asDouble()) == 0;
+            case STRING: return asString().equals(that.asString());
+            case DATA: return Arrays.equals(asData(), that.asData());
+            case ARRAY: {
+                if (entries() != that.entries()) return false;
+                for (int i = 0; i < entries(); i++) {
+                    if ( ! entry(i).equalTo(that.entry(i))) return false;
+                }
+                return true;
+            }
+            case OBJECT: {
+                if (fields() != that.fields()) return false;
+                for (int i = 0; i < size(); i++) {
+                    String name = names.inspect(index.symbols[offset() + i]);
+                    if ( ! child(offset() + i).equalTo(that.field(name))) return false;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        try {
+            ByteArrayOutputStream a = new ByteArrayOutputStream();
+            new JsonFormat(true).encode(a, this);
+            byte[] utf8 = a.toByteArray();
+            return Utf8Codec.decode(utf8, 0, utf8.length);
+        } catch (Exception e) {
+            return "null";
+        }
+    }
+
+    /**
+     * The location of each value in the data. Values are numbered in the order they are reached,
+     * except that the children of each array and object are given consecutive numbers, such that
+     * the children of a value can be found from the number of the first child and the count.
+     */
+    private static final class DecodeIndex {
+
+        /** The type and meta byte of each value */
+        byte[] tags;
+
+        /** The data offset of the bytes of leaf values, and the number of the first child of containers */
+        int[] offsets;
+
+        /** The number of bytes of strings and data, and the number of children of containers */
+        int[] sizes;
+
+        /** The symbol of each object field */
+        int[] symbols;
+
+        private int used = 0;
+
+        DecodeIndex(int dataSize) {
+            int capacity = Math.max(16, dataSize / 8);
+            tags = new byte[capacity];
+            offsets = new int[capacity];
+            sizes = new int[capacity];
+            symbols = new int[capacity];
+        }
+
+        /** Reserves numbers for the given number of values and returns the first */
+        int reserve(int count) {
+            if (used + count > tags.length) {
+                int capacity = Math.max(tags.length * 2, used + count);
+                tags = Arrays.copyOf(tags, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+                symbols = Arrays.copyOf(symbols, capacity);
+            }
+            int first = used;
+            used += count;
+            return first;
+        }
+
+    }
+
+}
@@ -28,6 +28,27 @@ class IndexedDoubleTensor extends IndexedTensor {
     @Override
     public float getFloat(long valueIndex) { return (float)get(valueIndex); }
 
+    @Override
+    public double dotProduct(long offset, IndexedTensor other, long otherOffset, long length) {
+        if ( ! (other instanceof IndexedDoubleTensor)) return super.dotProduct(offset, other, otherOffset, length);
+        return dotProduct(values, (int)offset, ((IndexedDoubleTensor)other).values, (int)otherOffset, (int)length);
+    }
+
+    /** Computes a dot product using four independent sums, to let the processor overlap the additions */
+    private static double dotProduct(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            sum0 += a[aOffset + i] * b[bOffset + i];
+            sum1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            sum2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            sum3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++)
+            sum0 += a[aOffset + i] * b[bOffset + i];
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
     @Override
     public IndexedTensor withType(TensorType type) {
         throwOnIncompatibleType(type);
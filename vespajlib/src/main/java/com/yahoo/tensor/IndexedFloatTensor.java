@@ -28,6 +28,30 @@ class IndexedFloatTensor extends IndexedTensor {
     @Override
     public float getFloat(long valueIndex) { return values[(int)valueIndex]; }
 
+    @Override
+    public double dotProduct(long offset, IndexedTensor other, long otherOffset, long length) {
+        if ( ! (other instanceof IndexedFloatTensor)) return super.dotProduct(offset, other, otherOffset, length);
+        return dotProduct(values, (int)offset, ((IndexedFloatTensor)other).values, (int)otherOffset, (int)length);
+    }
+
+    /**
+     * Computes a dot product using four independent sums, to let the processor overlap the additions.
+     * Products and sums are computed as doubles, as when the values are read as doubles.
+     */
+    private static double dotProduct(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            sum0 += (double)a[aOffset + i] * b[bOffset + i];
+            sum1 += (double)a[aOffset + i + 1] * b[bOffset + i + 1];
+            sum2 += (double)a[aOffset + i + 2] * b[bOffset + i + 2];
+            sum3 += (double)a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++)
+            sum0 += (double)a[aOffset + i] * b[bOffset + i];
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
     @Override
     public IndexedTensor withType(TensorType type) {
         throwOnIncompatibleType(type);
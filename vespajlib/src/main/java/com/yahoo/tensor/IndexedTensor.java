@@ -134,6 +134,22 @@ public abstract class IndexedTensor implements Tensor {
      */
     public abstract float getFloat(long valueIndex);
 
+    /**
+     * Returns the sum of the products of the values in a range of this and a range of the given tensor:
+     * The sum over i in [0, length) of get(offset + i) * other.get(otherOffset + i).
+     *
+     * @param offset the <i>standard value order</i> index of the first value of this to use
+     * @param other the tensor to multiply by
+     * @param otherOffset the <i>standard value order</i> index of the first value of the other tensor to use
+     * @param length the number of values to multiply and sum
+     */
+    public double dotProduct(long offset, IndexedTensor other, long otherOffset, long length) {
+        double sum = 0;
+        for (long i = 0; i < length; i++)
+            sum += get(offset + i) * other.get(otherOffset + i);
+        return sum;
+    }
+
     static long toValueIndex(long[] indexes, DimensionSizes sizes) {
         if (indexes.length == 1) return indexes[0]; // for speed
         if (indexes.length == 0) return 0; // for speed
@@ -451,9 +467,18 @@ public abstract class IndexedTensor implements Tensor {
             DimensionSizes dimensionSizes = findDimensionSizes(firstDimension);
             double[] values = new double[(int)dimensionSizes.totalSize()];
             fillValues(0, 0, firstDimension, dimensionSizes, values);
+            if (type.valueType() == TensorType.Value.FLOAT)
+                return new IndexedFloatTensor(type, dimensionSizes, toFloats(values));
             return new IndexedDoubleTensor(type, dimensionSizes, values);
         }
 
+        private static float[] toFloats(double[] values) {
+            float[] floats = new float[values.length];
+            for (int i = 0; i < values.length; i++)
+                floats[i] = (float)values[i];
+            return floats;
+        }
+
         private DimensionSizes findDimensionSizes(List<Object> firstDimension) {
             List<Long> dimensionSizeList = new ArrayList<>(type.dimensions().size());
             findDimensionSizes(0, dimensionSizeList, firstDimension);
@@ -748,6 +773,12 @@ public abstract class IndexedTensor implements Tensor {
         @Override
         public Double getValue() { return value; }
 
+        @Override
+        public float getFloatValue() { return (float)value; }
+
+        @Override
+        public double getDoubleValue() { return value; }
+
         @Override
         public Cell detach() {
             return new Cell(getKey(), value);
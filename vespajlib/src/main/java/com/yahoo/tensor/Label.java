@@ -0,0 +1,90 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor;
+
+import com.google.common.collect.MapMaker;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A label of a tensor address which is assigned a long id, such that addresses can be compared and hashed
+ * by the ids of their labels. Labels which are non-negative integers on canonical form are their own id and
+ * have no Label instance, while other labels are interned as Label instances with a negative id.
+ *
+ * Labels are only referenced weakly from here, so this never holds more labels than those referenced from
+ * some tensor address: Addresses must keep a reference to the Label instances of the ids they contain.
+ * Ids are assigned from a long counter and never reused, so the ids of the labels referenced by addresses
+ * are unique.
+ *
+ * This class is multithread safe.
+ */
+final class Label {
+
+    /** The labels in use, which are removed when they are no longer referenced from any address */
+    private static final ConcurrentMap<String, Label> labels = new MapMaker().weakValues().makeMap();
+    private static final AtomicLong nextId = new AtomicLong(-1);
+
+    /** The strings of the smallest numbers, which are the most common labels of indexed dimensions */
+    private static final String[] smallNumbers = new String[1024];
+
+    static {
+        for (int i = 0; i < smallNumbers.length; i++)
+            smallNumbers[i] = String.valueOf(i);
+    }
+
+    private final String value;
+    private final long id;
+
+    private Label(String value, long id) {
+        this.value = value;
+        this.id = id;
+    }
+
+    /** Returns the id of this label, which is a negative number */
+    long id() { return id; }
+
+    /** Returns the string value of this label */
+    String value() { return value; }
+
+    @Override
+    public String toString() { return value; }
+
+    /**
+     * Returns the canonical label instance of the given string, which is assigned an id the first time it is seen
+     * after all earlier instances are garbage collected. The label must not be a number as returned by asNumber.
+     * This is a lookup in a concurrent map, which is paid when creating an address of non-numeric labels
+     * in return for hashing and comparing it by ids.
+     */
+    static Label of(String label) {
+        Label interned = labels.get(label);
+        if (interned != null) return interned;
+        return labels.computeIfAbsent(label, value -> new Label(value, nextId.getAndDecrement()));
+    }
+
+    /** Returns the given non-negative number as a label string */
+    static String toString(long number) {
+        if (number < smallNumbers.length) return smallNumbers[(int)number];
+        return String.valueOf(number);
+    }
+
+    /** Returns the hash code of the string of the given non-negative number, without creating it */
+    static int hashCodeOf(long number) {
+        if (number < smallNumbers.length) return smallNumbers[(int)number].hashCode();
+        return 31 * hashCodeOf(number / 10) + ('0' + (int)(number % 10));
+    }
+
+    /** Returns the given label as a number if it is a non-negative integer on canonical form, and -1 otherwise */
+    static long asNumber(String label) {
+        int length = label.length();
+        if (length == 0 || length > 18) return -1; // longer labels may overflow: intern them instead
+        if (length > 1 && label.charAt(0) == '0') return -1;
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = label.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+}
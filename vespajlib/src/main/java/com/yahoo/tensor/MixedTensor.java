@@ -2,16 +2,16 @@
 
 package com.yahoo.tensor;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.function.DoubleBinaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * A mixed tensor type. This is class is currently suitable for serialization
@@ -29,15 +29,15 @@ public class MixedTensor implements Tensor {
     /** The dimension specification for this tensor */
     private final TensorType type;
 
-    /** The list of cells in the tensor */
-    private final ImmutableList<Cell> cells;
+    /** The cell values of the tensor, stored as the value type of the tensor, in the order given by the index */
+    private final Values values;
 
-    /** An index structure over the cell list */
+    /** An index structure over the cell values */
     private final Index index;
 
-    private MixedTensor(TensorType type, ImmutableList<Cell> cells, Index index) {
+    private MixedTensor(TensorType type, Values values, Index index) {
         this.type = type;
-        this.cells = ImmutableList.copyOf(cells);
+        this.values = values;
         this.index = index;
     }
 
@@ -47,7 +47,7 @@ public class MixedTensor implements Tensor {
 
     /** Returns the size of the tensor measured in number of cells */
     @Override
-    public long size() { return cells.size(); }
+    public long size() { return values.size(); }
 
     /** Returns the value at the given address */
     @Override
@@ -55,10 +55,7 @@ public class MixedTensor implements Tensor {
         long cellIndex = index.indexOf(address);
         if (cellIndex < 0)
             return Double.NaN;
-        Cell cell = cells.get((int)cellIndex);
-        if ( ! address.equals(cell.getKey()))
-            return Double.NaN;
-        return cell.getValue();
+        return values.get((int)cellIndex);
     }
 
     /**
@@ -70,7 +67,7 @@ public class MixedTensor implements Tensor {
      */
     @Override
     public Iterator<Cell> cellIterator() {
-        return cells.iterator();
+        return new CellIterator();
     }
 
     /**
@@ -80,14 +77,15 @@ public class MixedTensor implements Tensor {
     @Override
     public Iterator<Double> valueIterator() {
         return new Iterator<>() {
-            Iterator<Cell> cellIterator = cellIterator();
+            int valueIndex = 0;
             @Override
             public boolean hasNext() {
-                return cellIterator.hasNext();
+                return valueIndex < values.size();
             }
             @Override
             public Double next() {
-                return cellIterator.next().getValue();
+                if ( ! hasNext()) throw new NoSuchElementException("No value at " + valueIndex);
+                return values.get(valueIndex++);
             }
         };
     }
@@ -95,7 +93,8 @@ public class MixedTensor implements Tensor {
     @Override
     public Map<TensorAddress, Double> cells() {
         ImmutableMap.Builder<TensorAddress, Double> builder = new ImmutableMap.Builder<>();
-        for (Cell cell : cells) {
+        for (Iterator<Cell> i = cellIterator(); i.hasNext(); ) {
+            Cell cell = i.next();
             builder.put(cell.getKey(), cell.getValue());
         }
         return builder.build();
@@ -107,7 +106,7 @@ public class MixedTensor implements Tensor {
             throw new IllegalArgumentException("MixedTensor.withType: types are not compatible. Current type: '" +
                     this.type.toString() + "', requested type: '" + type.toString() + "'");
         }
-        return new MixedTensor(other, cells, index);
+        return new MixedTensor(other, values, index);
     }
 
     @Override
@@ -120,8 +119,11 @@ public class MixedTensor implements Tensor {
             if ( ! addresses.contains(sparsePartialAddress)) {  // assumption: addresses only contain the sparse part
                 long offset = entry.getValue();
                 for (int i = 0; i < index.denseSubspaceSize; ++i) {
-                    Cell cell = cells.get((int)offset + i);
-                    builder.cell(cell.getKey(), cell.getValue());
+                    TensorAddress cellAddress = index.addressOf(sparsePartialAddress, i);
+                    if (type.valueType() == TensorType.Value.FLOAT)
+                        builder.cell(cellAddress, values.getFloat((int)offset + i));
+                    else
+                        builder.cell(cellAddress, values.get((int)offset + i));
                 }
             }
         }
@@ -129,7 +131,12 @@ public class MixedTensor implements Tensor {
     }
 
     @Override
-    public int hashCode() { return cells.hashCode(); }
+    public int hashCode() {
+        int hashCode = 1;
+        for (Iterator<Cell> i = cellIterator(); i.hasNext(); )
+            hashCode = 31 * hashCode + i.next().hashCode();
+        return hashCode;
+    }
 
     @Override
     public String toString() {
@@ -153,6 +160,85 @@ public class MixedTensor implements Tensor {
     }
 
 
+    /**
+     * Iterates over the cells of this in the order of the index. The label ids of the current cell are
+     * maintained incrementally: Indexed labels are numbers, which are their own label ids.
+     */
+    private final class CellIterator implements Iterator<Cell> {
+
+        private final Iterator<Map.Entry<TensorAddress, Long>> subspaces = index.sparseMap.entrySet().iterator();
+        private final long[] labelIds = new long[type.dimensions().size()];
+        /** The labels of the negative label ids of the current subspace, or null if none. Shared by its cells. */
+        private Label[] labels = null;
+        private long valueIndex = 0;
+        private long subspaceEnd = 0;
+
+        @Override
+        public boolean hasNext() {
+            return valueIndex < subspaceEnd || subspaces.hasNext();
+        }
+
+        @Override
+        public Cell next() {
+            if (valueIndex < subspaceEnd)
+                nextDenseLabels();
+            else if (subspaces.hasNext())
+                nextSubspace(subspaces.next());
+            else
+                throw new NoSuchElementException("No more cells in " + MixedTensor.this.type);
+            return new ValueCell(TensorAddress.ofIds(labelIds.clone(), labels), values.get((int)valueIndex++));
+        }
+
+        private void nextSubspace(Map.Entry<TensorAddress, Long> subspace) {
+            labels = null;
+            for (int i = 0; i < index.mappedIndexes.length; i++) {
+                int dimension = index.mappedIndexes[i];
+                labelIds[dimension] = subspace.getKey().labelId(i);
+                if (labelIds[dimension] >= 0) continue;
+                if (labels == null)
+                    labels = new Label[labelIds.length];
+                labels[dimension] = subspace.getKey().internedLabel(i);
+            }
+            for (int i : index.indexedIndexes)
+                labelIds[i] = 0;
+            valueIndex = subspace.getValue();
+            subspaceEnd = valueIndex + index.denseSubspaceSize();
+        }
+
+        private void nextDenseLabels() {
+            for (int i = index.indexedIndexes.length - 1; i >= 0; i--) {
+                int dimension = index.indexedIndexes[i];
+                if (++labelIds[dimension] < type.dimensions().get(dimension).size().get()) return;
+                labelIds[dimension] = 0;
+            }
+        }
+
+    }
+
+    /** A cell holding its value as a primitive, to avoid boxing values which are read as primitives */
+    private static final class ValueCell extends Cell {
+
+        private final double value;
+
+        ValueCell(TensorAddress address, double value) {
+            super(address, null);
+            this.value = value;
+        }
+
+        @Override
+        public Double getValue() { return value; }
+
+        @Override
+        public float getFloatValue() { return (float)value; }
+
+        @Override
+        public double getDoubleValue() { return value; }
+
+        @Override
+        public String toString(TensorType type) { return getKey().toString(type) + ":" + value; }
+
+    }
+
     /**
      * Base class for building mixed tensors.
      */
@@ -208,7 +294,7 @@ public class MixedTensor implements Tensor {
     public static class BoundBuilder extends Builder {
 
         /** For each sparse partial address, hold a dense subspace */
-        private final Map<TensorAddress, double[]> denseSubspaceMap = new HashMap<>();
+        private final Map<TensorAddress, Values> denseSubspaceMap = new HashMap<>();
         private final Index.Builder indexBuilder;
         private final Index index;
         private final TensorType denseSubtype;
@@ -225,30 +311,28 @@ public class MixedTensor implements Tensor {
             return index.denseSubspaceSize();
         }
 
-        private double[] denseSubspace(TensorAddress sparseAddress) {
-            if (!denseSubspaceMap.containsKey(sparseAddress)) {
-                denseSubspaceMap.put(sparseAddress, new double[(int)denseSubspaceSize()]);
-            }
-            return denseSubspaceMap.get(sparseAddress);
+        private Values denseSubspace(TensorAddress sparseAddress) {
+            return denseSubspaceMap.computeIfAbsent(sparseAddress,
+                                                    k -> Values.of(type.valueType(), (int)denseSubspaceSize()));
         }
 
         public IndexedTensor.DirectIndexBuilder denseSubspaceBuilder(TensorAddress sparseAddress) {
-            double[] values = new double[(int)denseSubspaceSize()];
+            Values values = Values.of(type.valueType(), (int)denseSubspaceSize());
             denseSubspaceMap.put(sparseAddress, values);
             return new DenseSubspaceBuilder(denseSubtype, values);
         }
 
         @Override
         public Tensor.Builder cell(TensorAddress address, float value) {
-            return cell(address, (double)value);
+            TensorAddress sparsePart = index.sparsePartialAddress(address);
+            denseSubspace(sparsePart).set((int)index.denseOffset(address), value);
+            return this;
         }
 
         @Override
         public Tensor.Builder cell(TensorAddress address, double value) {
             TensorAddress sparsePart = index.sparsePartialAddress(address);
-            long denseOffset = index.denseOffset(address);
-            double[] denseSubspace = denseSubspace(sparsePart);
-            denseSubspace[(int)denseOffset] = value;
+            denseSubspace(sparsePart).set((int)index.denseOffset(address), value);
             return this;
         }
 
@@ -257,29 +341,22 @@ public class MixedTensor implements Tensor {
             if (values.length < denseSubspaceSize)
                 throw new IllegalArgumentException("Block should have " + denseSubspaceSize +
                                                    " values, but has only " + values.length);
-            double[] denseSubspace = denseSubspace(sparsePart);
-            System.arraycopy(values, 0, denseSubspace, 0, denseSubspaceSize);
+            Values denseSubspace = denseSubspace(sparsePart);
+            for (int i = 0; i < denseSubspaceSize; i++)
+                denseSubspace.set(i, values[i]);
             return this;
         }
 
         @Override
         public MixedTensor build() {
-            long count = 0;
-            ImmutableList.Builder<Cell> builder = new ImmutableList.Builder<>();
-
-            for (Map.Entry<TensorAddress, double[]> entry : denseSubspaceMap.entrySet()) {
-                TensorAddress sparsePart = entry.getKey();
-                indexBuilder.put(sparsePart, count);
-
-                double[] denseSubspace = entry.getValue();
-                for (long offset = 0; offset < denseSubspace.length; ++offset) {
-                    TensorAddress cellAddress = index.addressOf(sparsePart, offset);
-                    double value = denseSubspace[(int)offset];
-                    builder.add(new Cell(cellAddress, value));
-                    count++;
-                }
+            int count = 0;
+            Values values = Values.of(type.valueType(), (int)(denseSubspaceMap.size() * denseSubspaceSize()));
+            for (Map.Entry<TensorAddress, Values> entry : denseSubspaceMap.entrySet()) {
+                indexBuilder.put(entry.getKey(), count);
+                entry.getValue().copyTo(values, count);
+                count += entry.getValue().size();
             }
-            return new MixedTensor(type, builder.build(), indexBuilder.build());
+            return new MixedTensor(type, values, indexBuilder.build());
         }
 
     }
@@ -359,11 +436,16 @@ public class MixedTensor implements Tensor {
     private static class Index {
 
         private final TensorType type;
-        private final TensorType sparseType;
         private final TensorType denseType;
         private final List<TensorType.Dimension> mappedDimensions;
         private final List<TensorType.Dimension> indexedDimensions;
 
+        /** The indexes of the mapped dimensions in the type */
+        private final int[] mappedIndexes;
+
+        /** The indexes of the indexed dimensions in the type */
+        private final int[] indexedIndexes;
+
         private ImmutableMap<TensorAddress, Long> sparseMap;
         private long denseSubspaceSize = -1;
 
@@ -371,18 +453,35 @@ public class MixedTensor implements Tensor {
             this.type = type;
             this.mappedDimensions = type.dimensions().stream().filter(d -> !d.isIndexed()).collect(Collectors.toList());
             this.indexedDimensions = type.dimensions().stream().filter(d -> d.isIndexed()).collect(Collectors.toList());
-            this.sparseType = createPartialType(type.valueType(), mappedDimensions);
             this.denseType = createPartialType(type.valueType(), indexedDimensions);
+            this.mappedIndexes = IntStream.range(0, type.dimensions().size())
+                                          .filter(i -> ! type.dimensions().get(i).isIndexed())
+                                          .toArray();
+            this.indexedIndexes = IntStream.range(0, type.dimensions().size())
+                                           .filter(i -> type.dimensions().get(i).isIndexed())
+                                           .toArray();
         }
 
         /** Returns the index of the given address, or -1 if it is not present */
         public long indexOf(TensorAddress address) {
             TensorAddress sparsePart = sparsePartialAddress(address);
-            if ( ! sparseMap.containsKey(sparsePart))
+            Long base = sparseMap.get(sparsePart);
+            if (base == null)
+                return -1;
+            if ( ! isInDenseSubspace(address))
                 return -1;
-            long base = sparseMap.get(sparsePart);
-            long offset = denseOffset(address);
-            return base + offset;
+            return base + denseOffset(address);
+        }
+
+        private boolean isInDenseSubspace(TensorAddress address) {
+            for (int i = 0; i < type.dimensions().size(); i++) {
+                TensorType.Dimension dimension = type.dimensions().get(i);
+                if ( ! dimension.isIndexed()) continue;
+                long label = address.numericLabel(i);
+                if (label < 0 || label >= dimension.size().get())
+                    return false;
+            }
+            return true;
         }
 
         public static class Builder {
@@ -426,13 +525,7 @@ public class MixedTensor implements Tensor {
         private TensorAddress sparsePartialAddress(TensorAddress address) {
             if (type.dimensions().size() != address.size())
                 throw new IllegalArgumentException("Tensor type of " + this + " is not the same size as " + address);
-            TensorAddress.Builder builder = new TensorAddress.Builder(sparseType);
-            for (int i = 0; i < type.dimensions().size(); ++i) {
-                TensorType.Dimension dimension = type.dimensions().get(i);
-                if ( ! dimension.isIndexed())
-                    builder.add(dimension.name(), address.label(i));
-            }
-            return builder.build();
+            return address.partialCopy(mappedIndexes);
         }
 
         private long denseOffset(TensorAddress address) {
@@ -473,19 +566,26 @@ public class MixedTensor implements Tensor {
 
         private TensorAddress addressOf(TensorAddress sparsePart, long denseOffset) {
             TensorAddress densePart = denseOffsetToAddress(denseOffset);
-            String[] labels = new String[type.dimensions().size()];
+            long[] labelIds = new long[type.dimensions().size()];
+            Label[] labels = null;
             int mappedIndex = 0;
             int indexedIndex = 0;
             for (TensorType.Dimension d : type.dimensions()) {
+                int i = mappedIndex + indexedIndex;
                 if (d.isIndexed()) {
-                    labels[mappedIndex + indexedIndex] = densePart.label(indexedIndex);
+                    labelIds[i] = densePart.labelId(indexedIndex);
                     indexedIndex++;
                 } else {
-                    labels[mappedIndex + indexedIndex] = sparsePart.label(mappedIndex);
+                    labelIds[i] = sparsePart.labelId(mappedIndex);
+                    if (labelIds[i] < 0) {
+                        if (labels == null)
+                            labels = new Label[labelIds.length];
+                        labels[i] = sparsePart.internedLabel(mappedIndex);
+                    }
                     mappedIndex++;
                 }
             }
-            return TensorAddress.of(labels);
+            return TensorAddress.ofIds(labelIds, labels);
         }
 
         @Override
@@ -517,7 +617,7 @@ public class MixedTensor implements Tensor {
 
         private void denseSubspaceToString(MixedTensor tensor, long subspaceIndex, StringBuilder b) {
             if (denseSubspaceSize == 1) {
-                b.append(getDouble(subspaceIndex, 0, tensor));
+                valueToString(subspaceIndex, 0, tensor, b);
                 return;
             }
 
@@ -530,12 +630,7 @@ public class MixedTensor implements Tensor {
                     b.append("[");
 
                 // value
-                if (type.valueType() == TensorType.Value.DOUBLE)
-                    b.append(getDouble(subspaceIndex, index, tensor));
-                else if (tensor.type().valueType() == TensorType.Value.FLOAT)
-                    b.append(getDouble(subspaceIndex, index, tensor)); // TODO: Really use floats
-                else
-                    throw new IllegalStateException("Unexpected value type " + type.valueType());
+                valueToString(subspaceIndex, index, tensor, b);
 
                 // end bracket and comma
                 for (int i = 0; i < indexes.nextDimensionsAtEnd(); i++)
@@ -545,8 +640,14 @@ public class MixedTensor implements Tensor {
             }
         }
 
-        private double getDouble(long indexedSubspaceIndex, long indexInIndexedSubspace, MixedTensor tensor) {
-            return tensor.cells.get((int)(indexedSubspaceIndex + indexInIndexedSubspace)).getDoubleValue();
+        private void valueToString(long indexedSubspaceIndex, long indexInIndexedSubspace, MixedTensor tensor, StringBuilder b) {
+            int valueIndex = (int)(indexedSubspaceIndex + indexInIndexedSubspace);
+            if (tensor.type().valueType() == TensorType.Value.DOUBLE)
+                b.append(tensor.values.get(valueIndex));
+            else if (tensor.type().valueType() == TensorType.Value.FLOAT)
+                b.append(tensor.values.getFloat(valueIndex));
+            else
+                throw new IllegalStateException("Unexpected value type " + tensor.type().valueType());
         }
 
     }
@@ -554,9 +655,9 @@ public class MixedTensor implements Tensor {
     private static class DenseSubspaceBuilder implements IndexedTensor.DirectIndexBuilder {
 
         private final TensorType type;
-        private final double[] values;
+        private final Values values;
 
-        public DenseSubspaceBuilder(TensorType type, double[] values) {
+        public DenseSubspaceBuilder(TensorType type, Values values) {
             this.type = type;
             this.values = values;
         }
@@ -566,12 +667,93 @@ public class MixedTensor implements Tensor {
 
         @Override
         public void cellByDirectIndex(long index, double value) {
-            values[(int)index] = value;
+            values.set((int)index, value);
         }
 
         @Override
         public void cellByDirectIndex(long index, float value) {
-            values[(int)index] = value;
+            values.set((int)index, value);
+        }
+
+    }
+
+    /** An array of cell values, holding the values as the value type of a tensor */
+    private static abstract class Values {
+
+        static Values of(TensorType.Value valueType, int size) {
+            if (valueType == TensorType.Value.FLOAT)
+                return new FloatValues(new float[size]);
+            else
+                return new DoubleValues(new double[size]);
+        }
+
+        abstract int size();
+
+        abstract double get(int index);
+
+        abstract float getFloat(int index);
+
+        abstract void set(int index, double value);
+
+        abstract void set(int index, float value);
+
+        /** Copies all the values of this into the given values, which must be of the same type, at the given offset */
+        abstract void copyTo(Values target, int offset);
+
+    }
+
+    private static final class DoubleValues extends Values {
+
+        private final double[] values;
+
+        DoubleValues(double[] values) { this.values = values; }
+
+        @Override
+        int size() { return values.length; }
+
+        @Override
+        double get(int index) { return values[index]; }
+
+        @Override
+        float getFloat(int index) { return (float)values[index]; }
+
+        @Override
+        void set(int index, double value) { values[index] = value; }
+
+        @Override
+        void set(int index, float value) { values[index] = value; }
+
+        @Override
+        void copyTo(Values target, int offset) {
+            System.arraycopy(values, 0, ((DoubleValues)target).values, offset, values.length);
+        }
+
+    }
+
+    private static final class FloatValues extends Values {
+
+        private final float[] values;
+
+        FloatValues(float[] values) { this.values = values; }
+
+        @Override
+        int size() { return values.length; }
+
+        @Override
+        double get(int index) { return values[index]; }
+
+        @Override
+        float getFloat(int index) { return values[index]; }
+
+        @Override
+        void set(int index, double value) { values[index] = (float)value; }
+
+        @Override
+        void set(int index, float value) { values[index] = value; }
+
+        @Override
+        void copyTo(Values target, int offset) {
+            System.arraycopy(values, 0, ((FloatValues)target).values, offset, values.length);
         }
 
     }
@@ -433,10 +433,10 @@ public interface Tensor {
         public Double getValue() { return value.doubleValue(); }
 
         /** Returns the value as a float */
-        public float getFloatValue() { return getValue().floatValue(); }
+        public float getFloatValue() { return value.floatValue(); }
 
         /** Returns the value as a double */
-        public double getDoubleValue() { return getValue(); }
+        public double getDoubleValue() { return value.doubleValue(); }
 
         @Override
         public Double setValue(Double value) {
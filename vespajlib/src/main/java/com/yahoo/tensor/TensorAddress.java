@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * An immutable address to a tensor cell. This simply supplies a value to each dimension
@@ -15,15 +16,46 @@ import java.util.stream.Collectors;
 public abstract class TensorAddress implements Comparable<TensorAddress> {
 
     public static TensorAddress of(String[] labels) {
-        return new StringTensorAddress(labels);
+        long[] ids = new long[labels.length];
+        Label[] interned = null;
+        for (int i = 0; i < labels.length; i++) {
+            ids[i] = Label.asNumber(Objects.requireNonNull(labels[i], "A label cannot be null"));
+            if (ids[i] >= 0) continue;
+            if (interned == null)
+                interned = new Label[labels.length];
+            interned[i] = Label.of(labels[i]);
+            ids[i] = interned[i].id();
+        }
+        return new LabelIdTensorAddress(ids, interned);
     }
 
     public static TensorAddress ofLabels(String ... labels) {
-        return new StringTensorAddress(labels);
+        return of(labels);
     }
 
     public static TensorAddress of(long ... labels) {
-        return new NumericTensorAddress(labels);
+        long[] ids = new long[labels.length];
+        Label[] interned = null;
+        for (int i = 0; i < labels.length; i++) {
+            ids[i] = labels[i];
+            if (labels[i] >= 0) continue;
+            if (interned == null)
+                interned = new Label[labels.length];
+            interned[i] = Label.of(String.valueOf(labels[i]));
+            ids[i] = interned[i].id();
+        }
+        return new LabelIdTensorAddress(ids, interned);
+    }
+
+    /**
+     * Returns an address of the given label ids, where neither array is copied
+     *
+     * @param ids the label ids, as assigned by {@link Label}
+     * @param labels the labels of the negative ids, and null at the indexes of non-negative ids,
+     *               or null if there are no negative ids
+     */
+    static TensorAddress ofIds(long[] ids, Label[] labels) {
+        return new LabelIdTensorAddress(ids, labels);
     }
 
     /** Returns the number of labels in this */
@@ -46,6 +78,49 @@ public abstract class TensorAddress implements Comparable<TensorAddress> {
 
     public abstract TensorAddress withLabel(int labelIndex, long label);
 
+    /**
+     * Returns the id of the i'th label in this, as assigned by {@link Label}.
+     * This is only called on addresses created by the factory methods of this, which keep their labels.
+     */
+    long labelId(int i) {
+        long id = Label.asNumber(label(i));
+        return id >= 0 ? id : Label.of(label(i)).id();
+    }
+
+    /** Returns the i'th label in this if its id is negative, and null otherwise */
+    Label internedLabel(int i) {
+        return Label.asNumber(label(i)) >= 0 ? null : Label.of(label(i));
+    }
+
+    /**
+     * Returns an address containing the labels of this at the given indexes, in the order given.
+     * This is cheaper than creating a new address from the labels of this.
+     */
+    public TensorAddress partialCopy(int[] labelIndexes) {
+        String[] labels = new String[labelIndexes.length];
+        for (int i = 0; i < labelIndexes.length; i++)
+            labels[i] = label(labelIndexes[i]);
+        return TensorAddress.of(labels);
+    }
+
+    /**
+     * Returns an address of the given size containing the labels of this and the given address,
+     * where label i of this is placed at index thisToIndexes[i], and label i of other at otherToIndexes[i].
+     *
+     * @return the combined address, or null if this and other have different labels at the same index
+     */
+    public TensorAddress combine(int[] thisToIndexes, TensorAddress other, int[] otherToIndexes, int size) {
+        String[] labels = new String[size];
+        for (int i = 0; i < size(); i++)
+            labels[thisToIndexes[i]] = label(i);
+        for (int i = 0; i < other.size(); i++) {
+            int toIndex = otherToIndexes[i];
+            if (labels[toIndex] != null && ! labels[toIndex].equals(other.label(i))) return null;
+            labels[toIndex] = other.label(i);
+        }
+        return TensorAddress.of(labels);
+    }
+
     public final boolean isEmpty() { return size() == 0; }
 
     @Override
@@ -98,72 +173,134 @@ public abstract class TensorAddress implements Comparable<TensorAddress> {
         return "'" + label + "'";
     }
 
-    private static final class StringTensorAddress extends TensorAddress {
+    /**
+     * An address which stores the ids of its labels, such that addresses can be hashed and compared
+     * without looking at the labels. The hash code is the one of {@link TensorAddress}, computed from the ids. The labels with negative ids are also kept, such that their ids stay
+     * assigned as long as this exists.
+     */
+    private static final class LabelIdTensorAddress extends TensorAddress {
 
-        private final String[] labels;
+        private final long[] ids;
 
-        private StringTensorAddress(String ... labels) {
-            this.labels = Arrays.copyOf(labels, labels.length);
+        /** The labels of the negative ids, or null if there are none */
+        private final Label[] labels;
+
+        private int hashCode = 0;
+
+        private LabelIdTensorAddress(long[] ids, Label[] labels) {
+            this.ids = ids;
+            this.labels = labels;
         }
 
         @Override
-        public int size() { return labels.length; }
+        public int size() { return ids.length; }
 
         @Override
-        public String label(int i) { return labels[i]; }
+        public String label(int i) {
+            if (ids[i] >= 0) return Label.toString(ids[i]);
+            return labels[i].value();
+        }
+
+        @Override
+        long labelId(int i) { return ids[i]; }
+
+        @Override
+        Label internedLabel(int i) { return labels == null ? null : labels[i]; }
 
         @Override
         public long numericLabel(int i) {
+            if (ids[i] >= 0) return ids[i];
             try {
-                return Long.parseLong(labels[i]);
+                return Long.parseLong(labels[i].value());
             }
             catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Expected an integer label in " + this + " at position " + i + " but got '" + labels[i] + "'");
+                throw new IllegalArgumentException("Expected an integer label in " + this + " at position " + i + " but got '" + label(i) + "'");
             }
         }
 
         @Override
         public TensorAddress withLabel(int index, long label) {
-            String[] labels = Arrays.copyOf(this.labels, this.labels.length);
-            labels[index] = String.valueOf(label);
-            return new StringTensorAddress(labels);
+            long[] ids = Arrays.copyOf(this.ids, this.ids.length);
+            Label[] labels = this.labels == null ? null : Arrays.copyOf(this.labels, this.labels.length);
+            ids[index] = label;
+            if (labels != null)
+                labels[index] = null;
+            if (label < 0) {
+                if (labels == null)
+                    labels = new Label[ids.length];
+                labels[index] = Label.of(String.valueOf(label));
+                ids[index] = labels[index].id();
+            }
+            return new LabelIdTensorAddress(ids, labels);
         }
 
-
         @Override
-        public String toString() {
-            return "cell address (" + String.join(",", labels) + ")";
-        }
-
-    }
-
-    private static final class NumericTensorAddress extends TensorAddress {
-
-        private final long[] labels;
-
-        private NumericTensorAddress(long[] labels) {
-            this.labels = Arrays.copyOf(labels, labels.length);
+        public TensorAddress partialCopy(int[] labelIndexes) {
+            long[] ids = new long[labelIndexes.length];
+            Label[] labels = this.labels == null ? null : new Label[labelIndexes.length];
+            for (int i = 0; i < labelIndexes.length; i++) {
+                ids[i] = this.ids[labelIndexes[i]];
+                if (labels != null)
+                    labels[i] = this.labels[labelIndexes[i]];
+            }
+            return new LabelIdTensorAddress(ids, labels);
         }
 
         @Override
-        public int size() { return labels.length; }
-
-        @Override
-        public String label(int i) { return String.valueOf(labels[i]); }
+        public TensorAddress combine(int[] thisToIndexes, TensorAddress other, int[] otherToIndexes, int size) {
+            if ( ! (other instanceof LabelIdTensorAddress))
+                return super.combine(thisToIndexes, other, otherToIndexes, size);
+            long[] ids = new long[size];
+            Label[] labels = null;
+            boolean[] assigned = new boolean[size];
+            for (int i = 0; i < this.ids.length; i++) {
+                int toIndex = thisToIndexes[i];
+                ids[toIndex] = this.ids[i];
+                if (this.ids[i] < 0) {
+                    if (labels == null)
+                        labels = new Label[size];
+                    labels[toIndex] = this.labels[i];
+                }
+                assigned[toIndex] = true;
+            }
+            for (int i = 0; i < other.size(); i++) {
+                int toIndex = otherToIndexes[i];
+                long id = other.labelId(i);
+                if (assigned[toIndex]) {
+                    if (ids[toIndex] != id) return null;
+                    continue;
+                }
+                ids[toIndex] = id;
+                if (id < 0) {
+                    if (labels == null)
+                        labels = new Label[size];
+                    labels[toIndex] = other.internedLabel(i);
+                }
+            }
+            return new LabelIdTensorAddress(ids, labels);
+        }
 
         @Override
-        public long numericLabel(int i) { return labels[i]; }
+        public int hashCode() {
+            if (hashCode == 0) {
+                int result = 1;
+                for (int i = 0; i < ids.length; i++)
+                    result = 31 * result + (ids[i] >= 0 ? Label.hashCodeOf(ids[i]) : labels[i].value().hashCode());
+                hashCode = result;
+            }
+            return hashCode;
+        }
 
         @Override
-        public TensorAddress withLabel(int index, long label) {
-            long[] labels = Arrays.copyOf(this.labels, this.labels.length);
-            labels[index] = label;
-            return new NumericTensorAddress(labels);
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (o instanceof LabelIdTensorAddress) return Arrays.equals(ids, ((LabelIdTensorAddress)o).ids);
+            return super.equals(o);
         }
 
         @Override
         public String toString() {
-            return "cell address (" + Arrays.stream(labels).mapToObj(String::valueOf).collect(Collectors.joining(",")) + ")";
+            return "cell address (" + IntStream.range(0, size()).mapToObj(this::label).collect(Collectors.joining(",")) + ")";
         }
 
     }
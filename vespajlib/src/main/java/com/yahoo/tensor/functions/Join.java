@@ -112,11 +112,10 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
 
     private static Tensor indexedVectorJoin(IndexedTensor a, IndexedTensor b, TensorType type, DoubleBinaryOperator combinator) {
         long joinedRank = Math.min(a.dimensionSizes().size(0), b.dimensionSizes().size(0));
-        Iterator<Double> aIterator = a.valueIterator();
-        Iterator<Double> bIterator = b.valueIterator();
-        IndexedTensor.Builder builder = IndexedTensor.Builder.of(type, new DimensionSizes.Builder(1).set(0, joinedRank).build());
+        IndexedTensor.BoundBuilder builder =
+                (IndexedTensor.BoundBuilder)IndexedTensor.Builder.of(type, new DimensionSizes.Builder(1).set(0, joinedRank).build());
         for (int i = 0; i < joinedRank; i++)
-            builder.cell(combinator.applyAsDouble(aIterator.next(), bIterator.next()), i);
+            builder.cellByDirectIndex(i, combinator.applyAsDouble(a.get(i), b.get(i)));
         return builder.build();
     }
 
@@ -124,10 +123,10 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
     private static Tensor singleSpaceJoin(Tensor a, Tensor b, TensorType joinedType, DoubleBinaryOperator combinator) {
         Tensor.Builder builder = Tensor.Builder.of(joinedType);
         for (Iterator<Tensor.Cell> i = a.cellIterator(); i.hasNext(); ) {
-            Map.Entry<TensorAddress, Double> aCell = i.next();
+            Tensor.Cell aCell = i.next();
             double bCellValue = b.get(aCell.getKey());
             if (Double.isNaN(bCellValue)) continue; // no match
-            builder.cell(aCell.getKey(), combinator.applyAsDouble(aCell.getValue(), bCellValue));
+            builder.cell(aCell.getKey(), combinator.applyAsDouble(aCell.getDoubleValue(), bCellValue));
         }
         return builder.build();
     }
@@ -154,7 +153,7 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
 
         for (Iterator<IndexedTensor.SubspaceIterator> i = superspace.subspaceIterator(superDimensionNames, joinedSizes); i.hasNext(); ) {
             IndexedTensor.SubspaceIterator subspaceInSuper = i.next();
-            joinSubspaces(subspace.valueIterator(), subspace.size(),
+            joinSubspaces(subspace, subspace.size(),
                     subspaceInSuper, subspaceInSuper.size(),
                     reversedArgumentOrder, builder, combinator);
         }
@@ -162,7 +161,7 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
         return builder.build();
     }
 
-    private static void joinSubspaces(Iterator<Double> subspace, long subspaceSize,
+    private static void joinSubspaces(IndexedTensor subspace, long subspaceSize,
                                       Iterator<Tensor.Cell> superspace, long superspaceSize,
                                       boolean reversedArgumentOrder, IndexedTensor.Builder builder,
                                       DoubleBinaryOperator combinator) {
@@ -170,12 +169,12 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
         if (reversedArgumentOrder) {
             for (int i = 0; i < joinedLength; i++) {
                 Tensor.Cell supercell = superspace.next();
-                builder.cell(supercell, combinator.applyAsDouble(supercell.getValue(), subspace.next()));
+                builder.cell(supercell, combinator.applyAsDouble(supercell.getDoubleValue(), subspace.get(i)));
             }
         } else {
             for (int i = 0; i < joinedLength; i++) {
                 Tensor.Cell supercell = superspace.next();
-                builder.cell(supercell, combinator.applyAsDouble(subspace.next(), supercell.getValue()));
+                builder.cell(supercell, combinator.applyAsDouble(subspace.get(i), supercell.getDoubleValue()));
             }
         }
     }
@@ -200,13 +199,13 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
         int[] subspaceIndexes = subspaceIndexes(superspace.type(), subspace.type());
         Tensor.Builder builder = Tensor.Builder.of(joinedType);
         for (Iterator<Tensor.Cell> i = superspace.cellIterator(); i.hasNext(); ) {
-            Map.Entry<TensorAddress, Double> supercell = i.next();
-            TensorAddress subaddress = mapAddressToSubspace(supercell.getKey(), subspaceIndexes);
+            Tensor.Cell supercell = i.next();
+            TensorAddress subaddress = supercell.getKey().partialCopy(subspaceIndexes);
             double subspaceValue = subspace.get(subaddress);
             if ( ! Double.isNaN(subspaceValue))
                 builder.cell(supercell.getKey(),
-                        reversedArgumentOrder ? combinator.applyAsDouble(supercell.getValue(), subspaceValue)
-                                : combinator.applyAsDouble(subspaceValue, supercell.getValue()));
+                        reversedArgumentOrder ? combinator.applyAsDouble(supercell.getDoubleValue(), subspaceValue)
+                                : combinator.applyAsDouble(subspaceValue, supercell.getDoubleValue()));
         }
         return builder.build();
     }
@@ -219,13 +218,6 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
         return subspaceIndexes;
     }
 
-    private static TensorAddress mapAddressToSubspace(TensorAddress superAddress, int[] subspaceIndexes) {
-        String[] subspaceLabels = new String[subspaceIndexes.length];
-        for (int i = 0; i < subspaceIndexes.length; i++)
-            subspaceLabels[i] = superAddress.label(subspaceIndexes[i]);
-        return TensorAddress.of(subspaceLabels);
-    }
-
     /** Slow join which works for any two tensors */
     private static Tensor generalJoin(Tensor a, Tensor b, TensorType joinedType, DoubleBinaryOperator combinator) {
         if (a instanceof IndexedTensor && b instanceof IndexedTensor)
@@ -263,7 +255,7 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
                 for (IndexedTensor.SubspaceIterator bSubspace = b.cellIterator(matchingBCells, bIterateSize); bSubspace.hasNext(); ) {
                     Tensor.Cell bCell = bSubspace.next();
                     TensorAddress joinedAddress = joinAddresses(aCell.getKey(), aToIndexes, bCell.getKey(), bToIndexes, joinedType);
-                    double joinedValue = combinator.applyAsDouble(aCell.getValue(), bCell.getValue());
+                    double joinedValue = combinator.applyAsDouble(aCell.getDoubleValue(), bCell.getDoubleValue());
                     builder.cell(joinedAddress, joinedValue);
                 }
             }
@@ -294,13 +286,13 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
         int[] bToIndexes = mapIndexes(b.type(), joinedType);
         Tensor.Builder builder = Tensor.Builder.of(joinedType);
         for (Iterator<Tensor.Cell> aIterator = a.cellIterator(); aIterator.hasNext(); ) {
-            Map.Entry<TensorAddress, Double> aCell = aIterator.next();
+            Tensor.Cell aCell = aIterator.next();
             for (Iterator<Tensor.Cell> bIterator = b.cellIterator(); bIterator.hasNext(); ) {
-                Map.Entry<TensorAddress, Double> bCell = bIterator.next();
+                Tensor.Cell bCell = bIterator.next();
                 TensorAddress combinedAddress = joinAddresses(aCell.getKey(), aToIndexes,
                         bCell.getKey(), bToIndexes, joinedType);
                 if (combinedAddress == null) continue; // not combinable
-                builder.cell(combinedAddress, combinator.applyAsDouble(aCell.getValue(), bCell.getValue()));
+                builder.cell(combinedAddress, combinator.applyAsDouble(aCell.getDoubleValue(), bCell.getDoubleValue()));
             }
         }
         return builder.build();
@@ -330,8 +322,7 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
         for (Iterator<Tensor.Cell> cellIterator = a.cellIterator(); cellIterator.hasNext(); ) {
             Tensor.Cell aCell = cellIterator.next();
             TensorAddress partialCommonAddress = partialCommonAddress(aCell, aIndexesInCommon);
-            aCellsByCommonAddress.putIfAbsent(partialCommonAddress, new ArrayList<>());
-            aCellsByCommonAddress.get(partialCommonAddress).add(aCell);
+            aCellsByCommonAddress.computeIfAbsent(partialCommonAddress, k -> new ArrayList<>()).add(aCell);
         }
 
         // Iterate once through the larger tensor and use the hash map to find joinable cells
@@ -344,8 +335,8 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
                         bCell.getKey(), bIndexesInJoined, joinedType);
                 if (combinedAddress == null) continue; // not combinable
                 double combinedValue = swapTensors ?
-                        combinator.applyAsDouble(bCell.getValue(), aCell.getValue()) :
-                        combinator.applyAsDouble(aCell.getValue(), bCell.getValue());
+                        combinator.applyAsDouble(bCell.getDoubleValue(), aCell.getDoubleValue()) :
+                        combinator.applyAsDouble(aCell.getDoubleValue(), bCell.getDoubleValue());
                 builder.cell(combinedAddress, combinedValue);
             }
         }
@@ -370,26 +361,7 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
 
     private static TensorAddress joinAddresses(TensorAddress a, int[] aToIndexes, TensorAddress b, int[] bToIndexes,
                                                TensorType joinedType) {
-        String[] joinedLabels = new String[joinedType.dimensions().size()];
-        mapContent(a, joinedLabels, aToIndexes);
-        boolean compatible = mapContent(b, joinedLabels, bToIndexes);
-        if ( ! compatible) return null;
-        return TensorAddress.of(joinedLabels);
-    }
-
-    /**
-     * Maps the content in the given list to the given array, using the given index map.
-     *
-     * @return true if the mapping was successful, false if one of the destination positions was
-     *         occupied by a different value
-     */
-    private static boolean mapContent(TensorAddress from, String[] to, int[] indexMap) {
-        for (int i = 0; i < from.size(); i++) {
-            int toIndex = indexMap[i];
-            if (to[toIndex] != null && ! to[toIndex].equals(from.label(i))) return false;
-            to[toIndex] = from.label(i);
-        }
-        return true;
+        return a.combine(aToIndexes, b, bToIndexes, joinedType.dimensions().size());
     }
 
     /** Returns common dimension of a and b as a new tensor type */
@@ -410,12 +382,7 @@ public class Join<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMETYP
     }
 
     private static TensorAddress partialCommonAddress(Tensor.Cell cell, int[] indexMap) {
-        TensorAddress address = cell.getKey();
-        String[] labels = new String[indexMap.length];
-        for (int i = 0; i < labels.length; ++i) {
-            labels[i] = address.label(indexMap[i]);
-        }
-        return TensorAddress.of(labels);
+        return cell.getKey().partialCopy(indexMap);
     }
 
 }
@@ -2,6 +2,7 @@
 package com.yahoo.tensor.functions;
 
 import com.google.common.collect.ImmutableList;
+import com.yahoo.tensor.DimensionSizes;
 import com.yahoo.tensor.IndexedTensor;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorAddress;
@@ -18,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
  * The <i>reduce</i> tensor operation returns a tensor produced from the argument tensor where some dimensions
@@ -138,12 +140,15 @@ public class Reduce<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMET
         TensorType reducedType = type(argument.type(), dimensions);
 
         // Reduce cells
+        int[] retainedIndexes = retainedIndexes(argument.type(), dimensions);
+        if (argument instanceof IndexedTensor && argument.size() > 0)
+            return reduceIndexed((IndexedTensor)argument, reducedType, retainedIndexes, aggregator);
+
         Map<TensorAddress, ValueAggregator> aggregatingCells = new HashMap<>();
         for (Iterator<Tensor.Cell> i = argument.cellIterator(); i.hasNext(); ) {
-            Map.Entry<TensorAddress, Double> cell = i.next();
-            TensorAddress reducedAddress = reduceDimensions(cell.getKey(), argument.type(), reducedType, dimensions);
-            aggregatingCells.putIfAbsent(reducedAddress, ValueAggregator.ofType(aggregator));
-            aggregatingCells.get(reducedAddress).aggregate(cell.getValue());
+            Tensor.Cell cell = i.next();
+            TensorAddress reducedAddress = cell.getKey().partialCopy(retainedIndexes);
+            aggregatingCells.computeIfAbsent(reducedAddress, k -> ValueAggregator.ofType(aggregator)).aggregate(cell.getDoubleValue());
         }
         Tensor.Builder reducedBuilder = Tensor.Builder.of(reducedType);
         for (Map.Entry<TensorAddress, ValueAggregator> aggregatingCell : aggregatingCells.entrySet())
@@ -153,17 +158,54 @@ public class Reduce<NAMETYPE extends Name> extends PrimitiveTensorFunction<NAMET
 
     }
 
-    private static TensorAddress reduceDimensions(TensorAddress address, TensorType argumentType, TensorType reducedType, List<String> dimensions) {
+    /**
+     * Reduces an indexed tensor by visiting its values in value order and aggregating each into the cell
+     * of the reduced tensor at the corresponding direct index. This creates no cell addresses, and the
+     * result is built directly by a builder of the value type of the reduced type.
+     */
+    private static Tensor reduceIndexed(IndexedTensor argument, TensorType reducedType, int[] retainedIndexes,
+                                        Aggregator aggregator) {
+        DimensionSizes sizes = argument.dimensionSizes();
+        DimensionSizes.Builder reducedSizes = new DimensionSizes.Builder(retainedIndexes.length);
+        long[] reducedStrides = new long[sizes.dimensions()]; // the stride in the reduced tensor of each argument dimension
+        long reducedSize = 1;
+        for (int i = retainedIndexes.length - 1; i >= 0; i--) {
+            reducedSizes.set(i, sizes.size(retainedIndexes[i]));
+            reducedStrides[retainedIndexes[i]] = reducedSize;
+            reducedSize *= sizes.size(retainedIndexes[i]);
+        }
+
+        ValueAggregator[] aggregators = new ValueAggregator[(int)reducedSize];
+        for (int i = 0; i < aggregators.length; i++)
+            aggregators[i] = ValueAggregator.ofType(aggregator);
+
+        long[] indexes = new long[sizes.dimensions()];
+        long reducedIndex = 0;
+        for (long valueIndex = 0; valueIndex < argument.size(); valueIndex++) {
+            aggregators[(int)reducedIndex].aggregate(argument.get(valueIndex));
+            for (int dimension = indexes.length - 1; dimension >= 0; dimension--) { // step to the next value index
+                indexes[dimension]++;
+                reducedIndex += reducedStrides[dimension];
+                if (indexes[dimension] < sizes.size(dimension)) break;
+                reducedIndex -= reducedStrides[dimension] * indexes[dimension];
+                indexes[dimension] = 0;
+            }
+        }
+
+        IndexedTensor.BoundBuilder builder =
+                (IndexedTensor.BoundBuilder)IndexedTensor.Builder.of(reducedType, reducedSizes.build());
+        for (int i = 0; i < aggregators.length; i++)
+            builder.cellByDirectIndex(i, aggregators[i].aggregatedValue());
+        return builder.build();
+    }
+
+    /** Returns the indexes of the dimensions of the argument type which are not reduced, in order */
+    private static int[] retainedIndexes(TensorType argumentType, List<String> dimensions) {
         Set<Integer> indexesToRemove = new HashSet<>();
         for (String dimensionToRemove : dimensions)
             indexesToRemove.add(argumentType.indexOfDimension(dimensionToRemove).get());
 
-        String[] reducedLabels = new String[reducedType.dimensions().size()];
-        int reducedLabelIndex = 0;
-        for (int i = 0; i < address.size(); i++)
-            if ( ! indexesToRemove.contains(i))
-                reducedLabels[reducedLabelIndex++] = address.label(i);
-        return TensorAddress.of(reducedLabels);
+        return IntStream.range(0, argumentType.dimensions().size()).filter(i -> ! indexesToRemove.contains(i)).toArray();
     }
 
     private static Tensor reduceAllGeneral(Tensor argument, Aggregator aggregator) {
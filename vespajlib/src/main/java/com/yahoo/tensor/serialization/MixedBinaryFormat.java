@@ -3,6 +3,7 @@
 package com.yahoo.tensor.serialization;
 
 import com.yahoo.io.GrowableByteBuffer;
+import com.yahoo.tensor.IndexedTensor;
 import com.yahoo.tensor.MixedTensor;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorAddress;
@@ -12,7 +13,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
-import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -62,12 +62,12 @@ class MixedBinaryFormat implements BinaryFormat {
 
     private void encodeCells(GrowableByteBuffer buffer, MixedTensor tensor) {
         switch (serializationValueType) {
-            case DOUBLE: encodeCells(buffer, tensor, buffer::putDouble); break;
-            case FLOAT: encodeCells(buffer, tensor, (val) -> buffer.putFloat(val.floatValue())); break;
+            case DOUBLE: encodeCells(buffer, tensor, (cell) -> buffer.putDouble(cell.getDoubleValue())); break;
+            case FLOAT: encodeCells(buffer, tensor, (cell) -> buffer.putFloat(cell.getFloatValue())); break;
         }
     }
 
-    private void encodeCells(GrowableByteBuffer buffer, MixedTensor tensor, Consumer<Double> consumer) {
+    private void encodeCells(GrowableByteBuffer buffer, MixedTensor tensor, Consumer<Tensor.Cell> consumer) {
         List<TensorType.Dimension> sparseDimensions = tensor.type().dimensions().stream().filter(d -> !d.isIndexed()).collect(Collectors.toList());
         long denseSubspaceSize = tensor.denseSubspaceSize();
         if (sparseDimensions.size() > 0) {
@@ -81,9 +81,9 @@ class MixedBinaryFormat implements BinaryFormat {
                     new IllegalStateException("Dimension not found in address."));
                 buffer.putUtf8String(cell.getKey().label(index));
             }
-            consumer.accept(cell.getValue());
+            consumer.accept(cell);
             for (int i = 1; i < denseSubspaceSize; ++i ) {
-                consumer.accept(cellIterator.next().getValue());
+                consumer.accept(cellIterator.next());
             }
         }
     }
@@ -124,13 +124,6 @@ class MixedBinaryFormat implements BinaryFormat {
     }
 
     private void decodeCells(GrowableByteBuffer buffer, MixedTensor.BoundBuilder builder, TensorType type) {
-        switch (serializationValueType) {
-            case DOUBLE: decodeCells(buffer, builder, type, buffer::getDouble); break;
-            case FLOAT: decodeCells(buffer, builder, type, () -> (double)buffer.getFloat()); break;
-        }
-    }
-
-    private void decodeCells(GrowableByteBuffer buffer, MixedTensor.BoundBuilder builder, TensorType type, Supplier<Double> supplier) {
         List<TensorType.Dimension> sparseDimensions = type.dimensions().stream().filter(d -> !d.isIndexed()).collect(Collectors.toList());
         TensorType sparseType = MixedTensor.createPartialType(type.valueType(), sparseDimensions);
         long denseSubspaceSize = builder.denseSubspaceSize();
@@ -140,17 +133,27 @@ class MixedBinaryFormat implements BinaryFormat {
             numBlocks = buffer.getInt1_4Bytes();
         }
 
-        double[] denseSubspace = new double[(int)denseSubspaceSize];
         for (int i = 0; i < numBlocks; ++i) {
             TensorAddress.Builder sparseAddress = new TensorAddress.Builder(sparseType);
             for (TensorType.Dimension sparseDimension : sparseDimensions) {
                 sparseAddress.add(sparseDimension.name(), buffer.getUtf8String());
             }
-            for (long denseOffset = 0; denseOffset < denseSubspaceSize; denseOffset++) {
-                denseSubspace[(int)denseOffset] = supplier.get();
+            IndexedTensor.DirectIndexBuilder denseSubspace = builder.denseSubspaceBuilder(sparseAddress.build());
+            switch (serializationValueType) {
+                case DOUBLE: decodeDoubleCells(denseSubspaceSize, denseSubspace, buffer); break;
+                case FLOAT: decodeFloatCells(denseSubspaceSize, denseSubspace, buffer); break;
             }
-            builder.block(sparseAddress.build(), denseSubspace);
         }
     }
 
+    private void decodeDoubleCells(long size, IndexedTensor.DirectIndexBuilder builder, GrowableByteBuffer buffer) {
+        for (long i = 0; i < size; i++)
+            builder.cellByDirectIndex(i, buffer.getDouble());
+    }
+
+    private void decodeFloatCells(long size, IndexedTensor.DirectIndexBuilder builder, GrowableByteBuffer buffer) {
+        for (long i = 0; i < size; i++)
+            builder.cellByDirectIndex(i, buffer.getFloat());
+    }
+
 }
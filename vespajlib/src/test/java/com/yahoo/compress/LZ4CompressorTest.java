@@ -22,4 +22,14 @@ public class LZ4CompressorTest {
         assertTrue(Arrays.equals(decompressed, Arrays.copyOf(toCompress, compressBytes)));
     }
 
+    @Test
+    public void can_decompress_into_larger_buffer() {
+        byte[] toCompress = "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaabbbbbbbbbbbbbbbbbbbbbbbbbbb".getBytes();
+        Compressor compressor = new Compressor();
+        Compressor.Compression compressed = compressor.compress(CompressionType.LZ4, toCompress);
+        byte[] target = new byte[1024];
+        compressor.decompress(compressed.type(), compressed.data(), compressed.uncompressedSize(), target);
+        assertTrue(Arrays.equals(toCompress, Arrays.copyOf(target, toCompress.length)));
+    }
+
 }
@@ -0,0 +1,110 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.slime;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryViewTest {
+
+    private static Slime createSlime() {
+        Slime slime = new Slime();
+        Cursor root = slime.setObject();
+        root.setNix("nix");
+        root.setBool("true", true);
+        root.setBool("false", false);
+        root.setLong("long", -1234567890123L);
+        root.setLong("zero", 0);
+        root.setDouble("double", 3.25);
+        root.setString("string", "blåbærsyltetøy");
+        root.setData("data", new byte[] { 1, 2, 3, (byte)0xff });
+        Cursor array = root.setArray("array");
+        for (int i = 0; i < 100; i++)
+            array.addLong(i * 1000);
+        Cursor objects = root.setArray("objects");
+        for (int i = 0; i < 10; i++) {
+            Cursor object = objects.addObject();
+            object.setString("name", "object " + i);
+            object.setArray("empty");
+            object.setObject("nested").setLong("long", i);
+        }
+        return slime;
+    }
+
+    @Test
+    public void testViewEqualsDecodedSlime() {
+        Slime slime = createSlime();
+        byte[] data = BinaryFormat.encode(slime);
+        Inspector view = BinaryView.inspect(data);
+        assertTrue(view instanceof BinaryView);
+        assertTrue(view.equalTo(slime.get()));
+        assertTrue(slime.get().equalTo(view));
+        assertTrue(view.equalTo(BinaryFormat.decode(data).get()));
+        assertEquals(slime.get().toString(), view.toString());
+    }
+
+    @Test
+    public void testValueAccess() {
+        Inspector view = BinaryView.inspect(BinaryFormat.encode(createSlime()));
+        assertEquals(Type.OBJECT, view.type());
+        assertEquals(10, view.fields());
+        assertEquals(Type.NIX, view.field("nix").type());
+        assertTrue(view.field("nix").valid());
+        assertTrue(view.field("true").asBool());
+        assertFalse(view.field("false").asBool());
+        assertEquals(-1234567890123L, view.field("long").asLong());
+        assertEquals(-1234567890123.0, view.field("long").asDouble(), 0);
+        assertEquals(0, view.field("zero").asLong());
+        assertEquals(3.25, view.field("double").asDouble(), 0);
+        assertEquals(3, view.field("double").asLong());
+        assertEquals("blåbærsyltetøy", view.field("string").asString());
+        assertEquals("blåbærsyltetøy", Utf8Codec.decode(view.field("string").asUtf8(), 0, view.field("string").asUtf8().length));
+        assertArrayEquals(new byte[] { 1, 2, 3, (byte)0xff }, view.field("data").asData());
+        assertEquals(100, view.field("array").entries());
+        assertEquals(99000, view.field("array").entry(99).asLong());
+        assertEquals("object 7", view.field("objects").entry(7).field("name").asString());
+        assertEquals(7, view.field("objects").entry(7).field("nested").field("long").asLong());
+        assertEquals(0, view.field("objects").entry(7).field("empty").entries());
+    }
+
+    @Test
+    public void testMissingValuesAreInvalid() {
+        Inspector view = BinaryView.inspect(BinaryFormat.encode(createSlime()));
+        assertFalse(view.field("nonexisting").valid());
+        assertFalse(view.field("string").field("name").valid());
+        assertFalse(view.field("array").entry(100).valid());
+        assertFalse(view.field("array").entry(-1).valid());
+        assertFalse(view.entry(0).valid());
+        assertEquals("", view.field("long").asString());
+        assertEquals(0, view.field("string").asLong());
+    }
+
+    @Test
+    public void testTraversal() {
+        Inspector view = BinaryView.inspect(BinaryFormat.encode(createSlime()));
+        List<String> names = new ArrayList<>();
+        view.traverse((ObjectTraverser) (name, value) -> names.add(name));
+        assertEquals(Arrays.asList("nix", "true", "false", "long", "zero", "double", "string", "data", "array", "objects"), names);
+        long[] sum = new long[1];
+        view.field("array").traverse((ArrayTraverser) (index, value) -> sum[0] += value.asLong());
+        assertEquals(4950000, sum[0]);
+    }
+
+    @Test
+    public void testCorruptInputIsDecodedAsPartialResult() {
+        byte[] data = BinaryFormat.encode(createSlime());
+        byte[] truncated = Arrays.copyOf(data, data.length / 2);
+        Inspector view = BinaryView.inspect(truncated);
+        assertFalse(view instanceof BinaryView);
+        assertTrue(view.field("partial_result").valid());
+        assertTrue(view.field("error_message").valid());
+    }
+
+}
@@ -0,0 +1,60 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor;
+
+import com.yahoo.tensor.evaluation.MapEvaluationContext;
+import com.yahoo.tensor.evaluation.Name;
+import com.yahoo.tensor.evaluation.VariableTensor;
+import com.yahoo.tensor.functions.Reduce;
+import com.yahoo.tensor.functions.ReduceJoin;
+import com.yahoo.tensor.functions.ScalarFunctions;
+import com.yahoo.tensor.functions.TensorFunction;
+
+import java.util.List;
+
+/**
+ * Microbenchmark of dot products, matrix-vector and matrix-matrix products of dense float and double tensors
+ * of typical embedding sizes.
+ * Run with main.
+ */
+public class DenseDotProductBenchmark {
+
+    public void run() {
+        for (String valueType : new String[] { "double", "float" }) {
+            for (int size : new int[] { 128, 256, 512, 1024 }) {
+                Tensor vector = Tensor.random(TensorType.fromSpec("tensor<" + valueType + ">(x[" + size + "])"));
+                Tensor other = Tensor.random(TensorType.fromSpec("tensor<" + valueType + ">(x[" + size + "])"));
+                Tensor matrix = Tensor.random(TensorType.fromSpec("tensor<" + valueType + ">(i[100],x[" + size + "])"));
+                Tensor otherMatrix = Tensor.random(TensorType.fromSpec("tensor<" + valueType + ">(j[10],x[" + size + "])"));
+                int iterations = 100_000_000 / size / 100;
+
+                String name = valueType + " " + size;
+                time(name + " dot product", iterations * 100, vector, other);
+                time(name + " matrix-vector", iterations, vector, matrix);
+                time(name + " matrix-matrix", iterations / 10, otherMatrix, matrix);
+            }
+        }
+    }
+
+    private void time(String name, int iterations, Tensor a, Tensor b) {
+        TensorFunction<Name> product = new ReduceJoin<>(new VariableTensor<>("a"), new VariableTensor<>("b"),
+                                                        ScalarFunctions.multiply(), Reduce.Aggregator.sum, List.of("x"));
+        MapEvaluationContext<Name> context = new MapEvaluationContext<>();
+        context.put("a", a);
+        context.put("b", b);
+
+        double checksum = 0;
+        for (int i = 0; i < Math.max(1, iterations / 10); i++) // warmup
+            checksum += product.evaluate(context).sum().asDouble();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            checksum += product.evaluate(context).sum().asDouble();
+        long totalTime = System.nanoTime() - startTime;
+        System.out.println(String.format("%-36s %10.3f us (checksum %.3f)", name + ":",
+                                         totalTime / 1_000.0 / iterations, checksum));
+    }
+
+    public static void main(String[] args) {
+        new DenseDotProductBenchmark().run();
+    }
+
+}
@@ -152,4 +152,39 @@ public class MixedTensorTestCase {
                 tensor.toString());
     }
 
+    @Test
+    public void testFloatCells() {
+        TensorType type = TensorType.fromSpec("tensor<float>(x{},y[2])");
+        Tensor tensor = MixedTensor.Builder.of(type).
+                cell().label("x", "a").label("y", 0).value(0.1f).
+                cell().label("x", "a").label("y", 1).value(0.2f).
+                build();
+        assertEquals("tensor<float>(x{},y[2]):{a:[0.1, 0.2]}", tensor.toString());
+        assertEquals(0.1f, tensor.cellIterator().next().getFloatValue(), 0);
+        assertEquals(0.2f, (float)tensor.get(TensorAddress.ofLabels("a", "1")), 0);
+        assertTrue(Double.isNaN(tensor.get(TensorAddress.ofLabels("a", "2"))));
+        assertTrue(Double.isNaN(tensor.get(TensorAddress.ofLabels("b", "0"))));
+        assertEquals(tensor, Tensor.from(tensor.toString()));
+    }
+
+    @Test
+    public void testFloatCellsAreRoundedToFloatPrecision() {
+        Tensor floats = MixedTensor.Builder.of(TensorType.fromSpec("tensor<float>(x{},y[1])")).
+                cell().label("x", "a").label("y", 0).value(0.1).
+                build();
+        TensorAddress address = TensorAddress.ofLabels("a", "0");
+        assertEquals((double)0.1f, floats.get(address), 0);
+        assertEquals((double)0.1f, floats.cellIterator().next().getValue(), 0);
+        assertEquals((double)0.1f, floats.valueIterator().next(), 0);
+
+        // as with indexed tensors of floats
+        Tensor indexedFloats = Tensor.Builder.of(TensorType.fromSpec("tensor<float>(y[1])")).cell(0.1, 0).build();
+        assertEquals((double)0.1f, indexedFloats.get(TensorAddress.of(0)), 0);
+
+        Tensor doubles = MixedTensor.Builder.of(TensorType.fromSpec("tensor(x{},y[1])")).
+                cell().label("x", "a").label("y", 0).value(0.1).
+                build();
+        assertEquals(0.1, doubles.get(address), 0);
+    }
+
 }
@@ -0,0 +1,83 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor;
+
+import com.yahoo.tensor.functions.Reduce;
+
+import java.util.Random;
+
+/**
+ * Microbenchmark of join and reduce of sparse and mixed tensors with string labels.
+ * Run with main.
+ */
+public class SparseTensorBenchmark {
+
+    private final Random random = new Random(1);
+
+    public void run() {
+        for (int cells : new int[] { 10_000, 100_000, 1_000_000 }) {
+            Tensor matrix = sparseMatrix(cells / 100, 100);
+            Tensor vector = sparseVector(100);
+            Tensor mixed = mixedMatrix(cells / 100, 100);
+            Tensor mixedVector = indexedVector(100);
+            int iterations = Math.max(5, 10_000_000 / cells);
+
+            time("sparse join of " + cells + " cells", iterations, () -> matrix.multiply(vector).size());
+            time("sparse reduce of " + cells + " cells", iterations, () -> matrix.reduce(Reduce.Aggregator.sum, "y").size());
+            time("mixed join of " + cells + " cells", iterations, () -> mixed.multiply(mixedVector).size());
+            time("mixed reduce of " + cells + " cells", iterations, () -> mixed.reduce(Reduce.Aggregator.sum, "y").size());
+        }
+    }
+
+    private void time(String name, int iterations, Operation operation) {
+        long checksum = 0;
+        for (int i = 0; i < Math.max(1, iterations / 10); i++) // warmup
+            checksum += operation.run();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            checksum += operation.run();
+        long totalTime = System.nanoTime() - startTime;
+        System.out.println(String.format("%-36s %10.3f ms (checksum %d)", name + ":",
+                                         totalTime / 1_000_000.0 / iterations, checksum));
+    }
+
+    private Tensor sparseMatrix(int xSize, int ySize) {
+        Tensor.Builder builder = Tensor.Builder.of(TensorType.fromSpec("tensor(x{},y{})"));
+        for (int x = 0; x < xSize; x++)
+            for (int y = 0; y < ySize; y++)
+                builder.cell().label("x", "x" + x).label("y", "y" + y).value(random.nextDouble());
+        return builder.build();
+    }
+
+    private Tensor sparseVector(int ySize) {
+        Tensor.Builder builder = Tensor.Builder.of(TensorType.fromSpec("tensor(y{})"));
+        for (int y = 0; y < ySize; y++)
+            builder.cell().label("y", "y" + y).value(random.nextDouble());
+        return builder.build();
+    }
+
+    private Tensor mixedMatrix(int xSize, int ySize) {
+        Tensor.Builder builder = Tensor.Builder.of(TensorType.fromSpec("tensor(x{},y[" + ySize + "])"));
+        for (int x = 0; x < xSize; x++)
+            for (int y = 0; y < ySize; y++)
+                builder.cell().label("x", "x" + x).label("y", y).value(random.nextDouble());
+        return builder.build();
+    }
+
+    private Tensor indexedVector(int ySize) {
+        Tensor.Builder builder = Tensor.Builder.of(TensorType.fromSpec("tensor(y[" + ySize + "])"));
+        for (int y = 0; y < ySize; y++)
+            builder.cell().label("y", y).value(random.nextDouble());
+        return builder.build();
+    }
+
+    private interface Operation {
+
+        long run();
+
+    }
+
+    public static void main(String[] args) {
+        new SparseTensorBenchmark().run();
+    }
+
+}
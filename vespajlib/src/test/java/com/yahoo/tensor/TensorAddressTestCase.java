@@ -0,0 +1,138 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class TensorAddressTestCase {
+
+    @Test
+    public void testStringAndNumericLabelsAreEqual() {
+        assertEquals(TensorAddress.ofLabels("1", "2"), TensorAddress.of(1, 2));
+        assertEquals(TensorAddress.ofLabels("1", "2").hashCode(), TensorAddress.of(1, 2).hashCode());
+        assertEquals(TensorAddress.ofLabels("-3"), TensorAddress.of(-3));
+        assertEquals(TensorAddress.ofLabels("a", "b"), TensorAddress.ofLabels("a", "b"));
+        assertNotEquals(TensorAddress.ofLabels("a", "b"), TensorAddress.ofLabels("b", "a"));
+        assertNotEquals(TensorAddress.ofLabels("01"), TensorAddress.of(1));
+        assertNotEquals(TensorAddress.ofLabels("1"), TensorAddress.of(1, 1));
+    }
+
+    @Test
+    public void testLabelsArePreserved() {
+        String[] labels = { "a", "0", "01", "-1", "", "123456789012345678901234567890", "9223372036854775807", "æøå" };
+        TensorAddress address = TensorAddress.of(labels);
+        assertEquals(labels.length, address.size());
+        for (int i = 0; i < labels.length; i++)
+            assertEquals(labels[i], address.label(i));
+        assertEquals(0, address.numericLabel(1));
+        assertEquals(1, address.numericLabel(2));
+        assertEquals(-1, address.numericLabel(3));
+        assertEquals(Long.MAX_VALUE, address.numericLabel(6));
+        assertEquals("-5", TensorAddress.of(-5, 5).label(0));
+        assertEquals(-5, TensorAddress.of(-5, 5).numericLabel(0));
+    }
+
+    @Test
+    public void testNonNumericLabelIsRejectedAsNumber() {
+        try {
+            TensorAddress.ofLabels("a").numericLabel(0);
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Expected an integer label in cell address (a) at position 0 but got 'a'", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testWithLabel() {
+        assertEquals(TensorAddress.ofLabels("a", "7"), TensorAddress.ofLabels("a", "b").withLabel(1, 7));
+        assertEquals(TensorAddress.ofLabels("-7", "b"), TensorAddress.ofLabels("a", "b").withLabel(0, -7));
+    }
+
+    @Test
+    public void testPartialCopy() {
+        TensorAddress address = TensorAddress.ofLabels("a", "b", "c");
+        assertEquals(TensorAddress.ofLabels("c", "a"), address.partialCopy(new int[] { 2, 0 }));
+        assertEquals(TensorAddress.of(), address.partialCopy(new int[0]));
+    }
+
+    @Test
+    public void testCombine() {
+        TensorAddress a = TensorAddress.ofLabels("x1", "y1");
+        assertEquals(TensorAddress.ofLabels("x1", "y1", "z1"),
+                     a.combine(new int[] { 0, 1 }, TensorAddress.ofLabels("z1", "y1"), new int[] { 2, 1 }, 3));
+        assertEquals(TensorAddress.ofLabels("z1", "x1", "y1"),
+                     a.combine(new int[] { 1, 2 }, TensorAddress.ofLabels("z1"), new int[] { 0 }, 3));
+        assertNull(a.combine(new int[] { 0, 1 }, TensorAddress.ofLabels("y2"), new int[] { 1 }, 2));
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("cell address (a,1,-1)", TensorAddress.of(new String[] { "a", "1", "-1" }).toString());
+        assertEquals("{x:a,y:1}", TensorAddress.ofLabels("a", "1").toString(TensorType.fromSpec("tensor(x{},y{})")));
+    }
+
+    @Test
+    public void testAddressesCreatedInDifferentWaysAreEqual() {
+        TensorAddress address = TensorAddress.ofLabels("7", "b", "-3");
+        TensorAddress[] others = {
+                TensorAddress.of(7, -3).combine(new int[] { 0, 2 }, TensorAddress.ofLabels("b"), new int[] { 1 }, 3),
+                TensorAddress.ofLabels("1", "b", "0").withLabel(0, 7).withLabel(2, -3),
+                TensorAddress.ofLabels("-3", "x", "7", "b").partialCopy(new int[] { 2, 3, 0 }) };
+        for (TensorAddress other : others) {
+            assertEquals(address, other);
+            assertEquals(address.hashCode(), other.hashCode());
+            assertEquals("cell address (7,b,-3)", other.toString());
+        }
+    }
+
+    @Test
+    public void testOtherAddressImplementations() {
+        TensorAddress address = TensorAddress.ofLabels("a", "1234567", "b");
+        TensorAddress other = new LabelArrayAddress("a", "1234567", "b");
+        assertEquals(address, other);
+        assertEquals(other, address);
+        assertEquals(other.hashCode(), address.hashCode());
+        assertNotEquals(TensorAddress.ofLabels("a", "1234567", "c"), other);
+
+        assertEquals(TensorAddress.ofLabels("b", "a"), other.partialCopy(new int[] { 2, 0 }));
+        assertEquals(TensorAddress.ofLabels("a", "1234567", "b", "c"),
+                     address.combine(new int[] { 0, 1, 2 }, new LabelArrayAddress("c", "b"), new int[] { 3, 2 }, 4));
+        assertEquals(TensorAddress.ofLabels("c", "a", "1234567", "b"),
+                     other.combine(new int[] { 1, 2, 3 }, TensorAddress.ofLabels("c"), new int[] { 0 }, 4));
+        assertNull(other.combine(new int[] { 0, 1, 2 }, TensorAddress.ofLabels("c"), new int[] { 2 }, 3));
+    }
+
+    @Test
+    public void testSmallNumericLabelsAreNotCreatedPerAccess() {
+        TensorAddress address = TensorAddress.of(3, 5);
+        assertSame(address.label(0), TensorAddress.of(3).label(0));
+        assertSame(address.label(1), address.label(1));
+    }
+
+    private static class LabelArrayAddress extends TensorAddress {
+
+        private final String[] labels;
+
+        LabelArrayAddress(String ... labels) { this.labels = labels; }
+
+        @Override
+        public int size() { return labels.length; }
+
+        @Override
+        public String label(int i) { return labels[i]; }
+
+        @Override
+        public long numericLabel(int i) { return Long.parseLong(labels[i]); }
+
+        @Override
+        public TensorAddress withLabel(int labelIndex, long label) { throw new UnsupportedOperationException(); }
+
+    }
+
+}
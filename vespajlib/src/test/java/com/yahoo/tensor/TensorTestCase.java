@@ -13,6 +13,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.function.DoubleBinaryOperator;
@@ -124,6 +125,47 @@ public class TensorTestCase {
         assertEquals(Tensor.from("{ {x:1}:0, {x:3}:1, {x:9}:0 }"), Tensor.from("{ {x:1}:1, {x:3}:5, {x:9}:3 }").argmax("x"));
     }
 
+    @Test
+    public void testFloatComputation() {
+        Tensor vector = Tensor.from("tensor<float>(x[3]):[1,2,3]");
+        Tensor matrix = Tensor.from("tensor<float>(x[3],y[2]):[[1,2],[3,4],[5,6]]");
+        Tensor unbound = Tensor.Builder.of(TensorType.fromSpec("tensor<float>(x[])")).cell(1.5f, 0).cell(2.5f, 1).build();
+
+        assertFloat(Tensor.from("tensor<float>(x[3]):[1,4,9]"), vector.multiply(vector));
+        assertFloat(Tensor.from("tensor<float>(x[3],y[2]):[[1,2],[6,8],[15,18]]"), matrix.multiply(vector));
+        assertFloat(Tensor.from("tensor<float>(y[2]):[9,12]"), matrix.reduce(Reduce.Aggregator.sum, "x"));
+        assertFloat(Tensor.from("tensor<float>(x[3]):[2,4,6]"), matrix.reduce(Reduce.Aggregator.max, "y"));
+        assertFloat(Tensor.from("tensor<float>(y[2]):[22,28]"), vector.matmul(matrix, "x"));
+        assertFloat(Tensor.from("tensor<float>(x[]):{{x:0}:2.25,{x:1}:6.25}"), unbound.multiply(unbound));
+        assertTrue(unbound instanceof IndexedFloatTensor);
+    }
+
+    @Test
+    public void testIndexedReduce() {
+        Tensor indexed = Tensor.generate(TensorType.fromSpec("tensor(x[2],y[3],z[4])"),
+                                         (List<Long> indexes) -> (double)(indexes.get(0) * 12 + indexes.get(1) * 4 + indexes.get(2)));
+        Tensor.Builder mappedBuilder = Tensor.Builder.of(TensorType.fromSpec("tensor(x{},y{},z{})"));
+        for (Iterator<Tensor.Cell> i = indexed.cellIterator(); i.hasNext(); ) {
+            Tensor.Cell cell = i.next();
+            mappedBuilder.cell(cell.getKey(), cell.getValue());
+        }
+        Tensor mapped = mappedBuilder.build();
+        for (List<String> dimensions : List.of(List.of("x"), List.of("y"), List.of("z"), List.of("x", "z"), List.of("y", "z"))) {
+            for (Reduce.Aggregator aggregator : Reduce.Aggregator.values()) {
+                Tensor expected = mapped.reduce(aggregator, dimensions);
+                Tensor reduced = indexed.reduce(aggregator, dimensions);
+                assertTrue(reduced instanceof IndexedTensor);
+                assertEquals(expected.cells(), reduced.cells());
+            }
+        }
+    }
+
+    private void assertFloat(Tensor expected, Tensor result) {
+        assertEquals(expected, result);
+        assertEquals(TensorType.Value.FLOAT, result.type().valueType());
+        assertTrue(result + " is float backed", result instanceof IndexedFloatTensor);
+    }
+
     /** Test the same computation made in various ways which are implemented with special-case optimizations */
     @Test
     public void testOptimizedComputation() {
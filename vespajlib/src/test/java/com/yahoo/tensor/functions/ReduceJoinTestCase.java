@@ -0,0 +1,69 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.tensor.functions;
+
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import com.yahoo.tensor.evaluation.MapEvaluationContext;
+import com.yahoo.tensor.evaluation.Name;
+import com.yahoo.tensor.evaluation.VariableTensor;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReduceJoinTestCase {
+
+    @Test
+    public void testDotProducts() {
+        for (String valueType : new String[] { "double", "float" }) {
+            for (int size : new int[] { 1, 3, 4, 7, 128, 131 }) {
+                assertDotProduct("tensor<" + valueType + ">(x[" + size + "])",
+                                 "tensor<" + valueType + ">(x[" + size + "])", "x");
+                assertDotProduct("tensor<" + valueType + ">(x[" + size + "])",
+                                 "tensor<" + valueType + ">(i[5],x[" + size + "])", "x");
+                assertDotProduct("tensor<" + valueType + ">(i[5],x[" + size + "])",
+                                 "tensor<" + valueType + ">(x[" + size + "])", "x");
+                assertDotProduct("tensor<" + valueType + ">(i[5],x[" + size + "])",
+                                 "tensor<" + valueType + ">(j[3],x[" + size + "])", "x");
+                assertDotProduct("tensor<" + valueType + ">(j[3],x[" + size + "])",
+                                 "tensor<" + valueType + ">(i[5],x[" + size + "])", "x");
+            }
+        }
+        assertDotProduct("tensor<float>(i[5],x[9])", "tensor(j[3],x[9])", "x");
+        assertDotProduct("tensor(x[9],y[5])", "tensor(x[9],z[3])", "x"); // not innermost
+    }
+
+    @Test
+    public void testDotProductOfFloatsIsFloat() {
+        Tensor a = Tensor.from("tensor<float>(x[3]):[1.5, 2.0, 3.0]");
+        Tensor b = Tensor.from("tensor<float>(i[2],x[3]):[[1.0, 1.0, 1.0], [2.0, 0.0, 0.5]]");
+        Tensor result = evaluate(a, b, ScalarFunctions.multiply(), "x");
+        assertEquals(TensorType.Value.FLOAT, result.type().valueType());
+        assertEquals(Tensor.from("tensor<float>(i[2]):[6.5, 4.5]"), result);
+    }
+
+    @Test
+    public void testMatmul() {
+        Tensor a = Tensor.random(TensorType.fromSpec("tensor<float>(i[4],j[9])"));
+        Tensor b = Tensor.random(TensorType.fromSpec("tensor<float>(j[9],k[6])"));
+        assertEquals(a.multiply(b).sum("j"), a.matmul(b, "j"));
+    }
+
+    private void assertDotProduct(String aType, String bType, String dimension) {
+        Tensor a = Tensor.random(TensorType.fromSpec(aType));
+        Tensor b = Tensor.random(TensorType.fromSpec(bType));
+        Tensor expected = evaluate(a, b, (x, y) -> x * y, dimension); // not recognized as a multiplication
+        assertEquals(expected, evaluate(a, b, ScalarFunctions.multiply(), dimension));
+    }
+
+    private Tensor evaluate(Tensor a, Tensor b, DoubleBinaryOperator combinator, String dimension) {
+        MapEvaluationContext<Name> context = new MapEvaluationContext<>();
+        context.put("a", a);
+        context.put("b", b);
+        return new ReduceJoin<>(new VariableTensor<>("a"), new VariableTensor<>("b"),
+                                combinator, Reduce.Aggregator.sum, List.of(dimension)).evaluate(context);
+    }
+
+}